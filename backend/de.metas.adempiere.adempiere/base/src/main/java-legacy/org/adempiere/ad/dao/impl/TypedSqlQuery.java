@@ -22,6 +22,7 @@
 package org.adempiere.ad.dao.impl;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -31,7 +32,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nullable;
 
@@ -46,6 +52,7 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.exceptions.DBMoreThanOneRecordsFoundException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.ImmutablePair;
 import org.adempiere.util.text.TokenizedStringBuilder;
 import org.compiere.Adempiere;
 import org.compiere.model.IQuery;
@@ -760,6 +767,47 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 
 	@Override
 	protected final List<Map<String, Object>> listColumns(final boolean distinct, final String... columnNames)
+	{
+		final Map<String, Class<?>> columnName2class = new HashMap<>(columnNames.length);
+		final String sql = buildColumnsSQL(distinct, columnNames, columnName2class);
+
+		final List<Map<String, Object>> result = new ArrayList<>();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, this.trxName);
+			rs = createResultSet(pstmt);
+			while (rs.next())
+			{
+				final Map<String, Object> row = new HashMap<>();
+				for (final String columnName : columnNames)
+				{
+					final Class<?> columnClass = columnName2class.get(columnName);
+					final Object value = DB.retrieveValue(rs, columnName, columnClass);
+					row.put(columnName, value);
+				}
+				result.add(row);
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, getParametersEffective());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+			rs = null;
+			pstmt = null;
+		}
+		//
+		return result;
+	}
+
+	/**
+	 * @param columnName2class will be filled with the value class of each column
+	 */
+	private String buildColumnsSQL(final boolean distinct, final String[] columnNames, final Map<String, Class<?>> columnName2class)
 	{
 		Check.assumeNotEmpty(columnNames, "columnNames not empty");
 
@@ -768,7 +816,6 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		//
 		// Build columns SQL
 		final POInfo poInfo = getPOInfo();
-		final Map<String, Class<?>> columnName2class = new HashMap<>(columnNames.length);
 		final StringBuilder sqlColumnNames = new StringBuilder();
 		for (final String columnName : columnNames)
 		{
@@ -798,39 +845,199 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		final StringBuilder fromClause = new StringBuilder(" FROM ").append(getSqlFrom());
 		final String groupByClause = null;
 		final boolean useOrderByClause = !distinct;
-		final String sql = buildSQL(sqlSelect, fromClause, groupByClause, useOrderByClause);
+		return buildSQL(sqlSelect, fromClause, groupByClause, useOrderByClause);
+	}
 
-		final List<Map<String, Object>> result = new ArrayList<>();
-		PreparedStatement pstmt = null;
+	@Override
+	public <ET extends T> Stream<ET> streamUsingCursor(final Class<ET> clazz, final int fetchSize) throws DBException
+	{
+		final String sql = buildSQL(null, null, null, true);
+		final boolean readOnly = isReadOnlyRecords();
+
+		final Stream<ET> models = streamUsingCursor(sql, fetchSize, rs -> {
+			final ET model = retrieveModel(rs, clazz);
+			InterfaceWrapperHelper.setSaveDeleteDisabled(model, readOnly);
+			return model;
+		});
+
+		return postQueryFilter != null
+				? models.filter(postQueryFilter::accept)
+				: models;
+	}
+
+	@Override
+	public Stream<Object[]> streamColumnsUsingCursor(final int fetchSize, @NonNull final String... columnNames) throws DBException
+	{
+		Check.assumeNull(postQueryFilter, "No post-filter shall be defined when streaming columns");
+
+		final Map<String, Class<?>> columnName2class = new HashMap<>(columnNames.length);
+		final String sql = buildColumnsSQL(false, columnNames, columnName2class);
+
+		final Class<?>[] columnClasses = new Class<?>[columnNames.length];
+		for (int i = 0; i < columnNames.length; i++)
+		{
+			columnClasses[i] = columnName2class.get(columnNames[i]);
+		}
+
+		return streamUsingCursor(sql, fetchSize, rs -> {
+			final Object[] row = new Object[columnNames.length];
+			for (int i = 0; i < columnNames.length; i++)
+			{
+				row[i] = DB.retrieveValue(rs, columnNames[i], columnClasses[i]);
+			}
+			return row;
+		});
+	}
+
+	@FunctionalInterface
+	@VisibleForTesting
+	interface ResultSetRowMapper<R>
+	{
+		R map(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Opens a forward-only cursor on a dedicated, read-only connection (autoCommit=false, else the JDBC driver would not fetch in chunks)
+	 * and returns a lazy stream over it. The connection is released when the stream is exhausted or closed.
+	 */
+	private <R> Stream<R> streamUsingCursor(final String sql, final int fetchSize, final ResultSetRowMapper<R> rowMapper)
+	{
+		final List<Object> sqlParams = getParametersEffective();
+		final ImmutablePair<Connection, PreparedStatement> connAndStmt = DB.prepareConnectionAndStatementForDataExport(sql, sqlParams);
+		return streamUsingCursor(connAndStmt.getLeft(), connAndStmt.getRight(), fetchSize, rowMapper, sql, sqlParams);
+	}
+
+	@VisibleForTesting
+	static <R> Stream<R> streamUsingCursor(
+			@NonNull final Connection conn,
+			@NonNull final PreparedStatement pstmt,
+			final int fetchSize,
+			@NonNull final ResultSetRowMapper<R> rowMapper,
+			final String sql,
+			final List<Object> sqlParams)
+	{
 		ResultSet rs = null;
 		try
 		{
-			pstmt = DB.prepareStatement(sql, this.trxName);
-			rs = createResultSet(pstmt);
-			while (rs.next())
+			// NOTE: has to be set before the transaction is started, i.e. before the query is executed
+			conn.setReadOnly(true);
+
+			pstmt.setFetchSize(fetchSize > 0 ? fetchSize : DEFAULT_CursorFetchSize);
+			rs = pstmt.executeQuery();
+
+			final CursorIterator<R> iterator = new CursorIterator<>(conn, pstmt, rs, rowMapper, sql, sqlParams);
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+					.onClose(iterator::close);
+		}
+		catch (final SQLException ex)
+		{
+			DB.close(rs, pstmt);
+			closeCursorConnection(conn);
+			throw new DBException(ex, sql, sqlParams);
+		}
+	}
+
+	private static void closeCursorConnection(final Connection conn)
+	{
+		try
+		{
+			conn.rollback(); // we never changed anything
+			conn.setReadOnly(false); // the connection goes back to the pool
+		}
+		catch (final SQLException ex)
+		{
+			log.warn("Failed resetting cursor connection. Ignored.", ex);
+		}
+		DB.close(conn);
+	}
+
+	private static final class CursorIterator<R> implements Iterator<R>
+	{
+		private final Connection conn;
+		private final PreparedStatement pstmt;
+		private final ResultSet rs;
+		private final ResultSetRowMapper<R> rowMapper;
+		private final String sql;
+		private final List<Object> sqlParams;
+
+		private R next = null;
+		private boolean closed = false;
+
+		private CursorIterator(
+				final Connection conn,
+				final PreparedStatement pstmt,
+				final ResultSet rs,
+				final ResultSetRowMapper<R> rowMapper,
+				final String sql,
+				final List<Object> sqlParams)
+		{
+			this.conn = conn;
+			this.pstmt = pstmt;
+			this.rs = rs;
+			this.rowMapper = rowMapper;
+			this.sql = sql;
+			this.sqlParams = sqlParams;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			if (next != null)
 			{
-				final Map<String, Object> row = new HashMap<>();
-				for (final String columnName : columnNames)
+				return true;
+			}
+			if (closed)
+			{
+				return false;
+			}
+
+			try
+			{
+				if (rs.next())
 				{
-					final Class<?> columnClass = columnName2class.get(columnName);
-					final Object value = DB.retrieveValue(rs, columnName, columnClass);
-					row.put(columnName, value);
+					next = rowMapper.map(rs);
+					return true;
 				}
-				result.add(row);
 			}
+			catch (final SQLException ex)
+			{
+				close();
+				throw new DBException(ex, sql, sqlParams);
+			}
+			catch (final RuntimeException ex)
+			{
+				close();
+				throw ex;
+			}
+
+			close();
+			return false;
 		}
-		catch (final SQLException e)
+
+		@Override
+		public R next()
 		{
-			throw new DBException(e, sql, getParametersEffective());
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+
+			final R result = next;
+			next = null;
+			return result;
 		}
-		finally
+
+		private void close()
 		{
+			if (closed)
+			{
+				return;
+			}
+			closed = true;
+
 			DB.close(rs, pstmt);
-			rs = null;
-			pstmt = null;
+			closeCursorConnection(conn);
 		}
-		//
-		return result;
 	}
 
 	@Override
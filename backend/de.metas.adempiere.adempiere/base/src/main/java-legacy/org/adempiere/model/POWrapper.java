@@ -1114,6 +1114,12 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 			return POWrapper.this.getColumnIndex(columnName);
 		}
 
+		@Override
+		public Object getColumnIndexesKey()
+		{
+			return po.getPOInfo();
+		}
+
 		@Override
 		public boolean isVirtualColumn(final String columnName)
 		{
@@ -0,0 +1,70 @@
+package org.compiere.model;
+
+import java.util.Comparator;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * JMX bean for {@link TableIDBlockAllocator} (implementation)
+ */
+class JMXTableIDBlockAllocator implements JMXTableIDBlockAllocatorMBean, IJMXNameAware
+{
+	private final TableIDBlockAllocator allocator;
+
+	JMXTableIDBlockAllocator(@NonNull final TableIDBlockAllocator allocator)
+	{
+		this.allocator = allocator;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return "org.compiere.model:type=TableIDBlockAllocator";
+	}
+
+	@Override
+	public String[] getStatistics()
+	{
+		return allocator.getStatistics()
+				.stream()
+				.sorted(Comparator.comparing(TableIDBlockStatistics::getTableName))
+				.map(TableIDBlockStatistics::toString)
+				.toArray(String[]::new);
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		allocator.resetStatistics();
+	}
+
+	@Override
+	public void releaseUnusedIds()
+	{
+		allocator.releaseUnusedIds();
+	}
+}
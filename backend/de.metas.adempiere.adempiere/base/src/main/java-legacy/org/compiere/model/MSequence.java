@@ -88,6 +88,25 @@ public class MSequence extends X_AD_Sequence
 	{
 		Check.assumeNotEmpty(TableName, "The given parameter tableName is not empty");
 
+		if (TableIDBlockAllocator.isEnabled(AD_Client_ID, TableName))
+		{
+			return TableIDBlockAllocator.get().nextId(AD_Client_ID, TableName);
+		}
+
+		return retrieveNextIDBlock(AD_Client_ID, TableName, 1).getFirstId();
+	}	// getNextID
+
+	/**
+	 * Reserves a contiguous block of table IDs, using one locked round trip on {@link I_AD_Sequence}.
+	 *
+	 * @param blockSize how many IDs to reserve; IDs fetched from an external ID server are always returned as a block of one
+	 * @return reserved block; never null
+	 */
+	static TableIDBlock retrieveNextIDBlock(final int AD_Client_ID, final String TableName, final int blockSize)
+	{
+		Check.assumeNotEmpty(TableName, "The given parameter tableName is not empty");
+		Check.assume(blockSize > 0, "blockSize > 0 but it was {}", blockSize);
+
 		final boolean adempiereSys = isAdempiereSys(AD_Client_ID);
 		// FIXME: 08240 because we had big issues with AD_Sequence getting locked, we decided to acquire next sequence out of transaction (as a workaround)
 		final String trxName = ITrx.TRXNAME_None;
@@ -139,7 +158,7 @@ public class MSequence extends X_AD_Sequence
 						updateSQL.close();
 					}
 
-					return nextId;
+					return TableIDBlock.ofSingleId(AD_Sequence_ID, nextId);
 				}
 
 				// If not official dictionary try to get the ID from http custom server - if configured
@@ -160,13 +179,13 @@ public class MSequence extends X_AD_Sequence
 						updateSQL.close();
 					}
 
-					return nextId;
+					return TableIDBlock.ofSingleId(AD_Sequence_ID, nextId);
 				}
 
 				//
 				if (USE_PROCEDURE)
 				{
-					return nextID(conn, AD_Sequence_ID, adempiereSys);
+					return TableIDBlock.ofSingleId(AD_Sequence_ID, nextID(conn, AD_Sequence_ID, adempiereSys));
 				}
 				else
 				{
@@ -186,7 +205,7 @@ public class MSequence extends X_AD_Sequence
 
 					try
 					{
-						updateSQL.setInt(1, incrementNo);
+						updateSQL.setInt(1, incrementNo * blockSize);
 						updateSQL.setInt(2, AD_Sequence_ID);
 						updateSQL.executeUpdate();
 					}
@@ -195,7 +214,12 @@ public class MSequence extends X_AD_Sequence
 						updateSQL.close();
 					}
 
-					return nextId;
+					return TableIDBlock.builder()
+							.adSequenceId(AD_Sequence_ID)
+							.firstId(nextId)
+							.incrementNo(incrementNo)
+							.size(blockSize)
+							.build();
 				}
 			}
 			else
@@ -244,7 +268,7 @@ public class MSequence extends X_AD_Sequence
 				conn = null;
 			}
 		}
-	}	// getNextID
+	}	// retrieveNextIDBlock
 
 	/**
 	 * Get Next ID
@@ -25,6 +25,7 @@ import java.sql.Clob;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,6 +34,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -40,6 +42,7 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.annotation.Nullable;
 import javax.annotation.OverridingMethodsMustInvokeSuper;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -2986,6 +2989,25 @@ public abstract class PO
 	{
 		final boolean newRecord = is_new();	// save locally as load resets
 
+		fireBeforeSave(newRecord);
+
+		// Save
+		if (newRecord)
+		{
+			final boolean b = saveNew();
+			if (!b)
+			{
+				throw newSaveFailedException("saveNew failed");
+			}
+		}
+		else
+		{
+			saveUpdateEx();
+		}
+	}
+
+	private void fireBeforeSave(final boolean newRecord)
+	{
 		// Before Save
 		if (!isAssignedID)
 		{
@@ -2997,26 +3019,242 @@ public abstract class PO
 
 		// Call ModelValidators TYPE_NEW/TYPE_CHANGE
 		fireModelChange(newRecord ? ModelChangeType.BEFORE_NEW : ModelChangeType.BEFORE_CHANGE);
+	}
 
-		// Save
-		if (newRecord)
+	private void saveUpdateEx() throws Exception
+	{
+		final boolean b = saveUpdate();
+		if (!b)
 		{
-			final boolean b = saveNew();
-			if (!b)
+			throw newSaveFailedException("saveUpdate failed");
+		}
+	}
+
+	private AdempiereException newSaveFailedException(final String message)
+	{
+		return new AdempiereException(message).setParameter("po", this).appendParametersToMessage();
+	}
+
+	/** How many INSERT/UPDATE statements are sent to database in one JDBC batch */
+	private static final int SAVE_IN_BATCH_MaxStatementsPerBatch = 500;
+
+	/**
+	 * Saves the given POs like {@link #saveEx()} does, but the INSERT and UPDATE statements are sent to database in JDBC batches
+	 * instead of one round trip per record.
+	 * <p>
+	 * The records of one transaction are saved in phases:
+	 * <ol>
+	 * <li>the "before" phase ({@link #beforeSave(boolean)}, {@link ModelChangeType#BEFORE_NEW}/{@link ModelChangeType#BEFORE_CHANGE}) is fired for each record
+	 * <li>the INSERTs and UPDATEs of all records are flushed to database, in the order of the given records
+	 * <li>the "after" phase ({@link #afterSave(boolean, boolean)}, {@link ModelChangeType#AFTER_NEW}/{@link ModelChangeType#AFTER_CHANGE} etc) is fired for each record
+	 * </ol>
+	 * So please use it only for records which are not depending on each other (e.g. a before-save model interceptor shall not expect the previous record to be already in database).
+	 * <p>
+	 * New records which need some columns to be loaded back right after insert, and updates when the update timeout is enabled, are executed one by one in the "before" phase.
+	 */
+	public static void saveAllInBatchEx(@NonNull final Collection<? extends PO> pos)
+	{
+		final LinkedHashMap<String, List<PO>> posByTrxName = new LinkedHashMap<>();
+		for (final PO po : pos)
+		{
+			posByTrxName.computeIfAbsent(po.get_TrxName(), trxName -> new ArrayList<>()).add(po);
+		}
+
+		posByTrxName.forEach(PO::saveAllInBatchEx);
+	}
+
+	private static void saveAllInBatchEx(@Nullable final String trxNameInitial, final List<PO> pos)
+	{
+		//
+		// Check and prepare the saving
+		// (this shall happen before running the part which is handled in transaction)
+		final List<PO> posToSave = new ArrayList<>(pos.size());
+		for (final PO po : pos)
+		{
+			if (po.savePrepare())
 			{
-				throw new AdempiereException("saveNew failed").setParameter("po", this).appendParametersToMessage();
+				posToSave.add(po);
 			}
 		}
-		else
+		if (posToSave.isEmpty())
 		{
-			final boolean b = saveUpdate();
-			if (!b)
+			return;
+		}
+
+		final boolean[] newRecordsInitial = new boolean[posToSave.size()];
+		for (int i = 0; i < posToSave.size(); i++)
+		{
+			newRecordsInitial[i] = posToSave.get(i).m_createNew;
+		}
+
+		Services.get(ITrxManager.class).run(trxNameInitial, new TrxRunnable2()
+		{
+			@Override
+			public void run(final String localTrxName) throws Exception
 			{
-				throw new AdempiereException("saveUpdate failed").setParameter("po", this).appendParametersToMessage();
+				posToSave.forEach(po -> po.m_trxName = localTrxName);
+				saveAllInBatch0(localTrxName, posToSave);
+			}
+
+			@Override
+			public boolean doCatch(final Throwable e) throws Throwable
+			{
+				// restoring settings and flags before failing
+				for (int i = 0; i < posToSave.size(); i++)
+				{
+					posToSave.get(i).m_createNew = newRecordsInitial[i];
+				}
+				throw e;
+			}
+
+			@Override
+			public void doFinally()
+			{
+				// restore the transaction name
+				posToSave.forEach(po -> po.m_trxName = trxNameInitial);
+			}
+		});
+	}
+
+	private static void saveAllInBatch0(final String trxName, final List<PO> pos) throws Exception
+	{
+		final List<PO> posToFinish = new ArrayList<>(pos.size());
+		final List<Boolean> newRecordsToFinish = new ArrayList<>(pos.size());
+		final List<String> sqlsToFinish = new ArrayList<>(pos.size());
+		final List<String> sqlsToExecute = new ArrayList<>(pos.size());
+
+		//
+		// Before phase
+		for (final PO po : pos)
+		{
+			final boolean newRecord = po.is_new();
+			po.fireBeforeSave(newRecord);
+
+			if (newRecord)
+			{
+				final PreparedInsert insert = po.prepareInsert();
+				if (insert == null)
+				{
+					po.saveFinish(true, false); // newRecord=true, success=false
+					throw po.newSaveFailedException("saveNew failed");
+				}
+				else if (!insert.isBatchable())
+				{
+					final int no = DB.executeUpdate(insert.getSql(), (Object[])null, OnFail.ThrowException, trxName, 0, insert.getLoadAfterInsertProcessor());
+					if (!po.saveNewAfterInsert(insert.getSql(), no == 1))
+					{
+						throw po.newSaveFailedException("saveNew failed");
+					}
+				}
+				else
+				{
+					posToFinish.add(po);
+					newRecordsToFinish.add(true);
+					sqlsToFinish.add(insert.getSql());
+					sqlsToExecute.add(insert.getSql());
+				}
+			}
+			else
+			{
+				final String sqlUpdate = po.prepareUpdate();
+				if (sqlUpdate != null && po.isUseTimeoutForUpdate())
+				{
+					final int no = DB.executeUpdateEx(sqlUpdate, trxName, QUERY_TIME_OUT);
+					if (!po.saveUpdateAfterUpdate(sqlUpdate, no == 1))
+					{
+						throw po.newSaveFailedException("saveUpdate failed");
+					}
+				}
+				else
+				{
+					// NOTE: if nothing changed, there is nothing to execute, but the "after" phase is still fired, like saveUpdate() does
+					posToFinish.add(po);
+					newRecordsToFinish.add(false);
+					sqlsToFinish.add(sqlUpdate);
+					if (sqlUpdate != null)
+					{
+						sqlsToExecute.add(sqlUpdate);
+					}
+				}
+			}
+		}
+
+		//
+		// Flush
+		final boolean[] executed = executeInBatch(sqlsToExecute, trxName);
+
+		//
+		// After phase
+		int executedIndex = 0;
+		for (int i = 0; i < posToFinish.size(); i++)
+		{
+			final PO po = posToFinish.get(i);
+			final String sql = sqlsToFinish.get(i);
+			if (newRecordsToFinish.get(i))
+			{
+				final boolean inserted = executed[executedIndex++];
+				if (!po.saveNewAfterInsert(sql, inserted))
+				{
+					throw po.newSaveFailedException("saveNew failed");
+				}
+			}
+			else
+			{
+				final boolean ok = sql != null
+						? po.saveUpdateAfterUpdate(sql, executed[executedIndex++])
+						: po.saveFinish(false, true); // nothing changed, so OK=true
+				if (!ok)
+				{
+					throw po.newSaveFailedException("saveUpdate failed");
+				}
 			}
 		}
 	}
 
+	/**
+	 * @return for each given statement, true if it changed exactly one row (or if the JDBC driver does not tell)
+	 */
+	private static boolean[] executeInBatch(final List<String> sqls, final String trxName)
+	{
+		final boolean[] executed = new boolean[sqls.size()];
+		if (sqls.isEmpty())
+		{
+			return executed;
+		}
+
+		Statement stmt = null;
+		int batchStartIndex = 0;
+		try
+		{
+			stmt = DB.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE, trxName);
+			for (int i = 0; i < sqls.size(); i++)
+			{
+				stmt.addBatch(sqls.get(i));
+
+				final boolean lastStatement = i == sqls.size() - 1;
+				if (lastStatement || i - batchStartIndex + 1 >= SAVE_IN_BATCH_MaxStatementsPerBatch)
+				{
+					final int[] counts = stmt.executeBatch();
+					for (int j = 0; j < counts.length; j++)
+					{
+						executed[batchStartIndex + j] = counts[j] == 1 || counts[j] == Statement.SUCCESS_NO_INFO;
+					}
+					batchStartIndex = i + 1;
+				}
+			}
+			return executed;
+		}
+		catch (final SQLException ex)
+		{
+			final SQLException cause = ex.getNextException() != null ? ex.getNextException() : ex;
+			throw new DBException(cause, sqls.get(Math.min(batchStartIndex, sqls.size() - 1)));
+		}
+		finally
+		{
+			DB.close(stmt);
+		}
+	}
+
 	/**
 	 * Finish Save Process. Called after {@link #saveNew()} or {@link #saveUpdate()}.
 	 *
@@ -3272,6 +3510,37 @@ public abstract class PO
 	 * @return true if updated
 	 */
 	private final boolean saveUpdate() throws Exception
+	{
+		final String sqlUpdate = prepareUpdate();
+		if (sqlUpdate == null)
+		{
+			// nothing changed, so OK=true
+			return saveFinish(false, true);  // newRecord=false, success=true
+		}
+
+		//
+		// Execute UPDATE SQL
+		log.trace("Save update: SQL={}", sqlUpdate);
+		final int no;
+		if (isUseTimeoutForUpdate())
+		{
+			no = DB.executeUpdateEx(sqlUpdate, m_trxName, QUERY_TIME_OUT);
+		}
+		else
+		{
+			no = DB.executeUpdateEx(sqlUpdate, m_trxName);
+		}
+
+		return saveUpdateAfterUpdate(sqlUpdate, no == 1);
+	}   // saveUpdate
+
+	/**
+	 * Builds the UPDATE statement of this changed record.
+	 *
+	 * @return UPDATE statement or <code>null</code> if nothing changed
+	 */
+	@Nullable
+	private String prepareUpdate()
 	{
 		final String where = get_WhereClause(true);
 		//
@@ -3451,43 +3720,38 @@ public abstract class PO
 			 * @todo status locking goes here
 			 */
 
-			//
-			// Execute UPDATE SQL
-			log.trace("Save update: SQL={}", sql);
-			final int no;
-			if (isUseTimeoutForUpdate())
-			{
-				no = DB.executeUpdateEx(sql.toString(), m_trxName, QUERY_TIME_OUT);
-			}
-			else
-			{
-				no = DB.executeUpdateEx(sql.toString(), m_trxName);
-			}
-			boolean ok = no == 1;
+			return sql.toString();
+		}
 
-			//
-			// Create change logs
-			if (ok)
-			{
-				createChangeLog(X_AD_ChangeLog.EVENTCHANGELOG_Update);
-				logMigration(X_AD_MigrationStep.ACTION_Update);
-			}
+		return null;
+	}   // prepareUpdate
 
-			if (ok)
-			{
-				ok = lobSave();
-			}
-			else
-			{
-				log.warn("#" + no + " - [" + m_trxName + "] - " + p_info.getTableName() + "." + where);
-			}
+	/**
+	 * Creates the change log, saves the LOBs and completes the saving of a changed record, after it was updated.
+	 */
+	private boolean saveUpdateAfterUpdate(final String sqlUpdate, final boolean updated) throws Exception
+	{
+		boolean ok = updated;
+
+		//
+		// Create change logs
+		if (ok)
+		{
+			createChangeLog(X_AD_ChangeLog.EVENTCHANGELOG_Update);
+			logMigration(X_AD_MigrationStep.ACTION_Update);
+		}
 
-			return saveFinish(false, ok); // newRecord=false, success=ok
+		if (ok)
+		{
+			ok = lobSave();
+		}
+		else
+		{
+			log.warn("Not updated - [" + m_trxName + "] - " + sqlUpdate);
 		}
 
-		// nothing changed, so OK=true
-		return saveFinish(false, true);  // newRecord=false, success=true
-	}   // saveUpdate
+		return saveFinish(false, ok); // newRecord=false, success=ok
+	}   // saveUpdateAfterUpdate
 
 	private final boolean isUseTimeoutForUpdate()
 	{
@@ -3583,14 +3847,39 @@ public abstract class PO
 	 * @return true if new record inserted
 	 */
 	private boolean saveNew() throws Exception
+	{
+		final PreparedInsert insert = prepareInsert();
+		if (insert == null)
+		{
+			// Setting new IDs failed.
+			return saveFinish(true, false); // newRecord=true, success=false
+		}
+
+		//
+		// Execute actual database INSERT
+		final int no = DB.executeUpdate(insert.getSql(),
+				(Object[])null,  // params,
+				OnFail.ThrowException,  // onFail
+				m_trxName,
+				0,  // timeOut,
+				insert.getLoadAfterInsertProcessor());
+
+		return saveNewAfterInsert(insert.getSql(), no == 1);
+	}   // saveNew
+
+	/**
+	 * Generates the IDs, DocumentNo etc and builds the INSERT statement of this new record.
+	 *
+	 * @return prepared insert or <code>null</code> if setting the new IDs failed
+	 */
+	@Nullable
+	private PreparedInsert prepareInsert()
 	{
 		//
 		// Generate and set new IDs
 		if (!retrieveAndSetIds())
 		{
-			// Setting new IDs failed.
-			// Execute saveFinish directly (last line in this method)
-			return saveFinish(true, false); // newRecord=true, success=false
+			return null;
 		}
 
 		final String tableName = p_info.getTableName();
@@ -3854,15 +4143,15 @@ public abstract class PO
 			loadAfterInsertProcessor = null;
 		}
 
-		//
-		// Execute actual database INSERT
-		final int no = DB.executeUpdate(sqlInsert.toString(),
-				(Object[])null,  // params,
-				OnFail.ThrowException,  // onFail
-				m_trxName,
-				0,  // timeOut,
-				loadAfterInsertProcessor);
-		boolean ok = no == 1;
+		return new PreparedInsert(sqlInsert.toString(), loadAfterInsertProcessor);
+	}
+
+	/**
+	 * Saves the LOBs, creates the change log and completes the saving of a new record, after it was inserted.
+	 */
+	private boolean saveNewAfterInsert(final String sqlInsert, final boolean inserted) throws Exception
+	{
+		boolean ok = inserted;
 
 		//
 		// Save LOBs
@@ -3900,7 +4189,7 @@ public abstract class PO
 			String msg = "Not inserted - ";
 			if (LogManager.isLevelFiner())
 			{
-				msg += sqlInsert.toString();
+				msg += sqlInsert;
 			}
 			else
 			{
@@ -3917,7 +4206,36 @@ public abstract class PO
 		}
 
 		return saveFinish(true, ok);
-	}   // saveNew
+	}   // saveNewAfterInsert
+
+	private static final class PreparedInsert
+	{
+		private final String sql;
+		private final POReturningAfterInsertLoader loadAfterInsertProcessor;
+
+		private PreparedInsert(final String sql, @Nullable final POReturningAfterInsertLoader loadAfterInsertProcessor)
+		{
+			this.sql = sql;
+			this.loadAfterInsertProcessor = loadAfterInsertProcessor;
+		}
+
+		public String getSql()
+		{
+			return sql;
+		}
+
+		@Nullable
+		public POReturningAfterInsertLoader getLoadAfterInsertProcessor()
+		{
+			return loadAfterInsertProcessor;
+		}
+
+		/** @return true if the INSERT does not have to return anything, so it can be executed as part of a JDBC batch */
+		public boolean isBatchable()
+		{
+			return loadAfterInsertProcessor == null;
+		}
+	}
 
 	/**
 	 * Get ID for new record during save.
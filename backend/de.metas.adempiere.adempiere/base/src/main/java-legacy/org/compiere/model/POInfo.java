@@ -40,7 +40,6 @@ import com.google.common.base.Optional;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSortedMap;
 
 import de.metas.cache.CCache;
 import de.metas.i18n.po.POTrlInfo;
@@ -193,7 +192,7 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 	/** Columns */
 	private POInfoColumn[] m_columns;
 
-	private ImmutableMap<String, Integer> columnName2columnIndex;
+	private POInfoColumnNamesIndex columnNamesIndex;
 	private ImmutableMap<Integer, Integer> adColumnId2columnIndex;
 
 	/**
@@ -383,10 +382,7 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 		//
 		// Iterate columns and build pre-calculated values and indexes
 		final int columnsCount = m_columns.length;
-		// NOTE: we would like to have the columnNames searched case insensive
-		// because role's addAccessSQL parsers are using POInfo for checking column availability,
-		// and ofc in SQL queries could be with ANY case...
-		final ImmutableSortedMap.Builder<String, Integer> columnName2columnIndexBuilder = ImmutableSortedMap.orderedBy(String.CASE_INSENSITIVE_ORDER);
+		final List<String> columnNames = new ArrayList<>(columnsCount);
 		final ImmutableMap.Builder<Integer, Integer> adColumnId2columnIndexBuilder = ImmutableMap.<Integer, Integer> builder();
 		final List<String> translatedColumnNames = new ArrayList<>();
 		for (int columnIndex = 0; columnIndex < columnsCount; columnIndex++)
@@ -395,7 +391,7 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 			final String columnName = columnInfo.getColumnName();
 			final int adColumnId = columnInfo.getAD_Column_ID();
 
-			columnName2columnIndexBuilder.put(columnName, columnIndex);
+			columnNames.add(columnName);
 			adColumnId2columnIndexBuilder.put(adColumnId, columnIndex);
 
 			if (columnInfo.isTranslated())
@@ -403,7 +399,7 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 				translatedColumnNames.add(columnName);
 			}
 		}
-		this.columnName2columnIndex = columnName2columnIndexBuilder.build();
+		this.columnNamesIndex = POInfoColumnNamesIndex.of(columnNames);
 		this.adColumnId2columnIndex = adColumnId2columnIndexBuilder.build();
 
 		//
@@ -613,13 +609,7 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 	// TODO: handle column names ignoring the case
 	public int getColumnIndex(final String ColumnName)
 	{
-		final Integer columnIndex = columnName2columnIndex.get(ColumnName);
-		if (columnIndex != null)
-		{
-			return columnIndex;
-		}
-
-		return -1;
+		return columnNamesIndex.getColumnIndex(ColumnName);
 	}   // getColumnIndex
 
 	/**
@@ -691,7 +681,7 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 	 */
 	public Set<String> getColumnNames()
 	{
-		return columnName2columnIndex.keySet();
+		return columnNamesIndex.getColumnNames();
 	}
 
 	/**
@@ -0,0 +1,95 @@
+package org.compiere.model;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Column name to column index lookup of {@link POInfo}.
+ * <p>
+ * Column names are searched ignoring the case, because role's addAccessSQL parsers are using POInfo for checking column availability,
+ * and ofc in SQL queries could be with ANY case.
+ * Most lookups are done using the exact ColumnName though (e.g. model interface getters/setters), so those are first tried on a case sensitive hash map.
+ */
+final class POInfoColumnNamesIndex implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	public static POInfoColumnNamesIndex of(@NonNull final List<String> columnNames)
+	{
+		return new POInfoColumnNamesIndex(columnNames);
+	}
+
+	private final ImmutableMap<String, Integer> columnName2columnIndexExactCase;
+	private final ImmutableSortedMap<String, Integer> columnName2columnIndex;
+
+	private POInfoColumnNamesIndex(final List<String> columnNames)
+	{
+		final ImmutableMap.Builder<String, Integer> columnName2columnIndexExactCase = ImmutableMap.builder();
+		final ImmutableSortedMap.Builder<String, Integer> columnName2columnIndex = ImmutableSortedMap.orderedBy(String.CASE_INSENSITIVE_ORDER);
+		for (int columnIndex = 0; columnIndex < columnNames.size(); columnIndex++)
+		{
+			final String columnName = columnNames.get(columnIndex);
+			columnName2columnIndexExactCase.put(columnName, columnIndex);
+			columnName2columnIndex.put(columnName, columnIndex);
+		}
+
+		this.columnName2columnIndexExactCase = columnName2columnIndexExactCase.build();
+		this.columnName2columnIndex = columnName2columnIndex.build();
+	}
+
+	/**
+	 * @return index of column with given name (ignoring the case) or -1 if not found
+	 */
+	public int getColumnIndex(final String columnName)
+	{
+		Integer columnIndex = columnName2columnIndexExactCase.get(columnName);
+		if (columnIndex != null)
+		{
+			return columnIndex;
+		}
+
+		columnIndex = columnName2columnIndex.get(columnName);
+		if (columnIndex != null)
+		{
+			return columnIndex;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return immutable set of all column names, sorted ignoring the case
+	 */
+	public Set<String> getColumnNames()
+	{
+		return columnName2columnIndex.keySet();
+	}
+}
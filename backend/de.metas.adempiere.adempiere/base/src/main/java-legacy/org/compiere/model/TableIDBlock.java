@@ -0,0 +1,55 @@
+package org.compiere.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A contiguous range of table IDs which was reserved on {@link I_AD_Sequence} in one go.
+ */
+@Value
+@Builder(toBuilder = true)
+public class TableIDBlock
+{
+	public static TableIDBlock ofSingleId(final int adSequenceId, final int id)
+	{
+		return builder().adSequenceId(adSequenceId).firstId(id).incrementNo(1).size(1).build();
+	}
+
+	int adSequenceId;
+	int firstId;
+	int incrementNo;
+	int size;
+
+	public int getIdAt(final int index)
+	{
+		return firstId + index * incrementNo;
+	}
+
+	/** @return the ID right after this block, i.e. the AD_Sequence.CurrentNext value which was set when this block was reserved */
+	public int getNextIdAfterBlock()
+	{
+		return getIdAt(size);
+	}
+}
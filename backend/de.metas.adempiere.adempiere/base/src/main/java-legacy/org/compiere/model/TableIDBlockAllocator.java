@@ -0,0 +1,357 @@
+package org.compiere.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import de.metas.util.time.SystemTime;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Hands out table IDs from blocks which are reserved per JVM and table on {@link I_AD_Sequence}.
+ * <p>
+ * Compared to {@link MSequence#getNextID(int, String)}'s one-locked-round-trip-per-record, this allocator only touches AD_Sequence when the current block is exhausted.
+ * Within a block, IDs are handed out lock-free.
+ * The block size is adapted to the demand: if a block was consumed faster than the configured target lifetime, the next block is twice as large (up to the configured maximum),
+ * if it lived much longer, the next block is half as large (down to the configured minimum).
+ * <p>
+ * On JVM shutdown, the unused tail of each block is given back to AD_Sequence if no other JVM reserved IDs in the meantime; otherwise the gap is logged.
+ * <p>
+ * Disabled by default; enable it globally via {@value #SYSCONFIG_Enabled} or per table via {@value #SYSCONFIG_Enabled}.{@code <TableName>}.
+ */
+public final class TableIDBlockAllocator
+{
+	public static TableIDBlockAllocator get()
+	{
+		return instance;
+	}
+
+	private static final TableIDBlockAllocator instance = new TableIDBlockAllocator(MSequence::retrieveNextIDBlock, true);
+
+	private static final Logger logger = LogManager.getLogger(TableIDBlockAllocator.class);
+
+	public static final String SYSCONFIG_Enabled = "org.compiere.model.MSequence.IDBlockAllocation.Enabled";
+	private static final String SYSCONFIG_MinBlockSize = "org.compiere.model.MSequence.IDBlockAllocation.MinBlockSize";
+	private static final int DEFAULT_MinBlockSize = 100;
+	private static final String SYSCONFIG_MaxBlockSize = "org.compiere.model.MSequence.IDBlockAllocation.MaxBlockSize";
+	private static final int DEFAULT_MaxBlockSize = 1000;
+	private static final String SYSCONFIG_TargetBlockLifetimeMillis = "org.compiere.model.MSequence.IDBlockAllocation.TargetBlockLifetimeMillis";
+	private static final int DEFAULT_TargetBlockLifetimeMillis = 60 * 1000;
+
+	@FunctionalInterface
+	interface TableIDBlockRetriever
+	{
+		TableIDBlock retrieveNextIDBlock(int adClientId, String tableName, int blockSize);
+	}
+
+	private final TableIDBlockRetriever blockRetriever;
+	private final ConcurrentHashMap<String, TableIDBlocks> tableName2blocks = new ConcurrentHashMap<>();
+	private final boolean registerShutdownHook;
+	private final AtomicBoolean shutdownHookRegistered = new AtomicBoolean(false);
+
+	@VisibleForTesting
+	TableIDBlockAllocator(@NonNull final TableIDBlockRetriever blockRetriever, final boolean registerShutdownHook)
+	{
+		this.blockRetriever = blockRetriever;
+		this.registerShutdownHook = registerShutdownHook;
+	}
+
+	/**
+	 * @return true if table IDs for the given table shall be allocated in blocks.
+	 *         Never true if we are using system IDs or an external ID server, because those IDs need to be contiguous.
+	 */
+	public static boolean isEnabled(final int adClientId, final String tableName)
+	{
+		if (MSequence.isAdempiereSys(adClientId))
+		{
+			return false;
+		}
+		if (MSequence.isUseExternalIDSystem(tableName, adClientId))
+		{
+			return false;
+		}
+
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final boolean enabledGlobally = sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, false);
+		return sysConfigBL.getBooleanValue(SYSCONFIG_Enabled + "." + tableName, enabledGlobally);
+	}
+
+	public int nextId(final int adClientId, @NonNull final String tableName)
+	{
+		final TableIDBlocks blocks = tableName2blocks.computeIfAbsent(tableName, k -> new TableIDBlocks(k, blockRetriever));
+		while (true)
+		{
+			final ActiveBlock activeBlock = blocks.getActiveBlock();
+			final int id = activeBlock.nextIdOrNone();
+			if (id != ActiveBlock.NONE)
+			{
+				blocks.idsHandedOut.incrementAndGet();
+				return id;
+			}
+
+			registerShutdownHookAndJMXIfNeeded();
+			blocks.refillIfStillActive(activeBlock, adClientId);
+		}
+	}
+
+	private void registerShutdownHookAndJMXIfNeeded()
+	{
+		if (!registerShutdownHook || !shutdownHookRegistered.compareAndSet(false, true))
+		{
+			return;
+		}
+
+		Runtime.getRuntime().addShutdownHook(new Thread(this::releaseUnusedIds, TableIDBlockAllocator.class.getSimpleName() + "-shutdown"));
+		JMXRegistry.get().registerJMX(new JMXTableIDBlockAllocator(this), OnJMXAlreadyExistsPolicy.Replace);
+	}
+
+	/**
+	 * Stops handing out the IDs of all currently active blocks and tries to give the unused tails back to AD_Sequence.
+	 * A tail can only be given back if no one reserved further IDs on the same sequence since our block was reserved; otherwise the gap is just logged.
+	 */
+	public void releaseUnusedIds()
+	{
+		for (final TableIDBlocks blocks : tableName2blocks.values())
+		{
+			final TableIDBlock unusedTail = blocks.detachUnusedTail();
+			if (unusedTail == null)
+			{
+				continue;
+			}
+
+			try
+			{
+				final int updated = DB.executeUpdateEx(
+						"UPDATE AD_Sequence SET CurrentNext=? WHERE AD_Sequence_ID=? AND CurrentNext=?",
+						new Object[] { unusedTail.getFirstId(), unusedTail.getAdSequenceId(), unusedTail.getNextIdAfterBlock() },
+						ITrx.TRXNAME_None);
+				if (updated > 0)
+				{
+					logger.info("Released {} unused IDs of {} back to AD_Sequence: {}", unusedTail.getSize(), blocks.tableName, unusedTail);
+				}
+				else
+				{
+					logger.info("Could not release {} unused IDs of {} because the sequence was advanced in the meantime; IDs will remain unused: {}", unusedTail.getSize(), blocks.tableName, unusedTail);
+				}
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed releasing unused IDs of {}: {}", blocks.tableName, unusedTail, ex);
+			}
+		}
+	}
+
+	public List<TableIDBlockStatistics> getStatistics()
+	{
+		final long now = SystemTime.millis();
+		final List<TableIDBlockStatistics> result = new ArrayList<>(tableName2blocks.size());
+		for (final TableIDBlocks blocks : tableName2blocks.values())
+		{
+			result.add(blocks.toStatistics(now));
+		}
+		return result;
+	}
+
+	public void resetStatistics()
+	{
+		tableName2blocks.values().forEach(TableIDBlocks::resetStatistics);
+	}
+
+	/** The blocks of one table */
+	private static final class TableIDBlocks
+	{
+		private final String tableName;
+		private final TableIDBlockRetriever blockRetriever;
+
+		private final AtomicReference<ActiveBlock> activeBlockRef = new AtomicReference<>(ActiveBlock.NO_BLOCK);
+		private final ReentrantLock refillLock = new ReentrantLock();
+		/** guarded by {@link #refillLock} */
+		private int nextBlockSize = 0;
+
+		private final AtomicLong idsHandedOut = new AtomicLong();
+		private final AtomicLong blocksReserved = new AtomicLong();
+		private final AtomicLong blocksExhausted = new AtomicLong();
+		private volatile long statisticsSinceMillis = SystemTime.millis();
+
+		private TableIDBlocks(final String tableName, final TableIDBlockRetriever blockRetriever)
+		{
+			this.tableName = tableName;
+			this.blockRetriever = blockRetriever;
+		}
+
+		private ActiveBlock getActiveBlock()
+		{
+			return activeBlockRef.get();
+		}
+
+		private void refillIfStillActive(final ActiveBlock exhaustedBlock, final int adClientId)
+		{
+			refillLock.lock();
+			try
+			{
+				if (activeBlockRef.get() != exhaustedBlock)
+				{
+					return; // another thread was faster
+				}
+
+				final long now = SystemTime.millis();
+				final int blockSize = computeNextBlockSize(exhaustedBlock, now);
+				final TableIDBlock block = blockRetriever.retrieveNextIDBlock(adClientId, tableName, blockSize);
+				activeBlockRef.set(new ActiveBlock(block, now));
+
+				blocksReserved.incrementAndGet();
+				if (exhaustedBlock != ActiveBlock.NO_BLOCK)
+				{
+					blocksExhausted.incrementAndGet();
+				}
+
+				logger.debug("{}: reserved new ID block {}", tableName, block);
+			}
+			finally
+			{
+				refillLock.unlock();
+			}
+		}
+
+		private int computeNextBlockSize(final ActiveBlock exhaustedBlock, final long now)
+		{
+			final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+			final int minBlockSize = Math.max(1, sysConfigBL.getIntValue(SYSCONFIG_MinBlockSize, DEFAULT_MinBlockSize));
+			final int maxBlockSize = Math.max(minBlockSize, sysConfigBL.getIntValue(SYSCONFIG_MaxBlockSize, DEFAULT_MaxBlockSize));
+			final int targetLifetimeMillis = sysConfigBL.getIntValue(SYSCONFIG_TargetBlockLifetimeMillis, DEFAULT_TargetBlockLifetimeMillis);
+
+			int blockSize = nextBlockSize > 0 ? nextBlockSize : minBlockSize;
+			if (exhaustedBlock != ActiveBlock.NO_BLOCK)
+			{
+				final long lifetimeMillis = now - exhaustedBlock.reservedMillis;
+				if (lifetimeMillis < targetLifetimeMillis / 2)
+				{
+					blockSize = blockSize * 2;
+				}
+				else if (lifetimeMillis > targetLifetimeMillis * 2L)
+				{
+					blockSize = blockSize / 2;
+				}
+			}
+
+			nextBlockSize = Math.max(minBlockSize, Math.min(maxBlockSize, blockSize));
+			return nextBlockSize;
+		}
+
+		/** @return the not yet handed out part of the active block or null; the active block is marked as exhausted */
+		private TableIDBlock detachUnusedTail()
+		{
+			refillLock.lock();
+			try
+			{
+				final ActiveBlock activeBlock = activeBlockRef.get();
+				final TableIDBlock unusedTail = activeBlock.detachUnusedTail();
+				activeBlockRef.set(ActiveBlock.NO_BLOCK);
+				return unusedTail;
+			}
+			finally
+			{
+				refillLock.unlock();
+			}
+		}
+
+		private TableIDBlockStatistics toStatistics(final long now)
+		{
+			final long sinceMillis = statisticsSinceMillis;
+			final double elapsedMinutes = Math.max(now - sinceMillis, 1) / 60000d;
+			final long exhausted = blocksExhausted.get();
+
+			return TableIDBlockStatistics.builder()
+					.tableName(tableName)
+					.currentBlockSize(nextBlockSize)
+					.idsHandedOut(idsHandedOut.get())
+					.blocksReserved(blocksReserved.get())
+					.blocksExhausted(exhausted)
+					.exhaustionsPerMinute(exhausted / elapsedMinutes)
+					.build();
+		}
+
+		private void resetStatistics()
+		{
+			idsHandedOut.set(0);
+			blocksReserved.set(0);
+			blocksExhausted.set(0);
+			statisticsSinceMillis = SystemTime.millis();
+		}
+	}
+
+	/** The block of one table from which IDs are currently handed out */
+	private static final class ActiveBlock
+	{
+		private static final int NONE = -1;
+		private static final ActiveBlock NO_BLOCK = new ActiveBlock(TableIDBlock.builder().size(0).build(), 0);
+
+		private final TableIDBlock block;
+		private final long reservedMillis;
+		private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+		private ActiveBlock(final TableIDBlock block, final long reservedMillis)
+		{
+			this.block = block;
+			this.reservedMillis = reservedMillis;
+		}
+
+		private int nextIdOrNone()
+		{
+			final int index = nextIndex.getAndIncrement();
+			return index < block.getSize() ? block.getIdAt(index) : NONE;
+		}
+
+		private TableIDBlock detachUnusedTail()
+		{
+			final int firstUnusedIndex = nextIndex.getAndSet(block.getSize());
+			if (firstUnusedIndex >= block.getSize())
+			{
+				return null;
+			}
+
+			return block.toBuilder()
+					.firstId(block.getIdAt(firstUnusedIndex))
+					.size(block.getSize() - firstUnusedIndex)
+					.build();
+		}
+	}
+}
@@ -12,10 +12,13 @@ import java.util.Optional;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_C_BPartner_CreditLimit;
 import org.compiere.model.I_C_CreditLimit_Type;
 import org.springframework.stereotype.Repository;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.cache.CCache;
 import de.metas.util.Services;
 import lombok.Builder;
@@ -51,10 +54,13 @@ import lombok.Value;
 @Repository
 public class BPartnerCreditLimitRepository
 {
-	private final CCache<Integer, CreditLimitType> cache_creditLimitById = CCache.newCache(
-			I_C_CreditLimit_Type.Table_Name + "#by#" + I_C_CreditLimit_Type.COLUMNNAME_C_CreditLimit_Type_ID,
-			10, // initial size
-			CCache.EXPIREMINUTES_Never);
+	private final CCache<Integer, CreditLimitType> cache_creditLimitById = CCache.<Integer, CreditLimitType> builder()
+			.cacheName(I_C_CreditLimit_Type.Table_Name + "#by#" + I_C_CreditLimit_Type.COLUMNNAME_C_CreditLimit_Type_ID)
+			.initialCapacity(10)
+			.expireMinutes(CCache.EXPIREMINUTES_Never)
+			.recordIndexEnabled(true)
+			.recordRefsExtractor(type -> ImmutableSet.of(TableRecordReference.of(I_C_CreditLimit_Type.Table_Name, type.getCreditLimitTypeId())))
+			.build();
 
 	private final Comparator<I_C_BPartner_CreditLimit> comparator = createComparator();
 
@@ -46,6 +46,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
 import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ExecutionError;
@@ -125,12 +126,28 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	private static final boolean DEBUG = false;
 
+	/**
+	 * If set, hit/miss statistics are recorded for all caches, not only for those which were explicitly built with {@code recordStats}.
+	 * Useful to measure the hit rates of caches before enabling their record index.
+	 */
+	public static final String SYSTEM_PROPERTY_RecordStats = "de.metas.cache.CCache.recordStats";
+	private static final boolean RECORD_STATS_DEFAULT = Boolean.getBoolean(SYSTEM_PROPERTY_RecordStats);
+
 	private static final Logger logger = LogManager.getLogger(CCache.class);
 
 	/** Internal map that is used as cache */
 	private final Cache<K, V> cache;
 
 	static final AtomicLong NEXT_CACHE_ID = new AtomicLong(1);
+
+	/**
+	 * @return a new unique cache ID; to be used by {@link CacheInterface} implementations which are not {@link CCache}s.
+	 */
+	public static long nextCacheId()
+	{
+		return NEXT_CACHE_ID.getAndIncrement();
+	}
+
 	/** unique cache ID, mainly used for tracking, logging and debugging */
 	private final long cacheId;
 
@@ -146,6 +163,19 @@ public class CCache<K, V> implements CacheInterface
 	/** Can provide a collection of cache keys for a given record reference. */
 	private final Optional<CachingKeysMapper<K>> invalidationKeysMapper;
 
+	/** Automatically maintained record &rarr; keys index; used if there is no {@link #invalidationKeysMapper}. */
+	@Nullable
+	private final CacheRecordIndex<K, V> recordIndex;
+	/** The table whose records are covered by {@link #recordIndex}; records of other tables (see {@code additionalTableNamesToResetFor}) reset the whole cache. */
+	@Nullable
+	private final String recordIndexTableName;
+
+	private final boolean recordStats;
+
+	private final AtomicLong fullResetsForRecordCount = new AtomicLong();
+	private final AtomicLong partialResetsForRecordCount = new AtomicLong();
+	private final AtomicLong keysResetForRecordCount = new AtomicLong();
+
 	/**
 	 * If {@link #DEBUG} is enabled, this variable contains the object's identity code (see {@link System#identityHashCode(Object)}).
 	 */
@@ -186,9 +216,22 @@ public class CCache<K, V> implements CacheInterface
 				CacheMapType.HashMap,
 				(CachingKeysMapper<K>)null,
 				(CacheRemovalListener<K, V>)null,
-				(CacheAdditionListener<K, V>)null);
+				(CacheAdditionListener<K, V>)null,
+				(Boolean)null, // recordIndexEnabled
+				(CacheRecordRefsExtractor<V>)null,
+				(Boolean)null); // recordStats
 	}
 
+	/**
+	 * @param recordIndexEnabled if true and no {@code invalidationKeysMapper} was given, the cache maintains a record &rarr; keys index
+	 *            so that {@link #resetForRecordId(TableRecordReference)} only evicts the affected keys instead of resetting the whole cache.
+	 *            The index only covers records of the cache's {@code tableName}; invalidating a record of one of the {@code additionalTableNamesToResetFor} still resets the whole cache.
+	 *            Use it only if the cached values are based <b>exclusively</b> on the {@code tableName} records reported by {@code recordRefsExtractor}
+	 *            (e.g. caches of models by ID); a new record which is not yet in the index will not evict anything.
+	 * @param recordRefsExtractor extracts the records the cached values are based on; if null, {@link CacheRecordRefsExtractor#introspecting()} is used.
+	 * @param recordStats if true, hit/miss statistics are recorded (see {@link #stats()}); by default they are recorded only for caches with record index,
+	 *            or for all caches if the {@value #SYSTEM_PROPERTY_RecordStats} system property is set.
+	 */
 	@Builder
 	protected CCache(
 			final String cacheName,
@@ -199,7 +242,10 @@ public class CCache<K, V> implements CacheInterface
 			final CacheMapType cacheMapType,
 			@Nullable final CachingKeysMapper<K> invalidationKeysMapper,
 			@Nullable final CacheRemovalListener<K, V> removalListener,
-			@Nullable final CacheAdditionListener<K, V> additionListener)
+			@Nullable final CacheAdditionListener<K, V> additionListener,
+			@Nullable final Boolean recordIndexEnabled,
+			@Nullable final CacheRecordRefsExtractor<V> recordRefsExtractor,
+			@Nullable final Boolean recordStats)
 	{
 		this.cacheId = NEXT_CACHE_ID.getAndIncrement();
 
@@ -244,12 +290,27 @@ public class CCache<K, V> implements CacheInterface
 
 		this.labels = buildCacheLabels(tableNameEffective, additionalTableNamesToResetFor);
 
+		if (invalidationKeysMapper == null && recordIndexEnabled != null && recordIndexEnabled)
+		{
+			this.recordIndex = new CacheRecordIndex<>(recordRefsExtractor != null ? recordRefsExtractor : CacheRecordRefsExtractor.introspecting());
+			this.recordIndexTableName = tableNameEffective;
+		}
+		else
+		{
+			this.recordIndex = null;
+			this.recordIndexTableName = null;
+		}
+
+		this.recordStats = recordStats != null ? recordStats : recordIndex != null || RECORD_STATS_DEFAULT;
+
 		this.expireMinutes = expireMinutes != null ? expireMinutes : EXPIREMINUTES_Never;
 		this.cache = buildGuavaCache(
 				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
 				initialCapacity != null ? initialCapacity : 0,
 				this.expireMinutes,
-				removalListener);
+				removalListener,
+				recordIndex,
+				this.recordStats);
 
 		if (DEBUG)
 		{
@@ -317,9 +378,15 @@ public class CCache<K, V> implements CacheInterface
 			@NonNull final CacheMapType cacheMapType,
 			final int initialCapacity,
 			final int expireMinutes,
-			@Nullable final CacheRemovalListener<K, V> removalListener)
+			@Nullable final CacheRemovalListener<K, V> removalListener,
+			@Nullable final CacheRecordIndex<K, V> recordIndex,
+			final boolean recordStats)
 	{
 		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+		if (recordStats)
+		{
+			cacheBuilder = cacheBuilder.recordStats();
+		}
 		if (cacheMapType == CacheMapType.HashMap)
 		{
 			cacheBuilder = cacheBuilder
@@ -340,7 +407,7 @@ public class CCache<K, V> implements CacheInterface
 			cacheBuilder = cacheBuilder.expireAfterWrite(expireMinutes, TimeUnit.MINUTES);
 		}
 
-		if (removalListener != null)
+		if (removalListener != null || recordIndex != null)
 		{
 			cacheBuilder.removalListener(notif -> {
 				@SuppressWarnings("unchecked")
@@ -349,7 +416,15 @@ public class CCache<K, V> implements CacheInterface
 				@SuppressWarnings("unchecked")
 				final V value = (V)notif.getValue();
 
-				removalListener.itemRemoved(key, value);
+				// NOTE: on REPLACED, the record index was already updated when the new value was added
+				if (recordIndex != null && notif.getCause() != RemovalCause.REPLACED)
+				{
+					recordIndex.remove(key, value);
+				}
+				if (removalListener != null)
+				{
+					removalListener.itemRemoved(key, value);
+				}
 			});
 		}
 		return cacheBuilder.build();
@@ -429,6 +504,10 @@ public class CCache<K, V> implements CacheInterface
 		// Clear
 		cache.invalidateAll();
 		cache.cleanUp();
+		if (recordIndex != null)
+		{
+			recordIndex.clear();
+		}
 
 		m_justReset = true;
 	}	// clear
@@ -438,14 +517,44 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
-			if (!invalidationKeysMapper.isPresent())
+			if (invalidationKeysMapper.isPresent())
+			{
+				return resetForRecordIdUsingKeysMapper(recordRef, invalidationKeysMapper.get());
+			}
+			else if (recordIndex != null)
+			{
+				return resetForRecordIdUsingRecordIndex(recordRef, recordIndex);
+			}
+			else
 			{
 				// NOTE: reseting only by "key" is not supported, so we are reseting everything
+				fullResetsForRecordCount.incrementAndGet();
 				return reset();
 			}
+		}
+	}
 
-			return resetForRecordIdUsingKeysMapper(recordRef, invalidationKeysMapper.get());
+	private long resetForRecordIdUsingRecordIndex(
+			@NonNull final TableRecordReference recordRef,
+			@NonNull final CacheRecordIndex<K, V> recordIndex)
+	{
+		if (!recordRef.getTableName().equals(recordIndexTableName))
+		{
+			logger.debug("resetForRecordIdUsingRecordIndex - recordRef={} is not covered by the record index; -> resetting the whole cache", recordRef);
+			fullResetsForRecordCount.incrementAndGet();
+			return reset();
 		}
+
+		final Set<K> keysToReset = recordIndex.getKeysToInvalidateOrNull(recordRef);
+		if (keysToReset == null)
+		{
+			logger.debug("resetForRecordIdUsingRecordIndex - some cached values are based on unknown records; -> resetting the whole cache");
+			fullResetsForRecordCount.incrementAndGet();
+			return reset();
+		}
+
+		logger.debug("resetForRecordIdUsingRecordIndex - record index indicated the following keys for recordRef={}: {}", recordRef, keysToReset);
+		return removeKeysForRecord(keysToReset);
 	}
 
 	private long resetForRecordIdUsingKeysMapper(
@@ -455,14 +564,21 @@ public class CCache<K, V> implements CacheInterface
 		if (keysMapper.isResetAll(recordRef))
 		{
 			logger.debug("resetForRecordIdUsingKeysMapper - given keysMapper indicated to reset all for recordRef={}; -> resetting the whole cache", recordRef);
+			fullResetsForRecordCount.incrementAndGet();
 			return reset();
 		}
 
-		long counter = 0; // note that also the "reset-all" reset() method only returns an approx number.
-
 		final Collection<K> keysToReset = keysMapper.computeCachingKeys(recordRef);
 		logger.debug("resetForRecordIdUsingKeysMapper - given keysMapper indicated the following keys for recordRef={}: {}", keysToReset, recordRef);
 
+		return removeKeysForRecord(keysToReset);
+	}
+
+	private long removeKeysForRecord(@NonNull final Collection<K> keysToReset)
+	{
+		partialResetsForRecordCount.incrementAndGet();
+
+		long counter = 0; // note that also the "reset-all" reset() method only returns an approx number.
 		for (final K key : keysToReset)
 		{
 			final V removedItem = remove(key);
@@ -472,6 +588,8 @@ public class CCache<K, V> implements CacheInterface
 				counter++;
 			}
 		}
+
+		keysResetForRecordCount.addAndGet(counter);
 		return counter;
 	}
 
@@ -585,7 +703,7 @@ public class CCache<K, V> implements CacheInterface
 
 			try
 			{
-				return cache.get(key, valueInitializer);
+				return cache.get(key, recordIndex == null ? valueInitializer : indexingLoader(key, valueInitializer));
 			}
 			catch (final InvalidCacheLoadException e)
 			{
@@ -609,6 +727,19 @@ public class CCache<K, V> implements CacheInterface
 		}
 	}
 
+	/** @return loader which adds the loaded value to {@link #recordIndex} before it's put into the cache */
+	private Callable<V> indexingLoader(final K key, final Callable<V> valueInitializer)
+	{
+		return () -> {
+			final V value = valueInitializer.call();
+			if (value != null)
+			{
+				recordIndex.add(key, value);
+			}
+			return value;
+		};
+	}
+
 	/**
 	 * Same as {@link #get(Object, Callable)}. Introduced here to be able to use it with lambdas, without having ambiguous method calls.
 	 *
@@ -744,6 +875,10 @@ public class CCache<K, V> implements CacheInterface
 	private void fireAdditionListener(final K key, final V value)
 	{
 		logger.debug("fireAdditionListener - Item added; key={}; value={}", key, value);
+		if (recordIndex != null)
+		{
+			recordIndex.add(key, value);
+		}
 		if (additionListener != null)
 		{
 			additionListener.itemAdded(key, value);
@@ -820,7 +955,16 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	public CCacheStats stats()
 	{
-		return new CCacheStats(cacheId, cacheName, cache.size(), cache.stats());
+		return new CCacheStats(
+				cacheId,
+				cacheName,
+				cache.size(),
+				cache.stats(),
+				recordStats,
+				recordIndex != null,
+				fullResetsForRecordCount.get(),
+				partialResetsForRecordCount.get(),
+				keysResetForRecordCount.get());
 	}
 
 	@SuppressWarnings("serial")
@@ -832,13 +976,35 @@ public class CCache<K, V> implements CacheInterface
 		private final String name;
 		private final long size;
 		private final CacheStats guavaStats;
-
-		private CCacheStats(final long cacheId, final String name, final long size, final CacheStats guavaStats)
+		/** if false, {@link #guavaStats} are always zero */
+		private final boolean statsRecorded;
+		private final boolean recordIndexEnabled;
+		/** how many times the whole cache was reset because a record was invalidated */
+		private final long fullResetsForRecord;
+		/** how many times only some keys were evicted because a record was invalidated */
+		private final long partialResetsForRecord;
+		private final long keysResetForRecord;
+
+		private CCacheStats(
+				final long cacheId,
+				final String name,
+				final long size,
+				final CacheStats guavaStats,
+				final boolean statsRecorded,
+				final boolean recordIndexEnabled,
+				final long fullResetsForRecord,
+				final long partialResetsForRecord,
+				final long keysResetForRecord)
 		{
 			this.cacheId = cacheId;
 			this.name = name;
 			this.size = size;
 			this.guavaStats = guavaStats;
+			this.statsRecorded = statsRecorded;
+			this.recordIndexEnabled = recordIndexEnabled;
+			this.fullResetsForRecord = fullResetsForRecord;
+			this.partialResetsForRecord = partialResetsForRecord;
+			this.keysResetForRecord = keysResetForRecord;
 		}
 
 		@Override
@@ -847,6 +1013,11 @@ public class CCache<K, V> implements CacheInterface
 			return MoreObjects.toStringHelper(this)
 					.add("name", name)
 					.add("size", size)
+					.add("hitRate", statsRecorded ? guavaStats.hitRate() : null)
+					.add("recordIndexEnabled", recordIndexEnabled)
+					.add("fullResetsForRecord", fullResetsForRecord)
+					.add("partialResetsForRecord", partialResetsForRecord)
+					.add("keysResetForRecord", keysResetForRecord)
 					.add("guavaStats", guavaStats)
 					.add("cacheId", cacheId)
 					.toString();
@@ -855,7 +1026,7 @@ public class CCache<K, V> implements CacheInterface
 		@Override
 		public int hashCode()
 		{
-			return Objects.hash(cacheId, name, size, guavaStats);
+			return Objects.hash(cacheId, name, size, guavaStats, statsRecorded, recordIndexEnabled, fullResetsForRecord, partialResetsForRecord, keysResetForRecord);
 		}
 
 		@Override
@@ -867,7 +1038,12 @@ public class CCache<K, V> implements CacheInterface
 				return cacheId == other.cacheId
 						&& name.equals(other.name)
 						&& size == other.size
-						&& guavaStats.equals(other.guavaStats);
+						&& guavaStats.equals(other.guavaStats)
+						&& statsRecorded == other.statsRecorded
+						&& recordIndexEnabled == other.recordIndexEnabled
+						&& fullResetsForRecord == other.fullResetsForRecord
+						&& partialResetsForRecord == other.partialResetsForRecord
+						&& keysResetForRecord == other.keysResetForRecord;
 			}
 			return false;
 		}
@@ -891,5 +1067,38 @@ public class CCache<K, V> implements CacheInterface
 		{
 			return guavaStats;
 		}
+
+		public boolean isStatsRecorded()
+		{
+			return statsRecorded;
+		}
+
+		/**
+		 * @return hit rate or {@link Double#NaN} if statistics are not recorded for this cache
+		 */
+		public double getHitRate()
+		{
+			return statsRecorded ? guavaStats.hitRate() : Double.NaN;
+		}
+
+		public boolean isRecordIndexEnabled()
+		{
+			return recordIndexEnabled;
+		}
+
+		public long getFullResetsForRecord()
+		{
+			return fullResetsForRecord;
+		}
+
+		public long getPartialResetsForRecord()
+		{
+			return partialResetsForRecord;
+		}
+
+		public long getKeysResetForRecord()
+		{
+			return keysResetForRecord;
+		}
 	}
 }	// CCache
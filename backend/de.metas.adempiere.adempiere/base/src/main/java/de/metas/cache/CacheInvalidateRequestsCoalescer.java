@@ -0,0 +1,134 @@
+package de.metas.cache;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.util.Check;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Merges many {@link CacheInvalidateRequest}s into one compact {@link CacheInvalidateMultiRequest}.
+ * <p>
+ * Duplicate requests are dropped. If more than {@code maxRecordsPerTable} records of the same table shall be invalidated,
+ * they are replaced by one request which invalidates all records of that table.
+ * When a record-level request is replaced like that, its root record (if any and if in a different table) is still invalidated explicitly.
+ */
+final class CacheInvalidateRequestsCoalescer
+{
+	@Value
+	static class CoalescingResult
+	{
+		CacheInvalidateMultiRequest multiRequest;
+		int requestsMerged;
+		int tablesCollapsed;
+	}
+
+	private final int maxRecordsPerTable;
+
+	CacheInvalidateRequestsCoalescer(final int maxRecordsPerTable)
+	{
+		Check.assume(maxRecordsPerTable > 0, "maxRecordsPerTable > 0 but it was {}", maxRecordsPerTable);
+		this.maxRecordsPerTable = maxRecordsPerTable;
+	}
+
+	public CoalescingResult coalesce(@NonNull final Collection<CacheInvalidateRequest> requests)
+	{
+		Check.assumeNotEmpty(requests, "requests is not empty");
+
+		if (requests.stream().anyMatch(CacheInvalidateRequest::isAll))
+		{
+			return new CoalescingResult(CacheInvalidateMultiRequest.all(), requests.size() - 1, 0);
+		}
+
+		final Set<CacheInvalidateRequest> result = new LinkedHashSet<>();
+
+		// Requests which are already invalidating all records of a table are kept as they are
+		final Set<String> tableNamesFullyInvalidated = new HashSet<>();
+		final Map<String, Set<CacheInvalidateRequest>> recordRequestsByTableName = new LinkedHashMap<>();
+		for (final CacheInvalidateRequest request : requests)
+		{
+			if (request.isAllRecords())
+			{
+				result.add(request);
+				tableNamesFullyInvalidated.add(request.getTableNameEffective());
+			}
+			else
+			{
+				recordRequestsByTableName
+						.computeIfAbsent(request.getTableNameEffective(), k -> new LinkedHashSet<>())
+						.add(request);
+			}
+		}
+
+		int tablesCollapsed = 0;
+		for (final Map.Entry<String, Set<CacheInvalidateRequest>> entry : recordRequestsByTableName.entrySet())
+		{
+			final String tableName = entry.getKey();
+			final Set<CacheInvalidateRequest> recordRequests = entry.getValue();
+
+			if (tableNamesFullyInvalidated.contains(tableName))
+			{
+				addRootRecordRequests(recordRequests, tableName, result);
+			}
+			else if (recordRequests.size() > maxRecordsPerTable)
+			{
+				result.add(CacheInvalidateRequest.allRecordsForTable(tableName));
+				addRootRecordRequests(recordRequests, tableName, result);
+				tablesCollapsed++;
+			}
+			else
+			{
+				result.addAll(recordRequests);
+			}
+		}
+
+		final int requestsMerged = Math.max(requests.size() - result.size(), 0);
+		return new CoalescingResult(CacheInvalidateMultiRequest.of(result), requestsMerged, tablesCollapsed);
+	}
+
+	private static void addRootRecordRequests(
+			final Set<CacheInvalidateRequest> recordRequests,
+			final String tableName,
+			final Set<CacheInvalidateRequest> result)
+	{
+		for (final CacheInvalidateRequest request : recordRequests)
+		{
+			final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
+			if (rootRecordRef != null && !tableName.equals(rootRecordRef.getTableName()))
+			{
+				result.add(CacheInvalidateRequest.rootRecord(rootRecordRef.getTableName(), rootRecordRef.getRecord_ID()));
+			}
+		}
+	}
+}
@@ -1,14 +1,23 @@
 package de.metas.cache;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequestSerializer;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.slf4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
 
+import de.metas.cache.CacheInvalidateRequestsCoalescer.CoalescingResult;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.event.Event;
@@ -44,14 +53,20 @@ import lombok.NonNull;
  * #L%
  */
 
-/** Bidirectional binding between local cache system and remote cache systems */
+/**
+ * Bidirectional binding between local cache system and remote cache systems.
+ * <p>
+ * Outgoing requests are collected during a short coalescing window (see {@link #SYSCONFIG_CoalescingWindowMillis})
+ * and then sent as one compact event, see {@link CacheInvalidateRequestsCoalescer}.
+ */
 final class CacheInvalidationRemoteHandler implements IEventListener
 {
 	public static final transient CacheInvalidationRemoteHandler instance = new CacheInvalidationRemoteHandler();
 
 	private static final Logger logger = LogManager.getLogger(CacheInvalidationRemoteHandler.class);
 
-	private static final Topic TOPIC_CacheInvalidation = Topic.builder()
+	@VisibleForTesting
+	static final Topic TOPIC_CacheInvalidation = Topic.builder()
 			.name("de.metas.cache.CacheInvalidationRemoteHandler")
 			.type(Type.REMOTE)
 			.build();
@@ -63,7 +78,28 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
 
-	private CacheInvalidationRemoteHandler()
+	/** Outgoing requests are collected for this many milliseconds before they are sent in one event. Zero or negative means no coalescing. */
+	private static final String SYSCONFIG_CoalescingWindowMillis = "de.metas.cache.CacheInvalidationRemoteHandler.CoalescingWindowMillis";
+	private static final int DEFAULT_CoalescingWindowMillis = 100;
+	/** If more records of one table are pending, then all records of that table are invalidated remotely. */
+	private static final String SYSCONFIG_MaxRecordsPerTable = "de.metas.cache.CacheInvalidationRemoteHandler.MaxRecordsPerTable";
+	private static final int DEFAULT_MaxRecordsPerTable = 500;
+
+	// NOTE: accessed only from blocks synchronized on pendingRequests
+	private final List<CacheInvalidateRequest> pendingRequests = new ArrayList<>();
+	private boolean flushScheduled = false;
+	private boolean shutdown = false;
+	private ScheduledExecutorService _flushExecutor;
+
+	private final AtomicLong requestsPosted = new AtomicLong();
+	private final AtomicLong requestsMerged = new AtomicLong();
+	private final AtomicLong tablesCollapsed = new AtomicLong();
+	private final AtomicLong eventsSent = new AtomicLong();
+	private final AtomicLong eventsApplied = new AtomicLong();
+	private final AtomicLong requestsApplied = new AtomicLong();
+
+	@VisibleForTesting
+	CacheInvalidationRemoteHandler()
 	{
 	}
 
@@ -147,15 +183,129 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
+		requestsPosted.addAndGet(request.getRequests().size());
+
+		final int coalescingWindowMillis = getSysConfigInt(SYSCONFIG_CoalescingWindowMillis, DEFAULT_CoalescingWindowMillis);
+		if (coalescingWindowMillis <= 0)
+		{
+			sendEvent(request);
+			return;
+		}
+
+		if (!enqueueForBroadcasting(request, coalescingWindowMillis))
+		{
+			sendEvent(request);
+			return;
+		}
+		logger.trace("Enqueued {} for broadcasting", request);
+	}
+
+	/** @return false if the request was not enqueued because we are shutting down */
+	private boolean enqueueForBroadcasting(final CacheInvalidateMultiRequest request, final int coalescingWindowMillis)
+	{
+		synchronized (pendingRequests)
+		{
+			if (shutdown)
+			{
+				return false;
+			}
+
+			pendingRequests.addAll(request.getRequests());
+			if (!flushScheduled)
+			{
+				getFlushExecutor().schedule(this::flushPendingRequests, coalescingWindowMillis, TimeUnit.MILLISECONDS);
+				flushScheduled = true;
+			}
+			return true;
+		}
+	}
+
+	private ScheduledExecutorService getFlushExecutor()
+	{
+		ScheduledExecutorService flushExecutor = _flushExecutor;
+		if (flushExecutor == null)
+		{
+			flushExecutor = _flushExecutor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(CacheInvalidationRemoteHandler.class.getName() + "-FlushExecutor")
+					.setDaemon(true)
+					.build());
+
+			// the flush executor's thread is a daemon, so make sure the requests which are still pending are not lost on shutdown
+			Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, CacheInvalidationRemoteHandler.class.getSimpleName() + "-shutdown"));
+		}
+		return flushExecutor;
+	}
+
+	/**
+	 * Stops the flush executor and sends the requests which are still pending.
+	 * Requests posted after this call are sent right away.
+	 */
+	@VisibleForTesting
+	void shutdown()
+	{
+		final ScheduledExecutorService flushExecutor;
+		synchronized (pendingRequests)
+		{
+			flushExecutor = _flushExecutor;
+			shutdown = true;
+		}
+
+		if (flushExecutor != null)
+		{
+			flushExecutor.shutdownNow();
+		}
+
+		flushPendingRequests();
+	}
+
+	/** Sends all pending requests as one event. */
+	@VisibleForTesting
+	void flushPendingRequests()
+	{
+		final List<CacheInvalidateRequest> requestsToSend;
+		synchronized (pendingRequests)
+		{
+			flushScheduled = false;
+			if (pendingRequests.isEmpty())
+			{
+				return;
+			}
+			requestsToSend = new ArrayList<>(pendingRequests);
+			pendingRequests.clear();
+		}
+
+		try
+		{
+			final CacheInvalidateRequestsCoalescer coalescer = new CacheInvalidateRequestsCoalescer(getSysConfigInt(SYSCONFIG_MaxRecordsPerTable, DEFAULT_MaxRecordsPerTable));
+			final CoalescingResult coalescingResult = coalescer.coalesce(requestsToSend);
+			requestsMerged.addAndGet(coalescingResult.getRequestsMerged());
+			tablesCollapsed.addAndGet(coalescingResult.getTablesCollapsed());
+
+			sendEvent(coalescingResult.getMultiRequest());
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed broadcasting {} cache invalidation requests. Ignored.", requestsToSend.size(), ex);
+		}
+	}
+
+	private void sendEvent(final CacheInvalidateMultiRequest request)
+	{
 		// Broadcast the event.
 		final Event event = createEventFromRequest(request);
 		Services.get(IEventBusFactory.class)
 				.getEventBus(TOPIC_CacheInvalidation)
 				.postEvent(event);
+		eventsSent.incrementAndGet();
 
 		logger.debug("Broadcasting cache invalidation of {}, event={}", request, event);
 	}
 
+	private static int getSysConfigInt(final String sysConfigName, final int defaultValue)
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(sysConfigName, defaultValue);
+	}
+
 	private boolean isAllowBroadcast(final CacheInvalidateMultiRequest multiRequest)
 	{
 		return multiRequest.getRequests().stream().anyMatch(this::isAllowBroadcast);
@@ -192,6 +342,39 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 		// Reset cache for TableName/Record_ID
 		logger.debug("Resetting local cache for {} because we got remote event: {}", request, event);
 		CacheMgt.get().reset(request, CacheMgt.ResetMode.LOCAL); // don't broadcast it anymore because else we would introduce recursion
+
+		eventsApplied.incrementAndGet();
+		requestsApplied.addAndGet(request.getRequests().size());
+	}
+
+	public long getRequestsPosted()
+	{
+		return requestsPosted.get();
+	}
+
+	public long getRequestsMerged()
+	{
+		return requestsMerged.get();
+	}
+
+	public long getTablesCollapsed()
+	{
+		return tablesCollapsed.get();
+	}
+
+	public long getEventsSent()
+	{
+		return eventsSent.get();
+	}
+
+	public long getEventsApplied()
+	{
+		return eventsApplied.get();
+	}
+
+	public long getRequestsApplied()
+	{
+		return requestsApplied.get();
 	}
 
 	@VisibleForTesting
@@ -204,7 +387,8 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 		return event;
 	}
 
-	private CacheInvalidateMultiRequest createRequestFromEvent(final Event event)
+	@VisibleForTesting
+	CacheInvalidateMultiRequest createRequestFromEvent(final Event event)
 	{
 		final String jsonRequest = event.getProperty(EVENT_PROPERTY);
 		if (Check.isEmpty(jsonRequest, true))
@@ -16,6 +16,9 @@
  *****************************************************************************/
 package de.metas.cache;
 
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -44,9 +47,12 @@ import org.slf4j.MDC.MDCCloseable;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.logging.LogManager;
@@ -162,6 +168,22 @@ public final class CacheMgt
 		return CacheInvalidationRemoteHandler.instance.getTableNamesToBroadcast();
 	}
 
+	/** @return statistics of all registered {@link CCache}s, incl. hit rates and how they were reset for single records */
+	public ImmutableList<CCacheStats> getCacheStats()
+	{
+		final Map<Long, CCacheStats> statsByCacheId = new HashMap<>();
+		cachesByLabel.values()
+				.stream()
+				.flatMap(CachesGroup::streamCaches)
+				.filter(cache -> cache instanceof CCache)
+				.forEach(cache -> statsByCacheId.computeIfAbsent(cache.getCacheId(), cacheId -> ((CCache<?, ?>)cache).stats()));
+
+		return statsByCacheId.values()
+				.stream()
+				.sorted(Comparator.comparing(CCacheStats::getName))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	/** @return last time cache reset timestamp */
 	public long getLastCacheReset()
 	{
@@ -390,6 +412,11 @@ public final class CacheMgt
 		return resetCount;
 	}
 
+	/**
+	 * Invalidates the caches for all requests of the given multi-request.
+	 * <p>
+	 * The requests are first grouped by cache label, so that each {@link CachesGroup} is iterated just once, no matter how many records of its table are invalidated.
+	 */
 	private long invalidateForMultiRequest(final CacheInvalidateMultiRequest multiRequest)
 	{
 		if (multiRequest.isResetAll())
@@ -397,54 +424,62 @@ public final class CacheMgt
 			return reset();
 		}
 
-		int total = 0;
+		final Set<CacheLabel> labelsToResetAll = new LinkedHashSet<>();
+		final SetMultimap<CacheLabel, TableRecordReference> recordsToResetByLabel = LinkedHashMultimap.create();
 		for (final CacheInvalidateRequest request : multiRequest.getRequests())
 		{
-			final long totalPerRequest = invalidateForRequest(request);
-			total += totalPerRequest;
-		}
-
-		return total;
-	}
-
-	private long invalidateForRequest(@NonNull final CacheInvalidateRequest request)
-	{
-		if (request.isAllRecords())
-		{
-			final CacheLabel label = CacheLabel.ofTableName(request.getTableNameEffective());
-			try (final MDCCloseable labelMDC = CacheMDC.putCacheLabel(label))
+			if (request.isAllRecords())
 			{
-				final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
-				if (cachesGroup == null)
+				labelsToResetAll.add(CacheLabel.ofTableName(request.getTableNameEffective()));
+			}
+			else
+			{
+				final TableRecordReference childRecordRef = request.getChildRecordOrNull();
+				if (childRecordRef != null)
 				{
-					return 0;
+					recordsToResetByLabel.put(CacheLabel.ofTableName(childRecordRef.getTableName()), childRecordRef);
+				}
+				final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
+				if (rootRecordRef != null)
+				{
+					recordsToResetByLabel.put(CacheLabel.ofTableName(rootRecordRef.getTableName()), rootRecordRef);
 				}
-
-				return cachesGroup.invalidateAllNoFail();
 			}
 		}
-		else
-		{
-			long resetCount = 0;
 
-			final TableRecordReference childRecordRef = request.getChildRecordOrNull();
-			if (childRecordRef != null)
+		long total = 0;
+		for (final CacheLabel label : labelsToResetAll)
+		{
+			total += invalidateAllForLabel(label);
+		}
+		for (final CacheLabel label : recordsToResetByLabel.keySet())
+		{
+			if (labelsToResetAll.contains(label))
 			{
-				resetCount += invalidateForRecord(childRecordRef);
+				continue; // already invalidated
 			}
-			final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
-			if (rootRecordRef != null)
+			total += invalidateForRecords(label, recordsToResetByLabel.get(label));
+		}
+
+		return total;
+	}
+
+	private long invalidateAllForLabel(@NonNull final CacheLabel label)
+	{
+		try (final MDCCloseable labelMDC = CacheMDC.putCacheLabel(label))
+		{
+			final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
+			if (cachesGroup == null)
 			{
-				resetCount += invalidateForRecord(rootRecordRef);
+				return 0;
 			}
 
-			return resetCount;
+			return cachesGroup.invalidateAllNoFail();
 		}
 	}
 
-	private long invalidateForRecord(@NonNull final TableRecordReference recordRef)
+	private long invalidateForRecords(@NonNull final CacheLabel label, @NonNull final Set<TableRecordReference> recordRefs)
 	{
-		final CacheLabel label = CacheLabel.ofTableName(recordRef.getTableName());
 		try (final MDCCloseable labelMDC = CacheMDC.putCacheLabel(label))
 		{
 			final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
@@ -453,7 +488,7 @@ public final class CacheMgt
 				return 0;
 			}
 
-			return cachesGroup.invalidateForRecordNoFail(recordRef);
+			return cachesGroup.invalidateForRecordsNoFail(recordRefs);
 		}
 	}
 
@@ -669,10 +704,10 @@ public final class CacheMgt
 					.sum();
 		}
 
-		public long invalidateForRecordNoFail(final TableRecordReference recordRef)
+		public long invalidateForRecordsNoFail(final Set<TableRecordReference> recordRefs)
 		{
 			return streamCaches()
-					.mapToLong(cache -> invalidateNoFail(cache, recordRef))
+					.mapToLong(cache -> recordRefs.stream().mapToLong(recordRef -> invalidateNoFail(cache, recordRef)).sum())
 					.sum();
 		}
 
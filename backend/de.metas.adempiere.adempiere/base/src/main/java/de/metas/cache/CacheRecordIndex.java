@@ -0,0 +1,149 @@
+package de.metas.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reverse index (record &rarr; cache keys) which is maintained by {@link CCache} itself if the cache was built with a record index.
+ * <p>
+ * Unlike {@link CacheIndex}, this index is filled automatically whenever a value is added to or loaded into the cache,
+ * using a {@link CacheRecordRefsExtractor} to find out on which records the value is based.
+ */
+final class CacheRecordIndex<K, V>
+{
+	private final CacheRecordRefsExtractor<V> recordRefsExtractor;
+
+	// NOTE: following fields shall be accessed from synchronized blocks
+	private final SetMultimap<TableRecordReference, K> recordRef2keys = HashMultimap.create();
+	private final Map<K, IndexedValue<V>> key2indexedValue = new HashMap<>();
+	/** keys whose values are based on unknown records */
+	private final Set<K> keysWithUnknownRecordRefs = new HashSet<>();
+
+	CacheRecordIndex(@NonNull final CacheRecordRefsExtractor<V> recordRefsExtractor)
+	{
+		this.recordRefsExtractor = recordRefsExtractor;
+	}
+
+	public void add(@NonNull final K key, @NonNull final V value)
+	{
+		final Collection<TableRecordReference> recordRefs = recordRefsExtractor.extractRecordRefs(value);
+		add(key, new IndexedValue<>(value, recordRefs != null ? ImmutableSet.copyOf(recordRefs) : null));
+	}
+
+	private synchronized void add(final K key, final IndexedValue<V> indexedValue)
+	{
+		removeKey(key);
+
+		key2indexedValue.put(key, indexedValue);
+		if (indexedValue.recordRefs == null)
+		{
+			keysWithUnknownRecordRefs.add(key);
+		}
+		else
+		{
+			indexedValue.recordRefs.forEach(recordRef -> recordRef2keys.put(recordRef, key));
+		}
+	}
+
+	/**
+	 * Removes the given key, but only if it's still indexed for the given value.
+	 * That's important because removal notifications are delivered asynchronously, possibly after the key was already re-added with a new value.
+	 */
+	public synchronized void remove(final K key, final V value)
+	{
+		final IndexedValue<V> indexedValue = key2indexedValue.get(key);
+		if (indexedValue != null && indexedValue.value == value)
+		{
+			removeKey(key);
+		}
+	}
+
+	private void removeKey(final K key)
+	{
+		final IndexedValue<V> indexedValue = key2indexedValue.remove(key);
+		if (indexedValue == null)
+		{
+			return;
+		}
+
+		keysWithUnknownRecordRefs.remove(key);
+		if (indexedValue.recordRefs != null)
+		{
+			indexedValue.recordRefs.forEach(recordRef -> recordRef2keys.remove(recordRef, key));
+		}
+	}
+
+	public synchronized void clear()
+	{
+		recordRef2keys.clear();
+		key2indexedValue.clear();
+		keysWithUnknownRecordRefs.clear();
+	}
+
+	/**
+	 * @return keys which need to be invalidated for the given record or {@code null} if we don't know, because some values are based on unknown records.
+	 */
+	@Nullable
+	public synchronized Set<K> getKeysToInvalidateOrNull(@NonNull final TableRecordReference recordRef)
+	{
+		if (!keysWithUnknownRecordRefs.isEmpty())
+		{
+			return null;
+		}
+
+		return ImmutableSet.copyOf(recordRef2keys.get(recordRef));
+	}
+
+	public synchronized int size()
+	{
+		return key2indexedValue.size();
+	}
+
+	private static final class IndexedValue<V>
+	{
+		private final V value;
+		@Nullable
+		private final ImmutableSet<TableRecordReference> recordRefs;
+
+		private IndexedValue(final V value, @Nullable final ImmutableSet<TableRecordReference> recordRefs)
+		{
+			this.value = value;
+			this.recordRefs = recordRefs;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package de.metas.cache;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tells a {@link CCache} with record index on which records a cached value is based, so that invalidating one of those records only evicts the affected cache keys.
+ *
+ * @param <V> cached value type
+ */
+@FunctionalInterface
+public interface CacheRecordRefsExtractor<V>
+{
+	/**
+	 * @return the records the given value is based on (the collection may be empty if the value is not based on any record),
+	 *         or {@code null} if they are not known. In that case, the cache will be fully reset when any of its records is invalidated.
+	 */
+	@Nullable
+	Collection<TableRecordReference> extractRecordRefs(V value);
+
+	/**
+	 * @return extractor which supports {@link TableRecordReference}s, {@link ITableRecordReference}s, model interfaces and POs,
+	 *         as well as {@link Optional}s and {@link Collection}s of them.
+	 */
+	static <V> CacheRecordRefsExtractor<V> introspecting()
+	{
+		return CacheRecordRefsExtractor::introspectRecordRefs;
+	}
+
+	@Nullable
+	static Collection<TableRecordReference> introspectRecordRefs(@Nullable final Object value)
+	{
+		if (value == null)
+		{
+			return ImmutableSet.of();
+		}
+		else if (value instanceof ITableRecordReference)
+		{
+			return ImmutableSet.of(TableRecordReference.of(value));
+		}
+		else if (value instanceof Optional)
+		{
+			return introspectRecordRefs(((Optional<?>)value).orElse(null));
+		}
+		else if (value instanceof Collection)
+		{
+			final ImmutableSet.Builder<TableRecordReference> result = ImmutableSet.builder();
+			for (final Object item : (Collection<?>)value)
+			{
+				final Collection<TableRecordReference> itemRecordRefs = introspectRecordRefs(item);
+				if (itemRecordRefs == null)
+				{
+					return null;
+				}
+				result.addAll(itemRecordRefs);
+			}
+			return result.build();
+		}
+		else if (InterfaceWrapperHelper.getModelTableNameOrNull(value) != null)
+		{
+			return ImmutableSet.of(TableRecordReference.of(value));
+		}
+		else
+		{
+			return null;
+		}
+	}
+}
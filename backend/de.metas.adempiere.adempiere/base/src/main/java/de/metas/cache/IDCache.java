@@ -49,7 +49,10 @@ public class IDCache<V> extends CCache<Object, V>
 				cacheMapType,
 				KEYS_MAPPER,
 				(CacheRemovalListener<Object, V>)null,
-				(CacheAdditionListener<Object, V>)null);
+				(CacheAdditionListener<Object, V>)null,
+				(Boolean)null, // recordIndexEnabled
+				(CacheRecordRefsExtractor<V>)null,
+				(Boolean)null); // recordStats
 
 		Check.assumeNotEmpty(tableName, "tableName not empty");
 	}
@@ -6,6 +6,7 @@ import java.util.Set;
 import org.adempiere.util.jmx.IJMXNameAware;
 import org.slf4j.Logger;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.logging.LogManager;
 
 /**
@@ -68,6 +69,16 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 				.toArray(size -> new String[size]);
 	}
 
+	@Override
+	public String[] getCacheStatistics()
+	{
+		return getCacheMgt()
+				.getCacheStats()
+				.stream()
+				.map(CCacheStats::toString)
+				.toArray(String[]::new);
+	}
+
 	@Override
 	public String[] getTableNamesToBroadcast()
 	{
@@ -83,6 +94,42 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		getCacheMgt().enableRemoteCacheInvalidationForTableName(tableName);
 	}
 
+	@Override
+	public long getRemoteRequestsPosted()
+	{
+		return CacheInvalidationRemoteHandler.instance.getRequestsPosted();
+	}
+
+	@Override
+	public long getRemoteRequestsMerged()
+	{
+		return CacheInvalidationRemoteHandler.instance.getRequestsMerged();
+	}
+
+	@Override
+	public long getRemoteTablesCollapsed()
+	{
+		return CacheInvalidationRemoteHandler.instance.getTablesCollapsed();
+	}
+
+	@Override
+	public long getRemoteEventsSent()
+	{
+		return CacheInvalidationRemoteHandler.instance.getEventsSent();
+	}
+
+	@Override
+	public long getRemoteEventsApplied()
+	{
+		return CacheInvalidationRemoteHandler.instance.getEventsApplied();
+	}
+
+	@Override
+	public long getRemoteRequestsApplied()
+	{
+		return CacheInvalidationRemoteHandler.instance.getRequestsApplied();
+	}
+
 	@Override
 	public long resetAll()
 	{
@@ -16,10 +16,29 @@ public interface JMXCacheMgtMBean
 
 	String[] getCacheLabels();
 
+	/** @return one line per cache, incl. hit rate and how often it was fully/partially reset for single records */
+	String[] getCacheStatistics();
+
 	String[] getTableNamesToBroadcast();
 
 	void enableRemoteCacheInvalidationForTableName(String tableName);
 
+	/** @return how many cache invalidation requests were posted for broadcasting */
+	long getRemoteRequestsPosted();
+
+	/** @return how many of the posted requests were merged away (duplicates or collapsed into table-level requests) before sending */
+	long getRemoteRequestsMerged();
+
+	/** @return how many times all records of a table were invalidated remotely instead of sending the single records */
+	long getRemoteTablesCollapsed();
+
+	long getRemoteEventsSent();
+
+	/** @return how many remote cache invalidation events were received and applied locally */
+	long getRemoteEventsApplied();
+
+	long getRemoteRequestsApplied();
+
 	long resetAll();
 
 	long resetForTable(String tableName);
@@ -0,0 +1,56 @@
+package de.metas.currency.impl;
+
+import org.adempiere.service.ClientId;
+
+import de.metas.money.CurrencyConversionTypeId;
+import de.metas.money.CurrencyId;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Identifies a {@link CurrencyConversionRatesTimeline}: the rates of one currency pair and conversion type, as seen by a given client.
+ */
+@Value
+@Builder
+class CurrencyConversionRatesKey
+{
+	@NonNull
+	ClientId clientId;
+	@NonNull
+	CurrencyId currencyFromId;
+	@NonNull
+	CurrencyId currencyToId;
+	@NonNull
+	CurrencyConversionTypeId conversionTypeId;
+
+	public boolean isSameCurrenciesAndConversionType(@NonNull final CurrencyConversionRatesKey other)
+	{
+		return currencyFromId.equals(other.currencyFromId)
+				&& currencyToId.equals(other.currencyToId)
+				&& conversionTypeId.equals(other.conversionTypeId);
+	}
+}
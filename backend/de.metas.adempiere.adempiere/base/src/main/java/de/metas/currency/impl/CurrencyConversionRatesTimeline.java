@@ -0,0 +1,153 @@
+package de.metas.currency.impl;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ClientId;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.organization.OrgId;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * All {@code C_Conversion_Rate}s of one {@link CurrencyConversionRatesKey}, indexed by client/org and ValidFrom.
+ * <p>
+ * {@link #getRateOrNull(OrgId, Instant)} returns the same rate as the {@code C_Conversion_Rate} query in {@link CurrencyDAO#retrieveRateQuery(de.metas.currency.CurrencyConversionContext, de.metas.money.CurrencyId, de.metas.money.CurrencyId)},
+ * i.e. the most specific client, then the most specific org, then the latest ValidFrom.
+ */
+final class CurrencyConversionRatesTimeline
+{
+	@Value
+	@Builder
+	static class RateEntry
+	{
+		int conversionRateId;
+		@NonNull
+		ClientId clientId;
+		@NonNull
+		OrgId orgId;
+		@NonNull
+		Instant validFrom;
+		@Nullable
+		Instant validTo;
+		@NonNull
+		BigDecimal multiplyRate;
+
+		boolean isValidUntil(@NonNull final Instant date)
+		{
+			// NOTE: same as the SQL filter "ValidTo >= date", which never matches a null ValidTo
+			return validTo != null && validTo.compareTo(date) >= 0;
+		}
+	}
+
+	@Value
+	private static class ClientAndOrg
+	{
+		@NonNull
+		ClientId clientId;
+		@NonNull
+		OrgId orgId;
+	}
+
+	private static final Comparator<ClientAndOrg> MORE_SPECIFIC_FIRST = Comparator
+			.<ClientAndOrg> comparingInt(scope -> scope.getClientId().getRepoId()).reversed()
+			.thenComparing(Comparator.<ClientAndOrg> comparingInt(scope -> scope.getOrgId().getRepoId()).reversed());
+
+	/** rates by client/org (most specific first) and ValidFrom */
+	private final ImmutableList<Map.Entry<ClientAndOrg, NavigableMap<Instant, ImmutableList<RateEntry>>>> ratesByScope;
+	private final ImmutableSet<Integer> conversionRateIds;
+
+	CurrencyConversionRatesTimeline(@NonNull final Collection<RateEntry> rates)
+	{
+		final TreeMap<ClientAndOrg, NavigableMap<Instant, List<RateEntry>>> ratesByScopeBuilder = new TreeMap<>(MORE_SPECIFIC_FIRST);
+		for (final RateEntry rate : rates)
+		{
+			ratesByScopeBuilder
+					.computeIfAbsent(new ClientAndOrg(rate.getClientId(), rate.getOrgId()), scope -> new TreeMap<>())
+					.computeIfAbsent(rate.getValidFrom(), validFrom -> new ArrayList<>())
+					.add(rate);
+		}
+
+		final ImmutableList.Builder<Map.Entry<ClientAndOrg, NavigableMap<Instant, ImmutableList<RateEntry>>>> ratesByScope = ImmutableList.builder();
+		ratesByScopeBuilder.forEach((scope, ratesByValidFrom) -> {
+			final TreeMap<Instant, ImmutableList<RateEntry>> immutableRatesByValidFrom = new TreeMap<>();
+			ratesByValidFrom.forEach((validFrom, ratesList) -> immutableRatesByValidFrom.put(validFrom, ImmutableList.copyOf(ratesList)));
+			ratesByScope.add(new AbstractMap.SimpleImmutableEntry<>(scope, Collections.unmodifiableNavigableMap(immutableRatesByValidFrom)));
+		});
+		this.ratesByScope = ratesByScope.build();
+
+		this.conversionRateIds = rates.stream()
+				.map(RateEntry::getConversionRateId)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	@Nullable
+	public BigDecimal getRateOrNull(@NonNull final OrgId orgId, @NonNull final Instant date)
+	{
+		for (final Map.Entry<ClientAndOrg, NavigableMap<Instant, ImmutableList<RateEntry>>> scopeAndRates : ratesByScope)
+		{
+			final OrgId scopeOrgId = scopeAndRates.getKey().getOrgId();
+			if (!scopeOrgId.isAny() && !scopeOrgId.equals(orgId))
+			{
+				continue;
+			}
+
+			// latest ValidFrom first; usually the first one is also valid until the given date
+			for (final ImmutableList<RateEntry> ratesWithSameValidFrom : scopeAndRates.getValue().headMap(date, true).descendingMap().values())
+			{
+				for (final RateEntry rate : ratesWithSameValidFrom)
+				{
+					if (rate.isValidUntil(date))
+					{
+						return rate.getMultiplyRate();
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+
+	public boolean containsConversionRateId(final int conversionRateId)
+	{
+		return conversionRateIds.contains(conversionRateId);
+	}
+}
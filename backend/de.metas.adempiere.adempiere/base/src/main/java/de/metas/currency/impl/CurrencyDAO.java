@@ -4,9 +4,9 @@
 package de.metas.currency.impl;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Map;
+import java.util.Collection;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -15,6 +15,7 @@ import org.adempiere.ad.dao.IQueryOrderBy.Nulls;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_C_ConversionType;
 import org.compiere.model.I_C_ConversionType_Default;
 import org.compiere.model.I_C_Conversion_Rate;
@@ -22,6 +23,7 @@ import org.compiere.model.I_C_Currency;
 import org.compiere.util.TimeUtil;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.cache.CCache;
 import de.metas.currency.ConversionTypeMethod;
@@ -31,6 +33,7 @@ import de.metas.currency.CurrencyConversionContext;
 import de.metas.currency.CurrencyConversionType;
 import de.metas.currency.CurrencyPrecision;
 import de.metas.currency.ICurrencyDAO;
+import de.metas.currency.impl.CurrencyConversionRatesTimeline.RateEntry;
 import de.metas.i18n.IModelTranslationMap;
 import de.metas.money.CurrencyConversionTypeId;
 import de.metas.money.CurrencyId;
@@ -76,6 +79,12 @@ public class CurrencyDAO implements ICurrencyDAO
 			.tableName(I_C_ConversionType_Default.Table_Name)
 			.build();
 
+	private final CCache<CurrencyConversionRatesKey, CurrencyConversionRatesTimeline> conversionRatesCache = CCache.<CurrencyConversionRatesKey, CurrencyConversionRatesTimeline> builder()
+			.tableName(I_C_Conversion_Rate.Table_Name)
+			.initialCapacity(100)
+			.invalidationKeysMapper(this::computeConversionRatesKeysToInvalidate)
+			.build();
+
 	// private final CCache<ConversionTypeMethod, CurrencyConversionTypeId> conversionTypeIdsByType = CCache.<ConversionTypeMethod, CurrencyConversionTypeId> builder()
 	// .tableName(I_C_ConversionType.Table_Name)
 	// .build();
@@ -237,24 +246,99 @@ public class CurrencyDAO implements ICurrencyDAO
 		;
 	}
 
+	/**
+	 * @return the same rate as the first record of {@link #retrieveRateQuery(CurrencyConversionContext, CurrencyId, CurrencyId)}, but looked up in the cached {@link CurrencyConversionRatesTimeline}.
+	 */
 	@Override
 	public BigDecimal retrieveRateOrNull(
-			final CurrencyConversionContext conversionCtx,
-			final CurrencyId currencyFromId,
-			final CurrencyId currencyToId)
+			@NonNull final CurrencyConversionContext conversionCtx,
+			@NonNull final CurrencyId currencyFromId,
+			@NonNull final CurrencyId currencyToId)
 	{
-		final List<Map<String, Object>> recordsList = retrieveRateQuery(conversionCtx, currencyFromId, currencyToId)
-				.setLimit(1)
+		final CurrencyConversionRatesKey key = CurrencyConversionRatesKey.builder()
+				.clientId(conversionCtx.getClientId())
+				.currencyFromId(currencyFromId)
+				.currencyToId(currencyToId)
+				.conversionTypeId(conversionCtx.getConversionTypeId())
+				.build();
+
+		final Instant conversionDate = TimeUtil.asInstant(conversionCtx.getConversionDate());
+
+		return conversionRatesCache.getOrLoad(key, this::retrieveConversionRatesTimeline)
+				.getRateOrNull(conversionCtx.getOrgId(), conversionDate);
+	}
+
+	private CurrencyConversionRatesTimeline retrieveConversionRatesTimeline(@NonNull final CurrencyConversionRatesKey key)
+	{
+		final ImmutableList<RateEntry> rates = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_C_Conversion_Rate.class)
+				.addEqualsFilter(I_C_Conversion_Rate.COLUMN_C_Currency_ID, key.getCurrencyFromId())
+				.addEqualsFilter(I_C_Conversion_Rate.COLUMN_C_Currency_ID_To, key.getCurrencyToId())
+				.addEqualsFilter(I_C_Conversion_Rate.COLUMN_C_ConversionType_ID, key.getConversionTypeId())
+				.addInArrayOrAllFilter(I_C_Conversion_Rate.COLUMN_AD_Client_ID, ClientId.SYSTEM, key.getClientId())
 				.create()
-				.listColumns(I_C_Conversion_Rate.COLUMNNAME_MultiplyRate);
+				.stream()
+				.filter(record -> record.getValidFrom() != null)
+				.map(record -> toRateEntry(record))
+				.collect(ImmutableList.toImmutableList());
 
-		if (recordsList.isEmpty())
+		return new CurrencyConversionRatesTimeline(rates);
+	}
+
+	private static RateEntry toRateEntry(@NonNull final I_C_Conversion_Rate record)
+	{
+		return RateEntry.builder()
+				.conversionRateId(record.getC_Conversion_Rate_ID())
+				.clientId(ClientId.ofRepoId(record.getAD_Client_ID()))
+				.orgId(OrgId.ofRepoId(record.getAD_Org_ID()))
+				.validFrom(TimeUtil.asInstant(record.getValidFrom()))
+				.validTo(TimeUtil.asInstant(record.getValidTo()))
+				.multiplyRate(record.getMultiplyRate())
+				.build();
+	}
+
+	/**
+	 * @return the timelines which are containing the given conversion rate, before and after it was changed.
+	 */
+	private Collection<CurrencyConversionRatesKey> computeConversionRatesKeysToInvalidate(@NonNull final TableRecordReference recordRef)
+	{
+		final int conversionRateId = recordRef.getRecord_ID();
+		final ImmutableSet.Builder<CurrencyConversionRatesKey> keysToInvalidate = ImmutableSet.builder();
+
+		// Timelines which were built with the old version of this record (or with the deleted record)
+		for (final CurrencyConversionRatesKey key : conversionRatesCache.keySet())
+		{
+			final CurrencyConversionRatesTimeline timeline = conversionRatesCache.get(key);
+			if (timeline != null && timeline.containsConversionRateId(conversionRateId))
+			{
+				keysToInvalidate.add(key);
+			}
+		}
+
+		// Timelines which shall contain the new version of this record
+		final I_C_Conversion_Rate record = InterfaceWrapperHelper.loadOutOfTrx(conversionRateId, I_C_Conversion_Rate.class);
+		if (record != null)
 		{
-			return null;
+			final ClientId clientId = ClientId.ofRepoId(record.getAD_Client_ID());
+			final CurrencyConversionRatesKey recordKey = CurrencyConversionRatesKey.builder()
+					.clientId(clientId)
+					.currencyFromId(CurrencyId.ofRepoId(record.getC_Currency_ID()))
+					.currencyToId(CurrencyId.ofRepoId(record.getC_Currency_ID_To()))
+					.conversionTypeId(CurrencyConversionTypeId.ofRepoId(record.getC_ConversionType_ID()))
+					.build();
+
+			keysToInvalidate.add(recordKey);
+
+			// system rates are part of each client's timeline
+			if (clientId.isSystem())
+			{
+				conversionRatesCache.keySet()
+						.stream()
+						.filter(recordKey::isSameCurrenciesAndConversionType)
+						.forEach(keysToInvalidate::add);
+			}
 		}
 
-		final Map<String, Object> record = recordsList.get(0);
-		final BigDecimal rate = (BigDecimal)record.get(I_C_Conversion_Rate.COLUMNNAME_MultiplyRate);
-		return rate;
+		return keysToInvalidate.build();
 	}
 }
@@ -1,5 +1,7 @@
 package de.metas.impexp;
 
+import java.util.stream.Stream;
+
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.service.ClientId;
 import org.adempiere.service.ISysConfigBL;
@@ -13,6 +15,7 @@ import com.google.common.base.Stopwatch;
 import de.metas.impexp.config.DataImportConfigId;
 import de.metas.impexp.format.ImpFormat;
 import de.metas.impexp.format.ImportTableDescriptor;
+import de.metas.impexp.parser.ImpDataLine;
 import de.metas.impexp.parser.ImpDataParser;
 import de.metas.impexp.parser.ImpDataParserFactory;
 import de.metas.impexp.processing.IImportProcessFactory;
@@ -59,6 +62,8 @@ final class DataImportCommand
 	private final ImpDataParserFactory parserFactory = new ImpDataParserFactory();
 
 	private static final String SYSCONFIG_InsertBatchSize = "de.metas.impexp.insertBatchSize";
+	private static final String SYSCONFIG_InsertUsingCopy = "de.metas.impexp.insertUsingCopy";
+	private static final String SYSCONFIG_ParseWorkers = "de.metas.impexp.parseWorkers";
 
 	private final ClientId clientId;
 	private final OrgId orgId;
@@ -137,7 +142,7 @@ final class DataImportCommand
 
 	private ImportTableAppendResult readSourceAndInsertIntoImportTable()
 	{
-		final ImpDataParser sourceParser = parserFactory.createParser(importFormat);
+		final ImpDataParser sourceParser = parserFactory.createParser(importFormat, getParseWorkers());
 
 		final ImportTableAppender importTableAppender = ImportTableAppender.builder()
 				.importFormat(importFormat)
@@ -147,9 +152,13 @@ final class DataImportCommand
 				.dataImportRunId(dataImportRunId)
 				.dataImportConfigId(dataImportConfigId)
 				.insertBatchSize(getInsertBatchSize())
+				.insertUsingCopy(isInsertUsingCopy())
 				.build();
 
-		return importTableAppender.appendStream(sourceParser.streamDataLines(data));
+		try (final Stream<ImpDataLine> dataLines = sourceParser.streamDataLines(data))
+		{
+			return importTableAppender.appendStream(dataLines);
+		}
 	}
 
 	private int getInsertBatchSize()
@@ -157,6 +166,16 @@ final class DataImportCommand
 		return sysConfigBL.getIntValue(SYSCONFIG_InsertBatchSize, -1);
 	}
 
+	private boolean isInsertUsingCopy()
+	{
+		return sysConfigBL.getBooleanValue(SYSCONFIG_InsertUsingCopy, true);
+	}
+
+	private int getParseWorkers()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_ParseWorkers, 1);
+	}
+
 	private ImportProcessResult validateImportRecords(@NonNull final PInstanceId selectionId)
 	{
 		final Stopwatch stopwatch = Stopwatch.createStarted();
@@ -3,17 +3,23 @@
  */
 package de.metas.impexp.parser;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
-
-import com.google.common.base.CharMatcher;
-import com.google.common.io.ByteSource;
-import com.google.common.io.Files;
-import com.google.common.io.LineProcessor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import de.metas.util.Check;
 import lombok.NonNull;
@@ -51,36 +57,28 @@ final class FileImportReader
 	private static final char TEXT_DELIMITER = '"';
 	private static final int MAX_LOADED_LINES = 100;
 
-	private static final class SingleLineProcessor implements LineProcessor<List<String>>
-	{
-		private final List<String> lines = new ArrayList<>();
-
-		@Override
-		public boolean processLine(final String line) throws IOException
-		{
-			lines.add(line);
-			return true;
-		}
-
-		@Override
-		public List<String> getResult()
-		{
-			return lines;
-		}
-	}
-
-	final private static class MultiLineProcessor implements LineProcessor<List<String>>
+	/**
+	 * Joins the physical lines of a file which has at least one field with multiline text.
+	 * <br>
+	 * Assumes the <code>TEXT_DELIMITER</code> is not encountered in the field
+	 */
+	private static final class MultiLineJoiner
 	{
 		private boolean openQuote = false;
 		private boolean closedQuote = false;
 		private boolean quoteOpenRightNow = false;
-		private final List<String> loadedDataLines = new ArrayList<>();
 
-		@Override
-		public boolean processLine(final String line) throws IOException
+		/** the last line; it's not complete until we know if the next physical line is appended to it */
+		private StringBuilder pendingLine = null;
+		private boolean pendingLineIsNotBlank = false;
+
+		/**
+		 * @return the previous line, if it's complete now, or {@code null}
+		 */
+		public String processLine(@NonNull final String line)
 		{
 			// if previous line had a " which is not closed, then add all to the previous line, until we meet next "
-			if (CharMatcher.anyOf(line).matches(TEXT_DELIMITER))
+			if (line.indexOf(TEXT_DELIMITER) >= 0)
 			{
 				// if we already had a delimiter, the next one is closing delimiter
 				if (openQuote)
@@ -93,15 +91,20 @@ final class FileImportReader
 					quoteOpenRightNow = true;
 				}
 			}
+
 			//
 			// if open quote , add this line to the previous
-			if (openQuote && !quoteOpenRightNow && !loadedDataLines.isEmpty() && Check.isNotBlank(loadedDataLines.get(loadedDataLines.size() - 1)))
+			String completedLine = null;
+			if (openQuote && !quoteOpenRightNow && pendingLine != null && pendingLineIsNotBlank)
 			{
-				addLine(line);
+				// append the new line, because the char exists
+				pendingLine.append("\n").append(line);
 			}
 			else
 			{
-				loadedDataLines.add(line);
+				completedLine = pendingLine != null ? pendingLine.toString() : null;
+				pendingLine = new StringBuilder(line);
+				pendingLineIsNotBlank = Check.isNotBlank(line);
 				quoteOpenRightNow = false;
 			}
 
@@ -113,35 +116,116 @@ final class FileImportReader
 				closedQuote = false;
 				quoteOpenRightNow = false;
 			}
-			return true;
+			return completedLine;
 		}
 
 		/**
-		 * add current line to the previous one
-		 *
-		 * @param line
+		 * @return the last line, or {@code null} if there was none; to be called after all physical lines were processed
 		 */
-		private void addLine(@NonNull final String line)
+		public String flush()
 		{
-			final StringBuilder previousLine = new StringBuilder();
-			final int index = loadedDataLines.size() - 1;
-			previousLine.append(loadedDataLines.get(index));
-			// append the new line, because the char exists
-			if (Check.isNotBlank(previousLine.toString()))
+			final String lastLine = pendingLine != null ? pendingLine.toString() : null;
+			pendingLine = null;
+			return lastLine;
+		}
+	}
+
+	/**
+	 * Lazily reads the lines from given reader, joining the physical lines of multiline fields if asked to.
+	 */
+	private static final class LinesIterator implements Iterator<String>
+	{
+		private final BufferedReader reader;
+		private final MultiLineJoiner multiLineJoiner;
+
+		private String nextLine = null;
+		private boolean eof = false;
+
+		private LinesIterator(@NonNull final BufferedReader reader, final boolean multiline)
+		{
+			this.reader = reader;
+			this.multiLineJoiner = multiline ? new MultiLineJoiner() : null;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			if (nextLine == null && !eof)
 			{
-				previousLine.append("\n");
+				nextLine = readNextLine();
 			}
-			previousLine.append(line);
-			//
-			// now remove the line and add the new line
-			loadedDataLines.remove(index);
-			loadedDataLines.add(previousLine.toString());
+			return nextLine != null;
 		}
 
 		@Override
-		public List<String> getResult()
+		public String next()
 		{
-			return loadedDataLines;
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+
+			final String line = nextLine;
+			nextLine = null;
+			return line;
+		}
+
+		private String readNextLine()
+		{
+			try
+			{
+				for (String physicalLine = reader.readLine(); physicalLine != null; physicalLine = reader.readLine())
+				{
+					if (multiLineJoiner == null)
+					{
+						return physicalLine;
+					}
+
+					final String completedLine = multiLineJoiner.processLine(physicalLine);
+					if (completedLine != null)
+					{
+						return completedLine;
+					}
+				}
+
+				eof = true;
+				return multiLineJoiner != null ? multiLineJoiner.flush() : null;
+			}
+			catch (final IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+	}
+
+	/**
+	 * Lazily reads the lines from given input stream, so that the whole data never needs to be in memory.
+	 * <p>
+	 * The returned stream closes the input stream when it's closed.
+	 *
+	 * @param multiline if true, then the physical lines of quoted multiline fields are joined to one line (see {@link #readMultiLines(File, Charset)}).
+	 */
+	public Stream<String> streamLines(
+			@NonNull final InputStream in,
+			@NonNull final Charset charset,
+			final boolean multiline)
+	{
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset));
+		final LinesIterator linesIterator = new LinesIterator(reader, multiline);
+
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(linesIterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> close(reader));
+	}
+
+	private static void close(final BufferedReader reader)
+	{
+		try
+		{
+			reader.close();
+		}
+		catch (final IOException ex)
+		{
+			throw new UncheckedIOException(ex);
 		}
 	}
 
@@ -157,12 +241,12 @@ final class FileImportReader
 	 */
 	public List<String> readMultiLines(@NonNull final File file, @NonNull final Charset charset) throws IOException
 	{
-		return Files.readLines(file, charset, new MultiLineProcessor());
+		return readLines(new FileInputStream(file), charset, true);
 	}
 
 	public List<String> readMultiLines(@NonNull final byte[] data, @NonNull final Charset charset) throws IOException
 	{
-		return ByteSource.wrap(data).asCharSource(charset).readLines(new MultiLineProcessor());
+		return readLines(new ByteArrayInputStream(data), charset, true);
 	}
 
 	/**
@@ -175,12 +259,27 @@ final class FileImportReader
 	 */
 	public List<String> readRegularLines(@NonNull final File file, @NonNull final Charset charset) throws IOException
 	{
-		return Files.readLines(file, charset, new SingleLineProcessor());
+		return readLines(new FileInputStream(file), charset, false);
 	}
 
 	public List<String> readRegularLines(@NonNull final byte[] data, @NonNull final Charset charset) throws IOException
 	{
-		return ByteSource.wrap(data).asCharSource(charset).readLines(new SingleLineProcessor());
+		return readLines(new ByteArrayInputStream(data), charset, false);
+	}
+
+	private List<String> readLines(
+			@NonNull final InputStream in,
+			@NonNull final Charset charset,
+			final boolean multiline) throws IOException
+	{
+		try (final Stream<String> lines = streamLines(in, charset, multiline))
+		{
+			return lines.collect(Collectors.toList());
+		}
+		catch (final UncheckedIOException ex)
+		{
+			throw ex.getCause();
+		}
 	}
 
 	/**
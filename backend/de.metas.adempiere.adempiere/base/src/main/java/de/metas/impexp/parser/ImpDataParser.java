@@ -1,13 +1,26 @@
 package de.metas.impexp.parser;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.adempiere.exceptions.AdempiereException;
-import org.compiere.util.Util;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.springframework.core.io.Resource;
 
 import lombok.Builder;
@@ -40,65 +53,67 @@ import lombok.ToString;
 public final class ImpDataParser
 {
 	private static final Charset CHARSET = StandardCharsets.UTF_8;
+	private static final int PARSE_BATCH_SIZE = 500;
 
 	private final boolean multiline;
 	private final ImpDataLineParser lineParser;
+	private final int parseWorkers;
 
 	@Builder
 	private ImpDataParser(
 			final boolean multiline,
-			@NonNull final ImpDataLineParser lineParser)
+			@NonNull final ImpDataLineParser lineParser,
+			final int parseWorkers)
 	{
 		this.multiline = multiline;
 		this.lineParser = lineParser;
+		this.parseWorkers = parseWorkers > 0 ? parseWorkers : 1;
 	}
 
+	/**
+	 * Lazily reads and parses the given resource. The resource is never loaded into memory as a whole.
+	 * <p>
+	 * The returned stream shall be closed after use, because it holds the resource's input stream (and the parse workers, if any).
+	 */
 	public Stream<ImpDataLine> streamDataLines(final Resource resource)
 	{
 		final AtomicInteger nextLineNo = new AtomicInteger(1);
 
-		return streamSourceLines(resource)
-				.map(lineStr -> createImpDataLine(lineStr, nextLineNo));
-	}
-
-	private Stream<String> streamSourceLines(final Resource resource)
-	{
-		final byte[] data = toByteArray(resource);
-		try
+		final Stream<String> sourceLines = streamSourceLines(resource);
+		if (parseWorkers <= 1)
 		{
-			if (multiline)
-			{
-				return FileImportReader.readMultiLines(data, CHARSET).stream();
-			}
-			else
-			{
-				return FileImportReader.readRegularLines(data, CHARSET).stream();
-			}
+			return sourceLines.map(lineStr -> createImpDataLine(lineStr, nextLineNo.getAndIncrement()));
 		}
-		catch (final IOException ex)
+		else
 		{
-			throw new AdempiereException("Failed reading resource: " + resource, ex);
+			final ParallelParseIterator parallelParseIterator = new ParallelParseIterator(sourceLines.iterator(), parseWorkers);
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(parallelParseIterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+					.onClose(parallelParseIterator::shutdown)
+					.onClose(sourceLines::close);
 		}
 	}
 
-	private static byte[] toByteArray(final Resource resource)
+	private Stream<String> streamSourceLines(final Resource resource)
 	{
+		final InputStream in;
 		try
 		{
-			return Util.readBytes(resource.getInputStream());
+			in = resource.getInputStream();
 		}
 		catch (final IOException ex)
 		{
 			throw new AdempiereException("Failed reading resource: " + resource, ex);
 		}
+
+		return FileImportReader.streamLines(in, CHARSET, multiline);
 	}
 
-	private ImpDataLine createImpDataLine(final String lineStr, final AtomicInteger nextLineNo)
+	private ImpDataLine createImpDataLine(final String lineStr, final int fileLineNo)
 	{
 		try
 		{
 			return ImpDataLine.builder()
-					.fileLineNo(nextLineNo.getAndIncrement())
+					.fileLineNo(fileLineNo)
 					.lineStr(lineStr)
 					.cells(lineParser.parseDataCells(lineStr))
 					.build();
@@ -106,10 +121,119 @@ public final class ImpDataParser
 		catch (final Exception ex)
 		{
 			return ImpDataLine.builder()
-					.fileLineNo(nextLineNo.getAndIncrement())
+					.fileLineNo(fileLineNo)
 					.lineStr(lineStr)
 					.parseError(ErrorMessage.of(ex))
 					.build();
 		}
 	}
+
+	private List<ImpDataLine> createImpDataLines(final List<String> lineStrs, final int firstFileLineNo)
+	{
+		final List<ImpDataLine> lines = new ArrayList<>(lineStrs.size());
+		int fileLineNo = firstFileLineNo;
+		for (final String lineStr : lineStrs)
+		{
+			lines.add(createImpDataLine(lineStr, fileLineNo));
+			fileLineNo++;
+		}
+		return lines;
+	}
+
+	/**
+	 * Reads the source lines in the calling thread and parses batches of them in a pool of workers.
+	 * <p>
+	 * The parsed lines are returned in source order and only a bounded number of batches is read ahead, so the memory footprint stays flat.
+	 */
+	private final class ParallelParseIterator implements Iterator<ImpDataLine>
+	{
+		private final Iterator<String> sourceLines;
+		private final ExecutorService executor;
+		private final int maxBatchesAhead;
+		private final ArrayDeque<Future<List<ImpDataLine>>> batchesAhead = new ArrayDeque<>();
+
+		private int nextFileLineNo = 1;
+		private Iterator<ImpDataLine> currentBatch = null;
+
+		private ParallelParseIterator(@NonNull final Iterator<String> sourceLines, final int workers)
+		{
+			this.sourceLines = sourceLines;
+			this.maxBatchesAhead = workers * 2;
+			this.executor = Executors.newFixedThreadPool(
+					workers,
+					CustomizableThreadFactory.builder()
+							.setThreadNamePrefix(ImpDataParser.class.getSimpleName())
+							.setDaemon(true)
+							.build());
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			while (currentBatch == null || !currentBatch.hasNext())
+			{
+				submitBatches();
+				if (batchesAhead.isEmpty())
+				{
+					shutdown();
+					return false;
+				}
+
+				currentBatch = waitFor(batchesAhead.poll()).iterator();
+			}
+
+			return true;
+		}
+
+		@Override
+		public ImpDataLine next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			return currentBatch.next();
+		}
+
+		private void submitBatches()
+		{
+			while (batchesAhead.size() < maxBatchesAhead && sourceLines.hasNext())
+			{
+				final List<String> lineStrs = new ArrayList<>(PARSE_BATCH_SIZE);
+				while (lineStrs.size() < PARSE_BATCH_SIZE && sourceLines.hasNext())
+				{
+					lineStrs.add(sourceLines.next());
+				}
+
+				final int firstFileLineNo = nextFileLineNo;
+				nextFileLineNo += lineStrs.size();
+
+				batchesAhead.add(executor.submit(() -> createImpDataLines(lineStrs, firstFileLineNo)));
+			}
+		}
+
+		private List<ImpDataLine> waitFor(final Future<List<ImpDataLine>> batch)
+		{
+			try
+			{
+				return batch.get();
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+			catch (final ExecutionException ex)
+			{
+				// createImpDataLine() is not supposed to throw, so this is really unexpected
+				throw AdempiereException.wrapIfNeeded(ex.getCause());
+			}
+		}
+
+		private void shutdown()
+		{
+			batchesAhead.clear();
+			executor.shutdownNow();
+		}
+	}
 }
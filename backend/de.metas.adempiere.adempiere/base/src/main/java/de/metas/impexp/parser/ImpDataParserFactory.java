@@ -30,12 +30,21 @@ public class ImpDataParserFactory
 	private final ImpDataLineParserFactory lineParserFactory = new ImpDataLineParserFactory();
 
 	public ImpDataParser createParser(@NonNull final ImpFormat impFormat)
+	{
+		return createParser(impFormat, 1);
+	}
+
+	/**
+	 * @param parseWorkers how many threads shall parse the lines; the lines are streamed in file order anyways
+	 */
+	public ImpDataParser createParser(@NonNull final ImpFormat impFormat, final int parseWorkers)
 	{
 		final ImpDataLineParser lineParser = lineParserFactory.createParser(impFormat);
 
 		return ImpDataParser.builder()
 				.multiline(impFormat.isMultiLine())
 				.lineParser(lineParser)
+				.parseWorkers(parseWorkers)
 				.build();
 	}
 
@@ -35,40 +35,23 @@ import java.lang.reflect.Method;
 /* package */class BooleanGetterMethodInfo extends AbstractModelMethodInfo
 {
 
-	private final String propertyName;
+	private final ColumnIndexBinding columnIndexBinding;
 	private final Class<?> returnType;
 
 	public BooleanGetterMethodInfo(final Method interfaceMethod, final String propertyName)
 	{
 		super(interfaceMethod);
-		this.propertyName = propertyName;
+		this.columnIndexBinding = new ColumnIndexBinding(propertyName, "Is" + propertyName, "is" + propertyName);
 		this.returnType = interfaceMethod.getReturnType();
 	}
 
 	@Override
 	public Object invoke(final IModelInternalAccessor model, final Object[] methodArgs_IGNORED) throws Exception
 	{
-		// TODO: optimization: cache matched PropertyName and ColumnIndex
-
-		String propertyNameToUse = propertyName;
-		int ii = model.getColumnIndex(propertyNameToUse);
-		if (ii >= 0)
-		{
-			return model.getValue(propertyNameToUse, ii, returnType);
-		}
-
-		propertyNameToUse = "Is" + propertyName;
-		ii = model.getColumnIndex(propertyNameToUse);
-		if (ii >= 0)
-		{
-			return model.getValue(propertyNameToUse, ii, returnType);
-		}
-
-		propertyNameToUse = "is" + propertyName;
-		ii = model.getColumnIndex(propertyNameToUse);
-		if (ii >= 0)
+		final ColumnIndexBinding.Binding binding = columnIndexBinding.bind(model);
+		if (binding.isBound())
 		{
-			return model.getValue(propertyNameToUse, ii, returnType);
+			return model.getValue(binding.getColumnName(), binding.getColumnIndex(), returnType);
 		}
 
 		//
@@ -0,0 +1,112 @@
+package org.adempiere.ad.persistence;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+
+/**
+ * Binds a model interface method to the column index of the first of its candidate column names which exists on the model.
+ * <p>
+ * The binding is remembered for the column layout (see {@link IModelInternalAccessor#getColumnIndexesKey()}) it was resolved for.
+ * So a getter which is invoked over and over again on models of the same table uses the column index directly,
+ * instead of looking up the column name(s) on each invocation.
+ */
+/* package */final class ColumnIndexBinding
+{
+	private final ImmutableList<String> candidateColumnNames;
+
+	/** the binding for the last column layout; it's immutable, so no further synchronization is needed */
+	private volatile Binding lastBinding;
+
+	/* package */ ColumnIndexBinding(@NonNull final String... candidateColumnNames)
+	{
+		this.candidateColumnNames = ImmutableList.copyOf(candidateColumnNames);
+	}
+
+	/**
+	 * @return binding; its {@link Binding#isBound()} is false if none of the candidate columns exists on the given model
+	 */
+	public Binding bind(@NonNull final IModelInternalAccessor model)
+	{
+		final Object columnIndexesKey = model.getColumnIndexesKey();
+		if (columnIndexesKey == null)
+		{
+			return resolve(model, null);
+		}
+
+		final Binding lastBinding = this.lastBinding;
+		if (lastBinding != null && lastBinding.columnIndexesKey == columnIndexesKey)
+		{
+			return lastBinding;
+		}
+
+		final Binding binding = resolve(model, columnIndexesKey);
+		this.lastBinding = binding;
+		return binding;
+	}
+
+	private Binding resolve(final IModelInternalAccessor model, final Object columnIndexesKey)
+	{
+		for (final String columnName : candidateColumnNames)
+		{
+			final int columnIndex = model.getColumnIndex(columnName);
+			if (columnIndex >= 0)
+			{
+				return new Binding(columnIndexesKey, columnName, columnIndex);
+			}
+		}
+
+		return new Binding(columnIndexesKey, null, -1);
+	}
+
+	/* package */static final class Binding
+	{
+		private final Object columnIndexesKey;
+		private final String columnName;
+		private final int columnIndex;
+
+		private Binding(final Object columnIndexesKey, final String columnName, final int columnIndex)
+		{
+			this.columnIndexesKey = columnIndexesKey;
+			this.columnName = columnName;
+			this.columnIndex = columnIndex;
+		}
+
+		public boolean isBound()
+		{
+			return columnIndex >= 0;
+		}
+
+		public String getColumnName()
+		{
+			return columnName;
+		}
+
+		public int getColumnIndex()
+		{
+			return columnIndex;
+		}
+	}
+}
@@ -40,6 +40,15 @@ public interface IModelInternalAccessor
 
 	int getColumnIndex(String columnName);
 
+	/**
+	 * @return object which identifies the column layout of the underlying model (e.g. its POInfo); column indexes which were resolved for the very same object can be reused
+	 *         without looking up the column names again. {@code null} if column indexes shall not be reused.
+	 */
+	default Object getColumnIndexesKey()
+	{
+		return null;
+	}
+
 	boolean isVirtualColumn(String columnName);
 
 	boolean isKeyColumnName(String columnName);
@@ -27,11 +27,13 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.reflections.ReflectionUtils;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.util.Check;
@@ -43,8 +45,8 @@ class ModelClassInfo implements IModelClassInfo
 	private final Class<?> modelClass;
 	private final String tableName;
 
-	private Map<Method, IModelMethodInfo> _modelMethodInfos;
-	private final ReentrantLock modelMethodInfosLock = new ReentrantLock();
+	/** Method infos, lazily introspected on first use; lookups are lock-free because they are done on each model getter/setter invocation */
+	private final Supplier<Map<Method, IModelMethodInfo>> modelMethodInfosSupplier = Suppliers.memoize(this::createMethodInfos);
 
 	private Set<String> _definedColumnNames = null;
 
@@ -86,48 +88,32 @@ class ModelClassInfo implements IModelClassInfo
 	@Override
 	public final IModelMethodInfo getMethodInfo(final Method method)
 	{
-		modelMethodInfosLock.lock();
-		try
-		{
-			final Map<Method, IModelMethodInfo> methodInfos = getMethodInfos0();
-
-			IModelMethodInfo methodInfo = methodInfos.get(method);
-
-			//
-			// If methodInfo was not found, try to create it now
-			if (methodInfo == null)
-			{
-				methodInfo = introspector.createModelMethodInfo(method);
-				if (methodInfo == null)
-				{
-					throw new IllegalStateException("No method info was found for " + method + " in " + this);
-				}
-
-				methodInfos.put(method, methodInfo);
-			}
+		final Map<Method, IModelMethodInfo> methodInfos = modelMethodInfosSupplier.get();
 
-			return methodInfo;
-		}
-		finally
+		final IModelMethodInfo methodInfo = methodInfos.get(method);
+		if (methodInfo != null)
 		{
-			modelMethodInfosLock.unlock();
+			return methodInfo;
 		}
+
+		//
+		// If methodInfo was not found, try to create it now
+		return methodInfos.computeIfAbsent(method, this::createMethodInfo);
+	}
+
+	private Map<Method, IModelMethodInfo> createMethodInfos()
+	{
+		return new ConcurrentHashMap<>(introspector.createModelMethodInfos(getModelClass()));
 	}
 
-	/**
-	 * Gets the inner map of {@link Method} to {@link IModelMethodInfo}.
-	 * 
-	 * NOTE: this method is not thread safe
-	 * 
-	 * @return
-	 */
-	private final Map<Method, IModelMethodInfo> getMethodInfos0()
+	private IModelMethodInfo createMethodInfo(final Method method)
 	{
-		if (_modelMethodInfos == null)
+		final IModelMethodInfo methodInfo = introspector.createModelMethodInfo(method);
+		if (methodInfo == null)
 		{
-			_modelMethodInfos = introspector.createModelMethodInfos(getModelClass());
+			throw new IllegalStateException("No method info was found for " + method + " in " + this);
 		}
-		return _modelMethodInfos;
+		return methodInfo;
 	}
 
 	@Override
@@ -38,6 +38,7 @@ import org.adempiere.model.PlainContextAware;
 import org.adempiere.util.lang.IContextAware;
 
 import de.metas.util.Check;
+import lombok.NonNull;
 
 /**
  * Abstract list of models which expires when parent model's context or transaction was changed.
@@ -424,6 +425,33 @@ public abstract class AbstractModelListCacheLocal<PT, T>
 		debugCheckItemsValid();
 	}
 
+	/**
+	 * Sets the given items as if they were just retrieved from database, e.g. because they were bulk-loaded together with the items of other parent models.
+	 *
+	 * If the items are already loaded and not staled, this method does nothing.
+	 */
+	public final void setItemsIfStaled(@NonNull final List<T> itemsToSet)
+	{
+		if (!checkStaled())
+		{
+			return;
+		}
+
+		final PT parentModel = getParentModel();
+		final List<T> items = new ArrayList<T>(itemsToSet);
+		if (itemsComparator != null)
+		{
+			Collections.sort(items, itemsComparator);
+		}
+
+		this.ctx = createPlainContextAware(parentModel);
+		this.items = items;
+		this.parentModelLoadCount = InterfaceWrapperHelper.getLoadCount(parentModel);
+		this.debugEmptyNotStaledSet = false;
+
+		debugCheckItemsValid();
+	}
+
 	private final void debugCheckItemsValid()
 	{
 		if (!DEBUG)
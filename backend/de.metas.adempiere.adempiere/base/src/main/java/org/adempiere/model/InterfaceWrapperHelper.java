@@ -22,6 +22,7 @@
 
 package org.adempiere.model;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -602,6 +603,39 @@ public class InterfaceWrapperHelper
 		models.forEach(InterfaceWrapperHelper::saveRecord);
 	}
 
+	/**
+	 * Like {@link #saveAll(Collection)}, but the PO based records are inserted/updated using JDBC batches.
+	 * <p>
+	 * IMPORTANT: the "before save" model interceptors of all records are fired before any of them is inserted,
+	 * so use it only for records which are not depending on each other. See {@link PO#saveAllInBatchEx(Collection)}.
+	 * Models which are not PO based (e.g. POJOs in unit tests) are saved one by one.
+	 */
+	public static void saveAllInBatch(@NonNull final Collection<?> models)
+	{
+		if (models.isEmpty())
+		{
+			return;
+		}
+
+		final List<PO> pos = new ArrayList<>(models.size());
+		for (final Object model : models)
+		{
+			final Object modelToSave = extractModelToSave(model);
+			if (modelToSave != null
+					&& !GridTabWrapper.isHandled(modelToSave)
+					&& POWrapper.isHandled(modelToSave))
+			{
+				pos.add(POWrapper.getStrictPO(modelToSave));
+			}
+			else
+			{
+				save(model);
+			}
+		}
+
+		PO.saveAllInBatchEx(pos);
+	}
+
 	/**
 	 * Does the same as {@link #save(Object)},
 	 * but this method can be static-imported into repository implementations which usually have their own method named "save()".
@@ -621,4 +621,39 @@ public interface IQuery<T>
 	{
 		return list(clazz).stream();
 	}
+
+	int DEFAULT_CursorFetchSize = 1000;
+
+	/**
+	 * Streams the matching records using a forward-only database cursor which fetches {@code fetchSize} rows at a time.
+	 * Models are materialized only when the stream is consumed and are not retained afterwards,
+	 * so memory usage is constant, no matter how many rows are matching. Nothing is written to the database (unlike {@link #iterate(Class)}).
+	 * <p>
+	 * <b>IMPORTANT:</b>
+	 * <ul>
+	 * <li>the cursor runs on a dedicated, read-only database transaction, so it does not see uncommitted changes of the current transaction.
+	 * <li>the stream must be closed (e.g. try-with-resources) unless it's fully consumed, in order to release the database connection.
+	 * </ul>
+	 */
+	default <ET extends T> Stream<ET> streamUsingCursor(final Class<ET> clazz, final int fetchSize) throws DBException
+	{
+		return stream(clazz);
+	}
+
+	default Stream<T> streamUsingCursor() throws DBException
+	{
+		return streamUsingCursor(getModelClass(), DEFAULT_CursorFetchSize);
+	}
+
+	/**
+	 * Read-only variant of {@link #streamUsingCursor(Class, int)} which does not load the models, but only the values of the given columns.
+	 *
+	 * @return stream of rows; each row contains the values in the same order as the given {@code columnNames}
+	 */
+	default Stream<Object[]> streamColumnsUsingCursor(final int fetchSize, @NonNull final String... columnNames) throws DBException
+	{
+		return listColumns(columnNames)
+				.stream()
+				.map(row -> Stream.of(columnNames).map(row::get).toArray());
+	}
 }
@@ -29,9 +29,11 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 public class CCacheTest
@@ -244,4 +246,138 @@ public class CCacheTest
 		cache.remove("k1");
 		assertThat(removedItems).containsEntry("k1", "v1");
 	}
+	@Test
+	public void test_resetForRecordId_recordIndex_introspecting()
+	{
+		final CCache<Integer, TableRecordReference> cache = CCache.<Integer, TableRecordReference> builder()
+				.cacheName("C_BPartner#by#C_BPartner_ID")
+				.recordIndexEnabled(true)
+				.build();
+
+		cache.put(1, TableRecordReference.of("C_BPartner", 1));
+		cache.getOrLoad(2, () -> TableRecordReference.of("C_BPartner", 2));
+		assertSize(cache, 2);
+
+		assertThat(cache.resetForRecordId(TableRecordReference.of("C_BPartner", 1))).isEqualTo(1);
+		assertThat(cache.containsKey(1)).isFalse();
+		assertThat(cache.containsKey(2)).isTrue();
+
+		// record which is not cached at all
+		assertThat(cache.resetForRecordId(TableRecordReference.of("C_BPartner", 3))).isEqualTo(0);
+		assertThat(cache.containsKey(2)).isTrue();
+
+		assertThat(cache.stats().getPartialResetsForRecord()).isEqualTo(2);
+		assertThat(cache.stats().getFullResetsForRecord()).isEqualTo(0);
+		assertThat(cache.stats().getKeysResetForRecord()).isEqualTo(1);
+	}
+
+	@Test
+	public void test_resetForRecordId_recordIndex_replacedValue()
+	{
+		final CCache<Integer, TableRecordReference> cache = CCache.<Integer, TableRecordReference> builder()
+				.cacheName("C_BPartner#by#C_BPartner_ID")
+				.recordIndexEnabled(true)
+				.build();
+
+		cache.put(1, TableRecordReference.of("C_BPartner", 1));
+		cache.put(1, TableRecordReference.of("C_BPartner", 2));
+
+		assertThat(cache.resetForRecordId(TableRecordReference.of("C_BPartner", 1))).isEqualTo(0);
+		assertThat(cache.resetForRecordId(TableRecordReference.of("C_BPartner", 2))).isEqualTo(1);
+		assertEmpty(cache);
+	}
+
+	@Test
+	public void test_resetForRecordId_recordIndex_unknownRecords()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.cacheName("C_BPartner#by#Value")
+				.recordIndexEnabled(true)
+				.recordRefsExtractor(value -> value.startsWith("bp")
+						? ImmutableList.of(TableRecordReference.of("C_BPartner", Integer.parseInt(value.substring(2))))
+						: null)
+				.build();
+
+		cache.put("k1", "bp1");
+		cache.put("k2", "bp2");
+		assertThat(cache.resetForRecordId(TableRecordReference.of("C_BPartner", 1))).isEqualTo(1);
+		assertSize(cache, 1);
+
+		// value based on unknown records => we can't tell which keys to evict
+		cache.put("k3", "something");
+		cache.resetForRecordId(TableRecordReference.of("C_BPartner", 1));
+		assertEmpty(cache);
+		assertThat(cache.stats().getFullResetsForRecord()).isEqualTo(1);
+	}
+
+	@Test
+	public void test_resetForRecordId_noRecordIndex()
+	{
+		final CCache<Integer, TableRecordReference> cache = CCache.<Integer, TableRecordReference> builder()
+				.cacheName("C_BPartner#by#C_BPartner_ID")
+				.build();
+
+		cache.put(1, TableRecordReference.of("C_BPartner", 1));
+		cache.put(2, TableRecordReference.of("C_BPartner", 2));
+		cache.resetForRecordId(TableRecordReference.of("C_BPartner", 1));
+
+		assertEmpty(cache);
+		assertThat(cache.stats().isRecordIndexEnabled()).isFalse();
+		assertThat(cache.stats().getFullResetsForRecord()).isEqualTo(1);
+	}
+
+	@Test
+	public void test_resetForRecordId_recordIndex_additionalTable()
+	{
+		final CCache<Integer, TableRecordReference> cache = CCache.<Integer, TableRecordReference> builder()
+				.cacheName("C_BPartner#by#C_BPartner_ID")
+				.additionalTableNameToResetFor("C_BP_Group")
+				.recordIndexEnabled(true)
+				.build();
+
+		cache.put(1, TableRecordReference.of("C_BPartner", 1));
+		cache.put(2, TableRecordReference.of("C_BPartner", 2));
+
+		// the index only covers C_BPartner records
+		cache.resetForRecordId(TableRecordReference.of("C_BP_Group", 1));
+		assertEmpty(cache);
+		assertThat(cache.stats().getFullResetsForRecord()).isEqualTo(1);
+	}
+
+	@Test
+	public void test_stats_hitRate()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.recordStats(true)
+				.build();
+		cache.getOrLoad("k1", () -> "v1"); // miss
+		cache.getOrLoad("k1", () -> "v1"); // hit
+
+		assertThat(cache.stats().isStatsRecorded()).isTrue();
+		assertThat(cache.stats().getHitRate()).isEqualTo(0.5);
+	}
+
+	@Test
+	public void test_stats_notRecordedByDefault()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder().build();
+		cache.getOrLoad("k1", () -> "v1");
+		cache.getOrLoad("k1", () -> "v1");
+
+		assertThat(cache.stats().isStatsRecorded()).isFalse();
+		assertThat(cache.stats().getHitRate()).isNaN();
+	}
+
+	@Test
+	public void test_stats_recordedIfRecordIndexEnabled()
+	{
+		final CCache<Integer, TableRecordReference> cache = CCache.<Integer, TableRecordReference> builder()
+				.cacheName("C_BPartner#by#C_BPartner_ID")
+				.recordIndexEnabled(true)
+				.build();
+		cache.getOrLoad(1, () -> TableRecordReference.of("C_BPartner", 1)); // miss
+
+		assertThat(cache.stats().isStatsRecorded()).isTrue();
+		assertThat(cache.stats().getHitRate()).isEqualTo(0.0);
+	}
 }
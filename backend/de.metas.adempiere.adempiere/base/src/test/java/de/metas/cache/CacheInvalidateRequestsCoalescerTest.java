@@ -0,0 +1,106 @@
+package de.metas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.CacheInvalidateRequestsCoalescer.CoalescingResult;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class CacheInvalidateRequestsCoalescerTest
+{
+	private final CacheInvalidateRequestsCoalescer coalescer = new CacheInvalidateRequestsCoalescer(3);
+
+	@Test
+	void duplicatesAreMerged()
+	{
+		final CoalescingResult result = coalescer.coalesce(ImmutableList.of(
+				CacheInvalidateRequest.rootRecord("C_BPartner", 1),
+				CacheInvalidateRequest.rootRecord("C_BPartner", 1),
+				CacheInvalidateRequest.rootRecord("C_BPartner", 2)));
+
+		assertThat(result.getMultiRequest().getRequests()).containsExactly(
+				CacheInvalidateRequest.rootRecord("C_BPartner", 1),
+				CacheInvalidateRequest.rootRecord("C_BPartner", 2));
+		assertThat(result.getRequestsMerged()).isEqualTo(1);
+		assertThat(result.getTablesCollapsed()).isEqualTo(0);
+	}
+
+	@Test
+	void collapsedToTableLevel_aboveThreshold()
+	{
+		final CoalescingResult result = coalescer.coalesce(ImmutableList.of(
+				CacheInvalidateRequest.rootRecord("C_BPartner", 1),
+				CacheInvalidateRequest.rootRecord("C_BPartner", 2),
+				CacheInvalidateRequest.rootRecord("C_BPartner", 3),
+				CacheInvalidateRequest.rootRecord("C_BPartner", 4),
+				CacheInvalidateRequest.rootRecord("M_Product", 1)));
+
+		assertThat(result.getMultiRequest().getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.allRecordsForTable("C_BPartner"),
+				CacheInvalidateRequest.rootRecord("M_Product", 1));
+		assertThat(result.getRequestsMerged()).isEqualTo(3);
+		assertThat(result.getTablesCollapsed()).isEqualTo(1);
+	}
+
+	@Test
+	void collapsedChildRecords_keepTheirRootRecords()
+	{
+		final CoalescingResult result = coalescer.coalesce(ImmutableList.of(
+				CacheInvalidateRequest.builder().rootRecord("C_Order", 1).childRecord("C_OrderLine", 11).build(),
+				CacheInvalidateRequest.builder().rootRecord("C_Order", 1).childRecord("C_OrderLine", 12).build(),
+				CacheInvalidateRequest.builder().rootRecord("C_Order", 1).childRecord("C_OrderLine", 13).build(),
+				CacheInvalidateRequest.builder().rootRecord("C_Order", 2).childRecord("C_OrderLine", 21).build()));
+
+		assertThat(result.getMultiRequest().getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.allRecordsForTable("C_OrderLine"),
+				CacheInvalidateRequest.rootRecord("C_Order", 1),
+				CacheInvalidateRequest.rootRecord("C_Order", 2));
+	}
+
+	@Test
+	void recordRequestsAreDropped_ifTableIsAlreadyFullyInvalidated()
+	{
+		final CoalescingResult result = coalescer.coalesce(ImmutableList.of(
+				CacheInvalidateRequest.rootRecord("C_BPartner", 1),
+				CacheInvalidateRequest.allRecordsForTable("C_BPartner")));
+
+		assertThat(result.getMultiRequest().getRequests()).containsExactly(
+				CacheInvalidateRequest.allRecordsForTable("C_BPartner"));
+	}
+
+	@Test
+	void all()
+	{
+		final CoalescingResult result = coalescer.coalesce(ImmutableList.of(
+				CacheInvalidateRequest.rootRecord("C_BPartner", 1),
+				CacheInvalidateRequest.all()));
+
+		assertThat(result.getMultiRequest()).isSameAs(CacheInvalidateMultiRequest.all());
+	}
+}
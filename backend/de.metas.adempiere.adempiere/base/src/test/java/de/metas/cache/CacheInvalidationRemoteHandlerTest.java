@@ -2,11 +2,18 @@ package de.metas.cache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
 import org.junit.jupiter.api.Test;
 
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.event.Event;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.impl.PlainEventBusFactory;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -45,4 +52,39 @@ class CacheInvalidationRemoteHandlerTest
 		assertThat(result).isNotNull();
 	}
 
+	@Test
+	void shutdown_sendsPendingRequests_and_afterwardsRequestsAreSentDirectly()
+	{
+		AdempiereTestHelper.get().init();
+		final PlainEventBusFactory eventBusFactory = PlainEventBusFactory.newInstance();
+		Services.registerService(IEventBusFactory.class, eventBusFactory);
+
+		final CacheInvalidationRemoteHandler handler = new CacheInvalidationRemoteHandler();
+		handler.enableForTableName("SomeTable");
+
+		final List<CacheInvalidateMultiRequest> sentRequests = new ArrayList<>();
+		eventBusFactory.getEventBus(CacheInvalidationRemoteHandler.TOPIC_CacheInvalidation)
+				.subscribe(event -> sentRequests.add(handler.createRequestFromEvent(event)));
+
+		//
+		// Pending until the coalescing window is over
+		handler.postEvent(CacheInvalidateMultiRequest.rootRecord("SomeTable", 1));
+		handler.postEvent(CacheInvalidateMultiRequest.rootRecord("SomeTable", 2));
+		assertThat(sentRequests).isEmpty();
+
+		//
+		// Pending requests are sent on shutdown
+		handler.shutdown();
+		assertThat(sentRequests).hasSize(1);
+		assertThat(sentRequests.get(0).getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.rootRecord("SomeTable", 1),
+				CacheInvalidateRequest.rootRecord("SomeTable", 2));
+
+		//
+		// Requests posted after shutdown are sent right away
+		handler.postEvent(CacheInvalidateMultiRequest.rootRecord("SomeTable", 3));
+		assertThat(sentRequests).hasSize(2);
+		assertThat(sentRequests.get(1).getRequests()).containsExactly(CacheInvalidateRequest.rootRecord("SomeTable", 3));
+		assertThat(handler.getEventsSent()).isEqualTo(2);
+	}
 }
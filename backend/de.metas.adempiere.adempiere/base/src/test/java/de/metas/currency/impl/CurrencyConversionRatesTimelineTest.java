@@ -0,0 +1,115 @@
+package de.metas.currency.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.adempiere.service.ClientId;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.currency.impl.CurrencyConversionRatesTimeline.RateEntry;
+import de.metas.organization.OrgId;
+
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CurrencyConversionRatesTimelineTest
+{
+	private static final ClientId CLIENT = ClientId.ofRepoId(1000000);
+	private static final OrgId ORG1 = OrgId.ofRepoId(1000001);
+	private static final OrgId ORG2 = OrgId.ofRepoId(1000002);
+
+	private int nextConversionRateId = 1;
+
+	private static Instant date(final String date)
+	{
+		return LocalDate.parse(date).atStartOfDay(ZoneId.of("UTC")).toInstant();
+	}
+
+	private RateEntry rate(final ClientId clientId, final OrgId orgId, final String validFrom, final String validTo, final String multiplyRate)
+	{
+		return RateEntry.builder()
+				.conversionRateId(nextConversionRateId++)
+				.clientId(clientId)
+				.orgId(orgId)
+				.validFrom(date(validFrom))
+				.validTo(validTo != null ? date(validTo) : null)
+				.multiplyRate(new BigDecimal(multiplyRate))
+				.build();
+	}
+
+	@Test
+	public void latestValidFromWins()
+	{
+		final CurrencyConversionRatesTimeline timeline = new CurrencyConversionRatesTimeline(ImmutableList.of(
+				rate(CLIENT, OrgId.ANY, "2020-01-01", "2020-12-31", "1.1"),
+				rate(CLIENT, OrgId.ANY, "2020-03-01", "2020-03-31", "1.2")));
+
+		assertThat(timeline.getRateOrNull(ORG1, date("2019-12-31"))).isNull();
+		assertThat(timeline.getRateOrNull(ORG1, date("2020-01-01"))).isEqualByComparingTo("1.1");
+		assertThat(timeline.getRateOrNull(ORG1, date("2020-03-01"))).isEqualByComparingTo("1.2");
+		assertThat(timeline.getRateOrNull(ORG1, date("2020-03-31"))).isEqualByComparingTo("1.2");
+		assertThat(timeline.getRateOrNull(ORG1, date("2020-04-01"))).isEqualByComparingTo("1.1"); // overlapped by the expired March rate
+		assertThat(timeline.getRateOrNull(ORG1, date("2021-01-01"))).isNull();
+	}
+
+	@Test
+	public void moreSpecificClientAndOrgWins()
+	{
+		final CurrencyConversionRatesTimeline timeline = new CurrencyConversionRatesTimeline(ImmutableList.of(
+				rate(ClientId.SYSTEM, OrgId.ANY, "2020-01-01", "2020-12-31", "1.0"),
+				rate(CLIENT, OrgId.ANY, "2019-01-01", "2020-12-31", "2.0"),
+				rate(CLIENT, ORG1, "2018-01-01", "2020-06-30", "3.0")));
+
+		assertThat(timeline.getRateOrNull(ORG1, date("2020-05-01"))).isEqualByComparingTo("3.0");
+		assertThat(timeline.getRateOrNull(ORG2, date("2020-05-01"))).isEqualByComparingTo("2.0");
+		assertThat(timeline.getRateOrNull(ORG1, date("2020-07-01"))).isEqualByComparingTo("2.0");
+		assertThat(timeline.getRateOrNull(ORG1, date("2018-06-01"))).isEqualByComparingTo("3.0");
+	}
+
+	@Test
+	public void systemRateIfNoClientRate()
+	{
+		final CurrencyConversionRatesTimeline timeline = new CurrencyConversionRatesTimeline(ImmutableList.of(
+				rate(ClientId.SYSTEM, OrgId.ANY, "2020-01-01", "2020-12-31", "1.0"),
+				rate(CLIENT, ORG2, "2020-01-01", "2020-12-31", "2.0")));
+
+		assertThat(timeline.getRateOrNull(ORG1, date("2020-05-01"))).isEqualByComparingTo("1.0");
+	}
+
+	@Test
+	public void nullValidToNeverMatches()
+	{
+		final CurrencyConversionRatesTimeline timeline = new CurrencyConversionRatesTimeline(ImmutableList.of(
+				rate(CLIENT, OrgId.ANY, "2020-01-01", null, "1.0")));
+
+		assertThat(timeline.getRateOrNull(ORG1, date("2020-05-01"))).isNull();
+		assertThat(timeline.containsConversionRateId(1)).isTrue();
+		assertThat(timeline.containsConversionRateId(2)).isFalse();
+	}
+}
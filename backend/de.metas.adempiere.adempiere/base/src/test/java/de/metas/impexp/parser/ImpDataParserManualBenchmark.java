@@ -0,0 +1,174 @@
+package de.metas.impexp.parser;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.impexp.format.ImpFormat;
+import de.metas.impexp.format.ImpFormatColumn;
+import de.metas.impexp.format.ImpFormatColumnDataType;
+import de.metas.impexp.format.ImpFormatId;
+import de.metas.impexp.format.ImpFormatType;
+import de.metas.impexp.format.ImportTableDescriptor;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Measures how fast a synthetic file is read and parsed for each {@link ImpFormatType} and how much heap is needed.
+ * <p>
+ * The synthetic data itself is kept in memory, so the reported peak heap shows what the parsing adds on top of it; it shall not grow with the number of lines.
+ * The database load (<code>COPY</code> vs. batched <code>INSERT</code>) is not covered here, because it needs a running database.
+ */
+public class ImpDataParserManualBenchmark
+{
+	public static void main(final String[] args)
+	{
+		final int linesCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		final int parseWorkers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		for (final ImpFormatType formatType : ImpFormatType.values())
+		{
+			final Resource data = createData(formatType, linesCount);
+			run(formatType, data, 1);
+			run(formatType, data, parseWorkers);
+		}
+	}
+
+	private static void run(final ImpFormatType formatType, final Resource data, final int parseWorkers)
+	{
+		final ImpDataParser parser = new ImpDataParserFactory().createParser(createImportFormat(formatType), parseWorkers);
+
+		System.gc();
+		resetPeakHeapUsage();
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final long countLines;
+		try (final Stream<ImpDataLine> lines = parser.streamDataLines(data))
+		{
+			countLines = lines.count();
+		}
+		stopwatch.stop();
+
+		final double linesPerSecond = countLines * 1000.0 / Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		System.out.printf("%-20s workers=%-3d lines=%-9d %10.0f lines/s, peak heap %d MB%n",
+				formatType, parseWorkers, countLines, linesPerSecond, getPeakHeapUsage() / 1024 / 1024);
+	}
+
+	private static Resource createData(final ImpFormatType formatType, final int linesCount)
+	{
+		final StringBuilder data = new StringBuilder();
+		for (int i = 0; i < linesCount; i++)
+		{
+			if (formatType == ImpFormatType.FIXED_POSITION)
+			{
+				data.append(String.format("%10d%-20s%10s%12s", i, "name" + i, "2019-01-" + (10 + i % 20), i + ".5"));
+			}
+			else
+			{
+				final char delimiter = getDelimiter(formatType);
+				data.append(i).append(delimiter)
+						.append("\"name").append(i).append("\"").append(delimiter)
+						.append("2019-01-").append(10 + i % 20).append(delimiter)
+						.append(i).append(".5");
+			}
+			data.append("\n");
+		}
+		return new ByteArrayResource(data.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static char getDelimiter(final ImpFormatType formatType)
+	{
+		switch (formatType)
+		{
+			case COMMA_SEPARATED:
+				return ',';
+			case SEMICOLON_SEPARATED:
+				return ';';
+			case TAB_SEPARATED:
+				return '\t';
+			default:
+				throw new IllegalArgumentException("Not a delimited format: " + formatType);
+		}
+	}
+
+	private static ImpFormat createImportFormat(final ImpFormatType formatType)
+	{
+		final boolean fixedPosition = formatType == ImpFormatType.FIXED_POSITION;
+		return ImpFormat.builder()
+				.id(ImpFormatId.ofRepoId(123))
+				.name("benchmark")
+				.formatType(formatType)
+				.importTableDescriptor(ImportTableDescriptor.builder()
+						.tableName("ImportRecord")
+						.keyColumnName("ImportRecord_ID")
+						.build())
+				.columns(ImmutableList.of(
+						createColumn(ImpFormatColumnDataType.Number, 1, fixedPosition ? 10 : null, null),
+						createColumn(ImpFormatColumnDataType.String, fixedPosition ? 11 : 2, fixedPosition ? 30 : null, null),
+						createColumn(ImpFormatColumnDataType.Date, fixedPosition ? 31 : 3, fixedPosition ? 40 : null, "yyyy-MM-dd"),
+						createColumn(ImpFormatColumnDataType.Number, fixedPosition ? 41 : 4, fixedPosition ? 52 : null, null)))
+				.build();
+	}
+
+	private static ImpFormatColumn createColumn(
+			final ImpFormatColumnDataType dataType,
+			final int startNo,
+			final Integer endNo,
+			final String dataFormat)
+	{
+		return ImpFormatColumn.builder()
+				.columnName("col" + startNo)
+				.startNo(startNo)
+				.endNo(endNo)
+				.dataType(dataType)
+				.dataFormat(dataFormat)
+				.build();
+	}
+
+	private static void resetPeakHeapUsage()
+	{
+		ManagementFactory.getMemoryPoolMXBeans()
+				.stream()
+				.filter(pool -> pool.getType() == MemoryType.HEAP)
+				.forEach(MemoryPoolMXBean::resetPeakUsage);
+	}
+
+	private static long getPeakHeapUsage()
+	{
+		return ManagementFactory.getMemoryPoolMXBeans()
+				.stream()
+				.filter(pool -> pool.getType() == MemoryType.HEAP)
+				.mapToLong(pool -> pool.getPeakUsage().getUsed())
+				.sum();
+	}
+}
@@ -0,0 +1,131 @@
+package de.metas.impexp.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.impexp.format.ImpFormat;
+import de.metas.impexp.format.ImpFormatColumn;
+import de.metas.impexp.format.ImpFormatColumnDataType;
+import de.metas.impexp.format.ImpFormatId;
+import de.metas.impexp.format.ImpFormatType;
+import de.metas.impexp.format.ImportTableDescriptor;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class ImpDataParserTest
+{
+	private static final int LINES_COUNT = 2345;
+
+	@Test
+	public void parallel_parsing_keeps_the_file_order()
+	{
+		final Resource data = createData(LINES_COUNT);
+
+		final List<ImpDataLine> expectedLines = parse(data, 1, false);
+		final List<ImpDataLine> lines = parse(data, 4, false);
+
+		assertThat(expectedLines).hasSize(LINES_COUNT);
+		assertThat(lines).extracting(ImpDataLine::getFileLineNo)
+				.containsExactlyElementsOf(expectedLines.stream().map(ImpDataLine::getFileLineNo).collect(Collectors.toList()));
+		assertThat(lines).extracting(ImpDataLine::getLineString)
+				.containsExactlyElementsOf(expectedLines.stream().map(ImpDataLine::getLineString).collect(Collectors.toList()));
+		assertThat(lines.get(LINES_COUNT - 1).getFileLineNo()).isEqualTo(LINES_COUNT);
+		assertThat(lines.get(LINES_COUNT - 1).getLineString()).startsWith((LINES_COUNT - 1) + ";");
+	}
+
+	@Test
+	public void multiline()
+	{
+		final Resource data = new ByteArrayResource("1;\"first\nsecond\";2019-01-01\n2;single;2019-01-02".getBytes(StandardCharsets.UTF_8));
+
+		final List<ImpDataLine> lines = parse(data, 2, true);
+
+		assertThat(lines).extracting(ImpDataLine::getLineString)
+				.containsExactly("1;\"first\nsecond\";2019-01-01", "2;single;2019-01-02");
+		assertThat(lines).extracting(ImpDataLine::getFileLineNo)
+				.containsExactly(1, 2);
+		assertThat(lines).noneMatch(ImpDataLine::hasErrors);
+	}
+
+	private static List<ImpDataLine> parse(final Resource data, final int parseWorkers, final boolean multiline)
+	{
+		final ImpDataParser parser = new ImpDataParserFactory().createParser(createImportFormat(multiline), parseWorkers);
+		try (final Stream<ImpDataLine> lines = parser.streamDataLines(data))
+		{
+			return lines.collect(ImmutableList.toImmutableList());
+		}
+	}
+
+	private static Resource createData(final int linesCount)
+	{
+		final StringBuilder data = new StringBuilder();
+		for (int i = 0; i < linesCount; i++)
+		{
+			data.append(i).append(";name").append(i).append(";2019-01-").append(10 + i % 20).append("\n");
+		}
+		return new ByteArrayResource(data.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static ImpFormat createImportFormat(final boolean multiline)
+	{
+		return ImpFormat.builder()
+				.id(ImpFormatId.ofRepoId(123))
+				.name("test")
+				.formatType(ImpFormatType.SEMICOLON_SEPARATED)
+				.multiLine(multiline)
+				.importTableDescriptor(ImportTableDescriptor.builder()
+						.tableName("ImportRecord")
+						.keyColumnName("ImportRecord_ID")
+						.build())
+				.columns(ImmutableList.of(
+						createColumn(1, ImpFormatColumnDataType.Number),
+						createColumn(2, ImpFormatColumnDataType.String),
+						ImpFormatColumn.builder()
+								.columnName("col3")
+								.startNo(3)
+								.dataType(ImpFormatColumnDataType.Date)
+								.dataFormat("yyyy-MM-dd")
+								.build()))
+				.build();
+	}
+
+	private static ImpFormatColumn createColumn(final int startNo, final ImpFormatColumnDataType dataType)
+	{
+		return ImpFormatColumn.builder()
+				.columnName("col" + startNo)
+				.startNo(startNo)
+				.dataType(dataType)
+				.build();
+	}
+}
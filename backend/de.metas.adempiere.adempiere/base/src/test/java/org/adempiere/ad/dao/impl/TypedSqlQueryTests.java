@@ -2,14 +2,32 @@ package org.adempiere.ad.dao.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.assertj.core.api.AbstractCharSequenceAssert;
 import org.compiere.model.I_AD_Table;
 import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.google.common.collect.ImmutableList;
 
 /*
  * #%L
@@ -95,4 +113,74 @@ public class TypedSqlQueryTests
 					.isEqualTo("SELECT * FROM Table where c=1 -- Exceeding params: 'str', 3");
 		}
 	}
+
+	@Nested
+	public class streamUsingCursor
+	{
+		private Connection conn;
+		private PreparedStatement pstmt;
+		private ResultSet rs;
+
+		@BeforeEach
+		public void beforeEach() throws SQLException
+		{
+			conn = mock(Connection.class);
+			pstmt = mock(PreparedStatement.class);
+			rs = mock(ResultSet.class);
+			when(pstmt.executeQuery()).thenReturn(rs);
+			when(rs.next()).thenReturn(true, true, true, false);
+			when(rs.getInt(1)).thenReturn(1, 2, 3);
+		}
+
+		private Stream<Integer> streamUsingCursor()
+		{
+			return TypedSqlQuery.streamUsingCursor(conn, pstmt, 2, resultSet -> resultSet.getInt(1), "SELECT 1", ImmutableList.of());
+		}
+
+		private void assertConnectionReleased() throws SQLException
+		{
+			verify(rs).close();
+			verify(pstmt).close();
+
+			final InOrder inOrder = inOrder(conn);
+			inOrder.verify(conn).rollback();
+			inOrder.verify(conn).setReadOnly(false);
+			inOrder.verify(conn).close();
+		}
+
+		@Test
+		public void readOnlyConnection() throws SQLException
+		{
+			try (final Stream<Integer> stream = streamUsingCursor())
+			{
+				final InOrder inOrder = inOrder(conn, pstmt);
+				inOrder.verify(conn).setReadOnly(true);
+				inOrder.verify(pstmt).setFetchSize(2);
+				inOrder.verify(pstmt).executeQuery();
+			}
+		}
+
+		@Test
+		public void fullyConsumed() throws SQLException
+		{
+			final List<Integer> result = streamUsingCursor().collect(Collectors.toList());
+
+			assertThat(result).containsExactly(1, 2, 3);
+			assertConnectionReleased();
+		}
+
+		@Test
+		public void closedBeforeFullyConsumed() throws SQLException
+		{
+			try (final Stream<Integer> stream = streamUsingCursor())
+			{
+				final Iterator<Integer> iterator = stream.iterator();
+				assertThat(iterator.next()).isEqualTo(1);
+
+				verify(conn, never()).close();
+			}
+
+			assertConnectionReleased();
+		}
+	}
 }
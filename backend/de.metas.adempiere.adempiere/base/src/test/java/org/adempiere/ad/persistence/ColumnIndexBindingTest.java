@@ -0,0 +1,108 @@
+package org.adempiere.ad.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ColumnIndexBindingTest
+{
+	private IModelInternalAccessor model;
+
+	@BeforeEach
+	public void init()
+	{
+		model = Mockito.mock(IModelInternalAccessor.class);
+		Mockito.when(model.getColumnIndex(Mockito.anyString())).thenReturn(-1);
+	}
+
+	@Test
+	public void firstExistingCandidateIsBound()
+	{
+		Mockito.when(model.getColumnIndexesKey()).thenReturn(new Object());
+		Mockito.when(model.getColumnIndex("IsActive")).thenReturn(3);
+
+		final ColumnIndexBinding.Binding binding = new ColumnIndexBinding("Active", "IsActive", "isActive").bind(model);
+
+		assertThat(binding.isBound()).isTrue();
+		assertThat(binding.getColumnName()).isEqualTo("IsActive");
+		assertThat(binding.getColumnIndex()).isEqualTo(3);
+	}
+
+	@Test
+	public void noCandidateExists()
+	{
+		Mockito.when(model.getColumnIndexesKey()).thenReturn(new Object());
+
+		final ColumnIndexBinding.Binding binding = new ColumnIndexBinding("Name").bind(model);
+
+		assertThat(binding.isBound()).isFalse();
+	}
+
+	@Test
+	public void sameColumnLayout_resolvedOnlyOnce()
+	{
+		final Object columnLayout = new Object();
+		Mockito.when(model.getColumnIndexesKey()).thenReturn(columnLayout);
+		Mockito.when(model.getColumnIndex("Name")).thenReturn(5);
+		final ColumnIndexBinding columnIndexBinding = new ColumnIndexBinding("Name");
+
+		for (int i = 0; i < 10; i++)
+		{
+			assertThat(columnIndexBinding.bind(model).getColumnIndex()).isEqualTo(5);
+		}
+
+		Mockito.verify(model, Mockito.times(1)).getColumnIndex("Name");
+	}
+
+	@Test
+	public void otherColumnLayout_resolvedAgain()
+	{
+		final ColumnIndexBinding columnIndexBinding = new ColumnIndexBinding("Name");
+
+		Mockito.when(model.getColumnIndexesKey()).thenReturn(new Object());
+		Mockito.when(model.getColumnIndex("Name")).thenReturn(5);
+		assertThat(columnIndexBinding.bind(model).getColumnIndex()).isEqualTo(5);
+
+		// e.g. a model of another table or a reloaded POInfo
+		Mockito.when(model.getColumnIndexesKey()).thenReturn(new Object());
+		Mockito.when(model.getColumnIndex("Name")).thenReturn(7);
+		assertThat(columnIndexBinding.bind(model).getColumnIndex()).isEqualTo(7);
+	}
+
+	@Test
+	public void noColumnLayoutKey_resolvedEveryTime()
+	{
+		Mockito.when(model.getColumnIndexesKey()).thenReturn(null);
+		Mockito.when(model.getColumnIndex("Name")).thenReturn(5);
+		final ColumnIndexBinding columnIndexBinding = new ColumnIndexBinding("Name");
+
+		columnIndexBinding.bind(model);
+		columnIndexBinding.bind(model);
+
+		Mockito.verify(model, Mockito.times(2)).getColumnIndex("Name");
+	}
+}
@@ -0,0 +1,120 @@
+package org.adempiere.ad.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.compiere.model.I_AD_Table;
+import org.compiere.model.I_Test;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ModelClassInfoTest
+{
+	private final ModelClassIntrospector introspector = (ModelClassIntrospector)ModelClassIntrospector.getInstance();
+
+	private ModelClassInfo newModelClassInfo()
+	{
+		return new ModelClassInfo(introspector, I_Test.class, I_Test.Table_Name);
+	}
+
+	private void assertSameAsIntrospected(final IModelMethodInfo methodInfo, final Method method)
+	{
+		final IModelMethodInfo expected = introspector.createModelMethodInfo(method);
+		assertThat(methodInfo).isExactlyInstanceOf(expected.getClass());
+		assertThat(methodInfo.getInterfaceMethod()).isEqualTo(method);
+	}
+
+	@Test
+	public void getMethodInfo_sameAsIntrospected()
+	{
+		final ModelClassInfo modelClassInfo = newModelClassInfo();
+
+		for (final Method method : I_Test.class.getMethods())
+		{
+			final IModelMethodInfo methodInfo = modelClassInfo.getMethodInfo(method);
+
+			assertSameAsIntrospected(methodInfo, method);
+			assertThat(modelClassInfo.getMethodInfo(method)).isSameAs(methodInfo);
+		}
+	}
+
+	@Test
+	public void getMethodInfo_methodNotDeclaredByModelClass() throws Exception
+	{
+		final ModelClassInfo modelClassInfo = newModelClassInfo();
+		final Method method = I_AD_Table.class.getMethod("getTableName");
+
+		final IModelMethodInfo methodInfo = modelClassInfo.getMethodInfo(method);
+
+		assertSameAsIntrospected(methodInfo, method);
+		assertThat(modelClassInfo.getMethodInfo(method)).isSameAs(methodInfo);
+	}
+
+	@Test
+	public void getMethodInfo_concurrently() throws Exception
+	{
+		final ModelClassInfo modelClassInfo = newModelClassInfo();
+		final Method[] methods = I_Test.class.getMethods();
+		final Method methodNotDeclared = I_AD_Table.class.getMethod("getTableName");
+
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try
+		{
+			final List<Future<List<IModelMethodInfo>>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++)
+			{
+				futures.add(executor.submit(() -> {
+					final List<IModelMethodInfo> methodInfos = new ArrayList<>();
+					for (final Method method : methods)
+					{
+						methodInfos.add(modelClassInfo.getMethodInfo(method));
+					}
+					methodInfos.add(modelClassInfo.getMethodInfo(methodNotDeclared));
+					return methodInfos;
+				}));
+			}
+
+			// all threads shall get the very same method info instances
+			final List<IModelMethodInfo> expectedMethodInfos = futures.get(0).get();
+			for (final Future<List<IModelMethodInfo>> future : futures)
+			{
+				final List<IModelMethodInfo> methodInfos = future.get();
+				for (int i = 0; i < expectedMethodInfos.size(); i++)
+				{
+					assertThat(methodInfos.get(i)).isSameAs(expectedMethodInfos.get(i));
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class POInfoColumnNamesIndexTest
+{
+	private final List<String> columnNames = ImmutableList.of("AD_Client_ID", "AD_Org_ID", "Name", "Description", "M_Product_ID", "IsActive");
+
+	/** How the lookup was done before the case sensitive fast path was added */
+	private int getColumnIndexIgnoringCase(final String columnName)
+	{
+		for (int i = 0; i < columnNames.size(); i++)
+		{
+			if (columnNames.get(i).equalsIgnoreCase(columnName))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Test
+	public void getColumnIndex()
+	{
+		final POInfoColumnNamesIndex index = POInfoColumnNamesIndex.of(columnNames);
+
+		for (final String columnName : columnNames)
+		{
+			assertThat(index.getColumnIndex(columnName)).isEqualTo(columnNames.indexOf(columnName));
+
+			for (final String otherCaseColumnName : ImmutableList.of(columnName.toUpperCase(), columnName.toLowerCase()))
+			{
+				assertThat(index.getColumnIndex(otherCaseColumnName))
+						.as("index of %s", otherCaseColumnName)
+						.isEqualTo(getColumnIndexIgnoringCase(otherCaseColumnName))
+						.isEqualTo(columnNames.indexOf(columnName));
+			}
+		}
+	}
+
+	@Test
+	public void getColumnIndex_notFound()
+	{
+		final POInfoColumnNamesIndex index = POInfoColumnNamesIndex.of(columnNames);
+
+		assertThat(index.getColumnIndex("C_BPartner_ID")).isEqualTo(-1);
+		assertThat(index.getColumnIndex("")).isEqualTo(-1);
+	}
+
+	@Test
+	public void getColumnNames()
+	{
+		final POInfoColumnNamesIndex index = POInfoColumnNamesIndex.of(columnNames);
+
+		assertThat(index.getColumnNames()).containsExactly("AD_Client_ID", "AD_Org_ID", "Description", "IsActive", "M_Product_ID", "Name");
+	}
+}
@@ -0,0 +1,187 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.modelvalidator.IModelInterceptorRegistry;
+import org.adempiere.ad.modelvalidator.ModelChangeType;
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.adempiere.ad.modelvalidator.annotations.ModelChange;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Database coupled test which makes sure {@link PO#saveAllInBatchEx(java.util.Collection)} saves like {@link PO#saveEx()} does.
+ */
+@Disabled("requires database connection")
+public class PO_SaveAllInBatch_DBTest
+{
+	private static Test_Interceptor interceptor;
+
+	/** Used to recognize the records created by current test, because the interceptor can't be unregistered */
+	private String runMarker;
+
+	@BeforeAll
+	public static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath()
+					+ File.separator + ".." + File.separator + ".."
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+
+		interceptor = new Test_Interceptor();
+		Services.get(IModelInterceptorRegistry.class).addModelInterceptor(interceptor);
+	}
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		runMarker = "PO_SaveAllInBatch_DBTest_" + UUID.randomUUID();
+		interceptor.events.clear();
+	}
+
+	@Interceptor(I_Test.class)
+	public static class Test_Interceptor
+	{
+		private final List<String> events = new ArrayList<>();
+
+		@ModelChange(timings = { ModelValidator.TYPE_BEFORE_NEW, ModelValidator.TYPE_AFTER_NEW, ModelValidator.TYPE_BEFORE_CHANGE, ModelValidator.TYPE_AFTER_CHANGE })
+		public void onModelChange(final I_Test record, final ModelChangeType changeType)
+		{
+			events.add(changeType + " " + record.getName());
+		}
+	}
+
+	private List<I_Test> newRecords(final int count)
+	{
+		final List<I_Test> records = new ArrayList<>();
+		for (int i = 1; i <= count; i++)
+		{
+			final I_Test record = InterfaceWrapperHelper.create(Env.getCtx(), I_Test.class, ITrx.TRXNAME_None);
+			record.setName("Name" + i);
+			record.setDescription(runMarker);
+			records.add(record);
+		}
+		return records;
+	}
+
+	private List<I_Test> retrieveRecords()
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_Test.class, Env.getCtx(), ITrx.TRXNAME_None)
+				.addEqualsFilter(I_Test.COLUMNNAME_Description, runMarker)
+				.orderBy(I_Test.COLUMNNAME_Test_ID)
+				.create()
+				.list();
+	}
+
+	private static List<String> names(final List<I_Test> records)
+	{
+		return records.stream().map(I_Test::getName).collect(Collectors.toList());
+	}
+
+	@Test
+	public void newRecords()
+	{
+		final List<I_Test> records = newRecords(3);
+
+		InterfaceWrapperHelper.saveAllInBatch(records);
+
+		assertThat(records).allSatisfy(record -> assertThat(record.getTest_ID()).isGreaterThan(0));
+		assertThat(records).extracting(I_Test::getTest_ID).doesNotHaveDuplicates();
+		assertThat(records).allSatisfy(record -> assertThat(InterfaceWrapperHelper.isNew(record)).isFalse());
+
+		final List<I_Test> recordsInDB = retrieveRecords();
+		assertThat(recordsInDB).extracting(I_Test::getTest_ID).containsExactlyElementsOf(records.stream().map(I_Test::getTest_ID).collect(Collectors.toList()));
+		assertThat(names(recordsInDB)).containsExactly("Name1", "Name2", "Name3");
+
+		// all "before" interceptors are fired before the "after" ones
+		assertThat(interceptor.events).containsExactly(
+				"BEFORE_NEW Name1", "BEFORE_NEW Name2", "BEFORE_NEW Name3",
+				"AFTER_NEW Name1", "AFTER_NEW Name2", "AFTER_NEW Name3");
+	}
+
+	@Test
+	public void newAndChangedRecords()
+	{
+		final List<I_Test> existingRecords = newRecords(2);
+		InterfaceWrapperHelper.saveAll(existingRecords);
+		interceptor.events.clear();
+
+		final List<I_Test> records = new ArrayList<>();
+		existingRecords.get(0).setName("Name1_changed");
+		records.add(existingRecords.get(0));
+		records.add(existingRecords.get(1)); // not changed, so it's not saved at all
+		final I_Test newRecord = newRecords(1).get(0);
+		newRecord.setName("Name3");
+		records.add(newRecord);
+
+		InterfaceWrapperHelper.saveAllInBatch(records);
+
+		assertThat(newRecord.getTest_ID()).isGreaterThan(0);
+		assertThat(names(retrieveRecords())).containsExactly("Name1_changed", "Name2", "Name3");
+		assertThat(interceptor.events).containsExactly(
+				"BEFORE_CHANGE Name1_changed", "BEFORE_NEW Name3",
+				"AFTER_CHANGE Name1_changed", "AFTER_NEW Name3");
+	}
+
+	@Test
+	public void moreRecordsThanOneJDBCBatch()
+	{
+		final List<I_Test> records = newRecords(1201);
+
+		InterfaceWrapperHelper.saveAllInBatch(records);
+
+		records.forEach(record -> record.setName(record.getName() + "_changed"));
+		InterfaceWrapperHelper.saveAllInBatch(records);
+
+		final List<I_Test> recordsInDB = retrieveRecords();
+		assertThat(recordsInDB).hasSize(1201);
+		assertThat(recordsInDB).allSatisfy(record -> assertThat(record.getName()).endsWith("_changed"));
+	}
+}
@@ -0,0 +1,160 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.util.time.FixedTimeSource;
+import de.metas.util.time.SystemTime;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class TableIDBlockAllocatorTest
+{
+	private static final LocalDateTime START = LocalDateTime.of(2020, 5, 1, 10, 0);
+
+	private List<TableIDBlock> reservedBlocks;
+	private int currentNext;
+	private TableIDBlockAllocator allocator;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		SystemTime.setTimeSource(FixedTimeSource.ofLocalDateTime(START));
+
+		reservedBlocks = new ArrayList<>();
+		currentNext = 1000000;
+		allocator = new TableIDBlockAllocator(this::retrieveNextIDBlock, false);
+	}
+
+	@After
+	public void resetTimeSource()
+	{
+		SystemTime.resetTimeSource();
+	}
+
+	private synchronized TableIDBlock retrieveNextIDBlock(final int adClientId, final String tableName, final int blockSize)
+	{
+		final TableIDBlock block = TableIDBlock.builder()
+				.adSequenceId(1)
+				.firstId(currentNext)
+				.incrementNo(1)
+				.size(blockSize)
+				.build();
+		currentNext = block.getNextIdAfterBlock();
+		reservedBlocks.add(block);
+		return block;
+	}
+
+	@Test
+	public void idsAreContiguousWithinBlock()
+	{
+		for (int i = 0; i < 100; i++)
+		{
+			assertThat(allocator.nextId(1000000, "C_Invoice_Candidate")).isEqualTo(1000000 + i);
+		}
+		assertThat(reservedBlocks).hasSize(1);
+
+		assertThat(allocator.nextId(1000000, "C_Invoice_Candidate")).isEqualTo(1000100);
+		assertThat(reservedBlocks).hasSize(2);
+	}
+
+	@Test
+	public void blockSizeGrowsOnHighDemand_and_shrinksOnLowDemand()
+	{
+		for (int i = 0; i < 100 + 200 + 400 + 1; i++)
+		{
+			allocator.nextId(1000000, "M_HU_Trx_Line");
+		}
+		assertThat(reservedBlocks).extracting(TableIDBlock::getSize).containsExactly(100, 200, 400, 800);
+
+		SystemTime.setTimeSource(FixedTimeSource.ofLocalDateTime(START.plusHours(1)));
+		for (int i = 0; i < 800; i++)
+		{
+			allocator.nextId(1000000, "M_HU_Trx_Line");
+		}
+		assertThat(reservedBlocks).extracting(TableIDBlock::getSize).containsExactly(100, 200, 400, 800, 400);
+	}
+
+	@Test
+	public void statistics()
+	{
+		for (int i = 0; i < 250; i++)
+		{
+			allocator.nextId(1000000, "C_Invoice_Candidate");
+		}
+
+		final TableIDBlockStatistics statistics = allocator.getStatistics().get(0);
+		assertThat(statistics.getTableName()).isEqualTo("C_Invoice_Candidate");
+		assertThat(statistics.getIdsHandedOut()).isEqualTo(250);
+		assertThat(statistics.getBlocksReserved()).isEqualTo(3);
+		assertThat(statistics.getBlocksExhausted()).isEqualTo(2);
+	}
+
+	@Test
+	public void concurrentCallersNeverGetTheSameId() throws Exception
+	{
+		final int threads = 8;
+		final int idsPerThread = 5000;
+		final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++)
+			{
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < idsPerThread; i++)
+					{
+						ids.add(allocator.nextId(1000000, "C_Invoice_Candidate"));
+					}
+				}));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get(30, TimeUnit.SECONDS);
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertThat(ids).hasSize(threads * idsPerThread);
+	}
+}
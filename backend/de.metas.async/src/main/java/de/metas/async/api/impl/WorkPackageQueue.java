@@ -85,12 +85,19 @@ public class WorkPackageQueue implements IWorkPackageQueue
 {
 	private final static String SYSCONFIG_POLLINTERVAL = "de.metas.async.PollIntervallMillis";
 
+	/**
+	 * If true, the work packages which are polled by this JVM are locked only in memory, without writing to <code>T_Lock</code>.
+	 * Enable it only if the work packages are processed by one node, because the other nodes would not see those locks.
+	 */
+	private final static String SYSCONFIG_LockJvmLocalOnly = "de.metas.async.WorkPackageQueue.LockJvmLocalOnly";
+
 	private static final transient Logger logger = LogManager.getLogger(WorkPackageQueue.class);
 
 	private final transient IQueueDAO dao;
 	private final transient IWorkpackageProcessorContextFactory contextFactory = Services.get(IWorkpackageProcessorContextFactory.class);
 	private final transient IAsyncBatchBL asyncBatchBL = Services.get(IAsyncBatchBL.class);
 	private final transient IWorkPackageBL workPackageBL = Services.get(IWorkPackageBL.class);
+	private final transient WorkPackageReadyNotifier readyNotifier = WorkPackageReadyNotifier.instance;
 
 	private final Properties ctx;
 	private final List<Integer> packageProcessorIds;
@@ -216,6 +223,7 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		final IQuery<I_C_Queue_WorkPackage> query = createQuery(workPackageCtx);
 
 		final long startTS = SystemTime.millis();
+		long readyVersion = readyNotifier.getReadyVersion(packageProcessorIds); // fetch it before querying, so we don't miss packages which become ready meanwhile
 		I_C_Queue_WorkPackage workPackage = retrieveAndLock(query);
 		if (timeoutMillis == TIMEOUT_OneTimeOnly && workPackage == null)
 		{
@@ -239,12 +247,20 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				}
 			}
 
-			// No workpackages were found. Sleep 1sec and then try again
+			// No workpackages were found.
+			// Wait until one becomes ready, but not longer than the poll interval, and then try again
 			try
 			{
 				// note: we always get the new service, because things might have changed since this method started
 				final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
-				Thread.sleep(pollIntervalMs);
+				long waitMillis = pollIntervalMs;
+				if (timeoutMillis != TIMEOUT_Infinite)
+				{
+					final long remainingMillis = timeoutMillis - (SystemTime.millis() - startTS);
+					waitMillis = Math.max(1, Math.min(waitMillis, remainingMillis));
+				}
+				readyNotifier.awaitReady(packageProcessorIds, readyVersion, waitMillis);
+				readyVersion = readyNotifier.getReadyVersion(packageProcessorIds);
 			}
 			catch (final InterruptedException e)
 			{
@@ -334,7 +350,8 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 	private I_C_Queue_WorkPackage retrieveAndLock(final IQuery<I_C_Queue_WorkPackage> query)
 	{
-		I_C_Queue_WorkPackage workPackage = Services.get(ILockManager.class).retrieveAndLock(query, I_C_Queue_WorkPackage.class);
+		final boolean jvmLocalOnly = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_LockJvmLocalOnly, false);
+		I_C_Queue_WorkPackage workPackage = Services.get(ILockManager.class).retrieveAndLock(query, I_C_Queue_WorkPackage.class, jvmLocalOnly);
 		if (workPackage != null && !isValid(workPackage))
 		{
 			final I_C_Queue_WorkPackage workpackageToUnlock = workPackage;
@@ -753,6 +770,9 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				dao.save(workPackage);
 				logger.debug("C_Queue_WorkPackage.IsReadyForProcessing is now set to true");
 				success = true;
+
+				// Wake up the idle queue processors, as soon as they can see our workpackage
+				readyNotifier.notifyReadyAfterCommit(workPackage.getC_Queue_PackageProcessor_ID(), InterfaceWrapperHelper.getTrxName(workPackage));
 			}
 			finally
 			{
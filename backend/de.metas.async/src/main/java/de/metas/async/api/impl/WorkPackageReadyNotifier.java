@@ -0,0 +1,241 @@
+package de.metas.async.api.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.event.Event;
+import de.metas.event.IEventBus;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.IEventListener;
+import de.metas.event.Topic;
+import de.metas.event.Type;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/**
+ * Wakes up idle queue processors as soon as a work package becomes ready for processing,
+ * instead of letting them sleep for the whole poll interval.
+ * <p>
+ * Signals are raised after the work package was marked as ready and committed, and are broadcast to the other nodes via event bus.
+ * All work packages which became ready in the same transaction are signaled with one event, no matter how many they are.
+ * Waiting processors are still polling the database when the poll interval elapsed, so a lost or unavailable signal only delays the processing, like before.
+ */
+public final class WorkPackageReadyNotifier implements IEventListener
+{
+	public static final WorkPackageReadyNotifier instance = new WorkPackageReadyNotifier();
+
+	private static final Logger logger = LogManager.getLogger(WorkPackageReadyNotifier.class);
+
+	@VisibleForTesting
+	static final Topic TOPIC_WorkPackageReady = Topic.builder()
+			.name("de.metas.async.WorkPackageReady")
+			.type(Type.REMOTE)
+			.build();
+
+	private static final String EVENT_PROPERTY_PackageProcessorIds = "C_Queue_PackageProcessor_IDs";
+
+	private static final String TRX_PROPERTY_PackageProcessorIds = WorkPackageReadyNotifier.class.getName() + ".PackageProcessorIds";
+
+	private final AtomicBoolean eventBusSubscribed = new AtomicBoolean(false);
+
+	/** Incremented each time a work package of the given C_Queue_PackageProcessor_ID became ready */
+	private final ConcurrentHashMap<Integer, AtomicLong> readyVersionsByPackageProcessorId = new ConcurrentHashMap<>();
+	private final Object readySignal = new Object();
+
+	private WorkPackageReadyNotifier()
+	{
+	}
+
+	private void subscribeToEventBusIfNeeded()
+	{
+		if (eventBusSubscribed.getAndSet(true))
+		{
+			return;
+		}
+
+		try
+		{
+			Services.get(IEventBusFactory.class).registerGlobalEventListener(TOPIC_WorkPackageReady, this);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed subscribing to {}. Remote work packages will be picked up by polling only.", TOPIC_WorkPackageReady, ex);
+		}
+	}
+
+	/**
+	 * Signals that a work package of the given processor is ready, after the given transaction was committed.
+	 * The processors which became ready in the same transaction are collected and signaled once, with one event.
+	 * If there is no active transaction, the signal is raised right away.
+	 */
+	public void notifyReadyAfterCommit(final int packageProcessorId, @Nullable final String trxName)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.get(trxName, OnTrxMissingPolicy.ReturnTrxNone);
+		if (!trxManager.isActive(trx))
+		{
+			notifyReady(ImmutableSet.of(packageProcessorId));
+			return;
+		}
+
+		final Set<Integer> packageProcessorIds = trx.getPropertyAndProcessAfterCommit(
+				TRX_PROPERTY_PackageProcessorIds,
+				ConcurrentHashMap::newKeySet,
+				this::notifyReady);
+		packageProcessorIds.add(packageProcessorId);
+	}
+
+	/**
+	 * Signals that work packages of the given processors are ready, both locally and to the other nodes.
+	 * <p>
+	 * NOTE: call it only after the work packages were committed, else the awaken processors won't see them.
+	 */
+	@VisibleForTesting
+	void notifyReady(@NonNull final Collection<Integer> packageProcessorIds)
+	{
+		if (packageProcessorIds.isEmpty())
+		{
+			return;
+		}
+
+		subscribeToEventBusIfNeeded();
+
+		packageProcessorIds.forEach(this::notifyReadyLocally);
+
+		try
+		{
+			final Event event = Event.builder()
+					.putProperty(EVENT_PROPERTY_PackageProcessorIds, ImmutableList.copyOf(packageProcessorIds))
+					.build();
+			Services.get(IEventBusFactory.class)
+					.getEventBus(TOPIC_WorkPackageReady)
+					.postEvent(event);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed broadcasting that work packages are ready for C_Queue_PackageProcessor_IDs={}. Remote processors will pick them up by polling.", packageProcessorIds, ex);
+		}
+	}
+
+	@Override
+	public void onEvent(final IEventBus eventBus, final Event event)
+	{
+		// local events were already signaled in notifyReady
+		if (event.isLocalEvent())
+		{
+			return;
+		}
+
+		final List<?> packageProcessorIds = event.getProperty(EVENT_PROPERTY_PackageProcessorIds);
+		if (packageProcessorIds == null || packageProcessorIds.isEmpty())
+		{
+			logger.debug("Ignored event: {}", event);
+			return;
+		}
+
+		for (final Object packageProcessorIdObj : packageProcessorIds)
+		{
+			// NOTE: after deserialization the numbers are not necessarily integers
+			if (packageProcessorIdObj instanceof Number)
+			{
+				notifyReadyLocally(((Number)packageProcessorIdObj).intValue());
+			}
+		}
+	}
+
+	@VisibleForTesting
+	void notifyReadyLocally(final int packageProcessorId)
+	{
+		readyVersionsByPackageProcessorId.computeIfAbsent(packageProcessorId, k -> new AtomicLong()).incrementAndGet();
+
+		synchronized (readySignal)
+		{
+			readySignal.notifyAll();
+		}
+	}
+
+	/**
+	 * @return a value which changes each time a work package of one of the given processors becomes ready.
+	 *         Fetch it <b>before</b> querying the database, so that signals which arrive meanwhile are not lost.
+	 */
+	public long getReadyVersion(@NonNull final Collection<Integer> packageProcessorIds)
+	{
+		subscribeToEventBusIfNeeded();
+
+		long version = 0;
+		for (final Integer packageProcessorId : packageProcessorIds)
+		{
+			final AtomicLong processorVersion = readyVersionsByPackageProcessorId.get(packageProcessorId);
+			if (processorVersion != null)
+			{
+				version += processorVersion.get();
+			}
+		}
+		return version;
+	}
+
+	/**
+	 * Blocks until a work package of one of the given processors becomes ready (compared to the given {@code readyVersion}) or the given time elapsed.
+	 *
+	 * @return true if a work package became ready
+	 */
+	public boolean awaitReady(
+			@NonNull final Collection<Integer> packageProcessorIds,
+			final long readyVersion,
+			final long maxWaitMillis) throws InterruptedException
+	{
+		final long deadline = System.currentTimeMillis() + maxWaitMillis;
+		synchronized (readySignal)
+		{
+			while (getReadyVersion(packageProcessorIds) == readyVersion)
+			{
+				final long waitMillis = deadline - System.currentTimeMillis();
+				if (waitMillis <= 0)
+				{
+					return false;
+				}
+				readySignal.wait(waitMillis);
+			}
+		}
+
+		return true;
+	}
+}
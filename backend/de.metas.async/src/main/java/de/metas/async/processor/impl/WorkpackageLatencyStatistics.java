@@ -0,0 +1,101 @@
+package de.metas.async.processor.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Enqueue-to-start latency per C_Queue_PackageProcessor_ID,
+ * i.e. how long the work packages were waiting between being marked as ready for processing and being started.
+ */
+public final class WorkpackageLatencyStatistics
+{
+	public static final WorkpackageLatencyStatistics instance = new WorkpackageLatencyStatistics();
+
+	private final Map<Integer, LatencyCounter> countersByPackageProcessorId = new ConcurrentHashMap<>();
+
+	private WorkpackageLatencyStatistics()
+	{
+	}
+
+	public void record(final int packageProcessorId, final long latencyMillis)
+	{
+		countersByPackageProcessorId
+				.computeIfAbsent(packageProcessorId, LatencyCounter::new)
+				.record(Math.max(latencyMillis, 0));
+	}
+
+	/** @return one line per C_Queue_PackageProcessor_ID */
+	public List<String> getInfos()
+	{
+		return countersByPackageProcessorId.values()
+				.stream()
+				.map(LatencyCounter::toString)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	public void reset()
+	{
+		countersByPackageProcessorId.clear();
+	}
+
+	private static final class LatencyCounter
+	{
+		private final int packageProcessorId;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalMillis = new LongAdder();
+		private final AtomicLong maxMillis = new AtomicLong();
+		private volatile long lastMillis;
+
+		private LatencyCounter(final int packageProcessorId)
+		{
+			this.packageProcessorId = packageProcessorId;
+		}
+
+		public void record(final long latencyMillis)
+		{
+			count.increment();
+			totalMillis.add(latencyMillis);
+			maxMillis.accumulateAndGet(latencyMillis, Math::max);
+			lastMillis = latencyMillis;
+		}
+
+		@Override
+		public String toString()
+		{
+			final long count = this.count.sum();
+			final long avgMillis = count > 0 ? totalMillis.sum() / count : 0;
+			return "C_Queue_PackageProcessor_ID=" + packageProcessorId
+					+ ", count=" + count
+					+ ", avgMillis=" + avgMillis
+					+ ", maxMillis=" + maxMillis.get()
+					+ ", lastMillis=" + lastMillis;
+		}
+	}
+}
@@ -67,4 +67,16 @@ public class WorkpackageProcessorFactoryJMX implements WorkpackageProcessorFacto
 	{
 		factory.getBlackList().clear();
 	}
+
+	@Override
+	public String[] getEnqueueToStartLatencyInfo()
+	{
+		return WorkpackageLatencyStatistics.instance.getInfos().toArray(new String[0]);
+	}
+
+	@Override
+	public void resetEnqueueToStartLatency()
+	{
+		WorkpackageLatencyStatistics.instance.reset();
+	}
 }
@@ -50,4 +50,11 @@ public interface WorkpackageProcessorFactoryJMXMBean
 	 */
 	void clearBlackList();
 
+	/**
+	 * @return enqueue-to-start latency (count, average, max, last) for each C_Queue_PackageProcessor_ID
+	 */
+	String[] getEnqueueToStartLatencyInfo();
+
+	void resetEnqueueToStartLatency();
+
 }
@@ -413,7 +413,16 @@ import lombok.NonNull;
 	 */
 	private void markStartProcessing(final I_C_Queue_WorkPackage workPackage)
 	{
-		workPackage.setLastStartTime(SystemTime.asTimestamp());
+		final Timestamp startTime = SystemTime.asTimestamp();
+
+		// NOTE: Updated was last set when the workpackage was marked as ready for processing (or skipped)
+		final Timestamp readyTime = workPackage.getUpdated();
+		if (readyTime != null)
+		{
+			WorkpackageLatencyStatistics.instance.record(workPackage.getC_Queue_PackageProcessor_ID(), startTime.getTime() - readyTime.getTime());
+		}
+
+		workPackage.setLastStartTime(startTime);
 		queueDAO.save(workPackage);
 	}
 
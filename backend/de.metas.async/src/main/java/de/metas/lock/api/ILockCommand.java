@@ -122,6 +122,22 @@ public interface ILockCommand
 
 	ILockCommand setFailIfAlreadyLocked(boolean failIfAlreadyLocked);
 
+	/**
+	 * Sets if the lock shall be held only in this JVM's memory, without writing it to <code>T_Lock</code>.
+	 * <p>
+	 * Use it only if all the parties which are competing for the records are running in this JVM, because such locks are
+	 * <ul>
+	 * <li>not seen by other nodes
+	 * <li>considered by the SQL based filters and where clauses of {@link ILockManager} (e.g. {@link ILockManager#getNotLockedFilter(Class)}) only within this JVM
+	 * <li>not seen by plain SQL (e.g. database views) which is joining <code>T_Lock</code>
+	 * <li>supported only when locking individual records; locks by selection or by filters are always written to <code>T_Lock</code>
+	 * </ul>
+	 * If omitted, then <code>false</code> will be the default.
+	 */
+	ILockCommand setJvmLocalOnly(boolean jvmLocalOnly);
+
+	boolean isJvmLocalOnly();
+
 	boolean isFailIfAlreadyLocked();
 
 	/**
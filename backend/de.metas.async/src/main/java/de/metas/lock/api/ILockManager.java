@@ -94,6 +94,13 @@ public interface ILockManager extends ISingletonService
 	 */
 	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz);
 
+	/**
+	 * Same as {@link #retrieveAndLock(IQuery, Class)}, but if <code>jvmLocalOnly</code> is true, then the lock is held only in this JVM's memory.
+	 *
+	 * @see ILockCommand#setJvmLocalOnly(boolean)
+	 */
+	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz, boolean jvmLocalOnly);
+
 	/**
 	 * Builds a SQL where clause to be used in other queries to filter the results.
 	 *
@@ -267,12 +267,20 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 
 	@Override
 	public final <T> T retrieveAndLock(final IQuery<T> query, final Class<T> clazz)
+	{
+		final boolean jvmLocalOnly = false;
+		return retrieveAndLock(query, clazz, jvmLocalOnly);
+	}
+
+	@Override
+	public final <T> T retrieveAndLock(final IQuery<T> query, final Class<T> clazz, final boolean jvmLocalOnly)
 	{
 		final IQuery<T> finalQuery = retrieveNotLockedQuery(query);
 
 		final int maxLockRetries = 50;
 		final ILockCommand lockCommand = new LockCommand(this)
-				.setOwner(LockOwner.NONE);
+				.setOwner(LockOwner.NONE)
+				.setJvmLocalOnly(jvmLocalOnly);
 
 		int retryCounter = 0;
 		while (retryCounter < maxLockRetries)
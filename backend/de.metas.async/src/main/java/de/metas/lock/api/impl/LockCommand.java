@@ -65,6 +65,8 @@ import lombok.NonNull;
 
 	private boolean failIfNothingLocked;
 
+	private boolean jvmLocalOnly = false;
+
 	LockCommand(final ILockDatabase lockDatabase)
 	{
 		super();
@@ -215,6 +217,19 @@ import lombok.NonNull;
 		return failIfAlreadyLocked;
 	}
 
+	@Override
+	public ILockCommand setJvmLocalOnly(final boolean jvmLocalOnly)
+	{
+		this.jvmLocalOnly = jvmLocalOnly;
+		return this;
+	}
+
+	@Override
+	public boolean isJvmLocalOnly()
+	{
+		return jvmLocalOnly;
+	}
+
 	@Override
 	public ILockCommand setFailIfNothingLocked(final boolean failIfNothingLocked)
 	{
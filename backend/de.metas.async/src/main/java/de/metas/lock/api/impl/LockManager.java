@@ -128,6 +128,12 @@ public class LockManager implements ILockManager
 		return getLockDatabase().retrieveAndLock(query, clazz);
 	}
 
+	@Override
+	public final <T> T retrieveAndLock(final IQuery<T> query, final Class<T> clazz, final boolean jvmLocalOnly)
+	{
+		return getLockDatabase().retrieveAndLock(query, clazz, jvmLocalOnly);
+	}
+
 	@Override
 	public final String getNotLockedWhereClause(final String tableName, final String joinColumnNameFQ)
 	{
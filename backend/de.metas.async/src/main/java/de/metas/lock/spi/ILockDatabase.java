@@ -50,6 +50,8 @@ public interface ILockDatabase
 
 	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz);
 
+	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz, boolean jvmLocalOnly);
+
 	<T> IQueryFilter<T> getLockedByFilter(Class<T> modelClass, LockOwner lockOwner);
 
 	<T> IQueryFilter<T> getNotLockedFilter(Class<T> modelClass);
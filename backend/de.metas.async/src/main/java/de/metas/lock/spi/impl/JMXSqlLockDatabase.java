@@ -0,0 +1,90 @@
+package de.metas.lock.spi.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/**
+ * JMX bean for {@link SqlLockDatabase} (implementation)
+ */
+class JMXSqlLockDatabase implements JMXSqlLockDatabaseMBean, IJMXNameAware
+{
+	private final SqlLockDatabase lockDatabase;
+
+	JMXSqlLockDatabase(@NonNull final SqlLockDatabase lockDatabase)
+	{
+		this.lockDatabase = lockDatabase;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return "de.metas.lock:type=SqlLockDatabase";
+	}
+
+	@Override
+	public int getJvmLocalLocksCount()
+	{
+		return lockDatabase.getJvmLocalLocksCount();
+	}
+
+	@Override
+	public long getCountLocksJvmLocalOnly()
+	{
+		return lockDatabase.getCountLocksJvmLocalOnly();
+	}
+
+	@Override
+	public long getCountLocksEscalatedToDatabase()
+	{
+		return lockDatabase.getCountLocksEscalatedToDatabase();
+	}
+
+	@Override
+	public double getEscalationRatePercent()
+	{
+		final long countEscalated = lockDatabase.getCountLocksEscalatedToDatabase();
+		final long countTotal = countEscalated + lockDatabase.getCountLocksJvmLocalOnly();
+		return countTotal > 0 ? 100.0 * countEscalated / countTotal : 0;
+	}
+
+	@Override
+	public long getCountConflictsDetectedInMemory()
+	{
+		return lockDatabase.getCountConflictsDetectedInMemory();
+	}
+
+	@Override
+	public long getCountConflictsDetectedInDatabase()
+	{
+		return lockDatabase.getCountConflictsDetectedInDatabase();
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		lockDatabase.resetStatistics();
+	}
+}
@@ -0,0 +1,46 @@
+package de.metas.lock.spi.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public interface JMXSqlLockDatabaseMBean
+{
+	/** @return how many record locks are currently held in memory by this JVM (both JVM-local-only and persisted ones) */
+	int getJvmLocalLocksCount();
+
+	long getCountLocksJvmLocalOnly();
+
+	/** @return how many record locks were written to <code>T_Lock</code> */
+	long getCountLocksEscalatedToDatabase();
+
+	/** @return percent of the acquired locks which were written to <code>T_Lock</code> */
+	double getEscalationRatePercent();
+
+	/** @return how many lock attempts were rejected in memory, without a database round trip */
+	long getCountConflictsDetectedInMemory();
+
+	/** @return how many lock attempts failed on the <code>T_Lock</code> unique indexes */
+	long getCountConflictsDetectedInDatabase();
+
+	void resetStatistics();
+}
@@ -0,0 +1,322 @@
+package de.metas.lock.spi.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.lock.api.LockOwner;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * In-memory table of the record locks which are held by this JVM.
+ * <p>
+ * It mirrors the <code>T_Lock</code> uniqueness rules, so concurrent lock attempts within the same JVM are rejected without a database round trip,
+ * and it holds the JVM-local-only locks which are never written to <code>T_Lock</code>.
+ * <p>
+ * Only the JVM-local-only locks are authoritative. The other entries might be stale, because their <code>T_Lock</code> records can be deleted behind our back
+ * (e.g. by another node or by a cleanup SQL), so a hit on them has to be confirmed against the database.
+ * <p>
+ * Updates are atomic per record ({@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)}), so threads which are locking different records are not contending.
+ * <p>
+ * IMPORTANT: when in doubt, entries shall be removed rather than kept, because a missing entry only means that the database has to decide.
+ */
+final class JvmLocalLockTable
+{
+	@Value
+	@Builder
+	static class LockHolder
+	{
+		@NonNull
+		String ownerName;
+		boolean allowMultipleOwners;
+		boolean autoCleanup;
+		/** true if this lock exists only in memory, i.e. it was not written to <code>T_Lock</code> */
+		boolean jvmLocalOnly;
+		int adTableId;
+
+		boolean isConflictingWith(@NonNull final LockHolder other)
+		{
+			// see the unique indexes t_lock_reference_singleowner and t_lock_reference_multipleowners
+			if (!allowMultipleOwners && !other.allowMultipleOwners)
+			{
+				return true;
+			}
+			else if (allowMultipleOwners && other.allowMultipleOwners)
+			{
+				return ownerName.equals(other.ownerName);
+			}
+			else
+			{
+				return false;
+			}
+		}
+
+		boolean isMatchingOwner(@NonNull final LockOwner lockOwner)
+		{
+			return lockOwner.isAnyOwner() || ownerName.equals(lockOwner.getOwnerName());
+		}
+	}
+
+	private final Map<TableRecordReference, ImmutableList<LockHolder>> holdersByRecord = new ConcurrentHashMap<>();
+
+	/**
+	 * @return true if the lock was added; false if there is a conflicting lock
+	 */
+	public boolean tryAdd(@NonNull final TableRecordReference record, @NonNull final LockHolder holder)
+	{
+		final AtomicBoolean added = new AtomicBoolean(false);
+		holdersByRecord.compute(record, (k, holders) -> {
+			if (holders == null)
+			{
+				added.set(true);
+				return ImmutableList.of(holder);
+			}
+
+			if (holders.stream().anyMatch(holder::isConflictingWith))
+			{
+				return holders;
+			}
+
+			added.set(true);
+			return ImmutableList.<LockHolder> builder().addAll(holders).add(holder).build();
+		});
+		return added.get();
+	}
+
+	/**
+	 * Same as {@link #tryAdd(TableRecordReference, LockHolder)}, but the conflicting holders which are not JVM-local-only are checked using the given predicate.
+	 * The ones whose <code>T_Lock</code> record is gone are removed and the lock is tried again.
+	 * <p>
+	 * The predicate is called outside of the map's atomic update, so it's fine if it's hitting the database.
+	 *
+	 * @param isPersistedLockExisting tells if the given holder's <code>T_Lock</code> record still exists
+	 * @return true if the lock was added; false if there is a conflicting lock
+	 */
+	public boolean tryAdd(
+			@NonNull final TableRecordReference record,
+			@NonNull final LockHolder holder,
+			@NonNull final Predicate<LockHolder> isPersistedLockExisting)
+	{
+		if (tryAdd(record, holder))
+		{
+			return true;
+		}
+
+		final ImmutableList<LockHolder> conflictingHolders = getHolders(record, holder::isConflictingWith);
+		if (conflictingHolders.isEmpty())
+		{
+			// the conflicting lock was released in the meantime
+			return tryAdd(record, holder);
+		}
+		if (conflictingHolders.stream().anyMatch(LockHolder::isJvmLocalOnly))
+		{
+			return false;
+		}
+
+		final ImmutableList<LockHolder> staleHolders = conflictingHolders.stream()
+				.filter(conflictingHolder -> !isPersistedLockExisting.test(conflictingHolder))
+				.collect(ImmutableList.toImmutableList());
+		if (staleHolders.size() < conflictingHolders.size())
+		{
+			return false;
+		}
+
+		removeIf(record, staleHolders::contains);
+		return tryAdd(record, holder);
+	}
+
+	/**
+	 * Removes the given holder instance, e.g. because the database lock could not be acquired.
+	 */
+	public void remove(@NonNull final TableRecordReference record, @NonNull final LockHolder holder)
+	{
+		removeIf(record, h -> h == holder);
+	}
+
+	/**
+	 * @return removed holders
+	 */
+	public ImmutableList<LockHolder> removeIf(@NonNull final TableRecordReference record, @NonNull final Predicate<LockHolder> filter)
+	{
+		final ImmutableList.Builder<LockHolder> removed = ImmutableList.builder();
+		holdersByRecord.computeIfPresent(record, (k, holders) -> removeFromList(holders, filter, removed));
+		return removed.build();
+	}
+
+	/**
+	 * @return how many JVM-local-only locks were removed
+	 */
+	public int removeAllIf(@NonNull final Predicate<LockHolder> filter)
+	{
+		final AtomicInteger countJvmLocalOnlyRemoved = new AtomicInteger();
+		for (final TableRecordReference record : holdersByRecord.keySet())
+		{
+			removeIf(record, filter)
+					.stream()
+					.filter(LockHolder::isJvmLocalOnly)
+					.forEach(removed -> countJvmLocalOnlyRemoved.incrementAndGet());
+		}
+		return countJvmLocalOnlyRemoved.get();
+	}
+
+	/**
+	 * Removes the given owner's locks which are persisted to <code>T_Lock</code>, e.g. because they were released by another node.
+	 * The owner's JVM-local-only locks are kept.
+	 *
+	 * @return how many locks were removed
+	 */
+	public int removePersistedLocksOfOwner(@NonNull final String ownerName)
+	{
+		return removeAllPersistedIf(holder -> ownerName.equals(holder.getOwnerName()));
+	}
+
+	/**
+	 * Removes the auto-cleanup locks which are persisted to <code>T_Lock</code>, e.g. because they were deleted by a cleanup on another node.
+	 * The JVM-local-only locks are kept, because they are still held by this JVM's running processes.
+	 *
+	 * @return how many locks were removed
+	 */
+	public int removePersistedAutoCleanupLocks()
+	{
+		return removeAllPersistedIf(LockHolder::isAutoCleanup);
+	}
+
+	private int removeAllPersistedIf(@NonNull final Predicate<LockHolder> filter)
+	{
+		int countRemoved = 0;
+		for (final TableRecordReference record : holdersByRecord.keySet())
+		{
+			countRemoved += removeIf(record, holder -> !holder.isJvmLocalOnly() && filter.test(holder)).size();
+		}
+		return countRemoved;
+	}
+
+	private static ImmutableList<LockHolder> removeFromList(
+			final ImmutableList<LockHolder> holders,
+			final Predicate<LockHolder> filter,
+			final ImmutableList.Builder<LockHolder> removedCollector)
+	{
+		final ImmutableList.Builder<LockHolder> remaining = ImmutableList.builder();
+		boolean hasRemaining = false;
+		for (final LockHolder holder : holders)
+		{
+			if (filter.test(holder))
+			{
+				removedCollector.add(holder);
+			}
+			else
+			{
+				remaining.add(holder);
+				hasRemaining = true;
+			}
+		}
+
+		return hasRemaining ? remaining.build() : null; // null removes the map entry
+	}
+
+	private ImmutableList<LockHolder> getHolders(@NonNull final TableRecordReference record, @NonNull final Predicate<LockHolder> filter)
+	{
+		final ImmutableList<LockHolder> holders = holdersByRecord.get(record);
+		if (holders == null)
+		{
+			return ImmutableList.of();
+		}
+		return holders.stream().filter(filter).collect(ImmutableList.toImmutableList());
+	}
+
+	public boolean hasHolder(@NonNull final TableRecordReference record, @NonNull final Predicate<LockHolder> filter)
+	{
+		final ImmutableList<LockHolder> holders = holdersByRecord.get(record);
+		return holders != null && holders.stream().anyMatch(filter);
+	}
+
+	/**
+	 * Atomically replaces the first holder which is matching the given filter.
+	 *
+	 * @return true if a holder was replaced
+	 */
+	public boolean replace(
+			@NonNull final TableRecordReference record,
+			@NonNull final Predicate<LockHolder> filter,
+			@NonNull final LockHolder newHolder)
+	{
+		final AtomicBoolean replaced = new AtomicBoolean(false);
+		holdersByRecord.computeIfPresent(record, (k, holders) -> {
+			final ImmutableList.Builder<LockHolder> result = ImmutableList.builder();
+			for (final LockHolder holder : holders)
+			{
+				if (!replaced.get() && filter.test(holder))
+				{
+					result.add(newHolder);
+					replaced.set(true);
+				}
+				else
+				{
+					result.add(holder);
+				}
+			}
+			return result.build();
+		});
+		return replaced.get();
+	}
+
+	/**
+	 * @return the IDs of the given table's records which have at least one holder matching the given filter
+	 */
+	public ImmutableSet<Integer> getRecordIds(final int adTableId, @NonNull final Predicate<LockHolder> filter)
+	{
+		final ImmutableSet.Builder<Integer> recordIds = ImmutableSet.builder();
+		holdersByRecord.forEach((record, holders) -> {
+			if (record.getAD_Table_ID() == adTableId && holders.stream().anyMatch(filter))
+			{
+				recordIds.add(record.getRecord_ID());
+			}
+		});
+		return recordIds.build();
+	}
+
+	public int countHolders(@NonNull final Predicate<LockHolder> filter)
+	{
+		return (int)holdersByRecord.values()
+				.stream()
+				.flatMap(ImmutableList::stream)
+				.filter(filter)
+				.count();
+	}
+
+	public int size()
+	{
+		return holdersByRecord.values().stream().mapToInt(ImmutableList::size).sum();
+	}
+}
@@ -6,6 +6,8 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.ISqlQueryFilter;
@@ -15,11 +17,21 @@ import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.DBUniqueConstraintException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.IQuery;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.event.Event;
+import de.metas.event.IEventBus;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.Topic;
+import de.metas.event.Type;
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
 import de.metas.lock.api.IUnlockCommand;
@@ -30,6 +42,7 @@ import de.metas.lock.exceptions.LockFailedException;
 import de.metas.lock.exceptions.UnlockFailedException;
 import de.metas.lock.model.I_T_Lock;
 import de.metas.lock.spi.ILockDatabase;
+import de.metas.lock.spi.impl.JvmLocalLockTable.LockHolder;
 import de.metas.process.PInstanceId;
 import de.metas.util.Check;
 import de.metas.util.Services;
@@ -39,6 +52,14 @@ import lombok.NonNull;
  * {@link ILockDatabase} implementation which stores the locks in {@link I_T_Lock} table.
  *
  * This is the default implementation.
+ * <p>
+ * The record locks which are acquired by this JVM are also kept in a {@link JvmLocalLockTable}, so conflicting lock attempts within this JVM are detected without an INSERT round trip.
+ * Locks which were acquired with {@link ILockCommand#setJvmLocalOnly(boolean)} are kept only there.
+ * <p>
+ * Note that by default each lock is still written to <code>T_Lock</code>, because that's what other nodes and the SQL lock filters are looking at.
+ * For those locks the in-memory table is not authoritative: a hit is confirmed against <code>T_Lock</code>, since the record might have been deleted behind our back
+ * (e.g. by another node or by a cleanup SQL).
+ * To keep such stale entries few, each node broadcasts when it released all locks of an owner or cleaned up the auto-cleanup locks, and the other nodes purge their matching entries.
  *
  * @author tsa
  *
@@ -47,6 +68,27 @@ public class SqlLockDatabase extends AbstractLockDatabase
 {
 	private static final String SQL_DeleteLock = "DELETE FROM " + I_T_Lock.Table_Name + " WHERE 1=1 ";
 
+	private static final Topic TOPIC_LocksReleased = Topic.builder()
+			.name("de.metas.lock.LocksReleased")
+			.type(Type.REMOTE)
+			.build();
+	private static final String EVENT_PROPERTY_Owner = "Owner";
+	private static final String EVENT_PROPERTY_AutoCleanup = "IsAutoCleanup";
+	private final AtomicBoolean eventBusSubscribed = new AtomicBoolean(false);
+
+	private final JvmLocalLockTable localLocks = new JvmLocalLockTable();
+
+	// Statistics
+	private final AtomicLong countLocksJvmLocalOnly = new AtomicLong();
+	private final AtomicLong countLocksEscalatedToDatabase = new AtomicLong();
+	private final AtomicLong countConflictsDetectedInMemory = new AtomicLong();
+	private final AtomicLong countConflictsDetectedInDatabase = new AtomicLong();
+
+	public SqlLockDatabase()
+	{
+		JMXRegistry.get().registerJMX(new JMXSqlLockDatabase(this), OnJMXAlreadyExistsPolicy.Replace);
+	}
+
 	/**
 	 * @param lockOwner
 	 * @param sql
@@ -120,6 +162,23 @@ public class SqlLockDatabase extends AbstractLockDatabase
 			return false;
 		}
 
+		final TableRecordReference localKey = TableRecordReference.of(adTableId, recordId);
+		if (localLocks.hasHolder(localKey, holder -> holder.isJvmLocalOnly() && (lockOwner == null || holder.isMatchingOwner(lockOwner))))
+		{
+			return true;
+		}
+
+		final boolean locked = isLockedInDatabase(adTableId, recordId, lockOwner);
+		if (!locked)
+		{
+			// the T_Lock records might have been deleted behind our back
+			localLocks.removeIf(localKey, holder -> !holder.isJvmLocalOnly() && (lockOwner == null || holder.isMatchingOwner(lockOwner)));
+		}
+		return locked;
+	}
+
+	private boolean isLockedInDatabase(final int adTableId, final int recordId, final LockOwner lockOwner)
+	{
 		final List<Object> sqlParams = new ArrayList<>();
 		final StringBuilder sql = new StringBuilder(" SELECT count(1)"
 				+ " FROM " + I_T_Lock.Table_Name
@@ -226,10 +285,13 @@ public class SqlLockDatabase extends AbstractLockDatabase
 				throw new LockFailedException("Nothing locked for selection");
 			}
 
+			countLocksEscalatedToDatabase.addAndGet(countLocked);
 			return countLocked;
 		}
 		catch (final DBUniqueConstraintException e)
 		{
+			countConflictsDetectedInDatabase.incrementAndGet();
+
 			// TODO: implement for lockCommand.isFailIfAlreadyLocked() == false to allow partial locking
 
 			throw new LockFailedException("Some of the records were already locked", e)
@@ -264,6 +326,38 @@ public class SqlLockDatabase extends AbstractLockDatabase
 
 		final boolean autoCleanup = lockCommand.isAutoCleanup();
 
+		subscribeToEventBusIfNeeded();
+
+		//
+		// Check and reserve the lock within this JVM first
+		final TableRecordReference localKey = TableRecordReference.of(adTableId, recordId);
+		final LockHolder localHolder = LockHolder.builder()
+				.ownerName(lockOwner.getOwnerName())
+				.allowMultipleOwners(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()))
+				.autoCleanup(autoCleanup)
+				.jvmLocalOnly(lockCommand.isJvmLocalOnly())
+				.adTableId(adTableId)
+				.build();
+		if (!localLocks.tryAdd(localKey, localHolder, conflictingHolder -> isPersistedLockExisting(conflictingHolder, localKey)))
+		{
+			countConflictsDetectedInMemory.incrementAndGet();
+			if (lockCommand.isFailIfAlreadyLocked())
+			{
+				throw new LockFailedException("Record was already locked: " + record)
+						.setLockCommand(lockCommand)
+						.setRecordToLock(record);
+			}
+			return false;
+		}
+
+		if (localHolder.isJvmLocalOnly())
+		{
+			countLocksJvmLocalOnly.incrementAndGet();
+			return true;
+		}
+
+		//
+		// Persist the lock to T_Lock
 		final List<Object> sqlParams = new ArrayList<>();
 		final String sql = "INSERT INTO " + I_T_Lock.Table_Name + " ("
 				+ I_T_Lock.COLUMNNAME_AD_Table_ID
@@ -279,15 +373,19 @@ public class SqlLockDatabase extends AbstractLockDatabase
 				+ ", " + toSqlParam(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()), sqlParams) // IsAllowMultipleOwners
 				+ ")";
 
+		boolean inserted = false;
 		try
 		{
 			DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+			inserted = true;
+			countLocksEscalatedToDatabase.incrementAndGet();
 			return true;
 		}
 		catch (final DBUniqueConstraintException e)
 		{
 			// we are in a concurrent situation where another DB client acquired the lock for a record since our select
 			// => fail if we were asked to fail, else return false
+			countConflictsDetectedInDatabase.incrementAndGet();
 
 			if (lockCommand.isFailIfAlreadyLocked())
 			{
@@ -305,11 +403,50 @@ public class SqlLockDatabase extends AbstractLockDatabase
 					.setSql(sql, sqlParams.toArray())
 					.setRecordToLock(record);
 		}
+		finally
+		{
+			if (!inserted)
+			{
+				localLocks.remove(localKey, localHolder);
+			}
+		}
+	}
+
+	private boolean isPersistedLockExisting(final LockHolder holder, final TableRecordReference record)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final StringBuilder sql = new StringBuilder("SELECT count(1) FROM " + I_T_Lock.Table_Name + " WHERE 1=1 ");
+		appendTableRecordWhereClause(record, sql, sqlParams);
+		sql.append(" AND ").append(I_T_Lock.COLUMNNAME_Owner).append("=").append(toSqlParam(holder.getOwnerName(), sqlParams));
+		sql.append(" AND ").append(I_T_Lock.COLUMNNAME_IsAllowMultipleOwners).append("=").append(toSqlParam(holder.isAllowMultipleOwners(), sqlParams));
+
+		final int countLocked = DB.getSQLValueEx(ITrx.TRXNAME_None, sql.toString(), sqlParams);
+		return countLocked > 0;
 	}
 
 	@Override
 	protected boolean changeLockRecord(final ILockCommand lockCommand, final TableRecordReference record)
 	{
+		final ILock parentLock = lockCommand.getParentLock();
+		final LockOwner ownerCurrent = parentLock.getOwner();
+		final TableRecordReference localKey = TableRecordReference.of(record.getAD_Table_ID(), record.getRecord_ID());
+
+		//
+		// JVM-local-only lock: there is nothing in T_Lock to be changed
+		if (localLocks.hasHolder(localKey, holder -> holder.isJvmLocalOnly() && holder.isMatchingOwner(ownerCurrent)))
+		{
+			final LockOwner ownerNew = lockCommand.getOwner();
+			assertValidLockOwner(ownerNew);
+			final LockHolder newHolder = LockHolder.builder()
+					.ownerName(ownerNew.getOwnerName())
+					.allowMultipleOwners(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()))
+					.autoCleanup(lockCommand.isAutoCleanup())
+					.jvmLocalOnly(true)
+					.adTableId(record.getAD_Table_ID())
+					.build();
+			return localLocks.replace(localKey, holder -> holder.isJvmLocalOnly() && holder.isMatchingOwner(ownerCurrent), newHolder);
+		}
+
 		final List<Object> sqlParams = new ArrayList<>();
 		final StringBuilder sql = new StringBuilder("UPDATE " + I_T_Lock.Table_Name)
 				.append(" SET ");
@@ -336,8 +473,6 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		appendTableRecordWhereClause(record, sql, sqlParams);
 
 		// For Owner
-		final ILock parentLock = lockCommand.getParentLock();
-		final LockOwner ownerCurrent = parentLock.getOwner();
 		appendLockOwnerWhereClause(ownerCurrent, sql, sqlParams);
 
 		try
@@ -355,22 +490,33 @@ public class SqlLockDatabase extends AbstractLockDatabase
 					.setParameter("Owner (new)", ownerNew)
 					.setSql(sql.toString(), sqlParams.toArray());
 		}
+		finally
+		{
+			// the database is deciding from now on
+			localLocks.removeIf(localKey, holder -> !holder.isJvmLocalOnly() && holder.isMatchingOwner(ownerCurrent));
+		}
 	}
 
 	@Override
 	protected int unlockBySelection(final IUnlockCommand unlockCommand)
 	{
+		// We don't know which records are in the selection, so we remove all matching persisted locks of that table from the in-memory table;
+		// the database is deciding for them from now on.
+		final int adTableId = unlockCommand.getSelectionToUnlock_AD_Table_ID();
+		final LockOwner lockOwner = unlockCommand.getOwner();
+		localLocks.removeAllIf(holder -> !holder.isJvmLocalOnly() && holder.getAdTableId() == adTableId && holder.isMatchingOwner(lockOwner));
+
 		final List<Object> sqlParams = new ArrayList<>();
 		final StringBuilder sql = new StringBuilder(SQL_DeleteLock);
 
 		// For AD_Table_ID / Record_ID in Selection
 		appendTableSelectionWhereClause(
-				unlockCommand.getSelectionToUnlock_AD_Table_ID(),
+				adTableId,
 				unlockCommand.getSelectionToUnlock_AD_PInstance_ID(),
 				sql, sqlParams);
 
 		// For Owner
-		appendLockOwnerWhereClause(unlockCommand.getOwner(), sql, sqlParams);
+		appendLockOwnerWhereClause(lockOwner, sql, sqlParams);
 
 		int countUnlocked = -1;
 		try
@@ -390,6 +536,18 @@ public class SqlLockDatabase extends AbstractLockDatabase
 	@Override
 	protected boolean unlockRecord(final IUnlockCommand unlockCommand, final TableRecordReference record)
 	{
+		final LockOwner lockOwner = unlockCommand.getOwner();
+		final ImmutableList<LockHolder> localHoldersRemoved = localLocks.removeIf(
+				TableRecordReference.of(record.getAD_Table_ID(), record.getRecord_ID()),
+				holder -> holder.isMatchingOwner(lockOwner));
+		final boolean jvmLocalOnlyLockRemoved = localHoldersRemoved.stream().anyMatch(LockHolder::isJvmLocalOnly);
+
+		// Only a JVM-local-only lock of a given owner was released => there is nothing to delete from T_Lock
+		if (jvmLocalOnlyLockRemoved && !lockOwner.isAnyOwner() && localHoldersRemoved.stream().allMatch(LockHolder::isJvmLocalOnly))
+		{
+			return true;
+		}
+
 		final StringBuilder sql = new StringBuilder(SQL_DeleteLock);
 		final List<Object> sqlParams = new ArrayList<>();
 
@@ -397,12 +555,12 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		appendTableRecordWhereClause(record, sql, sqlParams);
 
 		// For Owner
-		appendLockOwnerWhereClause(unlockCommand.getOwner(), sql, sqlParams);
+		appendLockOwnerWhereClause(lockOwner, sql, sqlParams);
 
 		try
 		{
 			final int countUnlocked = DB.executeUpdateEx(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None);
-			return countUnlocked > 0;
+			return countUnlocked > 0 || jvmLocalOnlyLockRemoved;
 		}
 		catch (final Exception e)
 		{
@@ -423,10 +581,19 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		assertValidLockOwner(lockOwner);
 		appendLockOwnerWhereClause(lockOwner, sql, sqlParams);
 
+		final int countUnlockedJvmLocalOnly = localLocks.removeAllIf(holder -> holder.isMatchingOwner(lockOwner));
+
 		try
 		{
 			final int countUnlocked = DB.executeUpdateEx(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None);
-			return countUnlocked;
+			if (countUnlocked > 0 && lockOwner.isRealOwner())
+			{
+				// the owner's locks might have been acquired on another node (e.g. work package element locks)
+				notifyLocksReleased(Event.builder()
+						.putProperty(EVENT_PROPERTY_Owner, lockOwner.getOwnerName())
+						.build());
+			}
+			return countUnlocked + countUnlockedJvmLocalOnly;
 		}
 		catch (final Exception e)
 		{
@@ -457,20 +624,25 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		final StringBuilder whereClause = new StringBuilder();
 
 		// For AD_Table_ID/Record_ID
-		{
-			Check.assumeNotEmpty(tableName, "tableName not empty");
-			final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(tableName);
-			Check.assume(adTableId > 0, "Table {} exists", tableName);
+		Check.assumeNotEmpty(tableName, "tableName not empty");
+		final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(tableName);
+		Check.assume(adTableId > 0, "Table {} exists", tableName);
+
+		Check.assumeNotEmpty(joinColumnNameFQ, "joinColumnNameFQ not empty");
+
+		whereClause.append(" AND zz." + I_T_Lock.COLUMNNAME_AD_Table_ID + "=" + toSqlParam(adTableId, sqlParams));
+		whereClause.append(" AND zz." + I_T_Lock.COLUMNNAME_Record_ID + "=" + joinColumnNameFQ);
 
-			Check.assumeNotEmpty(joinColumnNameFQ, "joinColumnNameFQ not empty");
+		whereClause.insert(0, "NOT EXISTS (SELECT 1 FROM " + I_T_Lock.Table_Name + " zz WHERE 1=1 ").append(")");
 
-			whereClause.append(" AND zz." + I_T_Lock.COLUMNNAME_AD_Table_ID + "=" + toSqlParam(adTableId, sqlParams));
-			whereClause.append(" AND zz." + I_T_Lock.COLUMNNAME_Record_ID + "=" + joinColumnNameFQ);
+		// The JVM-local-only locks are not in T_Lock
+		final ImmutableSet<Integer> jvmLocalOnlyLockedRecordIds = localLocks.getRecordIds(adTableId, LockHolder::isJvmLocalOnly);
+		if (!jvmLocalOnlyLockedRecordIds.isEmpty())
+		{
+			whereClause.append(" AND NOT (").append(DB.buildSqlList(joinColumnNameFQ, jvmLocalOnlyLockedRecordIds, sqlParams)).append(")");
 		}
 
-		return whereClause
-				.insert(0, "NOT EXISTS (SELECT 1 FROM " + I_T_Lock.Table_Name + " zz WHERE 1=1 ").append(")")
-				.toString();
+		return whereClause.toString();
 	}
 
 	@Override
@@ -502,16 +674,14 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		final StringBuilder whereClause = new StringBuilder();
 
 		// For AD_Table_ID/Record_ID
-		{
-			Check.assumeNotNull(modelClass, "modelClass not null");
-			final int adTableId = InterfaceWrapperHelper.getTableId(modelClass);
-			Check.assume(adTableId > 0, "Table {} exists", modelClass);
+		Check.assumeNotNull(modelClass, "modelClass not null");
+		final int adTableId = InterfaceWrapperHelper.getTableId(modelClass);
+		Check.assume(adTableId > 0, "Table {} exists", modelClass);
 
-			Check.assumeNotEmpty(joinColumnNameFQ, "joinColumnNameFQ not empty");
+		Check.assumeNotEmpty(joinColumnNameFQ, "joinColumnNameFQ not empty");
 
-			whereClause.append(" AND zz." + I_T_Lock.COLUMNNAME_AD_Table_ID + "=" + toSqlParam(adTableId, sqlParams));
-			whereClause.append(" AND zz." + I_T_Lock.COLUMNNAME_Record_ID + "=" + joinColumnNameFQ);
-		}
+		whereClause.append(" AND zz." + I_T_Lock.COLUMNNAME_AD_Table_ID + "=" + toSqlParam(adTableId, sqlParams));
+		whereClause.append(" AND zz." + I_T_Lock.COLUMNNAME_Record_ID + "=" + joinColumnNameFQ);
 
 		// For given lock owner
 		if (lockOwner != null)
@@ -519,9 +689,18 @@ public class SqlLockDatabase extends AbstractLockDatabase
 			appendLockOwnerWhereClause(lockOwner, whereClause, sqlParams);
 		}
 
-		return whereClause
-				.insert(0, "EXISTS (SELECT 1 FROM " + I_T_Lock.Table_Name + " zz WHERE 1=1 ").append(")")
-				.toString();
+		whereClause.insert(0, "EXISTS (SELECT 1 FROM " + I_T_Lock.Table_Name + " zz WHERE 1=1 ").append(")");
+
+		// The JVM-local-only locks are not in T_Lock
+		final ImmutableSet<Integer> jvmLocalOnlyLockedRecordIds = localLocks.getRecordIds(
+				adTableId,
+				holder -> holder.isJvmLocalOnly() && (lockOwner == null || holder.isMatchingOwner(lockOwner)));
+		if (!jvmLocalOnlyLockedRecordIds.isEmpty())
+		{
+			whereClause.insert(0, "(").append(" OR ").append(DB.buildSqlList(joinColumnNameFQ, jvmLocalOnlyLockedRecordIds, sqlParams)).append(")");
+		}
+
+		return whereClause.toString();
 	}
 
 	@Override
@@ -540,6 +719,8 @@ public class SqlLockDatabase extends AbstractLockDatabase
 
 		final List<Object> sqlParams = Arrays.<Object> asList(lockOwner.getOwnerName());
 
+		final int countLockedJvmLocalOnly = localLocks.countHolders(holder -> holder.isJvmLocalOnly() && holder.isMatchingOwner(lockOwner));
+
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
 		try
@@ -550,7 +731,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 			if (rs.next())
 			{
 				final boolean autoCleanup = DisplayType.toBoolean(rs.getString(I_T_Lock.COLUMNNAME_IsAutoCleanup), false);
-				final int countLocked = rs.getInt("CountLocked");
+				final int countLocked = rs.getInt("CountLocked") + countLockedJvmLocalOnly;
 				final ILock lock = newLock(lockOwner, autoCleanup, countLocked);
 
 				Check.assume(!rs.next(), "More than one lock found for owner");
@@ -570,6 +751,12 @@ public class SqlLockDatabase extends AbstractLockDatabase
 			pstmt = null;
 		}
 
+		if (countLockedJvmLocalOnly > 0)
+		{
+			final boolean autoCleanup = localLocks.countHolders(holder -> holder.isJvmLocalOnly() && holder.isAutoCleanup() && holder.isMatchingOwner(lockOwner)) > 0;
+			return newLock(lockOwner, autoCleanup, countLockedJvmLocalOnly);
+		}
+
 		throw new LockFailedException("No lock found for " + lockOwner);
 	}
 
@@ -578,11 +765,113 @@ public class SqlLockDatabase extends AbstractLockDatabase
 	{
 		final String sql = "DELETE FROM " + I_T_Lock.Table_Name + " WHERE " + I_T_Lock.COLUMNNAME_IsAutoCleanup + "=?";
 		final Object[] sqlParams = new Object[] { true };
+
+		// JVM-local-only locks are still held by this JVM's running processes, so we keep them
+		localLocks.removePersistedAutoCleanupLocks();
+
 		final int countLocksReleased = DB.executeUpdateEx(sql, sqlParams, ITrx.TRXNAME_None);
 		if (countLocksReleased > 0)
 		{
 			logger.info("Deleted {} lock records from {} which were flagged with IsAutoCleanup=true", countLocksReleased, I_T_Lock.Table_Name);
+			notifyLocksReleased(Event.builder()
+					.putProperty(EVENT_PROPERTY_AutoCleanup, true)
+					.build());
 		}
 		return countLocksReleased;
 	}
+
+	private void subscribeToEventBusIfNeeded()
+	{
+		if (eventBusSubscribed.getAndSet(true))
+		{
+			return;
+		}
+
+		try
+		{
+			Services.get(IEventBusFactory.class).registerGlobalEventListener(TOPIC_LocksReleased, this::onLocksReleasedEvent);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed subscribing to {}. Locks released by other nodes will be purged from memory only on conflict.", TOPIC_LocksReleased, ex);
+		}
+	}
+
+	private void notifyLocksReleased(@NonNull final Event event)
+	{
+		try
+		{
+			Services.get(IEventBusFactory.class)
+					.getEventBus(TOPIC_LocksReleased)
+					.postEvent(event);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed broadcasting {}. The other nodes will purge their in-memory locks only on conflict.", event, ex);
+		}
+	}
+
+	private void onLocksReleasedEvent(final IEventBus eventBus, final Event event)
+	{
+		// we already purged our own entries when releasing the locks
+		if (event.isLocalEvent())
+		{
+			return;
+		}
+
+		final String ownerName = event.getPropertyAsString(EVENT_PROPERTY_Owner);
+		if (ownerName != null)
+		{
+			purgePersistedLocksOfOwner(ownerName);
+		}
+		if (event.getPropertyAsBoolean(EVENT_PROPERTY_AutoCleanup))
+		{
+			purgePersistedAutoCleanupLocks();
+		}
+	}
+
+	private void purgePersistedLocksOfOwner(@NonNull final String ownerName)
+	{
+		final int countPurged = localLocks.removePersistedLocksOfOwner(ownerName);
+		logger.debug("Purged {} in-memory locks of owner {} which was released by another node", countPurged, ownerName);
+	}
+
+	private void purgePersistedAutoCleanupLocks()
+	{
+		final int countPurged = localLocks.removePersistedAutoCleanupLocks();
+		logger.debug("Purged {} in-memory auto-cleanup locks which were deleted by another node", countPurged);
+	}
+
+	int getJvmLocalLocksCount()
+	{
+		return localLocks.size();
+	}
+
+	long getCountLocksJvmLocalOnly()
+	{
+		return countLocksJvmLocalOnly.get();
+	}
+
+	long getCountLocksEscalatedToDatabase()
+	{
+		return countLocksEscalatedToDatabase.get();
+	}
+
+	long getCountConflictsDetectedInMemory()
+	{
+		return countConflictsDetectedInMemory.get();
+	}
+
+	long getCountConflictsDetectedInDatabase()
+	{
+		return countConflictsDetectedInDatabase.get();
+	}
+
+	void resetStatistics()
+	{
+		countLocksJvmLocalOnly.set(0);
+		countLocksEscalatedToDatabase.set(0);
+		countConflictsDetectedInMemory.set(0);
+		countConflictsDetectedInDatabase.set(0);
+	}
 }
@@ -0,0 +1,147 @@
+package de.metas.async.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.Event;
+import de.metas.event.IEventBusFactory;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WorkPackageReadyNotifierTest
+{
+	private final WorkPackageReadyNotifier notifier = WorkPackageReadyNotifier.instance;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void awaitReady_timesOutIfNothingBecomesReady() throws Exception
+	{
+		final ImmutableList<Integer> packageProcessorIds = ImmutableList.of(1001);
+		final long readyVersion = notifier.getReadyVersion(packageProcessorIds);
+
+		notifier.notifyReadyLocally(1002); // another processor
+
+		assertThat(notifier.awaitReady(packageProcessorIds, readyVersion, 50)).isFalse();
+	}
+
+	@Test
+	public void awaitReady_returnsIfReadyBeforeWaiting() throws Exception
+	{
+		final ImmutableList<Integer> packageProcessorIds = ImmutableList.of(2001, 2002);
+		final long readyVersion = notifier.getReadyVersion(packageProcessorIds);
+
+		notifier.notifyReadyLocally(2002);
+
+		assertThat(notifier.awaitReady(packageProcessorIds, readyVersion, 10_000)).isTrue();
+	}
+
+	@Test
+	public void awaitReady_wakesUpWhenReady() throws Exception
+	{
+		final ImmutableList<Integer> packageProcessorIds = ImmutableList.of(3001);
+		final long readyVersion = notifier.getReadyVersion(packageProcessorIds);
+
+		final CompletableFuture<Boolean> awaitResult = CompletableFuture.supplyAsync(() -> {
+			try
+			{
+				return notifier.awaitReady(packageProcessorIds, readyVersion, 10_000);
+			}
+			catch (final InterruptedException e)
+			{
+				throw new RuntimeException(e);
+			}
+		});
+
+		Thread.sleep(50);
+		notifier.notifyReadyLocally(3001);
+
+		assertThat(awaitResult.get(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void notifyReadyAfterCommit_oneEventPerTrx()
+	{
+		final List<Event> postedEvents = new ArrayList<>();
+		Services.get(IEventBusFactory.class)
+				.getEventBus(WorkPackageReadyNotifier.TOPIC_WorkPackageReady)
+				.subscribe(event -> postedEvents.add(event));
+
+		final long readyVersion1 = notifier.getReadyVersion(ImmutableList.of(4001));
+		final long readyVersion2 = notifier.getReadyVersion(ImmutableList.of(4002));
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final String trxName = trxManager.createTrxName("TestTrx", true);
+		final ITrx trx = trxManager.get(trxName, false);
+		trx.start();
+
+		notifier.notifyReadyAfterCommit(4001, trxName);
+		notifier.notifyReadyAfterCommit(4002, trxName);
+		notifier.notifyReadyAfterCommit(4001, trxName);
+
+		// nothing is signaled before commit
+		assertThat(postedEvents).isEmpty();
+		assertThat(notifier.getReadyVersion(ImmutableList.of(4001))).isEqualTo(readyVersion1);
+
+		trx.commit(true);
+
+		assertThat(postedEvents).hasSize(1);
+		final List<Integer> postedPackageProcessorIds = postedEvents.get(0).getProperty("C_Queue_PackageProcessor_IDs");
+		assertThat(postedPackageProcessorIds).containsExactlyInAnyOrder(4001, 4002);
+		assertThat(notifier.getReadyVersion(ImmutableList.of(4001))).isEqualTo(readyVersion1 + 1);
+		assertThat(notifier.getReadyVersion(ImmutableList.of(4002))).isEqualTo(readyVersion2 + 1);
+	}
+
+	@Test
+	public void notifyReadyAfterCommit_noTrx()
+	{
+		final List<Event> postedEvents = new ArrayList<>();
+		Services.get(IEventBusFactory.class)
+				.getEventBus(WorkPackageReadyNotifier.TOPIC_WorkPackageReady)
+				.subscribe(event -> postedEvents.add(event));
+
+		final long readyVersion = notifier.getReadyVersion(ImmutableList.of(5001));
+
+		notifier.notifyReadyAfterCommit(5001, ITrx.TRXNAME_None);
+
+		assertThat(postedEvents).hasSize(1);
+		assertThat(notifier.getReadyVersion(ImmutableList.of(5001))).isEqualTo(readyVersion + 1);
+	}
+}
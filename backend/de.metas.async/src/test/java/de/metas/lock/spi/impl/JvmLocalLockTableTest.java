@@ -0,0 +1,213 @@
+package de.metas.lock.spi.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.Test;
+
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.spi.impl.JvmLocalLockTable.LockHolder;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JvmLocalLockTableTest
+{
+	private final JvmLocalLockTable table = new JvmLocalLockTable();
+	private final TableRecordReference record = TableRecordReference.of("C_Order", 1);
+
+	private static LockHolder holder(final String ownerName, final boolean allowMultipleOwners, final boolean jvmLocalOnly)
+	{
+		return holder(ownerName, allowMultipleOwners, jvmLocalOnly, false);
+	}
+
+	private static LockHolder holder(final String ownerName, final boolean allowMultipleOwners, final boolean jvmLocalOnly, final boolean autoCleanup)
+	{
+		return LockHolder.builder()
+				.ownerName(ownerName)
+				.allowMultipleOwners(allowMultipleOwners)
+				.jvmLocalOnly(jvmLocalOnly)
+				.autoCleanup(autoCleanup)
+				.adTableId(259)
+				.build();
+	}
+
+	@Test
+	public void singleOwnerLocks_areConflicting()
+	{
+		assertThat(table.tryAdd(record, holder("owner1", false, false))).isTrue();
+		assertThat(table.tryAdd(record, holder("owner2", false, false))).isFalse();
+		assertThat(table.tryAdd(TableRecordReference.of("C_Order", 2), holder("owner2", false, false))).isTrue();
+		assertThat(table.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void multipleOwnersLocks_areConflictingOnlyForSameOwner()
+	{
+		assertThat(table.tryAdd(record, holder("owner1", true, false))).isTrue();
+		assertThat(table.tryAdd(record, holder("owner2", true, false))).isTrue();
+		assertThat(table.tryAdd(record, holder("owner1", true, false))).isFalse();
+	}
+
+	@Test
+	public void singleOwnerAndMultipleOwnersLocks_areNotConflicting()
+	{
+		// same as the T_Lock unique indexes, which are partial on IsAllowMultipleOwners
+		assertThat(table.tryAdd(record, holder("owner1", false, false))).isTrue();
+		assertThat(table.tryAdd(record, holder("owner2", true, false))).isTrue();
+	}
+
+	@Test
+	public void remove_onlyRemovesGivenInstance()
+	{
+		final LockHolder holder1 = holder("owner1", true, false);
+		final LockHolder holder1Copy = holder("owner1", true, false);
+		table.tryAdd(record, holder1);
+
+		table.remove(record, holder1Copy);
+		assertThat(table.size()).isEqualTo(1);
+
+		table.remove(record, holder1);
+		assertThat(table.size()).isEqualTo(0);
+		assertThat(table.tryAdd(record, holder1Copy)).isTrue();
+	}
+
+	@Test
+	public void removeAllIf_countsJvmLocalOnlyLocks()
+	{
+		table.tryAdd(record, holder("owner1", true, true));
+		table.tryAdd(record, holder("owner2", true, false));
+		table.tryAdd(TableRecordReference.of("C_Order", 2), holder("owner1", false, true));
+
+		final int countJvmLocalOnlyRemoved = table.removeAllIf(h -> h.isMatchingOwner(LockOwner.forOwnerName("owner1")));
+
+		assertThat(countJvmLocalOnlyRemoved).isEqualTo(2);
+		assertThat(table.size()).isEqualTo(1);
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner2"))).isTrue();
+	}
+
+	@Test
+	public void replace()
+	{
+		table.tryAdd(record, holder("owner1", false, true));
+
+		final boolean replaced = table.replace(record, h -> h.getOwnerName().equals("owner1"), holder("owner2", false, true));
+
+		assertThat(replaced).isTrue();
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner1"))).isFalse();
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner2"))).isTrue();
+		assertThat(table.replace(TableRecordReference.of("C_Order", 2), h -> true, holder("owner3", false, true))).isFalse();
+	}
+
+	@Test
+	public void tryAdd_persistedConflictingLockIsStale()
+	{
+		final LockHolder staleHolder = holder("owner1", false, false);
+		table.tryAdd(record, staleHolder);
+		table.tryAdd(record, holder("owner3", true, false));
+
+		final List<LockHolder> checkedHolders = new ArrayList<>();
+		final boolean added = table.tryAdd(record, holder("owner2", false, false), h -> {
+			checkedHolders.add(h);
+			return false; // T_Lock record was deleted behind our back
+		});
+
+		assertThat(added).isTrue();
+		assertThat(checkedHolders).containsExactly(staleHolder);
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner1"))).isFalse();
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner2"))).isTrue();
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner3"))).isTrue();
+	}
+
+	@Test
+	public void tryAdd_persistedConflictingLockStillExists()
+	{
+		table.tryAdd(record, holder("owner1", false, false));
+
+		final boolean added = table.tryAdd(record, holder("owner2", false, false), h -> true);
+
+		assertThat(added).isFalse();
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner1"))).isTrue();
+	}
+
+	@Test
+	public void tryAdd_jvmLocalOnlyConflictingLockIsNotChecked()
+	{
+		table.tryAdd(record, holder("owner1", false, true));
+
+		final boolean added = table.tryAdd(record, holder("owner2", false, false), h -> {
+			throw new AssertionError("JVM-local-only locks shall not be checked against T_Lock: " + h);
+		});
+
+		assertThat(added).isFalse();
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner1"))).isTrue();
+	}
+
+	@Test
+	public void removePersistedLocksOfOwner_lockReleasedByOtherNode()
+	{
+		final TableRecordReference record2 = TableRecordReference.of("C_Order", 2);
+		table.tryAdd(record, holder("owner1", false, false));
+		table.tryAdd(record2, holder("owner1", false, true));
+
+		final int countRemoved = table.removePersistedLocksOfOwner("owner1");
+
+		assertThat(countRemoved).isEqualTo(1);
+		assertThat(table.hasHolder(record2, h -> h.getOwnerName().equals("owner1"))).as("JVM-local-only lock is kept").isTrue();
+
+		// another owner gets the lock without checking T_Lock
+		final boolean added = table.tryAdd(record, holder("owner2", false, false), h -> {
+			throw new AssertionError("released lock shall not be checked against T_Lock: " + h);
+		});
+		assertThat(added).isTrue();
+	}
+
+	@Test
+	public void removePersistedAutoCleanupLocks()
+	{
+		table.tryAdd(record, holder("owner1", true, false, true));
+		table.tryAdd(record, holder("owner2", true, false, false));
+		table.tryAdd(record, holder("owner3", true, true, true));
+
+		final int countRemoved = table.removePersistedAutoCleanupLocks();
+
+		assertThat(countRemoved).isEqualTo(1);
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner1"))).isFalse();
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner2"))).isTrue();
+		assertThat(table.hasHolder(record, h -> h.getOwnerName().equals("owner3"))).isTrue();
+	}
+
+	@Test
+	public void getRecordIds()
+	{
+		final int adTableId = 259;
+		table.tryAdd(TableRecordReference.of(adTableId, 1), holder("owner1", false, true));
+		table.tryAdd(TableRecordReference.of(adTableId, 2), holder("owner1", false, false));
+		table.tryAdd(TableRecordReference.of(adTableId, 3), holder("owner2", false, true));
+
+		assertThat(table.getRecordIds(adTableId, LockHolder::isJvmLocalOnly)).containsExactlyInAnyOrder(1, 3);
+		assertThat(table.getRecordIds(adTableId + 1, LockHolder::isJvmLocalOnly)).isEmpty();
+	}
+}
@@ -229,6 +229,7 @@ import lombok.NonNull;
 				.setAllowAdditionalLocks(ILockCommand.AllowAdditionalLocks.FOR_DIFFERENT_OWNERS) // task 09849
 				.setFailIfAlreadyLocked(true) // fail if the record was already locked
 				.setAutoCleanup(true) // remove possible stale locks, e.g. after a client crash
+				.setJvmLocalOnly(true) // the lock is held only while this thread is processing the document and no SQL lock filter is looking at document tables
 				.addRecord(document.toTableRecordReference())
 				.acquire();
 		logger.debug("Acquired Lock {}", lock);
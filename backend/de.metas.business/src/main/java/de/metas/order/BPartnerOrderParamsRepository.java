@@ -2,11 +2,14 @@ package de.metas.order;
 
 import java.util.Optional;
 
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_AD_OrgInfo;
 import org.compiere.model.I_C_BP_Group;
 import org.compiere.model.I_C_BPartner;
 import org.springframework.stereotype.Repository;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.cache.CCache;
@@ -48,17 +51,20 @@ public class BPartnerOrderParamsRepository
 {
 	private final IBPartnerDAO bpartnersRepo = Services.get(IBPartnerDAO.class);
 
-	private final CCache<BPartnerOrderParamsQuery, BPartnerOrderParams> cache = CCache
-			.<BPartnerOrderParamsQuery, BPartnerOrderParams> builder()
+	/** the record index makes sure that a C_BPartner change only evicts the params of that bpartner; C_BP_Group and AD_OrgInfo changes still reset the whole cache */
+	private final CCache<BPartnerOrderParamsQuery, BPartnerOrderParamsAndRecords> cache = CCache
+			.<BPartnerOrderParamsQuery, BPartnerOrderParamsAndRecords> builder()
 			.cacheName(this.getClass().getSimpleName())
 			.tableName(I_C_BPartner.Table_Name)
 			.additionalTableNameToResetFor(I_C_BP_Group.Table_Name)
 			.additionalTableNameToResetFor(I_AD_OrgInfo.Table_Name) // procingSysteId might be coming from here
+			.recordIndexEnabled(true)
+			.recordRefsExtractor(BPartnerOrderParamsAndRecords::getBpartnerRecordRefs)
 			.build();
 
 	public BPartnerOrderParams getBy(@NonNull final BPartnerOrderParamsQuery query)
 	{
-		return cache.getOrLoad(query, this::getBy0);
+		return cache.getOrLoad(query, this::getBy0).getParams();
 	}
 
 	@Value
@@ -75,11 +81,23 @@ public class BPartnerOrderParamsRepository
 		SOTrx soTrx;
 	}
 
-	private BPartnerOrderParams getBy0(@NonNull final BPartnerOrderParamsQuery query)
+	@Value
+	private static class BPartnerOrderParamsAndRecords
+	{
+		@NonNull
+		BPartnerOrderParams params;
+
+		@NonNull
+		ImmutableSet<TableRecordReference> bpartnerRecordRefs;
+	}
+
+	private BPartnerOrderParamsAndRecords getBy0(@NonNull final BPartnerOrderParamsQuery query)
 	{
 		final I_C_BPartner billBPartnerRecord = bpartnersRepo.getById(query.getBillBPartnerId());
 		final I_C_BPartner shipBPartnerRecord = bpartnersRepo.getById(query.getShipBPartnerId());
-		return ofRecord(billBPartnerRecord, shipBPartnerRecord, query.getSoTrx());
+		return new BPartnerOrderParamsAndRecords(
+				ofRecord(billBPartnerRecord, shipBPartnerRecord, query.getSoTrx()),
+				ImmutableSet.of(TableRecordReference.of(billBPartnerRecord), TableRecordReference.of(shipBPartnerRecord)));
 	}
 
 	private BPartnerOrderParams ofRecord(
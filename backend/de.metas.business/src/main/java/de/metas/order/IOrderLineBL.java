@@ -125,6 +125,12 @@ public interface IOrderLineBL extends ISingletonService
 
 	void updatePrices(OrderLinePriceUpdateRequest request);
 
+	/**
+	 * Same as calling {@link #updatePrices(org.compiere.model.I_C_OrderLine)} for each line, but the lines are priced in one go,
+	 * using {@link de.metas.pricing.service.IPricingBL#calculatePrices(java.util.List)}.
+	 */
+	void updatePrices(Collection<? extends org.compiere.model.I_C_OrderLine> orderLines);
+
 	IPricingResult computePrices(OrderLinePriceUpdateRequest request);
 
 	PriceLimitRuleResult computePriceLimit(org.compiere.model.I_C_OrderLine orderLine);
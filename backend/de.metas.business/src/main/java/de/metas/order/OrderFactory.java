@@ -14,11 +14,14 @@ import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.util.TimeUtil;
 import org.slf4j.MDC.MDCCloseable;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.adempiere.model.I_C_Order;
 import de.metas.bpartner.BPartnerId;
 import de.metas.document.engine.DocStatus;
 import de.metas.document.engine.IDocument;
 import de.metas.document.engine.IDocumentBL;
+import de.metas.interfaces.I_C_OrderLine;
 import de.metas.lang.SOTrx;
 import de.metas.logging.TableRecordMDC;
 import de.metas.product.ProductId;
@@ -105,7 +108,11 @@ public class OrderFactory
 
 			createDraftOrderHeader();
 
-			orderLineBuilders.forEach(OrderLineBuilder::build);
+			final List<I_C_OrderLine> orderLines = orderLineBuilders.stream()
+					.map(OrderLineBuilder::build)
+					.collect(ImmutableList.toImmutableList());
+			Services.get(IOrderLineBL.class).updatePrices(orderLines);
+			orderLineBuilders.forEach(OrderLineBuilder::save);
 
 			return order;
 		}
@@ -1,12 +1,11 @@
 package de.metas.order;
 
-import static org.adempiere.model.InterfaceWrapperHelper.save;
-
 import java.math.BigDecimal;
 import java.util.Objects;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.mm.attributes.api.AttributeConstants;
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
@@ -72,7 +71,11 @@ public class OrderLineBuilder
 		this.parent = parent;
 	}
 
-	/* package */void build()
+	/**
+	 * Creates the order line, but neither prices nor saves it.
+	 * The caller is expected to price all lines of the order in one go (see {@link IOrderLineBL#updatePrices(java.util.Collection)}) and then call {@link #save()}.
+	 */
+	/* package */I_C_OrderLine build()
 	{
 		assertNotBuilt();
 		built = true;
@@ -103,14 +106,19 @@ public class OrderLineBuilder
 			orderLine.setDiscount(manualDiscount);
 		}
 
-		Services.get(IOrderLineBL.class).updatePrices(orderLine);
-		save(orderLine);
-		try (final MDCCloseable orderLineMDC = TableRecordMDC.putTableRecordReference(orderLine))
+		this.createdOrderLine = orderLine;
+		return orderLine;
+	}
+
+	/* package */void save()
+	{
+		Check.assumeNotNull(createdOrderLine, "order line was built: {}", this);
+
+		InterfaceWrapperHelper.save(createdOrderLine);
+		try (final MDCCloseable orderLineMDC = TableRecordMDC.putTableRecordReference(createdOrderLine))
 		{
-			// would be great to also have the pricing engine run in here..if there is a way for this without the need to save twice
-			logger.debug("Set C_OrderLine.QtyOrdered={} as converted from qty={} and productId={}", qtyOrdered.toBigDecimal(), qty, productId);
+			logger.debug("Set C_OrderLine.QtyOrdered={} as converted from qty={} and productId={}", createdOrderLine.getQtyOrdered(), qty, productId);
 		}
-		this.createdOrderLine = orderLine;
 	}
 
 	private void assertNotBuilt()
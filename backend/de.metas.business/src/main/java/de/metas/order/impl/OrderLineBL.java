@@ -1,5 +1,6 @@
 package de.metas.order.impl;
 
+import com.google.common.collect.ImmutableList;
 import de.metas.adempiere.model.I_M_Product;
 import de.metas.bpartner.BPartnerContactId;
 import de.metas.bpartner.BPartnerId;
@@ -24,11 +25,13 @@ import de.metas.order.PriceAndDiscount;
 import de.metas.organization.IOrgDAO;
 import de.metas.organization.OrgId;
 import de.metas.payment.paymentterm.PaymentTermId;
+import de.metas.pricing.IPricingContext;
 import de.metas.pricing.IPricingResult;
 import de.metas.pricing.PriceListId;
 import de.metas.pricing.limit.PriceLimitRuleResult;
 import de.metas.pricing.service.IPriceListBL;
 import de.metas.pricing.service.IPriceListDAO;
+import de.metas.pricing.service.IPricingBL;
 import de.metas.product.IProductBL;
 import de.metas.product.IProductDAO;
 import de.metas.product.ProductId;
@@ -67,6 +70,7 @@ import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
@@ -378,6 +382,32 @@ public class OrderLineBL implements IOrderLineBL
 				.updateOrderLine();
 	}
 
+	@Override
+	public void updatePrices(@NonNull final Collection<? extends org.compiere.model.I_C_OrderLine> orderLines)
+	{
+		final ImmutableList<OrderLinePriceCalculator> calculators = orderLines.stream()
+				.filter(orderLine -> orderLine.getM_Product_ID() > 0) // there is no point to calculate the prices if the product was not set yet
+				.map(orderLine -> OrderLinePriceCalculator.builder()
+						.request(OrderLinePriceUpdateRequest.ofOrderLine(orderLine))
+						.orderLineBL(this)
+						.build())
+				.collect(ImmutableList.toImmutableList());
+		if (calculators.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableList<IPricingContext> pricingCtxs = calculators.stream()
+				.map(OrderLinePriceCalculator::createPricingContext)
+				.collect(ImmutableList.toImmutableList());
+		final List<IPricingResult> pricingResults = Services.get(IPricingBL.class).calculatePrices(pricingCtxs);
+
+		for (int index = 0; index < calculators.size(); index++)
+		{
+			calculators.get(index).updateOrderLine(pricingCtxs.get(index), pricingResults.get(index));
+		}
+	}
+
 	@Override
 	public void updateQtyReserved(@Nullable final I_C_OrderLine orderLine)
 	{
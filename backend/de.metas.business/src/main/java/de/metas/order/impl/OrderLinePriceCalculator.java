@@ -113,6 +113,15 @@ final class OrderLinePriceCalculator
 		// Calculate Pricing Result
 		final IEditablePricingContext pricingCtx = createPricingContext();
 		final IPricingResult pricingResult = pricingBL.calculatePrice(pricingCtx);
+		updateOrderLine(pricingCtx, pricingResult);
+	}
+
+	/**
+	 * Updates the order line from a pricing result which was already calculated for the context returned by {@link #createPricingContext()}.
+	 */
+	void updateOrderLine(@NonNull final IPricingContext pricingCtx, @NonNull final IPricingResult pricingResult)
+	{
+		final I_C_OrderLine orderLine = request.getOrderLine();
 		if (!pricingResult.isCalculated())
 		{
 			throw new ProductNotOnPriceListException(pricingCtx, orderLine.getLine())
@@ -295,7 +304,7 @@ final class OrderLinePriceCalculator
 		return true;
 	}
 
-	private IEditablePricingContext createPricingContext()
+	IEditablePricingContext createPricingContext()
 	{
 		final I_C_OrderLine orderLine = request.getOrderLine();
 		final org.compiere.model.I_C_Order order = orderLine.getC_Order();
@@ -23,6 +23,7 @@ package de.metas.pricing.service;
  */
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Set;
 
 import de.metas.bpartner.BPartnerId;
@@ -66,6 +67,17 @@ public interface IPricingBL extends ISingletonService
 
 	IPricingResult calculatePrice(IPricingContext pricingCtx);
 
+	/**
+	 * Calculates the prices for many pricing contexts in one go.
+	 * <p>
+	 * Compared to calling {@link #calculatePrice(IPricingContext)} for each context, the price list versions, main product prices and discount schemas
+	 * are loaded only once for the whole batch.
+	 * The contexts are evaluated one after the other, in the caller's thread (i.e. with its ctx and trx).
+	 *
+	 * @return pricing results, in the same order as the given contexts
+	 */
+	List<IPricingResult> calculatePrices(List<IPricingContext> pricingCtxs);
+
 	/**
 	 * Creates an initial {@link IPricingResult}. Copies some of the given <code>pricingCtx</code>'s properties to the pricing result.
 	 *
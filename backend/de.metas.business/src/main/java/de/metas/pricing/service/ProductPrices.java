@@ -6,8 +6,10 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -17,12 +19,18 @@ import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
 import org.compiere.model.I_M_PricingSystem;
 import org.compiere.model.I_M_ProductPrice;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.SetMultimap;
+
 import de.metas.adempiere.model.I_M_Product;
 import de.metas.i18n.AdMessageKey;
 import de.metas.i18n.IMsgBL;
@@ -42,6 +50,7 @@ import de.metas.uom.UomId;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -73,6 +82,8 @@ public class ProductPrices
 
 	private static final Logger logger = LogManager.getLogger(ProductPrices.class);
 
+	private static final ThreadLocal<PrefetchedMainProductPrices> prefetchedMainProductPricesHolder = new ThreadLocal<>();
+
 	public static final ProductPriceQuery newQuery(@NonNull final I_M_PriceList_Version plv)
 	{
 		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
@@ -174,6 +185,17 @@ public class ProductPrices
 			@NonNull final I_M_PriceList_Version plv,
 			@NonNull final ProductId productId)
 	{
+		final PrefetchedMainProductPrices prefetchedMainProductPrices = prefetchedMainProductPricesHolder.get();
+		if (prefetchedMainProductPrices != null)
+		{
+			final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
+			final List<I_M_ProductPrice> prefetchedMainPrices = prefetchedMainProductPrices.getOrNull(priceListVersionId, productId);
+			if (prefetchedMainPrices != null)
+			{
+				return prefetchedMainPrices;
+			}
+		}
+
 		return newMainProductPriceQuery(plv, productId)
 				.list();
 	}
@@ -188,6 +210,83 @@ public class ProductPrices
 				.addMatchersIfAbsent(MATCHERS_MainProductPrice); // IMORTANT: keep it last
 	}
 
+	/**
+	 * Loads the main product prices of the given products, using one query per price list version.
+	 *
+	 * @see #temporaryUsePrefetchedMainProductPrices(PrefetchedMainProductPrices)
+	 */
+	public static PrefetchedMainProductPrices prefetchMainProductPrices(@NonNull final SetMultimap<PriceListVersionId, ProductId> productIdsByPriceListVersionId)
+	{
+		final ImmutableMap.Builder<PriceListVersionAndProduct, ImmutableList<I_M_ProductPrice>> mainPrices = ImmutableMap.builder();
+		for (final Map.Entry<PriceListVersionId, Collection<ProductId>> entry : productIdsByPriceListVersionId.asMap().entrySet())
+		{
+			final PriceListVersionId priceListVersionId = entry.getKey();
+			final Collection<ProductId> productIds = entry.getValue();
+
+			final ImmutableListMultimap<ProductId, I_M_ProductPrice> mainPricesByProductId = new ProductPriceQuery()
+					.setPriceListVersionId(priceListVersionId)
+					.setProductIds(productIds)
+					.noAttributePricing()
+					.onlyValidPrices(true)
+					//
+					.addMatchersIfAbsent(MATCHERS_MainProductPrice) // IMORTANT: keep it last
+					.list()
+					.stream()
+					.collect(ImmutableListMultimap.toImmutableListMultimap(productPrice -> ProductId.ofRepoId(productPrice.getM_Product_ID()), productPrice -> productPrice));
+
+			// NOTE: we also remember the products without a main price, so we won't query them again
+			for (final ProductId productId : productIds)
+			{
+				mainPrices.put(PriceListVersionAndProduct.of(priceListVersionId, productId), mainPricesByProductId.get(productId));
+			}
+		}
+
+		return new PrefetchedMainProductPrices(mainPrices.build());
+	}
+
+	/**
+	 * Makes {@link #retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)} use the given prefetched prices in the current thread, until the returned closeable is closed.
+	 * Prices which were not prefetched are still retrieved from database.
+	 */
+	public static IAutoCloseable temporaryUsePrefetchedMainProductPrices(@NonNull final PrefetchedMainProductPrices prefetchedMainProductPrices)
+	{
+		final PrefetchedMainProductPrices previous = prefetchedMainProductPricesHolder.get();
+		prefetchedMainProductPricesHolder.set(prefetchedMainProductPrices);
+		return () -> prefetchedMainProductPricesHolder.set(previous);
+	}
+
+	@Value(staticConstructor = "of")
+	private static class PriceListVersionAndProduct
+	{
+		@NonNull
+		PriceListVersionId priceListVersionId;
+		@NonNull
+		ProductId productId;
+	}
+
+	/** Main product prices, loaded by {@link ProductPrices#prefetchMainProductPrices(SetMultimap)}. */
+	public static final class PrefetchedMainProductPrices
+	{
+		private final ImmutableMap<PriceListVersionAndProduct, ImmutableList<I_M_ProductPrice>> mainPrices;
+
+		private PrefetchedMainProductPrices(@NonNull final ImmutableMap<PriceListVersionAndProduct, ImmutableList<I_M_ProductPrice>> mainPrices)
+		{
+			this.mainPrices = mainPrices;
+		}
+
+		/** @return prefetched main prices (possibly empty) or {@code null} if they were not prefetched */
+		@Nullable
+		private ImmutableList<I_M_ProductPrice> getOrNull(@NonNull final PriceListVersionId priceListVersionId, @NonNull final ProductId productId)
+		{
+			return mainPrices.get(PriceListVersionAndProduct.of(priceListVersionId, productId));
+		}
+
+		public int size()
+		{
+			return mainPrices.size();
+		}
+	}
+
 	private static I_M_ProductPrice getFirstOrThrowExceptionIfMoreThanOne(final List<I_M_ProductPrice> allMainPrices)
 	{
 		if (allMainPrices.isEmpty())
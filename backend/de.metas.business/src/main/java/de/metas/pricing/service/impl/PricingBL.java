@@ -24,6 +24,10 @@ package de.metas.pricing.service.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -31,6 +35,7 @@ import javax.annotation.Nullable;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.model.I_C_BPartner;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
@@ -41,9 +46,13 @@ import org.slf4j.Logger;
 
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
 
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerId;
+import de.metas.bpartner.service.IBPartnerBL;
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.currency.CurrencyPrecision;
 import de.metas.lang.SOTrx;
@@ -57,6 +66,8 @@ import de.metas.pricing.IPricingResult;
 import de.metas.pricing.PriceListId;
 import de.metas.pricing.PriceListVersionId;
 import de.metas.pricing.PricingSystemId;
+import de.metas.pricing.conditions.PricingConditionsId;
+import de.metas.pricing.conditions.service.IPricingConditionsRepository;
 import de.metas.pricing.exceptions.PriceListVersionNotFoundException;
 import de.metas.pricing.exceptions.ProductNotOnPriceListException;
 import de.metas.pricing.limit.CompositePriceLimitRule;
@@ -71,6 +82,7 @@ import de.metas.pricing.service.IPricingBL;
 import de.metas.pricing.service.IPricingDAO;
 import de.metas.pricing.service.PricingRuleDescriptor;
 import de.metas.pricing.service.ProductPrices;
+import de.metas.pricing.service.ProductPrices.PrefetchedMainProductPrices;
 import de.metas.product.IProductBL;
 import de.metas.product.IProductDAO;
 import de.metas.product.ProductCategoryId;
@@ -86,6 +98,7 @@ import de.metas.util.PlainStringLoggable;
 import de.metas.util.Services;
 import de.metas.util.time.SystemTime;
 import lombok.NonNull;
+import lombok.Value;
 
 public class PricingBL implements IPricingBL
 {
@@ -160,11 +173,63 @@ public class PricingBL implements IPricingBL
 
 	@Override
 	public IPricingResult calculatePrice(@NonNull final IPricingContext pricingCtx)
+	{
+		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx, this::getCurrentPriceListVersionOrNull);
+		return calculatePrice(pricingCtx, pricingCtxToUse, createPricingRules(getPricingRuleDescriptors()));
+	}
+
+	@Override
+	public List<IPricingResult> calculatePrices(@NonNull final List<IPricingContext> pricingCtxs)
+	{
+		if (pricingCtxs.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final List<PricingRuleDescriptor> pricingRuleDescriptors = getPricingRuleDescriptors();
+
+		//
+		// Setup the contexts; most of them share the same pricing system, country and date, so we look up their price list version only once
+		final Map<CurrentPriceListVersionKey, Optional<I_M_PriceList_Version>> currentPriceListVersions = new HashMap<>();
+		final CurrentPriceListVersionProvider currentPriceListVersionProvider = (pricingSystemId, countryId, priceDate, soTrx) -> currentPriceListVersions
+				.computeIfAbsent(
+						new CurrentPriceListVersionKey(pricingSystemId, countryId, priceDate, soTrx),
+						key -> Optional.ofNullable(getCurrentPriceListVersionOrNull(pricingSystemId, countryId, priceDate, soTrx)))
+				.orElse(null);
+		final ImmutableList<IPricingContext> pricingCtxsToUse = pricingCtxs.stream()
+				.map(pricingCtx -> setupPricingContext(pricingCtx, currentPriceListVersionProvider))
+				.collect(ImmutableList.toImmutableList());
+
+		//
+		// Prefetch the data which the pricing rules are going to need
+		final PrefetchedMainProductPrices prefetchedMainProductPrices = prefetchMainProductPrices(pricingCtxsToUse);
+		prefetchPricingConditions(pricingCtxsToUse);
+
+		//
+		// Evaluate the pricing rules.
+		// NOTE: the rule chain is created once and shared by all contexts; the rules don't keep any per-context state between applies() and calculate().
+		// The contexts are evaluated sequentially, because the rules are evaluated in the caller's ctx and trx.
+		final AggregatedPricingRule rules = createPricingRules(pricingRuleDescriptors);
+		try (final IAutoCloseable prefetchedPricesRestorer = ProductPrices.temporaryUsePrefetchedMainProductPrices(prefetchedMainProductPrices))
+		{
+			final ImmutableList.Builder<IPricingResult> results = ImmutableList.builder();
+			for (int index = 0; index < pricingCtxs.size(); index++)
+			{
+				results.add(calculatePrice(pricingCtxs.get(index), pricingCtxsToUse.get(index), rules));
+			}
+			return results.build();
+		}
+	}
+
+	private IPricingResult calculatePrice(
+			@NonNull final IPricingContext pricingCtx,
+			@NonNull final IPricingContext pricingCtxToUse,
+			@NonNull final AggregatedPricingRule rules)
 	{
 		final PlainStringLoggable plainStringLoggable = Loggables.newPlainStringLoggable();
 		try (IAutoCloseable c = Loggables.temporarySetLoggable(plainStringLoggable))
 		{
-			final IPricingResult result = calculatePrice0(pricingCtx);
+			final IPricingResult result = calculatePrice0(pricingCtx, pricingCtxToUse, rules);
 			return result.setLoggableMessages(plainStringLoggable.getSingleMessages());
 		}
 		catch (final ProductNotOnPriceListException e)
@@ -173,9 +238,49 @@ public class PricingBL implements IPricingBL
 		}
 	}
 
-	private IPricingResult calculatePrice0(final IPricingContext pricingCtx)
+	private static PrefetchedMainProductPrices prefetchMainProductPrices(@NonNull final List<IPricingContext> pricingCtxs)
+	{
+		final SetMultimap<PriceListVersionId, ProductId> productIdsByPriceListVersionId = LinkedHashMultimap.create();
+		for (final IPricingContext pricingCtx : pricingCtxs)
+		{
+			if (pricingCtx.getPriceListVersionId() != null && pricingCtx.getProductId() != null)
+			{
+				productIdsByPriceListVersionId.put(pricingCtx.getPriceListVersionId(), pricingCtx.getProductId());
+			}
+		}
+
+		return ProductPrices.prefetchMainProductPrices(productIdsByPriceListVersionId);
+	}
+
+	/**
+	 * Loads the discount schemas (incl. breaks) of all bpartners in one go, so that the discount rule will find them in cache.
+	 */
+	private static void prefetchPricingConditions(@NonNull final List<IPricingContext> pricingCtxs)
+	{
+		final IBPartnerDAO bpartnersRepo = Services.get(IBPartnerDAO.class);
+		final IBPartnerBL bpartnerBL = Services.get(IBPartnerBL.class);
+
+		final ImmutableSet<PricingConditionsId> pricingConditionsIds = pricingCtxs.stream()
+				.filter(pricingCtx -> pricingCtx.getBPartnerId() != null && pricingCtx.getSoTrx() != null && !pricingCtx.isDisallowDiscount())
+				.map(pricingCtx -> {
+					final I_C_BPartner bpartner = bpartnersRepo.getById(pricingCtx.getBPartnerId());
+					return PricingConditionsId.ofRepoIdOrNull(bpartnerBL.getDiscountSchemaId(bpartner, pricingCtx.getSoTrx()));
+				})
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		if (pricingConditionsIds.isEmpty())
+		{
+			return;
+		}
+
+		Services.get(IPricingConditionsRepository.class).getPricingConditionsByIds(pricingConditionsIds);
+	}
+
+	private IPricingResult calculatePrice0(
+			@NonNull final IPricingContext pricingCtx,
+			@NonNull final IPricingContext pricingCtxToUse,
+			@NonNull final AggregatedPricingRule rules)
 	{
-		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
 		final PricingResult result = createInitialResult(pricingCtxToUse);
 
 		//
@@ -196,7 +301,6 @@ public class PricingBL implements IPricingBL
 			// return result;
 		}
 
-		final AggregatedPricingRule rules = createPricingRules();
 		rules.calculate(pricingCtxToUse, result);
 
 		//
@@ -258,17 +362,51 @@ public class PricingBL implements IPricingBL
 	 *
 	 * @return configured pricing context (to be used in pricing calculations)
 	 */
-	private IPricingContext setupPricingContext(final IPricingContext pricingCtx)
+	private IPricingContext setupPricingContext(
+			final IPricingContext pricingCtx,
+			final CurrentPriceListVersionProvider currentPriceListVersionProvider)
 	{
 		final IEditablePricingContext pricingCtxToUse = pricingCtx.copy();
-		setupPriceListAndDate(pricingCtxToUse);
+		setupPriceListAndDate(pricingCtxToUse, currentPriceListVersionProvider);
 
 		return pricingCtxToUse;
 	}
 
-	private void setupPriceListAndDate(@NonNull final IEditablePricingContext pricingCtx)
+	@FunctionalInterface
+	private interface CurrentPriceListVersionProvider
+	{
+		@Nullable
+		I_M_PriceList_Version getCurrentPriceListVersionOrNull(PricingSystemId pricingSystemId, CountryId countryId, LocalDate priceDate, @Nullable SOTrx soTrx);
+	}
+
+	@Value
+	private static class CurrentPriceListVersionKey
+	{
+		PricingSystemId pricingSystemId;
+		CountryId countryId;
+		LocalDate priceDate;
+		SOTrx soTrx;
+	}
+
+	@Nullable
+	private I_M_PriceList_Version getCurrentPriceListVersionOrNull(
+			final PricingSystemId pricingSystemId,
+			final CountryId countryId,
+			final LocalDate priceDate,
+			@Nullable final SOTrx soTrx)
+	{
+		return Services.get(IPriceListBL.class).getCurrentPriceListVersionOrNull(
+				pricingSystemId,
+				countryId,
+				TimeUtil.asZonedDateTime(priceDate, SystemTime.zoneId()),
+				soTrx,
+				null);
+	}
+
+	private void setupPriceListAndDate(
+			@NonNull final IEditablePricingContext pricingCtx,
+			@NonNull final CurrentPriceListVersionProvider currentPriceListVersionProvider)
 	{
-		final IPriceListBL priceListBL = Services.get(IPriceListBL.class);
 		final IPriceListDAO priceListDAO = Services.get(IPriceListDAO.class);
 		final IBPartnerDAO bpartnerDAO = Services.get(IBPartnerDAO.class);
 
@@ -297,12 +435,11 @@ public class PricingBL implements IPricingBL
 				&& pricingCtx.getProductId() != null
 				&& pricingCtx.getCountryId() != null)
 		{
-			final I_M_PriceList_Version computedPLV = priceListBL.getCurrentPriceListVersionOrNull(
+			final I_M_PriceList_Version computedPLV = currentPriceListVersionProvider.getCurrentPriceListVersionOrNull(
 					pricingCtx.getPricingSystemId(),
 					pricingCtx.getCountryId(),
-					TimeUtil.asZonedDateTime(pricingCtx.getPriceDate(), SystemTime.zoneId()),
-					pricingCtx.isSkipCheckingPriceListSOTrxFlag() ? null : pricingCtx.getSoTrx(),
-					null);
+					pricingCtx.getPriceDate(),
+					pricingCtx.isSkipCheckingPriceListSOTrxFlag() ? null : pricingCtx.getSoTrx());
 
 			if (computedPLV != null)
 			{
@@ -490,11 +627,14 @@ public class PricingBL implements IPricingBL
 		return result;
 	}
 
-	private AggregatedPricingRule createPricingRules()
+	private static List<PricingRuleDescriptor> getPricingRuleDescriptors()
 	{
-		final IPricingDAO pricingRulesRepo = Services.get(IPricingDAO.class);
+		return Services.get(IPricingDAO.class).getPricingRules();
+	}
 
-		final ImmutableList<IPricingRule> rules = pricingRulesRepo.getPricingRules()
+	private AggregatedPricingRule createPricingRules(@NonNull final List<PricingRuleDescriptor> pricingRuleDescriptors)
+	{
+		final ImmutableList<IPricingRule> rules = pricingRuleDescriptors
 				.stream()
 				.map(this::createPricingRuleNoFail)
 				.filter(Objects::nonNull)
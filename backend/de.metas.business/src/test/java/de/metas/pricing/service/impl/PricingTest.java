@@ -3,17 +3,27 @@ package de.metas.pricing.service.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.model.I_C_UOM;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.adempiere.model.I_M_Product;
 import de.metas.pricing.IEditablePricingContext;
+import de.metas.pricing.IPricingContext;
 import de.metas.pricing.IPricingResult;
+import de.metas.pricing.service.IPricingBL;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -95,4 +105,33 @@ public class PricingTest
 			Assert.assertThat("Bio PriceStd\n" + result, result.getPriceStd(), Matchers.comparesEqualTo(BigDecimal.valueOf(3)));
 		}
 	}
+
+	@Test
+	public void calculatePrices_sameResultsAsCalculatePrice()
+	{
+		final I_C_UOM uom = InterfaceWrapperHelper.load(helper.getDefaultProduct().getC_UOM_ID(), I_C_UOM.class);
+		final I_M_Product product2 = helper.createProduct("Product2", uom);
+		final I_M_Product productWithoutPrice = helper.createProduct("ProductWithoutPrice", uom);
+
+		helper.newProductPriceBuilder()
+				.setPrice(2)
+				.build();
+		new ProductPriceBuilder(helper.getDefaultPriceListVerion(), product2)
+				.setTaxCategoryId(helper.getTaxCategoryId())
+				.setPrice(5)
+				.build();
+
+		final IEditablePricingContext pricingCtx1 = helper.createPricingContext();
+		final IEditablePricingContext pricingCtx2 = helper.createPricingContext();
+		pricingCtx2.setProductId(ProductId.ofRepoId(product2.getM_Product_ID()));
+		final IEditablePricingContext pricingCtx3 = helper.createPricingContext();
+		pricingCtx3.setProductId(ProductId.ofRepoId(productWithoutPrice.getM_Product_ID()));
+
+		final List<IPricingResult> results = Services.get(IPricingBL.class).calculatePrices(ImmutableList.<IPricingContext> of(pricingCtx1, pricingCtx2, pricingCtx3));
+
+		assertThat(results).hasSize(3);
+		assertThat(results.get(0).getPriceStd()).isEqualByComparingTo(helper.calculatePrice(pricingCtx1).getPriceStd()).isEqualByComparingTo("2");
+		assertThat(results.get(1).getPriceStd()).isEqualByComparingTo(helper.calculatePrice(pricingCtx2).getPriceStd()).isEqualByComparingTo("5");
+		assertThat(results.get(2).isCalculated()).isFalse();
+	}
 }
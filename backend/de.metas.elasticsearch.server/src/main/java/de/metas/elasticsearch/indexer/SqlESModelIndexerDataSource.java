@@ -44,6 +44,8 @@ public class SqlESModelIndexerDataSource implements ESModelIndexerDataSource
 	// services
 	private final transient IQueryBL queryBL = Services.get(IQueryBL.class);
 
+	private static final int ITERATOR_BUFFER_SIZE = 1000;
+
 	private final String modelTableName;
 	private final List<IESModelIndexerTrigger> triggers;
 	private final String sqlWhereClause;
@@ -107,6 +109,8 @@ public class SqlESModelIndexerDataSource implements ESModelIndexerDataSource
 
 		//
 		// Execute query
+		// NOTE: the iterator is fetching the records page by page, so we are not loading the whole table into memory
+		query.setOption(IQuery.OPTION_IteratorBufferSize, ITERATOR_BUFFER_SIZE);
 		return query.iterate(Object.class);
 	}
 }
@@ -0,0 +1,253 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.rest.RestStatus;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.elasticsearch.indexer.IESIndexerResult;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.elasticsearch
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sends bulk requests asynchronously, but with a bounded number of requests in flight.
+ * If that number is reached, {@link #send(List)} blocks until one of the requests is done, so the caller can't produce faster than the cluster can index.
+ * <p>
+ * The suggested batch size (see {@link #getBatchSize()}) is adapted after each response:
+ * it's halved if a bulk request took longer than the target duration or if the cluster rejected some of its items, and it's increased if the bulk request was fast.
+ * <p>
+ * {@link #close()} waits until all requests in flight are done, so use it in a try-with-resources block in order to not leave any request behind if the caller fails.
+ */
+final class ESBulkRequestsSender implements IAutoCloseable
+{
+	private final BulkRequestExecutor bulkRequestExecutor;
+	private final int maxInFlightRequests;
+	private final Semaphore inFlightRequests;
+	private final int minBatchSize;
+	private final int maxBatchSize;
+	private final long targetTookMillis;
+
+	private final AtomicInteger batchSize;
+	private final List<BulkItemResponse> items = new ArrayList<>();
+	private final AtomicLong tookMillis = new AtomicLong(0);
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	@Builder
+	private ESBulkRequestsSender(
+			@Nullable final Client elasticsearchClient,
+			@Nullable final BulkRequestExecutor bulkRequestExecutor,
+			final int maxInFlightRequests,
+			final int initialBatchSize,
+			final int minBatchSize,
+			final int maxBatchSize,
+			final long targetTookMillis)
+	{
+		if (bulkRequestExecutor != null)
+		{
+			this.bulkRequestExecutor = bulkRequestExecutor;
+		}
+		else
+		{
+			Check.assumeNotNull(elasticsearchClient, "elasticsearchClient is not null");
+			this.bulkRequestExecutor = (requests, listener) -> {
+				final BulkRequestBuilder bulkRequest = elasticsearchClient.prepareBulk();
+				requests.forEach(bulkRequest::add);
+				bulkRequest.execute(listener);
+			};
+		}
+		this.maxInFlightRequests = Math.max(maxInFlightRequests, 1);
+		this.inFlightRequests = new Semaphore(this.maxInFlightRequests);
+		this.minBatchSize = Math.max(minBatchSize, 1);
+		this.maxBatchSize = Math.max(maxBatchSize, this.minBatchSize);
+		this.targetTookMillis = targetTookMillis;
+
+		this.batchSize = new AtomicInteger(Math.min(Math.max(initialBatchSize, this.minBatchSize), this.maxBatchSize));
+	}
+
+	public int getBatchSize()
+	{
+		return batchSize.get();
+	}
+
+	public void send(@NonNull final List<IndexRequestBuilder> requests)
+	{
+		throwExceptionIfFailed();
+		if (requests.isEmpty())
+		{
+			return;
+		}
+
+		acquire(1);
+		final ActionListener<BulkResponse> listener = new ActionListener<BulkResponse>()
+		{
+			@Override
+			public void onResponse(final BulkResponse response)
+			{
+				try
+				{
+					onBulkResponse(response);
+				}
+				finally
+				{
+					inFlightRequests.release();
+				}
+			}
+
+			@Override
+			public void onFailure(final Throwable ex)
+			{
+				failure.compareAndSet(null, ex);
+				inFlightRequests.release();
+			}
+		};
+
+		try
+		{
+			bulkRequestExecutor.execute(requests, listener);
+		}
+		catch (final RuntimeException ex)
+		{
+			inFlightRequests.release();
+			throw ex;
+		}
+	}
+
+	private void onBulkResponse(final BulkResponse response)
+	{
+		final BulkItemResponse[] responseItems = response.getItems();
+		synchronized (items)
+		{
+			for (final BulkItemResponse item : responseItems)
+			{
+				items.add(item);
+			}
+		}
+		tookMillis.addAndGet(response.getTookInMillis());
+
+		if (response.getTookInMillis() > targetTookMillis || isAnyItemRejected(responseItems))
+		{
+			batchSize.updateAndGet(size -> Math.max(size / 2, minBatchSize));
+		}
+		else if (response.getTookInMillis() < targetTookMillis / 2)
+		{
+			batchSize.updateAndGet(size -> Math.min(size + size / 2, maxBatchSize));
+		}
+	}
+
+	private static boolean isAnyItemRejected(final BulkItemResponse[] items)
+	{
+		for (final BulkItemResponse item : items)
+		{
+			if (item.isFailed() && item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Waits until all bulk requests are done.
+	 *
+	 * @return the result of all bulk requests
+	 */
+	public IESIndexerResult waitForAllAndGetResult()
+	{
+		waitForInFlightRequests();
+
+		throwExceptionIfFailed();
+
+		synchronized (items)
+		{
+			if (items.isEmpty())
+			{
+				return IESIndexerResult.NULL;
+			}
+
+			return ESIndexerResult.of(new BulkResponse(items.toArray(new BulkItemResponse[items.size()]), tookMillis.get()));
+		}
+	}
+
+	/**
+	 * Waits until all bulk requests in flight are done, without failing if any of them failed.
+	 */
+	@Override
+	public void close()
+	{
+		waitForInFlightRequests();
+	}
+
+	private void waitForInFlightRequests()
+	{
+		acquire(maxInFlightRequests);
+		inFlightRequests.release(maxInFlightRequests);
+	}
+
+	private void acquire(final int permits)
+	{
+		try
+		{
+			inFlightRequests.acquire(permits);
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+
+	private void throwExceptionIfFailed()
+	{
+		final Throwable ex = failure.get();
+		if (ex != null)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+
+	@VisibleForTesting
+	@FunctionalInterface
+	interface BulkRequestExecutor
+	{
+		void execute(List<IndexRequestBuilder> requests, ActionListener<BulkResponse> listener);
+	}
+}
@@ -1,18 +1,32 @@
 package de.metas.elasticsearch.indexer.impl;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
@@ -26,9 +40,12 @@ import org.elasticsearch.common.xcontent.XContentFactory;
 import org.slf4j.Logger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 import de.metas.elasticsearch.config.ESModelIndexerId;
 import de.metas.elasticsearch.config.ESModelIndexerProfile;
@@ -41,8 +58,8 @@ import de.metas.elasticsearch.types.ESDataType;
 import de.metas.elasticsearch.types.ESIndexType;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
+import de.metas.util.NumberUtils;
 import de.metas.util.Services;
-import de.metas.util.collections.IteratorUtils;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
@@ -77,9 +94,24 @@ public final class ESModelIndexer implements IESModelIndexer
 	// services
 	private static final transient Logger logger = LogManager.getLogger(ESModelIndexer.class);
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 	private final Client elasticsearchClient;
 	private final ObjectMapper jsonObjectMapper;
 
+	private static final String SYSCONFIG_BulkSize = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.BulkSize";
+	private static final int DEFAULT_BulkSize = 500;
+	private static final String SYSCONFIG_MinBulkSize = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.MinBulkSize";
+	private static final int DEFAULT_MinBulkSize = 50;
+	private static final String SYSCONFIG_MaxBulkSize = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.MaxBulkSize";
+	private static final int DEFAULT_MaxBulkSize = 5000;
+	/** If a bulk request takes longer, the bulk size is decreased */
+	private static final String SYSCONFIG_TargetBulkMillis = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.TargetBulkMillis";
+	private static final int DEFAULT_TargetBulkMillis = 1000;
+	private static final String SYSCONFIG_MaxInFlightBulkRequests = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.MaxInFlightBulkRequests";
+	private static final int DEFAULT_MaxInFlightBulkRequests = 2;
+	private static final String SYSCONFIG_DenormalizeWorkers = "de.metas.elasticsearch.indexer.impl.ESModelIndexer.DenormalizeWorkers";
+	private static final int DEFAULT_DenormalizeWorkers = 1;
+
 	@Getter
 	private final ESModelIndexerId id;
 
@@ -362,20 +394,60 @@ public final class ESModelIndexer implements IESModelIndexer
 		}
 	}
 
-	private Stream<IndexRequestBuilder> createIndexRequestsAndStream(final Object model)
+	private List<IndexRequestBuilder> createIndexRequests(
+			@NonNull final List<Object> models,
+			@Nullable final ExecutorService denormalizeExecutor,
+			final int denormalizeWorkers)
 	{
-		// NOTE: for debugging purposes we are checking it each time
-		// createUpdateIndex();
+		final IncludedModels includedModels = retrieveIncludedModels(models);
+
+		if (denormalizeExecutor == null || models.size() < 2)
+		{
+			return models.stream()
+					.map(model -> createIndexRequestForModel(model, includedModels))
+					.collect(ImmutableList.toImmutableList());
+		}
 
 		//
-		// model (parent) index requests
-		final Stream<IndexRequestBuilder> result = Stream.of(model)
-				.map(this::createIndexRequestForModel);
+		// Denormalize the models in parallel, but keep their order
+		final Properties ctx = Env.getCtx();
+		final int chunkSize = (models.size() + denormalizeWorkers - 1) / denormalizeWorkers;
+		final List<Future<List<IndexRequestBuilder>>> futures = new ArrayList<>();
+		for (final List<Object> chunk : Lists.partition(models, chunkSize))
+		{
+			// NOTE: each worker gets its own copy of the context, because the Properties could be changed while denormalizing (e.g. by Env.setContext)
+			final Properties workerCtx = Env.copyCtx(ctx);
+			futures.add(denormalizeExecutor.submit(() -> {
+				try (final IAutoCloseable ctxCloseable = Env.switchContext(workerCtx))
+				{
+					return chunk.stream()
+							.map(model -> createIndexRequestForModel(model, includedModels))
+							.collect(ImmutableList.toImmutableList());
+				}
+			}));
+		}
 
-		return result;
+		final ImmutableList.Builder<IndexRequestBuilder> result = ImmutableList.builder();
+		for (final Future<List<IndexRequestBuilder>> future : futures)
+		{
+			try
+			{
+				result.addAll(future.get());
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+			catch (final ExecutionException ex)
+			{
+				throw AdempiereException.wrapIfNeeded(ex.getCause());
+			}
+		}
+		return result.build();
 	}
 
-	private IndexRequestBuilder createIndexRequestForModel(final Object model)
+	private IndexRequestBuilder createIndexRequestForModel(final Object model, final IncludedModels includedModels)
 	{
 		final IESModelDenormalizer modelDenormalizer = getModelDenormalizer();
 
@@ -389,7 +461,7 @@ public final class ESModelIndexer implements IESModelIndexer
 			esDocument = modelDenormalizer.denormalize(model);
 			for (final ESModelIndexer includedModelIndexer : includedModelIndexers)
 			{
-				final List<Map<String, Object>> includedDocuments = denormalizeIncludedForParent(model, includedModelIndexer);
+				final List<Map<String, Object>> includedDocuments = denormalizeIncludedForParent(model, includedModelIndexer, includedModels);
 				esDocument.put(includedModelIndexer.getParentAttributeName(), includedDocuments);
 			}
 
@@ -409,14 +481,54 @@ public final class ESModelIndexer implements IESModelIndexer
 		}
 	}
 
-	private List<Map<String, Object>> denormalizeIncludedForParent(final Object parentModel, final ESModelIndexer includedModelIndexer)
+	/**
+	 * Retrieves the included models of all given parent models, one query per included model indexer.
+	 */
+	@VisibleForTesting
+	IncludedModels retrieveIncludedModels(final List<Object> parentModels)
+	{
+		if (includedModelIndexers.isEmpty())
+		{
+			return IncludedModels.EMPTY;
+		}
+
+		final ImmutableSet<Integer> parentIds = parentModels.stream()
+				.map(InterfaceWrapperHelper::getId)
+				.collect(ImmutableSet.toImmutableSet());
+
+		final IdentityHashMap<ESModelIndexer, ImmutableListMultimap<Integer, Object>> includedModelsByIndexer = new IdentityHashMap<>();
+		for (final ESModelIndexer includedModelIndexer : includedModelIndexers)
+		{
+			final String parentLinkColumnName = includedModelIndexer.getParentLinkColumnName();
+			final ImmutableListMultimap<Integer, Object> includedModelsByParentId = queryBL.createQueryBuilder(includedModelIndexer.getModelTableName())
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(parentLinkColumnName, parentIds)
+					.create()
+					.stream()
+					.collect(ImmutableListMultimap.toImmutableListMultimap(
+							includedModel -> extractParentId(includedModel, parentLinkColumnName),
+							includedModel -> includedModel));
+
+			includedModelsByIndexer.put(includedModelIndexer, includedModelsByParentId);
+		}
+
+		return new IncludedModels(includedModelsByIndexer);
+	}
+
+	private static int extractParentId(final Object includedModel, final String parentLinkColumnName)
+	{
+		final Object parentIdObj = InterfaceWrapperHelper.getValue(includedModel, parentLinkColumnName).orElse(null);
+		return NumberUtils.asInt(parentIdObj, -1);
+	}
+
+	private List<Map<String, Object>> denormalizeIncludedForParent(
+			final Object parentModel,
+			final ESModelIndexer includedModelIndexer,
+			final IncludedModels includedModels)
 	{
 		final int parentId = InterfaceWrapperHelper.getId(parentModel);
 
-		return queryBL.createQueryBuilder(includedModelIndexer.getModelTableName())
-				.addOnlyActiveRecordsFilter()
-				.addEqualsFilter(includedModelIndexer.getParentLinkColumnName(), parentId)
-				.create()
+		return includedModels.getIncludedModels(includedModelIndexer, parentId)
 				.stream()
 				.map(includedModel -> denormalizeIncludedModel(includedModel, includedModelIndexer))
 				.collect(ImmutableList.toImmutableList());
@@ -428,24 +540,56 @@ public final class ESModelIndexer implements IESModelIndexer
 		return modelDenormalizer.denormalize(includedModel);
 	}
 
-	@Override
-	public IESIndexerResult addToIndex(@NonNull final ESModelIndexerDataSource dataSource)
+	/**
+	 * The included models of a batch of parent models, per included model indexer and parent ID.
+	 */
+	@VisibleForTesting
+	static final class IncludedModels
 	{
-		final BulkRequestBuilder bulkRequest = elasticsearchClient.prepareBulk();
+		private static final IncludedModels EMPTY = new IncludedModels(new IdentityHashMap<>());
 
-		try
+		private final IdentityHashMap<ESModelIndexer, ImmutableListMultimap<Integer, Object>> includedModelsByIndexer;
+
+		private IncludedModels(final IdentityHashMap<ESModelIndexer, ImmutableListMultimap<Integer, Object>> includedModelsByIndexer)
 		{
-			IteratorUtils.stream(dataSource.getModelsToIndex())
-					.flatMap(this::createIndexRequestsAndStream)
-					.forEach(bulkRequest::add);
+			this.includedModelsByIndexer = includedModelsByIndexer;
+		}
 
-			if (bulkRequest.numberOfActions() <= 0)
+		public List<Object> getIncludedModels(final ESModelIndexer includedModelIndexer, final int parentId)
+		{
+			final ImmutableListMultimap<Integer, Object> includedModelsByParentId = includedModelsByIndexer.get(includedModelIndexer);
+			return includedModelsByParentId != null ? includedModelsByParentId.get(parentId) : ImmutableList.of();
+		}
+	}
+
+	/**
+	 * Reads the models to index batch wise, denormalizes each batch (in parallel, if configured and if we are not running in a transaction)
+	 * and sends it as a bulk request, while other bulk requests might still be in flight (see {@link ESBulkRequestsSender}).
+	 */
+	@Override
+	public IESIndexerResult addToIndex(@NonNull final ESModelIndexerDataSource dataSource)
+	{
+		final int denormalizeWorkers = getDenormalizeWorkers();
+		final ExecutorService denormalizeExecutor = denormalizeWorkers > 1
+				? Executors.newFixedThreadPool(denormalizeWorkers, CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(ESModelIndexer.class.getSimpleName())
+						.setDaemon(true)
+						.build())
+				: null;
+
+		int count = 0;
+		// NOTE: closing the sender waits for the bulk requests which are still in flight, also if we fail in the meantime
+		try (final ESBulkRequestsSender bulkRequestsSender = newBulkRequestsSender())
+		{
+			final Iterator<Object> models = dataSource.getModelsToIndex();
+			while (models.hasNext())
 			{
-				return IESIndexerResult.NULL;
+				final List<Object> batch = nextBatch(models, bulkRequestsSender.getBatchSize());
+				bulkRequestsSender.send(createIndexRequests(batch, denormalizeExecutor, denormalizeWorkers));
+				count += batch.size();
 			}
 
-			final BulkResponse bulkResponse = bulkRequest.execute().actionGet();
-			final IESIndexerResult esResponse = ESIndexerResult.of(bulkResponse);
+			final IESIndexerResult esResponse = bulkRequestsSender.waitForAllAndGetResult();
 
 			logger.debug("Added {}", esResponse);
 			return esResponse;
@@ -456,11 +600,54 @@ public final class ESModelIndexer implements IESModelIndexer
 		}
 		catch (final Exception ex)
 		{
-			final int count = bulkRequest.numberOfActions();
 			final String errmsg = "Failed indexing " + count + " models because: " + ex.getLocalizedMessage()
 					+ "\n Indexer: " + this;
 			throw new AdempiereException(errmsg, ex);
 		}
+		finally
+		{
+			if (denormalizeExecutor != null)
+			{
+				denormalizeExecutor.shutdownNow();
+			}
+		}
+	}
+
+	private ESBulkRequestsSender newBulkRequestsSender()
+	{
+		return ESBulkRequestsSender.builder()
+				.elasticsearchClient(elasticsearchClient)
+				.maxInFlightRequests(sysConfigBL.getIntValue(SYSCONFIG_MaxInFlightBulkRequests, DEFAULT_MaxInFlightBulkRequests))
+				.initialBatchSize(sysConfigBL.getIntValue(SYSCONFIG_BulkSize, DEFAULT_BulkSize))
+				.minBatchSize(sysConfigBL.getIntValue(SYSCONFIG_MinBulkSize, DEFAULT_MinBulkSize))
+				.maxBatchSize(sysConfigBL.getIntValue(SYSCONFIG_MaxBulkSize, DEFAULT_MaxBulkSize))
+				.targetTookMillis(sysConfigBL.getIntValue(SYSCONFIG_TargetBulkMillis, DEFAULT_TargetBulkMillis))
+				.build();
+	}
+
+	/**
+	 * @return how many threads shall denormalize the models. If we are running in a transaction, it's always one,
+	 *         because the models' lazy loaded references would share that transaction's connection.
+	 */
+	private int getDenormalizeWorkers()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		if (!trxManager.isNull(trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone)))
+		{
+			return 1;
+		}
+
+		return sysConfigBL.getIntValue(SYSCONFIG_DenormalizeWorkers, DEFAULT_DenormalizeWorkers);
+	}
+
+	private static List<Object> nextBatch(final Iterator<Object> models, final int batchSize)
+	{
+		final List<Object> batch = new ArrayList<>(batchSize);
+		while (batch.size() < batchSize && models.hasNext())
+		{
+			batch.add(models.next());
+		}
+		return batch;
 	}
 
 	@Override
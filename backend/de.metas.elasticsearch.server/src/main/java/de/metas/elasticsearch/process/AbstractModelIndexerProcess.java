@@ -16,6 +16,7 @@ import de.metas.elasticsearch.indexer.SqlESModelIndexerDataSource;
 import de.metas.elasticsearch.trigger.IESModelIndexerTrigger;
 import de.metas.process.JavaProcess;
 import de.metas.process.Param;
+import de.metas.process.RunOutOfTrx;
 import de.metas.util.Services;
 
 /*
@@ -69,7 +70,11 @@ public abstract class AbstractModelIndexerProcess extends JavaProcess
 		SpringContextHolder.instance.autowire(this);
 	}
 
+	/**
+	 * Runs out of transaction, because indexing is not changing anything in our database and because the models can be denormalized in parallel only when not running in a transaction.
+	 */
 	@Override
+	@RunOutOfTrx
 	protected final String doIt()
 	{
 		final Collection<IESModelIndexer> modelIndexers = getModelIndexers();
@@ -0,0 +1,262 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexAction;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.elasticsearch.indexer.IESIndexerResult;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ESBulkRequestsSenderTest
+{
+	private static final long TARGET_TOOK_MILLIS = 1000;
+
+	/** Bulk requests which were sent but not answered yet */
+	private final BlockingQueue<ActionListener<BulkResponse>> inFlightListeners = new LinkedBlockingQueue<>();
+	private ExecutorService executor;
+	private IndexRequestBuilder indexRequest;
+
+	@BeforeEach
+	public void init()
+	{
+		executor = Executors.newSingleThreadExecutor();
+
+		// the requests are never sent anywhere, so the client does nothing
+		final Client client = (Client)Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[] { Client.class }, (proxy, method, args) -> null);
+		indexRequest = new IndexRequestBuilder(client, IndexAction.INSTANCE);
+	}
+
+	@AfterEach
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	private ESBulkRequestsSender newSender(final int maxInFlightRequests)
+	{
+		return ESBulkRequestsSender.builder()
+				.bulkRequestExecutor((requests, listener) -> inFlightListeners.add(listener))
+				.maxInFlightRequests(maxInFlightRequests)
+				.initialBatchSize(100)
+				.minBatchSize(10)
+				.maxBatchSize(1000)
+				.targetTookMillis(TARGET_TOOK_MILLIS)
+				.build();
+	}
+
+	private List<IndexRequestBuilder> requests(final int count)
+	{
+		return Collections.nCopies(count, indexRequest);
+	}
+
+	private static BulkResponse okResponse(final int itemsCount, final long tookMillis)
+	{
+		final BulkItemResponse[] items = new BulkItemResponse[itemsCount];
+		for (int i = 0; i < itemsCount; i++)
+		{
+			items[i] = new BulkItemResponse(i, "index", new IndexResponse("index", "type", String.valueOf(i), 1, true));
+		}
+		return new BulkResponse(items, tookMillis);
+	}
+
+	private static BulkResponse rejectedResponse(final long tookMillis)
+	{
+		final BulkItemResponse.Failure failure = new BulkItemResponse.Failure("index", "type", "1", new EsRejectedExecutionException("rejected"));
+		return new BulkResponse(new BulkItemResponse[] { new BulkItemResponse(0, "index", failure) }, tookMillis);
+	}
+
+	private ActionListener<BulkResponse> nextInFlightListener() throws InterruptedException
+	{
+		final ActionListener<BulkResponse> listener = inFlightListeners.poll(5, TimeUnit.SECONDS);
+		assertThat(listener).as("bulk request in flight").isNotNull();
+		return listener;
+	}
+
+	private static void assertStillBlocked(final Future<?> future) throws Exception
+	{
+		assertThatThrownBy(() -> future.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+	}
+
+	@Test
+	public void send_blocksWhenMaxInFlightRequestsReached() throws Exception
+	{
+		final ESBulkRequestsSender sender = newSender(2);
+
+		sender.send(requests(3));
+		sender.send(requests(2));
+		assertThat(inFlightListeners).hasSize(2);
+
+		final Future<?> thirdSend = executor.submit(() -> sender.send(requests(1)));
+		assertStillBlocked(thirdSend);
+		assertThat(inFlightListeners).hasSize(2);
+
+		nextInFlightListener().onResponse(okResponse(3, 600));
+		thirdSend.get(5, TimeUnit.SECONDS);
+
+		nextInFlightListener().onResponse(okResponse(2, 600));
+		nextInFlightListener().onResponse(okResponse(1, 600));
+
+		final IESIndexerResult result = sender.waitForAllAndGetResult();
+		assertThat(result.getTotalCount()).isEqualTo(6);
+		assertThat(result.getFailuresCount()).isEqualTo(0);
+		assertThat(result.getDurationInMillis()).isEqualTo(1800);
+	}
+
+	@Test
+	public void send_emptyRequests()
+	{
+		final ESBulkRequestsSender sender = newSender(1);
+
+		sender.send(requests(0));
+
+		assertThat(inFlightListeners).isEmpty();
+		assertThat(sender.waitForAllAndGetResult()).isSameAs(IESIndexerResult.NULL);
+	}
+
+	@Test
+	public void waitForAllAndGetResult_waitsForRequestsInFlight() throws Exception
+	{
+		final ESBulkRequestsSender sender = newSender(2);
+		sender.send(requests(1));
+
+		final Future<IESIndexerResult> result = executor.submit(sender::waitForAllAndGetResult);
+		assertStillBlocked(result);
+
+		nextInFlightListener().onResponse(okResponse(1, 600));
+		assertThat(result.get(5, TimeUnit.SECONDS).getTotalCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void failedRequest_nextSendFails_butCloseWaitsForRequestsInFlight() throws Exception
+	{
+		final ESBulkRequestsSender sender = newSender(2);
+		sender.send(requests(1));
+		sender.send(requests(1));
+
+		final ActionListener<BulkResponse> firstListener = nextInFlightListener();
+		nextInFlightListener().onFailure(new RuntimeException("cluster down"));
+
+		assertThatThrownBy(() -> sender.send(requests(1))).hasMessageContaining("cluster down");
+
+		final Future<?> close = executor.submit(sender::close);
+		assertStillBlocked(close);
+
+		firstListener.onResponse(okResponse(1, 600));
+		close.get(5, TimeUnit.SECONDS);
+
+		assertThatThrownBy(sender::waitForAllAndGetResult).hasMessageContaining("cluster down");
+	}
+
+	@Test
+	public void executorFails_permitIsReleased()
+	{
+		final ESBulkRequestsSender sender = ESBulkRequestsSender.builder()
+				.bulkRequestExecutor((requests, listener) -> {
+					throw new AdempiereException("cannot send");
+				})
+				.maxInFlightRequests(1)
+				.build();
+
+		assertThatThrownBy(() -> sender.send(requests(1))).hasMessageContaining("cannot send");
+
+		// shall not block
+		sender.close();
+	}
+
+	@Test
+	public void batchSize_adaptedToResponses() throws Exception
+	{
+		final ESBulkRequestsSender sender = newSender(1);
+		assertThat(sender.getBatchSize()).isEqualTo(100);
+
+		// slow => halved
+		sender.send(requests(1));
+		nextInFlightListener().onResponse(okResponse(1, TARGET_TOOK_MILLIS + 1));
+		sender.close();
+		assertThat(sender.getBatchSize()).isEqualTo(50);
+
+		// rejected items => halved, even if fast
+		sender.send(requests(1));
+		nextInFlightListener().onResponse(rejectedResponse(10));
+		sender.close();
+		assertThat(sender.getBatchSize()).isEqualTo(25);
+
+		// neither fast nor slow => unchanged
+		sender.send(requests(1));
+		nextInFlightListener().onResponse(okResponse(1, TARGET_TOOK_MILLIS * 3 / 4));
+		sender.close();
+		assertThat(sender.getBatchSize()).isEqualTo(25);
+
+		// fast => increased by half
+		sender.send(requests(1));
+		nextInFlightListener().onResponse(okResponse(1, 10));
+		sender.close();
+		assertThat(sender.getBatchSize()).isEqualTo(37);
+	}
+
+	@Test
+	public void batchSize_withinMinAndMax() throws Exception
+	{
+		final ESBulkRequestsSender sender = newSender(1);
+
+		for (int i = 0; i < 10; i++)
+		{
+			sender.send(requests(1));
+			nextInFlightListener().onResponse(okResponse(1, TARGET_TOOK_MILLIS * 2));
+		}
+		sender.close();
+		assertThat(sender.getBatchSize()).isEqualTo(10);
+
+		for (int i = 0; i < 20; i++)
+		{
+			sender.send(requests(1));
+			nextInFlightListener().onResponse(okResponse(1, 0));
+		}
+		sender.close();
+		assertThat(sender.getBatchSize()).isEqualTo(1000);
+	}
+}
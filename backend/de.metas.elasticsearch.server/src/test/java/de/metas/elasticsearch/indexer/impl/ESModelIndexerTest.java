@@ -0,0 +1,156 @@
+package de.metas.elasticsearch.indexer.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_Order;
+import org.compiere.model.I_C_OrderLine;
+import org.elasticsearch.client.Client;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.elasticsearch.config.ESModelIndexerId;
+import de.metas.elasticsearch.config.ESModelIndexerProfile;
+import de.metas.elasticsearch.denormalizers.IESModelDenormalizer;
+import de.metas.elasticsearch.indexer.impl.ESModelIndexer.IncludedModels;
+
+/*
+ * #%L
+ * de.metas.elasticsearch.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ESModelIndexerTest
+{
+	private ESModelIndexer orderLinesIndexer;
+	private ESModelIndexer ordersIndexer;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		// retrieving the included models talks neither to elasticsearch nor to the denormalizers
+		final Client client = newDummy(Client.class);
+		final IESModelDenormalizer modelDenormalizer = newDummy(IESModelDenormalizer.class);
+
+		orderLinesIndexer = ESModelIndexer.builder()
+				.elasticsearchClient(client)
+				.jsonObjectMapper(new ObjectMapper())
+				.id(ESModelIndexerId.builder()
+						.indexName("c_order")
+						.indexType("c_order")
+						.profile(ESModelIndexerProfile.FULL_TEXT_SEARCH)
+						.includedAttributeName("lines")
+						.build())
+				.modelTableName(I_C_OrderLine.Table_Name)
+				.modelDenormalizer(modelDenormalizer)
+				.parentAttributeName("lines")
+				.parentLinkColumnName(I_C_OrderLine.COLUMNNAME_C_Order_ID)
+				.build();
+
+		ordersIndexer = ESModelIndexer.builder()
+				.elasticsearchClient(client)
+				.jsonObjectMapper(new ObjectMapper())
+				.id(ESModelIndexerId.builder()
+						.indexName("c_order")
+						.indexType("c_order")
+						.profile(ESModelIndexerProfile.FULL_TEXT_SEARCH)
+						.build())
+				.modelTableName(I_C_Order.Table_Name)
+				.modelDenormalizer(modelDenormalizer)
+				.includedModelIndexer(orderLinesIndexer)
+				.build();
+	}
+
+	private static <T> T newDummy(final Class<T> interfaceClass)
+	{
+		return interfaceClass.cast(Proxy.newProxyInstance(interfaceClass.getClassLoader(), new Class<?>[] { interfaceClass }, (proxy, method, args) -> {
+			throw new UnsupportedOperationException(method.toString());
+		}));
+	}
+
+	private static I_C_Order createOrder()
+	{
+		final I_C_Order order = newInstance(I_C_Order.class);
+		saveRecord(order);
+		return order;
+	}
+
+	private static I_C_OrderLine createOrderLine(final I_C_Order order, final boolean active)
+	{
+		final I_C_OrderLine orderLine = newInstance(I_C_OrderLine.class);
+		orderLine.setC_Order_ID(order.getC_Order_ID());
+		orderLine.setIsActive(active);
+		saveRecord(orderLine);
+		return orderLine;
+	}
+
+	private static List<Integer> getIds(final List<Object> models)
+	{
+		return models.stream()
+				.map(InterfaceWrapperHelper::getId)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	public void retrieveIncludedModels()
+	{
+		final I_C_Order order1 = createOrder();
+		final I_C_OrderLine order1Line1 = createOrderLine(order1, true);
+		createOrderLine(order1, false);
+		final I_C_OrderLine order1Line3 = createOrderLine(order1, true);
+
+		final I_C_Order order2 = createOrder();
+		final I_C_OrderLine order2Line1 = createOrderLine(order2, true);
+
+		final I_C_Order order3 = createOrder();
+
+		final I_C_Order otherOrder = createOrder();
+		createOrderLine(otherOrder, true);
+
+		final IncludedModels includedModels = ordersIndexer.retrieveIncludedModels(ImmutableList.of(order1, order2, order3));
+
+		assertThat(getIds(includedModels.getIncludedModels(orderLinesIndexer, order1.getC_Order_ID())))
+				.containsExactlyInAnyOrder(order1Line1.getC_OrderLine_ID(), order1Line3.getC_OrderLine_ID());
+		assertThat(getIds(includedModels.getIncludedModels(orderLinesIndexer, order2.getC_Order_ID())))
+				.containsExactly(order2Line1.getC_OrderLine_ID());
+		assertThat(includedModels.getIncludedModels(orderLinesIndexer, order3.getC_Order_ID())).isEmpty();
+		assertThat(includedModels.getIncludedModels(orderLinesIndexer, otherOrder.getC_Order_ID())).isEmpty();
+	}
+
+	@Test
+	public void retrieveIncludedModels_noIncludedModelIndexers()
+	{
+		final I_C_OrderLine orderLine = createOrderLine(createOrder(), true);
+
+		final IncludedModels includedModels = orderLinesIndexer.retrieveIncludedModels(ImmutableList.of(orderLine));
+
+		assertThat(includedModels.getIncludedModels(orderLinesIndexer, orderLine.getC_OrderLine_ID())).isEmpty();
+	}
+}
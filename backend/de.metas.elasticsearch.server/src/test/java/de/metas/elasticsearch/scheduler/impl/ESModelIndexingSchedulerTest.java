@@ -1,11 +1,30 @@
 package de.metas.elasticsearch.scheduler.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.elasticsearch.config.ESModelIndexerId;
+import de.metas.elasticsearch.config.ESModelIndexerProfile;
 import de.metas.elasticsearch.scheduler.async.AsyncAddToIndexProcessor;
 import de.metas.elasticsearch.scheduler.async.AsyncRemoveFromIndexProcessor;
 import de.metas.elasticsearch.scheduler.impl.ESModelIndexingScheduler;
+import de.metas.util.Services;
+import lombok.Value;
 
 /*
  * #%L
@@ -31,10 +50,109 @@ import de.metas.elasticsearch.scheduler.impl.ESModelIndexingScheduler;
 
 public class ESModelIndexingSchedulerTest
 {
+	private static final ESModelIndexerId MODEL_INDEXER_ID = ESModelIndexerId.builder()
+			.indexName("c_order")
+			.indexType("c_order")
+			.profile(ESModelIndexerProfile.FULL_TEXT_SEARCH)
+			.build();
+
+	private ITrxManager trxManager;
+
+	private final List<EnqueuedWorkpackage> enqueuedWorkpackages = new ArrayList<>();
+	private ESModelIndexingScheduler scheduler;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		trxManager = Services.get(ITrxManager.class);
+
+		enqueuedWorkpackages.clear();
+		scheduler = new ESModelIndexingScheduler(this::enqueue);
+	}
+
+	private void enqueue(
+			final String workpackageProcessorClassname,
+			final ESModelIndexerId modelIndexerId,
+			final List<TableRecordReference> models,
+			final Properties ctx,
+			final String trxName)
+	{
+		final ImmutableList<Integer> modelIds = models.stream()
+				.map(TableRecordReference::getRecord_ID)
+				.collect(ImmutableList.toImmutableList());
+		enqueuedWorkpackages.add(new EnqueuedWorkpackage(workpackageProcessorClassname, modelIndexerId, models.get(0).getTableName(), modelIds, trxName));
+	}
+
+	@Value
+	private static class EnqueuedWorkpackage
+	{
+		String workpackageProcessorClassname;
+		ESModelIndexerId modelIndexerId;
+		String modelTableName;
+		List<Integer> modelIds;
+		String trxName;
+	}
+
 	@Test
 	public void test_WorkpackageClassnames()
 	{
 		Assert.assertEquals(AsyncAddToIndexProcessor.class.getName(), ESModelIndexingScheduler.CLASSNAME_AddToIndexWorkpackageProcessor);
 		Assert.assertEquals(AsyncRemoveFromIndexProcessor.class.getName(), ESModelIndexingScheduler.CLASSNAME_RemoveFromIndexWorkpackageProcessor);
 	}
+
+	@Test
+	public void outOfTrx_enqueuedRightAway()
+	{
+		scheduler.addToIndex(MODEL_INDEXER_ID, "C_Order", ImmutableList.of(1, 2));
+		scheduler.removeToIndex(MODEL_INDEXER_ID, "C_Order", ImmutableList.of(3));
+
+		assertThat(enqueuedWorkpackages).containsExactly(
+				new EnqueuedWorkpackage(ESModelIndexingScheduler.CLASSNAME_AddToIndexWorkpackageProcessor, MODEL_INDEXER_ID, "C_Order", ImmutableList.of(1, 2), ITrx.TRXNAME_None),
+				new EnqueuedWorkpackage(ESModelIndexingScheduler.CLASSNAME_RemoveFromIndexWorkpackageProcessor, MODEL_INDEXER_ID, "C_Order", ImmutableList.of(3), ITrx.TRXNAME_None));
+	}
+
+	@Test
+	public void inTrx_coalescedAndEnqueuedWithinTrxBeforeCommit()
+	{
+		final List<String> trxNames = new ArrayList<>();
+		trxManager.runInNewTrx(localTrxName -> {
+			trxNames.add(localTrxName);
+
+			scheduler.addToIndex(MODEL_INDEXER_ID, "C_Order", ImmutableList.of(1, 2));
+			scheduler.removeToIndex(MODEL_INDEXER_ID, "C_Order", ImmutableList.of(2, 3));
+			scheduler.addToIndex(MODEL_INDEXER_ID, "C_Order", ImmutableList.of(3, 4));
+			scheduler.addToIndex(MODEL_INDEXER_ID, "C_OrderLine", ImmutableList.of(10));
+			scheduler.addToIndex(MODEL_INDEXER_ID, "C_Order", ImmutableList.of(1));
+
+			assertThat(enqueuedWorkpackages).isEmpty();
+		});
+
+		final String trxName = trxNames.get(0);
+		assertThat(enqueuedWorkpackages).containsExactly(
+				new EnqueuedWorkpackage(ESModelIndexingScheduler.CLASSNAME_RemoveFromIndexWorkpackageProcessor, MODEL_INDEXER_ID, "C_Order", ImmutableList.of(2), trxName),
+				new EnqueuedWorkpackage(ESModelIndexingScheduler.CLASSNAME_AddToIndexWorkpackageProcessor, MODEL_INDEXER_ID, "C_Order", ImmutableList.of(1, 3, 4), trxName),
+				new EnqueuedWorkpackage(ESModelIndexingScheduler.CLASSNAME_AddToIndexWorkpackageProcessor, MODEL_INDEXER_ID, "C_OrderLine", ImmutableList.of(10), trxName));
+	}
+
+	@Test
+	public void inTrx_nextTrxIsCollectedSeparately()
+	{
+		trxManager.runInNewTrx(localTrxName -> scheduler.addToIndex(MODEL_INDEXER_ID, "C_Order", ImmutableList.of(1)));
+		trxManager.runInNewTrx(localTrxName -> scheduler.addToIndex(MODEL_INDEXER_ID, "C_Order", ImmutableList.of(2)));
+
+		assertThat(enqueuedWorkpackages.stream().map(EnqueuedWorkpackage::getModelIds).collect(Collectors.toList()))
+				.containsExactly(ImmutableList.of(1), ImmutableList.of(2));
+	}
+
+	@Test
+	public void inTrx_rollback_nothingEnqueued()
+	{
+		assertThatThrownBy(() -> trxManager.runInNewTrx(localTrxName -> {
+			scheduler.addToIndex(MODEL_INDEXER_ID, "C_Order", ImmutableList.of(1));
+			throw new RuntimeException("rollback");
+		})).hasMessageContaining("rollback");
+
+		assertThat(enqueuedWorkpackages).isEmpty();
+	}
 }
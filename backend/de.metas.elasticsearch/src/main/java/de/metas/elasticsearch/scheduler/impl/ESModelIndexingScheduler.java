@@ -1,19 +1,29 @@
 package de.metas.elasticsearch.scheduler.impl;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
-import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.util.Env;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.async.processor.IWorkPackageQueueFactory;
 import de.metas.elasticsearch.config.ESModelIndexerId;
 import de.metas.elasticsearch.scheduler.IESModelIndexingScheduler;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -37,6 +47,13 @@ import lombok.NonNull;
  * #L%
  */
 
+/**
+ * Schedules the (re)indexing of models.
+ * <p>
+ * The changes are coalesced per record and transaction: right before the transaction is committed, one workpackage per indexer and table is enqueued for the removals and one for the additions.
+ * The workpackages are created within that transaction, so they are committed (or rolled back) together with the changes.
+ * So a record which is changed many times within a transaction is indexed only once, using it's latest state.
+ */
 public class ESModelIndexingScheduler implements IESModelIndexingScheduler
 {
 	@VisibleForTesting
@@ -46,34 +63,184 @@ public class ESModelIndexingScheduler implements IESModelIndexingScheduler
 
 	public static final String PARAMETERNAME_ModelIndexerId = "ModelIndexerId";
 
+	private static final String TRX_PROPERTY_PendingChanges = ESModelIndexingScheduler.class.getName() + ".PendingChanges";
+
+	private final WorkpackageEnqueuer workpackageEnqueuer;
+
+	public ESModelIndexingScheduler()
+	{
+		this(ESModelIndexingScheduler::enqueueWorkpackage);
+	}
+
+	@VisibleForTesting
+	ESModelIndexingScheduler(@NonNull final WorkpackageEnqueuer workpackageEnqueuer)
+	{
+		this.workpackageEnqueuer = workpackageEnqueuer;
+	}
+
 	@Override
 	public final void addToIndex(final ESModelIndexerId modelIndexerId, final String modelTableName, final List<Integer> modelIds)
 	{
-		final List<TableRecordReference> models = TableRecordReference.ofRecordIds(modelTableName, modelIds);
-		schedule(CLASSNAME_AddToIndexWorkpackageProcessor, modelIndexerId, models);
+		schedule(modelIndexerId, modelTableName, modelIds, false);
 	}
 
 	@Override
 	public final void removeToIndex(final ESModelIndexerId modelIndexerId, final String modelTableName, final List<Integer> modelIds)
 	{
-		final List<TableRecordReference> models = TableRecordReference.ofRecordIds(modelTableName, modelIds);
-		schedule(CLASSNAME_RemoveFromIndexWorkpackageProcessor, modelIndexerId, models);
+		schedule(modelIndexerId, modelTableName, modelIds, true);
 	}
 
-	private final void schedule(
-			@NonNull final String workpackageProcessorClassname,
+	private void schedule(
 			@NonNull final ESModelIndexerId modelIndexerId,
-			final List<? extends ITableRecordReference> models)
+			@NonNull final String modelTableName,
+			@NonNull final List<Integer> modelIds,
+			final boolean remove)
+	{
+		if (modelIds.isEmpty())
+		{
+			return;
+		}
+
+		final IndexerAndTable key = IndexerAndTable.of(modelIndexerId, modelTableName);
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (!trxManager.isActive(trx))
+		{
+			final PendingChanges changes = new PendingChanges();
+			changes.add(key, ctx, modelIds, remove);
+			enqueue(changes, ITrx.TRXNAME_None);
+			return;
+		}
+
+		final PendingChanges pendingChanges = trx.getProperty(TRX_PROPERTY_PendingChanges, () -> {
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.BEFORE_COMMIT)
+					.invokeMethodJustOnce(true)
+					.registerHandlingMethod(innerTrx -> {
+						final PendingChanges innerPendingChanges = innerTrx.setProperty(TRX_PROPERTY_PendingChanges, null); // the next change after this commit shall register a new listener
+						if (innerPendingChanges != null)
+						{
+							enqueue(innerPendingChanges, innerTrx.getTrxName());
+						}
+					});
+			return new PendingChanges();
+		});
+		pendingChanges.add(key, ctx, modelIds, remove);
+	}
+
+	private void enqueue(final PendingChanges changes, final String trxName)
+	{
+		changes.forEach((key, ctx, modelIdsToRemove, modelIdsToAdd) -> {
+			try (final IAutoCloseable ctxCloseable = Env.switchContext(ctx))
+			{
+				enqueue(CLASSNAME_RemoveFromIndexWorkpackageProcessor, key, modelIdsToRemove, ctx, trxName);
+				enqueue(CLASSNAME_AddToIndexWorkpackageProcessor, key, modelIdsToAdd, ctx, trxName);
+			}
+		});
+	}
+
+	private void enqueue(
+			@NonNull final String workpackageProcessorClassname,
+			@NonNull final IndexerAndTable key,
+			@NonNull final Set<Integer> modelIds,
+			@NonNull final Properties ctx,
+			@NonNull final String trxName)
 	{
-		final Properties ctx = Env.getCtx();
+		if (modelIds.isEmpty())
+		{
+			return;
+		}
 
+		final List<TableRecordReference> models = TableRecordReference.ofRecordIds(key.getModelTableName(), ImmutableList.copyOf(modelIds));
+		workpackageEnqueuer.enqueue(workpackageProcessorClassname, key.getModelIndexerId(), models, ctx, trxName);
+	}
+
+	private static void enqueueWorkpackage(
+			@NonNull final String workpackageProcessorClassname,
+			@NonNull final ESModelIndexerId modelIndexerId,
+			@NonNull final List<TableRecordReference> models,
+			@NonNull final Properties ctx,
+			@NonNull final String trxName)
+	{
 		Services.get(IWorkPackageQueueFactory.class)
 				.getQueueForEnqueuing(ctx, workpackageProcessorClassname)
 				.newBlock()
 				.newWorkpackage()
-				.bindToThreadInheritedTrx()
+				.bindToTrxName(trxName)
 				.addElements(models)
 				.parameter(PARAMETERNAME_ModelIndexerId, modelIndexerId.toJson())
 				.build();
 	}
+
+	@VisibleForTesting
+	@FunctionalInterface
+	interface WorkpackageEnqueuer
+	{
+		void enqueue(String workpackageProcessorClassname, ESModelIndexerId modelIndexerId, List<TableRecordReference> models, Properties ctx, String trxName);
+	}
+
+	@Value(staticConstructor = "of")
+	private static class IndexerAndTable
+	{
+		@NonNull
+		ESModelIndexerId modelIndexerId;
+		@NonNull
+		String modelTableName;
+	}
+
+	/**
+	 * The pending changes, per indexer and table. The last change of a record wins.
+	 * <p>
+	 * Not thread safe.
+	 */
+	private static final class PendingChanges
+	{
+		private final Map<IndexerAndTable, Properties> ctxs = new LinkedHashMap<>();
+		private final Map<IndexerAndTable, Set<Integer>> modelIdsToAdd = new LinkedHashMap<>();
+		private final Map<IndexerAndTable, Set<Integer>> modelIdsToRemove = new LinkedHashMap<>();
+
+		@FunctionalInterface
+		private interface Consumer
+		{
+			void accept(IndexerAndTable key, Properties ctx, Set<Integer> modelIdsToRemove, Set<Integer> modelIdsToAdd);
+		}
+
+		@Override
+		public String toString()
+		{
+			return "PendingChanges[toAdd=" + modelIdsToAdd + ", toRemove=" + modelIdsToRemove + "]";
+		}
+
+		public void add(final IndexerAndTable key, final Properties ctx, final Iterable<Integer> modelIds, final boolean remove)
+		{
+			ctxs.putIfAbsent(key, ctx);
+
+			final Set<Integer> modelIdsToAddForKey = modelIdsToAdd.computeIfAbsent(key, k -> new LinkedHashSet<>());
+			final Set<Integer> modelIdsToRemoveForKey = modelIdsToRemove.computeIfAbsent(key, k -> new LinkedHashSet<>());
+			for (final Integer modelId : modelIds)
+			{
+				if (remove)
+				{
+					modelIdsToAddForKey.remove(modelId);
+					modelIdsToRemoveForKey.add(modelId);
+				}
+				else
+				{
+					modelIdsToRemoveForKey.remove(modelId);
+					modelIdsToAddForKey.add(modelId);
+				}
+			}
+		}
+
+		public void forEach(final Consumer consumer)
+		{
+			for (final Map.Entry<IndexerAndTable, Properties> entry : ctxs.entrySet())
+			{
+				final IndexerAndTable key = entry.getKey();
+				consumer.accept(key, entry.getValue(), modelIdsToRemove.get(key), modelIdsToAdd.get(key));
+			}
+		}
+	}
 }
@@ -24,14 +24,17 @@ import java.time.ZonedDateTime;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IContextAware;
 
 import de.metas.adempiere.form.terminal.context.IPropertiesContainer;
 import de.metas.handlingunits.attribute.storage.IAttributeStorageFactory;
 import de.metas.handlingunits.hutransaction.IHUTrxListener;
+import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.spi.IHUPackingMaterialCollectorSource;
 import de.metas.handlingunits.storage.EmptyHUListener;
 import de.metas.handlingunits.storage.IHUStorageFactory;
@@ -103,4 +106,14 @@ public interface IHUContext extends IContextAware, IPropertiesContainer
 
 	/** @return previously added listeners that want to be notified before an empty HU is destroyed */
 	List<EmptyHUListener> getEmptyHUListeners();
+
+	/**
+	 * Loads the whole trees of the given HUs (included HUs, items, storages and attributes) with a few queries,
+	 * so that iterating them afterwards does not need to go to the database for every single node.
+	 *
+	 * NOTE: call this right before iterating the given HUs, and close the result right after; preloaded storages and attributes are handed out just once.
+	 *
+	 * @return closing it discards the preloaded storages and attributes that were not used
+	 */
+	IAutoCloseable preloadHUTrees(Collection<I_M_HU> topLevelHUs);
 }
@@ -16,6 +16,7 @@ import de.metas.handlingunits.attribute.HUAndPIAttributes;
 import de.metas.handlingunits.attribute.IHUAttributesDAO;
 import de.metas.handlingunits.attribute.IHUPIAttributesDAO;
 import de.metas.handlingunits.attribute.PIAttributes;
+import de.metas.handlingunits.impl.HUTreesPreloader;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Attribute;
 import de.metas.util.Services;
@@ -55,12 +56,15 @@ public final class HUAttributesDAO implements IHUAttributesDAO
 		// NOTE: don't cache on this level. Caching is handled on upper levels
 
 		// there are only some dozen attributes at most, so i think it'S fine to order them after loading
-		final List<I_M_HU_Attribute> huAttributes = Services.get(IQueryBL.class).createQueryBuilder(I_M_HU_Attribute.class, hu)
-				.addOnlyActiveRecordsFilter()
-				.addEqualsFilter(I_M_HU_Attribute.COLUMNNAME_M_HU_ID, hu.getM_HU_ID())
-				.create()
-				.stream()
-				.collect(ImmutableList.toImmutableList());
+		final List<I_M_HU_Attribute> preloadedHUAttributes = HUTreesPreloader.pollAttributes(hu);
+		final List<I_M_HU_Attribute> huAttributes = preloadedHUAttributes != null
+				? preloadedHUAttributes
+				: Services.get(IQueryBL.class).createQueryBuilder(I_M_HU_Attribute.class, hu)
+						.addOnlyActiveRecordsFilter()
+						.addEqualsFilter(I_M_HU_Attribute.COLUMNNAME_M_HU_ID, hu.getM_HU_ID())
+						.create()
+						.stream()
+						.collect(ImmutableList.toImmutableList());
 
 		// Optimization: set M_HU link
 		for (final I_M_HU_Attribute huAttribute : huAttributes)
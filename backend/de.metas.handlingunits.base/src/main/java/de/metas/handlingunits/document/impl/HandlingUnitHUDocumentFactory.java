@@ -75,6 +75,7 @@ public class HandlingUnitHUDocumentFactory extends AbstractHUDocumentFactory<I_M
 		final HUIterator iterator = new HUIterator();
 		iterator.setDate(dateTrx);
 		iterator.setStorageFactory(storageFactory);
+		iterator.setPreloadHUTrees(true);
 		iterator.setListener(new HUIteratorListenerAdapter()
 		{
 			final Map<Integer, List<IHUDocumentLine>> huId2documentLines = new HashMap<>();
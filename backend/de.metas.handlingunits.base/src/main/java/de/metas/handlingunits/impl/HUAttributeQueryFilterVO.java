@@ -265,13 +265,28 @@ import lombok.NonNull;
 	{
 		final IQuery<I_M_HU_Attribute> attributesQuery = queryBL.createQueryBuilder(I_M_HU_Attribute.class)
 				.addOnlyActiveRecordsFilter()
-				.addEqualsFilter(I_M_HU_Attribute.COLUMNNAME_M_Attribute_ID, getAttributeId())
-				.addInArrayOrAllFilter(getHUAttributeValueColumn(), getValuesAndSubstitutes())
+				.filter(createHUAttributeFilter_ValuesList())
 				.create();
 
 		huFilters.addInSubQueryFilter(I_M_HU.COLUMN_M_HU_ID, I_M_HU_Attribute.COLUMN_M_HU_ID, attributesQuery);
 	}
 
+	/**
+	 * Creates the {@link I_M_HU_Attribute} filter that matches this filter's attribute and values (including their substitutes).
+	 * <p>
+	 * It's the caller's job to also filter for active records. This allows combining the filters of several attributes into one HU attribute subquery.
+	 *
+	 * NOTE: the filter is always on {@code M_Attribute_ID} first and then on the value column, so it can be answered from the {@code M_HU_Attribute} search indexes.
+	 */
+	/* package */ ICompositeQueryFilter<I_M_HU_Attribute> createHUAttributeFilter_ValuesList()
+	{
+		Check.assume(matchingType == AttributeValueMatchingType.ValuesList, "Expected matchingType={} but it was {}", AttributeValueMatchingType.ValuesList, matchingType);
+
+		return queryBL.createCompositeQueryFilter(I_M_HU_Attribute.class)
+				.addEqualsFilter(I_M_HU_Attribute.COLUMNNAME_M_Attribute_ID, getAttributeId())
+				.addInArrayOrAllFilter(getHUAttributeValueColumn(), getValuesAndSubstitutes());
+	}
+
 	/**
 	 * NOTE: keep in sync with {@link #appendQueryFilterTo(Object, ICompositeQueryFilter)}
 	 */
@@ -29,6 +29,8 @@ import java.util.List;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.NullAutoCloseable;
 import org.compiere.util.TrxRunnable;
 
 import de.metas.handlingunits.IHUContext;
@@ -43,6 +45,8 @@ import lombok.NonNull;
 
 public class HUIterator extends AbstractHUIterator
 {
+	private boolean preloadHUTrees = false;
+
 	public HUIterator()
 	{
 		registerNodeIterator(I_M_HU.class, new HUNodeIterator());
@@ -71,6 +75,18 @@ public class HUIterator extends AbstractHUIterator
 		return this;
 	}
 
+	/**
+	 * If true, the whole trees of the HUs to iterate are loaded upfront, see {@link IHUContext#preloadHUTrees(Collection)}.
+	 * Worth it for big HU structures (e.g. an LU with many TUs) which were not loaded before.
+	 *
+	 * NOTE: only applies to {@link #iterate(Collection)}.
+	 */
+	public final HUIterator setPreloadHUTrees(final boolean preloadHUTrees)
+	{
+		this.preloadHUTrees = preloadHUTrees;
+		return this;
+	}
+
 	@Override
 	public final IHUIterator iterate(@NonNull final I_M_HU hu)
 	{
@@ -87,9 +103,12 @@ public class HUIterator extends AbstractHUIterator
 
 		setStatus(HUIteratorStatus.Running);
 
-		for (final I_M_HU hu : hus)
+		try (final IAutoCloseable preloadedHUTrees = preloadHUTrees ? getHUContext().preloadHUTrees(hus) : NullAutoCloseable.instance)
 		{
-			huNodeIterator.iterate(hu);
+			for (final I_M_HU hu : hus)
+			{
+				huNodeIterator.iterate(hu);
+			}
 		}
 
 		//
@@ -12,6 +12,7 @@ import org.adempiere.mm.attributes.AttributeId;
 import org.adempiere.mm.attributes.api.IAttributeDAO;
 import org.adempiere.mm.attributes.api.IAttributeSet;
 import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
+import org.compiere.model.IQuery;
 import org.compiere.model.I_M_Attribute;
 import org.compiere.model.X_M_Attribute;
 
@@ -21,6 +22,7 @@ import de.metas.dimension.DimensionSpec;
 import de.metas.dimension.IDimensionspecDAO;
 import de.metas.handlingunits.HUConstants;
 import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.EqualsAndHashCode;
@@ -154,11 +156,20 @@ final class HUQueryBuilder_Attributes
 			barcodeFilter.setJoinOr();
 			barcodeFilter.addEqualsFilter(I_M_HU.COLUMN_Value, barcode.trim());
 
+			// match all barcode attributes with one HU attribute subquery, instead of one subquery per attribute
+			final ICompositeQueryFilter<I_M_HU_Attribute> barcodeAttributesFilter = queryBL.createCompositeQueryFilter(I_M_HU_Attribute.class)
+					.setJoinOr();
 			for (final HUAttributeQueryFilterVO attributeFilterVO : barcodeQueryFilterVOs)
 			{
-				attributeFilterVO.appendQueryFilterTo(barcodeFilter);
+				barcodeAttributesFilter.addFilter(attributeFilterVO.createHUAttributeFilter_ValuesList());
 			}
 
+			final IQuery<I_M_HU_Attribute> barcodeAttributesQuery = queryBL.createQueryBuilder(I_M_HU_Attribute.class)
+					.addOnlyActiveRecordsFilter()
+					.filter(barcodeAttributesFilter)
+					.create();
+			barcodeFilter.addInSubQueryFilter(I_M_HU.COLUMN_M_HU_ID, I_M_HU_Attribute.COLUMN_M_HU_ID, barcodeAttributesQuery);
+
 			filters.addFilter(barcodeFilter);
 		}
 		// task #827 filter by hu value, as before
@@ -0,0 +1,359 @@
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.handlingunits.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.NullAutoCloseable;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
+
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Item_Storage;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/**
+ * Loads whole HU trees (included HUs, items, storages and attributes) with a handful of queries, instead of loading them node by node while iterating.
+ * <p>
+ * Items and included HUs are put into the {@link HUItemsLocalCache}s and {@link IncludedHUsLocalCache}s of the loaded records.
+ * Storages and attributes are attached to their HUs and items and handed out <b>once</b> by the {@code poll*} methods,
+ * which the database level DAOs call before running their own queries. That way, the upper level caches take over from there.
+ * To make sure that preloaded records which were not used are not handed out after they were changed, the caller shall close the {@link IAutoCloseable} that {@link #preload(Collection)} returns.
+ */
+public final class HUTreesPreloader
+{
+	private static final String DYNATTR_Storages = HUTreesPreloader.class.getName() + ".Storages";
+	private static final String DYNATTR_ItemStorages = HUTreesPreloader.class.getName() + ".ItemStorages";
+	private static final String DYNATTR_Attributes = HUTreesPreloader.class.getName() + ".Attributes";
+
+	/**
+	 * Loads the trees of the given HUs.
+	 *
+	 * @param topLevelHUs HUs whose included HUs shall be loaded; all of them need to be in the same transaction. Their own parents are not loaded.
+	 * @return closing it discards the preloaded storages and attributes that were not polled until then
+	 */
+	public static IAutoCloseable preload(@NonNull final Collection<I_M_HU> topLevelHUs)
+	{
+		if (topLevelHUs.isEmpty())
+		{
+			return NullAutoCloseable.instance;
+		}
+
+		final HUTreesPreloader preloader = new HUTreesPreloader(topLevelHUs);
+		preloader.load();
+		return preloader::discardUnpolled;
+	}
+
+	/**
+	 * @return the preloaded storages of the given HU or {@code null} if they were not preloaded or were already polled
+	 */
+	@Nullable
+	public static List<I_M_HU_Storage> pollStorages(@NonNull final I_M_HU hu)
+	{
+		return pollDynAttribute(hu, DYNATTR_Storages);
+	}
+
+	/**
+	 * @return the preloaded storages of the given HU item or {@code null} if they were not preloaded or were already polled
+	 */
+	@Nullable
+	public static List<I_M_HU_Item_Storage> pollItemStorages(@NonNull final I_M_HU_Item huItem)
+	{
+		return pollDynAttribute(huItem, DYNATTR_ItemStorages);
+	}
+
+	/**
+	 * @return the preloaded (unsorted) attributes of the given HU or {@code null} if they were not preloaded or were already polled
+	 */
+	@Nullable
+	public static List<I_M_HU_Attribute> pollAttributes(@NonNull final I_M_HU hu)
+	{
+		return pollDynAttribute(hu, DYNATTR_Attributes);
+	}
+
+	@Nullable
+	private static <T> List<T> pollDynAttribute(@NonNull final Object model, @NonNull final String attributeName)
+	{
+		final List<T> value = InterfaceWrapperHelper.getDynAttribute(model, attributeName);
+		if (value != null)
+		{
+			InterfaceWrapperHelper.setDynAttribute(model, attributeName, null);
+		}
+		return value;
+	}
+
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+	private final ImmutableList<I_M_HU> topLevelHUs;
+	private final ImmutableSet<Integer> topLevelHUIds;
+	private final I_M_HU contextProvider;
+
+	private final List<I_M_HU> loadedHUs = new ArrayList<>();
+	private final List<I_M_HU_Item> loadedItems = new ArrayList<>();
+
+	private HUTreesPreloader(@NonNull final Collection<I_M_HU> topLevelHUs)
+	{
+		this.topLevelHUs = ImmutableList.copyOf(topLevelHUs);
+		this.topLevelHUIds = topLevelHUs.stream().map(I_M_HU::getM_HU_ID).collect(ImmutableSet.toImmutableSet());
+		this.contextProvider = this.topLevelHUs.get(0);
+
+		final String trxName = InterfaceWrapperHelper.getTrxName(contextProvider);
+		for (final I_M_HU hu : this.topLevelHUs)
+		{
+			Check.assumeEquals(InterfaceWrapperHelper.getTrxName(hu), trxName, "All HUs shall be in the same transaction; hu={}", hu);
+		}
+	}
+
+	private void load()
+	{
+		final List<I_M_HU> hus = loadedHUs;
+		hus.addAll(topLevelHUs);
+		hus.addAll(retrieveIncludedHUs());
+		final ImmutableSet<Integer> huIds = hus.stream().map(I_M_HU::getM_HU_ID).collect(ImmutableSet.toImmutableSet());
+
+		//
+		// Items
+		final ImmutableList<I_M_HU_Item> items = createQueryBuilderForHUIds(I_M_HU_Item.class, I_M_HU_Item.COLUMNNAME_M_HU_ID, huIds)
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.listImmutable(I_M_HU_Item.class);
+		loadedItems.addAll(items);
+		final ImmutableMap<Integer, I_M_HU_Item> itemsById = Maps.uniqueIndex(items, I_M_HU_Item::getM_HU_Item_ID);
+		final ImmutableListMultimap<Integer, I_M_HU_Item> itemsByHUId = Multimaps.index(items, I_M_HU_Item::getM_HU_ID);
+
+		//
+		// Link HUs and items, and fill the respective local caches
+		final ImmutableListMultimap.Builder<Integer, I_M_HU> includedHUsByItemId = ImmutableListMultimap.builder();
+		for (final I_M_HU hu : hus)
+		{
+			final List<I_M_HU_Item> huItems = itemsByHUId.get(hu.getM_HU_ID());
+			huItems.forEach(item -> item.setM_HU(hu));
+			HUItemsLocalCache.getCreate(hu).setItemsIfStaled(huItems);
+
+			final I_M_HU_Item parentItem = topLevelHUIds.contains(hu.getM_HU_ID()) ? null : itemsById.get(hu.getM_HU_Item_Parent_ID());
+			if (parentItem != null)
+			{
+				hu.setM_HU_Item_Parent(parentItem);
+				includedHUsByItemId.put(parentItem.getM_HU_Item_ID(), hu);
+			}
+		}
+
+		final ImmutableListMultimap<Integer, I_M_HU> includedHUsByItemIdMap = includedHUsByItemId.build();
+		for (final I_M_HU_Item item : items)
+		{
+			IncludedHUsLocalCache.getCreate(item).setItemsIfStaled(includedHUsByItemIdMap.get(item.getM_HU_Item_ID()));
+		}
+
+		//
+		// Storages and attributes
+		final ImmutableListMultimap<Integer, I_M_HU_Storage> storagesByHUId = Multimaps.index(
+				createQueryBuilderForHUIds(I_M_HU_Storage.class, I_M_HU_Storage.COLUMNNAME_M_HU_ID, huIds)
+						.addOnlyActiveRecordsFilter()
+						.create()
+						.list(I_M_HU_Storage.class),
+				I_M_HU_Storage::getM_HU_ID);
+
+		final ImmutableListMultimap<Integer, I_M_HU_Attribute> attributesByHUId = Multimaps.index(
+				createQueryBuilderForHUIds(I_M_HU_Attribute.class, I_M_HU_Attribute.COLUMNNAME_M_HU_ID, huIds)
+						.addOnlyActiveRecordsFilter()
+						.create()
+						.list(I_M_HU_Attribute.class),
+				I_M_HU_Attribute::getM_HU_ID);
+
+		for (final I_M_HU hu : hus)
+		{
+			final List<I_M_HU_Storage> storages = new ArrayList<>(storagesByHUId.get(hu.getM_HU_ID()));
+			storages.forEach(storage -> storage.setM_HU(hu));
+			InterfaceWrapperHelper.setDynAttribute(hu, DYNATTR_Storages, storages);
+
+			final List<I_M_HU_Attribute> attributes = new ArrayList<>(attributesByHUId.get(hu.getM_HU_ID()));
+			attributes.forEach(attribute -> attribute.setM_HU(hu));
+			InterfaceWrapperHelper.setDynAttribute(hu, DYNATTR_Attributes, attributes);
+		}
+
+		final ImmutableListMultimap<Integer, I_M_HU_Item_Storage> itemStoragesByItemId = Multimaps.index(
+				retrieveItemStorages(itemsById.keySet(), huIds),
+				I_M_HU_Item_Storage::getM_HU_Item_ID);
+		for (final I_M_HU_Item item : items)
+		{
+			final List<I_M_HU_Item_Storage> itemStorages = new ArrayList<>(itemStoragesByItemId.get(item.getM_HU_Item_ID()));
+			itemStorages.forEach(itemStorage -> itemStorage.setM_HU_Item(item));
+			InterfaceWrapperHelper.setDynAttribute(item, DYNATTR_ItemStorages, itemStorages);
+		}
+	}
+
+	private void discardUnpolled()
+	{
+		for (final I_M_HU hu : loadedHUs)
+		{
+			pollStorages(hu);
+			pollAttributes(hu);
+		}
+		for (final I_M_HU_Item item : loadedItems)
+		{
+			pollItemStorages(item);
+		}
+	}
+
+	/**
+	 * @return all HUs below our top level HUs, no matter how deep. Like {@link IncludedHUsLocalCache}, this includes inactive HUs.
+	 */
+	private List<I_M_HU> retrieveIncludedHUs()
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			return retrieveIncludedHUsLevelByLevel();
+		}
+
+		return queryBL.createQueryBuilder(I_M_HU.class, contextProvider)
+				.filter(createHUTreeFilter(I_M_HU.COLUMNNAME_M_HU_ID))
+				.addNotInArrayFilter(I_M_HU.COLUMNNAME_M_HU_ID, topLevelHUIds)
+				.orderBy(I_M_HU.COLUMNNAME_M_HU_ID)
+				.create()
+				.list(I_M_HU.class);
+	}
+
+	/**
+	 * Fallback for the in-memory database, which can't do recursive queries.
+	 */
+	private List<I_M_HU> retrieveIncludedHUsLevelByLevel()
+	{
+		final List<I_M_HU> result = new ArrayList<>();
+		final Set<Integer> seenHUIds = new HashSet<>(topLevelHUIds);
+
+		Set<Integer> parentHUIds = topLevelHUIds;
+		while (!parentHUIds.isEmpty())
+		{
+			final List<I_M_HU> includedHUs = queryBL.createQueryBuilder(I_M_HU.class, contextProvider)
+					.addInSubQueryFilter(I_M_HU.COLUMNNAME_M_HU_Item_Parent_ID,
+							I_M_HU_Item.COLUMNNAME_M_HU_Item_ID,
+							queryBL.createQueryBuilder(I_M_HU_Item.class, contextProvider)
+									.addOnlyActiveRecordsFilter()
+									.addInArrayFilter(I_M_HU_Item.COLUMNNAME_M_HU_ID, parentHUIds)
+									.create())
+					.orderBy(I_M_HU.COLUMNNAME_M_HU_ID)
+					.create()
+					.list(I_M_HU.class);
+
+			parentHUIds = new HashSet<>();
+			for (final I_M_HU includedHU : includedHUs)
+			{
+				if (seenHUIds.add(includedHU.getM_HU_ID()))
+				{
+					result.add(includedHU);
+					parentHUIds.add(includedHU.getM_HU_ID());
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private List<I_M_HU_Item_Storage> retrieveItemStorages(
+			@NonNull final Set<Integer> itemIds,
+			@NonNull final Set<Integer> huIds)
+	{
+		if (itemIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final IQueryBuilder<I_M_HU_Item_Storage> queryBuilder = queryBL.createQueryBuilder(I_M_HU_Item_Storage.class, contextProvider)
+				.addOnlyActiveRecordsFilter();
+		if (Adempiere.isUnitTestMode())
+		{
+			queryBuilder.addInArrayFilter(I_M_HU_Item_Storage.COLUMNNAME_M_HU_Item_ID, itemIds);
+		}
+		else
+		{
+			queryBuilder.addInSubQueryFilter(I_M_HU_Item_Storage.COLUMNNAME_M_HU_Item_ID,
+					I_M_HU_Item.COLUMNNAME_M_HU_Item_ID,
+					createQueryBuilderForHUIds(I_M_HU_Item.class, I_M_HU_Item.COLUMNNAME_M_HU_ID, huIds)
+							.addOnlyActiveRecordsFilter()
+							.create());
+		}
+
+		return queryBuilder
+				.orderBy(I_M_HU_Item_Storage.COLUMNNAME_M_HU_Item_Storage_ID) // same order as HUStorageDAO
+				.create()
+				.list(I_M_HU_Item_Storage.class);
+	}
+
+	/**
+	 * @param huIds the IDs of all HUs in our trees; only used with the in-memory database, because otherwise the recursive query is used
+	 */
+	private <T> IQueryBuilder<T> createQueryBuilderForHUIds(
+			@NonNull final Class<T> modelClass,
+			@NonNull final String huIdColumnName,
+			@NonNull final Set<Integer> huIds)
+	{
+		final IQueryBuilder<T> queryBuilder = queryBL.createQueryBuilder(modelClass, contextProvider);
+		if (Adempiere.isUnitTestMode())
+		{
+			return queryBuilder.addInArrayFilter(huIdColumnName, huIds);
+		}
+		return queryBuilder.filter(createHUTreeFilter(huIdColumnName));
+	}
+
+	/**
+	 * @return filter that matches all HU IDs of our trees, using one recursive query. A HU's children are the HUs whose parent is one of its active items.
+	 */
+	private <T> TypedSqlQueryFilter<T> createHUTreeFilter(@NonNull final String huIdColumnName)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = huIdColumnName + " IN ("
+				+ "WITH RECURSIVE hu_tree(M_HU_ID) AS ("
+				+ " SELECT hu.M_HU_ID FROM M_HU hu WHERE " + DB.buildSqlList("hu.M_HU_ID", topLevelHUIds, sqlParams)
+				+ " UNION" // not UNION ALL, so we are safe from cycles
+				+ " SELECT child.M_HU_ID FROM hu_tree"
+				+ " INNER JOIN M_HU_Item item ON item.M_HU_ID = hu_tree.M_HU_ID AND item.IsActive = 'Y'"
+				+ " INNER JOIN M_HU child ON child.M_HU_Item_Parent_ID = item.M_HU_Item_ID"
+				+ ")"
+				+ " SELECT M_HU_ID FROM hu_tree"
+				+ ")";
+		return TypedSqlQueryFilter.of(sql, sqlParams);
+	}
+}
@@ -2,6 +2,7 @@ package de.metas.handlingunits.impl;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,6 +10,7 @@ import java.util.Properties;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IContextAware;
 
 import com.google.common.collect.ImmutableList;
@@ -21,6 +23,7 @@ import de.metas.handlingunits.attribute.impl.HUAttributesDAO;
 import de.metas.handlingunits.attribute.storage.IAttributeStorageFactory;
 import de.metas.handlingunits.attribute.storage.IAttributeStorageFactoryService;
 import de.metas.handlingunits.hutransaction.IHUTrxBL;
+import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.spi.IHUPackingMaterialCollectorSource;
 import de.metas.handlingunits.spi.impl.HUPackingMaterialsCollector;
 import de.metas.handlingunits.storage.EmptyHUListener;
@@ -265,4 +268,10 @@ import lombok.NonNull;
 	{
 		return ImmutableList.copyOf(emptyHUListeners);
 	}
+
+	@Override
+	public IAutoCloseable preloadHUTrees(@NonNull final Collection<I_M_HU> topLevelHUs)
+	{
+		return HUTreesPreloader.preload(topLevelHUs);
+	}
 }
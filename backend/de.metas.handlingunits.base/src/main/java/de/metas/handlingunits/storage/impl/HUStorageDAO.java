@@ -30,6 +30,7 @@ import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.impl.EqualsQueryFilter;
 import org.adempiere.model.InterfaceWrapperHelper;
 
+import de.metas.handlingunits.impl.HUTreesPreloader;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Item;
 import de.metas.handlingunits.model.I_M_HU_Item_Storage;
@@ -85,6 +86,12 @@ public class HUStorageDAO extends AbstractHUStorageDAO
 	@Override
 	public List<I_M_HU_Storage> retrieveStorages(final I_M_HU hu)
 	{
+		final List<I_M_HU_Storage> preloadedStorages = HUTreesPreloader.pollStorages(hu);
+		if (preloadedStorages != null)
+		{
+			return preloadedStorages;
+		}
+
 		final List<I_M_HU_Storage> huStorages = Services.get(IQueryBL.class)
 				.createQueryBuilder(I_M_HU_Storage.class, hu)
 				.filter(new EqualsQueryFilter<I_M_HU_Storage>(I_M_HU_Storage.COLUMNNAME_M_HU_ID, hu.getM_HU_ID()))
@@ -115,6 +122,12 @@ public class HUStorageDAO extends AbstractHUStorageDAO
 	@Override
 	public List<I_M_HU_Item_Storage> retrieveItemStorages(final I_M_HU_Item huItem)
 	{
+		final List<I_M_HU_Item_Storage> preloadedItemStorages = HUTreesPreloader.pollItemStorages(huItem);
+		if (preloadedItemStorages != null)
+		{
+			return preloadedItemStorages;
+		}
+
 		final IQueryBuilder<I_M_HU_Item_Storage> queryBuilder = Services.get(IQueryBL.class)
 				.createQueryBuilder(I_M_HU_Item_Storage.class, huItem)
 				.filter(new EqualsQueryFilter<I_M_HU_Item_Storage>(I_M_HU_Item_Storage.COLUMNNAME_M_HU_Item_ID, huItem.getM_HU_Item_ID()));
@@ -0,0 +1,37 @@
+--
+-- HUQueryBuilder_Attributes filters HUs by attribute values with subqueries like
+--   M_HU_ID IN (SELECT M_HU_ID FROM M_HU_Attribute WHERE IsActive='Y' AND M_Attribute_ID=? AND Value IN (?,..))
+-- One index per value column, led by M_Attribute_ID and containing M_HU_ID, lets postgres answer those subqueries (also range predicates on the value) with index-only scans.
+-- Postgres keeps the indexes up to date with every M_HU_Attribute write, so there is nothing to maintain on our side.
+--
+-- NOTE about locking: while an index is built, CREATE INDEX holds a SHARE lock on m_hu_attribute, i.e. HU attributes can be read, but not written.
+-- The migration tool runs each script with psql --single-transaction, where CREATE INDEX CONCURRENTLY is not possible.
+-- So on instances with a large m_hu_attribute table, create the indexes manually before running the migration, without blocking writes:
+--   CREATE INDEX CONCURRENTLY IF NOT EXISTS m_hu_attribute_search_value ON public.m_hu_attribute USING btree (m_attribute_id, value, m_hu_id) WHERE isactive = 'Y';
+--   CREATE INDEX CONCURRENTLY IF NOT EXISTS m_hu_attribute_search_valuenumber ON public.m_hu_attribute USING btree (m_attribute_id, valuenumber, m_hu_id) WHERE isactive = 'Y';
+--   CREATE INDEX CONCURRENTLY IF NOT EXISTS m_hu_attribute_search_valuedate ON public.m_hu_attribute USING btree (m_attribute_id, valuedate, m_hu_id) WHERE isactive = 'Y';
+-- The statements below are then no-ops, thanks to IF NOT EXISTS.
+--
+CREATE INDEX IF NOT EXISTS m_hu_attribute_search_value
+	ON public.m_hu_attribute
+	USING btree
+	(m_attribute_id, value, m_hu_id)
+	WHERE isactive = 'Y'
+;
+
+CREATE INDEX IF NOT EXISTS m_hu_attribute_search_valuenumber
+	ON public.m_hu_attribute
+	USING btree
+	(m_attribute_id, valuenumber, m_hu_id)
+	WHERE isactive = 'Y'
+;
+
+CREATE INDEX IF NOT EXISTS m_hu_attribute_search_valuedate
+	ON public.m_hu_attribute
+	USING btree
+	(m_attribute_id, valuedate, m_hu_id)
+	WHERE isactive = 'Y'
+;
+
+ANALYZE m_hu_attribute
+;
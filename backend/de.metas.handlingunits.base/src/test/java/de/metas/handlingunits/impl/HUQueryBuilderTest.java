@@ -36,6 +36,8 @@ import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.util.text.ExtendedReflectionToStringBuilder;
 import org.adempiere.util.text.RecursiveIndentedMultilineToStringStyle;
 import org.adempiere.warehouse.WarehouseId;
+import org.compiere.model.I_M_Attribute;
+import org.compiere.model.X_M_Attribute;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -43,7 +45,11 @@ import org.junit.Test;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.adempiere.model.I_M_Product;
+import de.metas.dimension.model.I_DIM_Dimension_Spec;
+import de.metas.dimension.model.I_DIM_Dimension_Spec_Attribute;
+import de.metas.handlingunits.HUConstants;
 import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
 import de.metas.handlingunits.model.I_M_HU_Reservation;
 import de.metas.handlingunits.model.I_M_HU_Storage;
 import de.metas.handlingunits.model.I_M_Locator;
@@ -204,4 +210,87 @@ public class HUQueryBuilderTest
 		saveRecord(huReservationRecord);
 	}
 
+	@Test
+	public void createQueryFilter_by_attribute()
+	{
+		final I_M_Attribute attribute = newInstance(I_M_Attribute.class);
+		attribute.setValue("LotNo");
+		attribute.setAttributeValueType(X_M_Attribute.ATTRIBUTEVALUETYPE_StringMax40);
+		save(attribute);
+
+		createHUAttributeRecord(hus.get(0), attribute, "lot1");
+		createHUAttributeRecord(hus.get(1), attribute, "lot2");
+		createHUAttributeRecord(hus.get(2), attribute, "lot3");
+
+		huQueryBuilder.addOnlyWithAttributeInList(attribute, X_M_Attribute.ATTRIBUTEVALUETYPE_StringMax40, ImmutableList.of("lot1", "lot3"));
+
+		// invoke the method under test
+		final IQueryFilter<I_M_HU> huFilters = huQueryBuilder.createQueryFilter();
+
+		assertThat(huFilters.accept(hus.get(0))).isTrue();
+		assertThat(huFilters.accept(hus.get(1))).isFalse();
+		assertThat(huFilters.accept(hus.get(2))).isTrue();
+		assertThat(huFilters.accept(hus.get(3))).isFalse(); // because it has no attribute at all
+	}
+
+	@Test
+	public void createQueryFilter_by_barcode()
+	{
+		final I_M_Attribute barcodeAttribute1 = createStringAttribute("SerialNo");
+		final I_M_Attribute barcodeAttribute2 = createStringAttribute("Barcode");
+		final I_M_Attribute otherAttribute = createStringAttribute("LotNo");
+
+		final I_DIM_Dimension_Spec barcodeDimSpec = newInstance(I_DIM_Dimension_Spec.class);
+		barcodeDimSpec.setInternalName(HUConstants.DIM_Barcode_Attributes);
+		save(barcodeDimSpec);
+		createDimensionSpecAttribute(barcodeDimSpec, barcodeAttribute1);
+		createDimensionSpecAttribute(barcodeDimSpec, barcodeAttribute2);
+
+		createHUAttributeRecord(hus.get(0), barcodeAttribute1, "1234");
+		createHUAttributeRecord(hus.get(1), barcodeAttribute2, "1234");
+		createHUAttributeRecord(hus.get(2), barcodeAttribute1, "5678");
+		createHUAttributeRecord(hus.get(4), otherAttribute, "1234");
+
+		final I_M_HU huWithBarcodeAsValue = hus.get(3);
+		huWithBarcodeAsValue.setValue("1234");
+		save(huWithBarcodeAsValue);
+
+		huQueryBuilder.setOnlyWithBarcode("1234");
+
+		// invoke the method under test
+		final IQueryFilter<I_M_HU> huFilters = huQueryBuilder.createQueryFilter();
+
+		assertThat(huFilters.accept(hus.get(0))).isTrue(); // because of the first barcode attribute
+		assertThat(huFilters.accept(hus.get(1))).isTrue(); // because of the second barcode attribute
+		assertThat(huFilters.accept(hus.get(2))).isFalse(); // because its barcode attribute has a different value
+		assertThat(huFilters.accept(hus.get(3))).isTrue(); // because of M_HU.Value
+		assertThat(huFilters.accept(hus.get(4))).isFalse(); // because LotNo is not a barcode attribute
+	}
+
+	private static I_M_Attribute createStringAttribute(final String value)
+	{
+		final I_M_Attribute attribute = newInstance(I_M_Attribute.class);
+		attribute.setValue(value);
+		attribute.setAttributeValueType(X_M_Attribute.ATTRIBUTEVALUETYPE_StringMax40);
+		save(attribute);
+		return attribute;
+	}
+
+	private static void createDimensionSpecAttribute(final I_DIM_Dimension_Spec dimensionSpec, final I_M_Attribute attribute)
+	{
+		final I_DIM_Dimension_Spec_Attribute dimensionSpecAttribute = newInstance(I_DIM_Dimension_Spec_Attribute.class);
+		dimensionSpecAttribute.setDIM_Dimension_Spec_ID(dimensionSpec.getDIM_Dimension_Spec_ID());
+		dimensionSpecAttribute.setM_Attribute_ID(attribute.getM_Attribute_ID());
+		save(dimensionSpecAttribute);
+	}
+
+	private void createHUAttributeRecord(final I_M_HU hu, final I_M_Attribute attribute, final String value)
+	{
+		final I_M_HU_Attribute huAttributeRecord = newInstance(I_M_HU_Attribute.class);
+		huAttributeRecord.setM_HU_ID(hu.getM_HU_ID());
+		huAttributeRecord.setM_Attribute_ID(attribute.getM_Attribute_ID());
+		huAttributeRecord.setValue(value);
+		huAttributeRecord.setIsActive(true);
+		saveRecord(huAttributeRecord);
+	}
 }
@@ -0,0 +1,160 @@
+package de.metas.handlingunits.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Item_Storage;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import de.metas.handlingunits.model.X_M_HU_Item;
+import de.metas.handlingunits.storage.impl.HUStorageDAO;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class HUTreesPreloaderTest
+{
+	private I_M_HU lu;
+	private I_M_HU_Item luItem;
+	private I_M_HU tu;
+	private I_M_HU_Item tuItem;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		lu = createHU(null);
+		luItem = createItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		tu = createHU(luItem);
+		tuItem = createItem(tu, X_M_HU_Item.ITEMTYPE_Material);
+
+		createStorage(tu);
+		createItemStorage(tuItem);
+	}
+
+	/**
+	 * Items that are created after the preload are not seen, which shows that the preloaded ones are used.
+	 */
+	@Test
+	public void preload_primes_items_and_included_HUs()
+	{
+		final I_M_HU luToIterate = reload(lu);
+		HUTreesPreloader.preload(ImmutableList.of(luToIterate));
+
+		createItem(lu, X_M_HU_Item.ITEMTYPE_PackingMaterial);
+
+		final List<I_M_HU_Item> luItems = HUAndItemsDAO.instance.retrieveItems(luToIterate);
+		assertThat(luItems).extracting(I_M_HU_Item::getM_HU_Item_ID).containsExactly(luItem.getM_HU_Item_ID());
+
+		final List<I_M_HU> includedHUs = HUAndItemsDAO.instance.retrieveIncludedHUs(luItems.get(0));
+		assertThat(includedHUs).extracting(I_M_HU::getM_HU_ID).containsExactly(tu.getM_HU_ID());
+		assertThat(includedHUs.get(0).getM_HU_Item_Parent()).isSameAs(luItems.get(0));
+
+		final List<I_M_HU_Item> tuItems = HUAndItemsDAO.instance.retrieveItems(includedHUs.get(0));
+		assertThat(tuItems).extracting(I_M_HU_Item::getM_HU_Item_ID).containsExactly(tuItem.getM_HU_Item_ID());
+	}
+
+	@Test
+	public void preloaded_storages_are_handed_out_once()
+	{
+		final I_M_HU luToIterate = reload(lu);
+		HUTreesPreloader.preload(ImmutableList.of(luToIterate));
+
+		final I_M_HU_Item luItemToIterate = HUAndItemsDAO.instance.retrieveItems(luToIterate).get(0);
+		final I_M_HU tuToIterate = HUAndItemsDAO.instance.retrieveIncludedHUs(luItemToIterate).get(0);
+		final I_M_HU_Item tuItemToIterate = HUAndItemsDAO.instance.retrieveItems(tuToIterate).get(0);
+
+		assertThat(HUTreesPreloader.pollStorages(tuToIterate)).hasSize(1);
+		assertThat(HUTreesPreloader.pollStorages(tuToIterate)).isNull();
+
+		// the DAO falls back to the database after the preloaded storages were polled
+		createItemStorage(tuItemToIterate);
+		assertThat(new HUStorageDAO().retrieveItemStorages(tuItemToIterate)).as("preloaded").hasSize(1);
+		assertThat(new HUStorageDAO().retrieveItemStorages(tuItemToIterate)).as("from DB").hasSize(2);
+	}
+
+	@Test
+	public void close_discards_unpolled_storages()
+	{
+		final I_M_HU luToIterate = reload(lu);
+		final IAutoCloseable preloaded = HUTreesPreloader.preload(ImmutableList.of(luToIterate));
+
+		final I_M_HU_Item luItemToIterate = HUAndItemsDAO.instance.retrieveItems(luToIterate).get(0);
+		final I_M_HU tuToIterate = HUAndItemsDAO.instance.retrieveIncludedHUs(luItemToIterate).get(0);
+
+		preloaded.close();
+		assertThat(HUTreesPreloader.pollStorages(tuToIterate)).isNull();
+	}
+
+	private I_M_HU createHU(final I_M_HU_Item parentItem)
+	{
+		final I_M_HU hu = newInstance(I_M_HU.class);
+		hu.setM_HU_Item_Parent(parentItem);
+		hu.setIsActive(true);
+		saveRecord(hu);
+		return hu;
+	}
+
+	private I_M_HU_Item createItem(final I_M_HU hu, final String itemType)
+	{
+		final I_M_HU_Item item = newInstance(I_M_HU_Item.class);
+		item.setM_HU(hu);
+		item.setItemType(itemType);
+		item.setIsActive(true);
+		saveRecord(item);
+		return item;
+	}
+
+	private void createStorage(final I_M_HU hu)
+	{
+		final I_M_HU_Storage storage = newInstance(I_M_HU_Storage.class);
+		storage.setM_HU(hu);
+		storage.setIsActive(true);
+		saveRecord(storage);
+	}
+
+	private void createItemStorage(final I_M_HU_Item item)
+	{
+		final I_M_HU_Item_Storage itemStorage = newInstance(I_M_HU_Item_Storage.class);
+		itemStorage.setM_HU_Item(item);
+		itemStorage.setIsActive(true);
+		saveRecord(itemStorage);
+	}
+
+	private static I_M_HU reload(final I_M_HU hu)
+	{
+		return load(hu.getM_HU_ID(), I_M_HU.class);
+	}
+}
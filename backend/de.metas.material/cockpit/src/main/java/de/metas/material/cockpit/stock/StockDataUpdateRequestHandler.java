@@ -4,16 +4,31 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.mm.attributes.AttributeSetInstanceId;
 import org.adempiere.mm.attributes.api.AttributesKeys;
 import org.adempiere.model.InterfaceWrapperHelper;
-import org.adempiere.warehouse.WarehouseId;
+import org.compiere.Adempiere;
 import org.compiere.model.IQuery;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Component;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.material.cockpit.model.I_MD_Stock;
 import de.metas.material.event.PostMaterialEventService;
 import de.metas.material.event.commons.AttributesKey;
@@ -50,6 +65,37 @@ import lombok.NonNull;
 @Component
 public class StockDataUpdateRequestHandler
 {
+	/**
+	 * Relies on the partial unique index {@code md_stock_uc}.
+	 */
+	@VisibleForTesting
+	static final String SQL_UPSERT = "INSERT INTO " + I_MD_Stock.Table_Name + " ("
+			+ I_MD_Stock.COLUMNNAME_MD_Stock_ID
+			+ ", " + I_MD_Stock.COLUMNNAME_AD_Client_ID
+			+ ", " + I_MD_Stock.COLUMNNAME_AD_Org_ID
+			+ ", " + I_MD_Stock.COLUMNNAME_Created
+			+ ", " + I_MD_Stock.COLUMNNAME_CreatedBy
+			+ ", " + I_MD_Stock.COLUMNNAME_Updated
+			+ ", " + I_MD_Stock.COLUMNNAME_UpdatedBy
+			+ ", " + I_MD_Stock.COLUMNNAME_IsActive
+			+ ", " + I_MD_Stock.COLUMNNAME_M_Product_ID
+			+ ", " + I_MD_Stock.COLUMNNAME_AttributesKey
+			+ ", " + I_MD_Stock.COLUMNNAME_M_Warehouse_ID
+			+ ", " + I_MD_Stock.COLUMNNAME_QtyOnHand
+			+ ") VALUES (nextval('" + DB.getTableSequenceName(I_MD_Stock.Table_Name) + "'), ?, ?, now(), ?, now(), ?, 'Y', ?, ?, ?, ?)"
+			+ " ON CONFLICT ("
+			+ I_MD_Stock.COLUMNNAME_AD_Client_ID
+			+ ", " + I_MD_Stock.COLUMNNAME_AD_Org_ID
+			+ ", " + I_MD_Stock.COLUMNNAME_M_Warehouse_ID
+			+ ", " + I_MD_Stock.COLUMNNAME_M_Product_ID
+			+ ", " + I_MD_Stock.COLUMNNAME_AttributesKey
+			+ ") WHERE " + I_MD_Stock.COLUMNNAME_IsActive + " = 'Y'"
+			+ " DO UPDATE SET "
+			+ I_MD_Stock.COLUMNNAME_QtyOnHand + " = " + I_MD_Stock.Table_Name + "." + I_MD_Stock.COLUMNNAME_QtyOnHand + " + EXCLUDED." + I_MD_Stock.COLUMNNAME_QtyOnHand
+			+ ", " + I_MD_Stock.COLUMNNAME_Updated + " = EXCLUDED." + I_MD_Stock.COLUMNNAME_Updated
+			+ ", " + I_MD_Stock.COLUMNNAME_UpdatedBy + " = EXCLUDED." + I_MD_Stock.COLUMNNAME_UpdatedBy
+			+ " RETURNING " + I_MD_Stock.COLUMNNAME_MD_Stock_ID + ", " + I_MD_Stock.COLUMNNAME_QtyOnHand + ", " + I_MD_Stock.COLUMNNAME_Updated;
+
 	private final PostMaterialEventService postMaterialEventService;
 
 	public StockDataUpdateRequestHandler(
@@ -58,7 +104,91 @@ public class StockDataUpdateRequestHandler
 		this.postMaterialEventService = postMaterialEventService;
 	}
 
+	/**
+	 * Adds the request's qty to its {@code MD_Stock} record and fires a {@link StockChangedEvent}.
+	 * <p>
+	 * Not coalesced like the {@code MD_Cockpit} updates, because every change needs its own event with the respective old and new qty.
+	 * Instead, the record is inserted or updated with one atomic statement whose result provides the event's data.
+	 * Because no PO is saved, the record's caches are invalidated here, after the transaction was committed.
+	 */
 	public void handleDataUpdateRequest(@NonNull final StockDataUpdateRequest dataUpdateRequest)
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			// the in-memory database knows nothing about ON CONFLICT
+			handleDataUpdateRequestWithoutUpsert(dataUpdateRequest);
+			return;
+		}
+
+		final StockDataRecordIdentifier identifier = dataUpdateRequest.getIdentifier();
+		final AttributesKey attributesKey = identifier.getStorageAttributesKey();
+		attributesKey.assertNotAllOrOther();
+
+		final BigDecimal qtyOnHandToAdd = NumberUtils.stripTrailingDecimalZeros(dataUpdateRequest.getOnHandQtyChange());
+		final List<Object> sqlParams = createUpsertSqlParams(identifier, qtyOnHandToAdd, Env.getAD_User_ID());
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(SQL_UPSERT, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			if (!rs.next())
+			{
+				throw new DBException("Upserting MD_Stock returned no row; sql=" + SQL_UPSERT);
+			}
+
+			final int stockId = rs.getInt(I_MD_Stock.COLUMNNAME_MD_Stock_ID);
+			final BigDecimal qtyOnHandNew = NumberUtils.stripTrailingDecimalZeros(rs.getBigDecimal(I_MD_Stock.COLUMNNAME_QtyOnHand));
+			final BigDecimal qtyOnHandOld = NumberUtils.stripTrailingDecimalZeros(qtyOnHandNew.subtract(qtyOnHandToAdd));
+
+			invalidateCacheAfterCommit(stockId);
+
+			fireStockChangedEvent(
+					identifier,
+					stockId,
+					qtyOnHandOld,
+					qtyOnHandNew,
+					TimeUtil.asInstant(rs.getTimestamp(I_MD_Stock.COLUMNNAME_Updated)),
+					dataUpdateRequest.getSourceInfo());
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, SQL_UPSERT, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@VisibleForTesting
+	static List<Object> createUpsertSqlParams(
+			@NonNull final StockDataRecordIdentifier identifier,
+			@NonNull final BigDecimal qtyOnHandToAdd,
+			final int adUserId)
+	{
+		return ImmutableList.of(
+				identifier.getClientId().getRepoId(),
+				identifier.getOrgId().getRepoId(),
+				adUserId,
+				adUserId,
+				identifier.getProductId().getRepoId(),
+				identifier.getStorageAttributesKey().getAsString(),
+				identifier.getWarehouseId().getRepoId(),
+				qtyOnHandToAdd);
+	}
+
+	private static void invalidateCacheAfterCommit(final int stockId)
+	{
+		final CacheInvalidateMultiRequest cacheInvalidateRequest = CacheInvalidateMultiRequest.rootRecord(I_MD_Stock.Table_Name, stockId);
+		Services.get(ITrxManager.class)
+				.getTrxListenerManagerOrAutoCommit(ITrx.TRXNAME_ThreadInherited)
+				.runAfterCommit(() -> CacheMgt.get().reset(cacheInvalidateRequest));
+	}
+
+	private void handleDataUpdateRequestWithoutUpsert(@NonNull final StockDataUpdateRequest dataUpdateRequest)
 	{
 		final I_MD_Stock dataRecord = retrieveOrCreateDataRecord(dataUpdateRequest.getIdentifier());
 
@@ -69,7 +199,13 @@ public class StockDataUpdateRequestHandler
 		dataRecord.setQtyOnHand(qtyOnHandNew);
 		save(dataRecord);
 
-		fireStockChangedEvent(dataRecord, qtyOnHandOld, dataUpdateRequest.getSourceInfo());
+		fireStockChangedEvent(
+				dataUpdateRequest.getIdentifier(),
+				dataRecord.getMD_Stock_ID(),
+				qtyOnHandOld,
+				qtyOnHandNew,
+				TimeUtil.asInstant(dataRecord.getUpdated()),
+				dataUpdateRequest.getSourceInfo());
 	}
 
 	private I_MD_Stock retrieveOrCreateDataRecord(@NonNull final StockDataRecordIdentifier identifier)
@@ -110,27 +246,29 @@ public class StockDataUpdateRequestHandler
 	}
 
 	private void fireStockChangedEvent(
-			@NonNull final I_MD_Stock dataRecord,
+			@NonNull final StockDataRecordIdentifier identifier,
+			final int stockId,
 			@NonNull final BigDecimal qtyOnHandOld,
+			@NonNull final BigDecimal qtyOnHandNew,
+			@NonNull final Instant changeDate,
 			@NonNull final StockChangeSourceInfo stockChangeSourceInfo)
 	{
-		final BigDecimal qtyOnHandNew = dataRecord.getQtyOnHand();
 		if (qtyOnHandOld.compareTo(qtyOnHandNew) == 0)
 		{
 			return;
 		}
 
-		final AttributesKey attributesKey = AttributesKey.ofString(dataRecord.getAttributesKey());
+		final AttributesKey attributesKey = identifier.getStorageAttributesKey();
 		final AttributeSetInstanceId asiId = AttributesKeys.createAttributeSetInstanceFromAttributesKey(attributesKey);
 
 		final EventDescriptor eventDescriptor = EventDescriptor
 				.ofClientAndOrg(
-						dataRecord.getAD_Client_ID(),
-						dataRecord.getAD_Org_ID());
+						identifier.getClientId(),
+						identifier.getOrgId());
 
 		final ProductDescriptor productDescriptor = ProductDescriptor
 				.forProductAndAttributes(
-						dataRecord.getM_Product_ID(),
+						identifier.getProductId().getRepoId(),
 						attributesKey,
 						asiId.getRepoId());
 
@@ -138,18 +276,18 @@ public class StockDataUpdateRequestHandler
 				.builder()
 				.transactionId(stockChangeSourceInfo.getTransactionId())
 				.resetStockPInstanceId(stockChangeSourceInfo.getResetStockAdPinstanceId())
-				.stockId(dataRecord.getMD_Stock_ID())
+				.stockId(stockId)
 				.build();
 
 		final StockChangedEvent event = StockChangedEvent
 				.builder()
 				.eventDescriptor(eventDescriptor)
 				.productDescriptor(productDescriptor)
-				.warehouseId(WarehouseId.ofRepoId(dataRecord.getM_Warehouse_ID()))
+				.warehouseId(identifier.getWarehouseId())
 				.qtyOnHand(qtyOnHandNew)
 				.qtyOnHandOld(qtyOnHandOld)
 				.stockChangeDetails(details)
-				.changeDate(TimeUtil.asInstant(dataRecord.getUpdated()))
+				.changeDate(changeDate)
 				.build();
 
 		postMaterialEventService.postEventNow(event);
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import de.metas.material.cockpit.model.I_MD_Cockpit_DocumentDetail;
 import de.metas.material.cockpit.view.DetailDataRecordIdentifier;
 import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.cockpit.view.mainrecord.MainDataRequestHandler;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
@@ -73,6 +74,9 @@ public class DetailDataRequestHandler
 
 	private int retrieveDataId(@NonNull final MainDataRecordIdentifier identifier)
 	{
+		// the MD_Cockpit record might still be pending within the current trx
+		MainDataRequestHandler.flushPendingRequestsOfCurrentTrx();
+
 		final int result = identifier
 				.createQueryBuilder()
 				.create()
@@ -0,0 +1,212 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import static de.metas.util.NumberUtils.stripTrailingDecimalZeros;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.material.cockpit.model.I_MD_Cockpit;
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Adds the qtys of {@link UpdateMainDataRequest}s to their {@code MD_Cockpit} records with one {@code INSERT .. ON CONFLICT DO UPDATE} statement.
+ * <p>
+ * The conflict target is the unique index {@code md_cockpit_uc}, so concurrent updates of the same record don't need any locking on our side.
+ * Note that the requests must be about distinct records, because postgres refuses to update the same row twice within one statement.
+ * <p>
+ * Because no PO is saved, the {@code MD_Cockpit} caches (and cache reset listeners like the material cockpit views) are invalidated here, after the transaction was committed.
+ */
+@UtilityClass
+class MainDataRecordUpsert
+{
+	private static final String SQL_INSERT = "INSERT INTO " + I_MD_Cockpit.Table_Name + " ("
+			+ I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID
+			+ ", " + I_MD_Cockpit.COLUMNNAME_AD_Client_ID
+			+ ", " + I_MD_Cockpit.COLUMNNAME_AD_Org_ID
+			+ ", " + I_MD_Cockpit.COLUMNNAME_Created
+			+ ", " + I_MD_Cockpit.COLUMNNAME_CreatedBy
+			+ ", " + I_MD_Cockpit.COLUMNNAME_Updated
+			+ ", " + I_MD_Cockpit.COLUMNNAME_UpdatedBy
+			+ ", " + I_MD_Cockpit.COLUMNNAME_IsActive
+			+ ", " + I_MD_Cockpit.COLUMNNAME_M_Product_ID
+			+ ", " + I_MD_Cockpit.COLUMNNAME_AttributesKey
+			+ ", " + I_MD_Cockpit.COLUMNNAME_DateGeneral
+			+ ", " + I_MD_Cockpit.COLUMNNAME_PP_Plant_ID
+			+ ", " + I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme
+			+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandCount
+			+ ", " + I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate
+			+ ", " + I_MD_Cockpit.COLUMNNAME_QtyStockChange
+			+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase
+			+ ", " + I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale
+			+ ", " + I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction
+			+ ", " + I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate
+			+ ", " + I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate
+			+ ") VALUES ";
+
+	private static final String SQL_VALUES = "(nextval('" + DB.getTableSequenceName(I_MD_Cockpit.Table_Name) + "'), ?, ?, now(), ?, now(), ?, 'Y', ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String SQL_ON_CONFLICT = " ON CONFLICT ("
+			+ I_MD_Cockpit.COLUMNNAME_DateGeneral
+			+ ", " + I_MD_Cockpit.COLUMNNAME_M_Product_ID
+			+ ", " + I_MD_Cockpit.COLUMNNAME_AttributesKey
+			+ ", COALESCE(" + I_MD_Cockpit.COLUMNNAME_PP_Plant_ID + ", 0)"
+			+ ") DO UPDATE SET "
+			+ I_MD_Cockpit.COLUMNNAME_Updated + " = EXCLUDED." + I_MD_Cockpit.COLUMNNAME_Updated
+			+ ", " + I_MD_Cockpit.COLUMNNAME_UpdatedBy + " = EXCLUDED." + I_MD_Cockpit.COLUMNNAME_UpdatedBy
+			+ ", " + addExcluded(I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme)
+			+ ", " + addExcluded(I_MD_Cockpit.COLUMNNAME_QtyOnHandCount)
+			+ ", " + addExcluded(I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate)
+			+ ", " + addExcluded(I_MD_Cockpit.COLUMNNAME_QtyStockChange)
+			+ ", " + addExcluded(I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase)
+			+ ", " + addExcluded(I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale)
+			+ ", " + addExcluded(I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction)
+			// both estimates are linear in the other qtys, so we can also just add the deltas
+			+ ", " + addExcluded(I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate)
+			+ ", " + addExcluded(I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate)
+			+ " RETURNING " + I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID;
+
+	private static String addExcluded(@NonNull final String columnName)
+	{
+		return columnName + " = COALESCE(" + I_MD_Cockpit.Table_Name + "." + columnName + ", 0) + EXCLUDED." + columnName;
+	}
+
+	public static void execute(
+			@NonNull final Collection<UpdateMainDataRequest> requests,
+			@NonNull final String trxName)
+	{
+		if (requests.isEmpty())
+		{
+			return;
+		}
+
+		final String sql = createSql(requests.size());
+		final List<Object> sqlParams = createSqlParams(requests, Env.getAD_Client_ID(), Env.getAD_Org_ID(Env.getCtx()), Env.getAD_User_ID());
+
+		final List<Integer> cockpitRecordIds = new ArrayList<>(requests.size());
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, trxName);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				cockpitRecordIds.add(rs.getInt(I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID));
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		final CacheInvalidateMultiRequest cacheInvalidateRequest = CacheInvalidateMultiRequest.fromTableNameAndRecordIds(I_MD_Cockpit.Table_Name, cockpitRecordIds);
+		Services.get(ITrxManager.class)
+				.getTrxListenerManagerOrAutoCommit(trxName)
+				.runAfterCommit(() -> CacheMgt.get().reset(cacheInvalidateRequest));
+	}
+
+	@VisibleForTesting
+	static String createSql(final int requestsCount)
+	{
+		final StringBuilder sql = new StringBuilder(SQL_INSERT);
+		for (int i = 0; i < requestsCount; i++)
+		{
+			if (i > 0)
+			{
+				sql.append(", ");
+			}
+			sql.append(SQL_VALUES);
+		}
+		sql.append(SQL_ON_CONFLICT);
+
+		return sql.toString();
+	}
+
+	@VisibleForTesting
+	static List<Object> createSqlParams(
+			@NonNull final Collection<UpdateMainDataRequest> requests,
+			final int adClientId,
+			final int adOrgId,
+			final int adUserId)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		for (final UpdateMainDataRequest request : requests)
+		{
+			final MainDataRecordIdentifier identifier = request.getIdentifier();
+			final ProductDescriptor productDescriptor = identifier.getProductDescriptor();
+
+			sqlParams.add(adClientId);
+			sqlParams.add(adOrgId);
+			sqlParams.add(adUserId);
+			sqlParams.add(adUserId);
+			sqlParams.add(productDescriptor.getProductId());
+			sqlParams.add(productDescriptor.getStorageAttributesKey().getAsString());
+			sqlParams.add(TimeUtil.asTimestamp(identifier.getDate()));
+			sqlParams.add(identifier.getPlantId() > 0 ? identifier.getPlantId() : null);
+
+			sqlParams.add(stripTrailingDecimalZeros(request.getDirectMovementQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getCountedQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getOfferedQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getOnHandQtyChange()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getReservedPurchaseQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getReservedSalesQty()));
+			sqlParams.add(stripTrailingDecimalZeros(request.getRequiredForProductionQty()));
+
+			// see MainDataRequestHandler.updateDataRecordWithRequestQtys()
+			final BigDecimal qtyOnHandEstimate = request.getCountedQty()
+					.add(request.getOnHandQtyChange())
+					.subtract(request.getDirectMovementQty());
+			sqlParams.add(stripTrailingDecimalZeros(qtyOnHandEstimate));
+			sqlParams.add(stripTrailingDecimalZeros(qtyOnHandEstimate
+					.add(request.getReservedPurchaseQty())
+					.subtract(request.getReservedSalesQty())));
+		}
+		return sqlParams;
+	}
+}
@@ -4,16 +4,31 @@ import static de.metas.util.NumberUtils.stripTrailingDecimalZeros;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.compiere.Adempiere;
 import org.compiere.model.IQuery;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.Profiles;
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -42,13 +57,98 @@ import lombok.NonNull;
 @Profile(Profiles.PROFILE_App) // the event handler is also just on this profile
 public class MainDataRequestHandler
 {
+	private static final String TRX_PROPERTY_PendingRequests = MainDataRequestHandler.class.getName() + ".PendingRequests";
+
+	/**
+	 * Adds the given request's qtys to its {@code MD_Cockpit} record.
+	 * <p>
+	 * If there is a thread-inherited transaction, the qtys are summed up per record and written when the transaction is about to be committed.
+	 * Otherwise they are written right away. Either way, the record is inserted or updated by one atomic statement,
+	 * so there is no need to serialize concurrent invocations.
+	 */
 	public void handleDataUpdateRequest(@NonNull final UpdateMainDataRequest dataUpdateRequest)
 	{
-		synchronized (MainDataRequestHandler.class)
+		if (Adempiere.isUnitTestMode())
 		{
+			// the in-memory database knows nothing about ON CONFLICT
 			final I_MD_Cockpit dataRecord = retrieveOrCreateDataRecord(dataUpdateRequest.getIdentifier());
 			updateDataRecordWithRequestQtys(dataRecord, dataUpdateRequest);
 			save(dataRecord);
+			return;
+		}
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (!trxManager.isActive(trx))
+		{
+			MainDataRecordUpsert.execute(ImmutableList.of(dataUpdateRequest), ITrx.TRXNAME_ThreadInherited);
+			return;
+		}
+
+		final PendingRequests pendingRequests = trx.getProperty(TRX_PROPERTY_PendingRequests, () -> {
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.BEFORE_COMMIT)
+					.invokeMethodJustOnce(true)
+					.registerHandlingMethod(innerTrx -> {
+						flushPendingRequests(innerTrx);
+						innerTrx.setProperty(TRX_PROPERTY_PendingRequests, null); // the next request after this commit shall register a new listener
+					});
+			return new PendingRequests();
+		});
+		pendingRequests.add(dataUpdateRequest);
+	}
+
+	/**
+	 * Writes the qtys that were collected within the current thread-inherited transaction, if any.
+	 * Needs to be called before an {@code MD_Cockpit} record is looked up within that transaction.
+	 */
+	public static void flushPendingRequestsOfCurrentTrx()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isActive(trx))
+		{
+			flushPendingRequests(trx);
+		}
+	}
+
+	private static void flushPendingRequests(@NonNull final ITrx trx)
+	{
+		final PendingRequests pendingRequests = trx.getProperty(TRX_PROPERTY_PendingRequests);
+		if (pendingRequests == null)
+		{
+			return;
+		}
+		MainDataRecordUpsert.execute(pendingRequests.drain(), trx.getTrxName());
+	}
+
+	private static final class PendingRequests
+	{
+		private final Map<ArrayKey, UpdateMainDataRequest> requestsByRecordKey = new LinkedHashMap<>();
+
+		public synchronized void add(@NonNull final UpdateMainDataRequest request)
+		{
+			requestsByRecordKey.merge(createRecordKey(request.getIdentifier()), request, UpdateMainDataRequest::add);
+		}
+
+		public synchronized List<UpdateMainDataRequest> drain()
+		{
+			final List<UpdateMainDataRequest> result = new ArrayList<>(requestsByRecordKey.values());
+			requestsByRecordKey.clear();
+			return result;
+		}
+
+		/**
+		 * @return a key with the columns of the unique index {@code md_cockpit_uc}; note that the identifier's ASI is not among them
+		 */
+		private static ArrayKey createRecordKey(@NonNull final MainDataRecordIdentifier identifier)
+		{
+			final ProductDescriptor productDescriptor = identifier.getProductDescriptor();
+			return Util.mkKey(
+					productDescriptor.getProductId(),
+					productDescriptor.getStorageAttributesKey().getAsString(),
+					identifier.getDate(),
+					identifier.getPlantId() > 0 ? identifier.getPlantId() : 0);
 		}
 	}
 
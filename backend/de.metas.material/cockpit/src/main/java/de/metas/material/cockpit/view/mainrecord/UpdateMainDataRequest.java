@@ -69,4 +69,24 @@ public class UpdateMainDataRequest
 
 	@Default
 	BigDecimal requiredForProductionQty = BigDecimal.ZERO;
+
+	/**
+	 * @return a request with this instance's identifier and the sums of this and the given request's qtys.
+	 *         The caller is responsible for both requests being about the same {@code MD_Cockpit} record.
+	 */
+	public UpdateMainDataRequest add(@NonNull final UpdateMainDataRequest other)
+	{
+		return builder()
+				.identifier(identifier)
+				.countedQty(countedQty.add(other.countedQty))
+				.onHandQtyChange(onHandQtyChange.add(other.onHandQtyChange))
+				.directMovementQty(directMovementQty.add(other.directMovementQty))
+				.orderedSalesQty(orderedSalesQty.add(other.orderedSalesQty))
+				.reservedSalesQty(reservedSalesQty.add(other.reservedSalesQty))
+				.orderedPurchaseQty(orderedPurchaseQty.add(other.orderedPurchaseQty))
+				.reservedPurchaseQty(reservedPurchaseQty.add(other.reservedPurchaseQty))
+				.offeredQty(offeredQty.add(other.offeredQty))
+				.requiredForProductionQty(requiredForProductionQty.add(other.requiredForProductionQty))
+				.build();
+	}
 }
@@ -0,0 +1,37 @@
+--
+-- StockDataUpdateRequestHandler inserts/updates MD_Stock with INSERT .. ON CONFLICT, which needs this index.
+-- Duplicates are not expected, because the handler's query would have failed on them; still, merge them into the oldest record first.
+--
+UPDATE MD_Stock s
+SET QtyOnHand = dups.QtyOnHand, Updated = now()
+FROM (
+		SELECT min(MD_Stock_ID) AS MD_Stock_ID, sum(QtyOnHand) AS QtyOnHand
+		FROM MD_Stock
+		WHERE IsActive = 'Y'
+		GROUP BY AD_Client_ID, AD_Org_ID, M_Warehouse_ID, M_Product_ID, AttributesKey
+		HAVING count(1) > 1
+	) dups
+WHERE s.MD_Stock_ID = dups.MD_Stock_ID
+;
+
+UPDATE MD_Stock s
+SET IsActive = 'N', Updated = now()
+WHERE s.IsActive = 'Y'
+	AND EXISTS (
+		SELECT 1
+		FROM MD_Stock s2
+		WHERE s2.IsActive = 'Y'
+			AND s2.AD_Client_ID = s.AD_Client_ID
+			AND s2.AD_Org_ID = s.AD_Org_ID
+			AND s2.M_Warehouse_ID = s.M_Warehouse_ID
+			AND s2.M_Product_ID = s.M_Product_ID
+			AND s2.AttributesKey = s.AttributesKey
+			AND s2.MD_Stock_ID < s.MD_Stock_ID)
+;
+
+CREATE UNIQUE INDEX IF NOT EXISTS md_stock_uc
+	ON public.md_stock
+	USING btree
+	(ad_client_id, ad_org_id, m_warehouse_id, m_product_id, attributeskey)
+	WHERE isactive = 'Y'
+;
@@ -0,0 +1,67 @@
+package de.metas.material.cockpit.stock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.warehouse.WarehouseId;
+import org.junit.jupiter.api.Test;
+
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StockDataUpdateRequestHandlerTest
+{
+	@Test
+	public void sqlUpsert()
+	{
+		assertThat(StockDataUpdateRequestHandler.SQL_UPSERT)
+				.startsWith("INSERT INTO MD_Stock (")
+				.contains(" ON CONFLICT (AD_Client_ID, AD_Org_ID, M_Warehouse_ID, M_Product_ID, AttributesKey) WHERE IsActive = 'Y' DO UPDATE SET ")
+				.contains("QtyOnHand = MD_Stock.QtyOnHand + EXCLUDED.QtyOnHand")
+				.endsWith(" RETURNING MD_Stock_ID, QtyOnHand, Updated");
+		assertThat(StockDataUpdateRequestHandler.SQL_UPSERT.chars().filter(c -> c == '?').count()).isEqualTo(8);
+	}
+
+	@Test
+	public void createUpsertSqlParams()
+	{
+		final AttributesKey attributesKey = AttributesKey.ofAttributeValueIds(1, 2);
+		final StockDataRecordIdentifier identifier = StockDataRecordIdentifier.builder()
+				.clientId(ClientId.ofRepoId(1))
+				.orgId(OrgId.ofRepoId(2))
+				.warehouseId(WarehouseId.ofRepoId(3))
+				.productId(ProductId.ofRepoId(4))
+				.storageAttributesKey(attributesKey)
+				.build();
+
+		final List<Object> sqlParams = StockDataUpdateRequestHandler.createUpsertSqlParams(identifier, new BigDecimal("5"), 100);
+
+		assertThat(sqlParams).containsExactly(1, 2, 100, 100, 4, attributesKey.getAsString(), 3, new BigDecimal("5"));
+	}
+}
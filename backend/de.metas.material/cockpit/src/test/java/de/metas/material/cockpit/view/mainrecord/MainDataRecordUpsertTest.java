@@ -0,0 +1,103 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.event.commons.ProductDescriptor;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MainDataRecordUpsertTest
+{
+	private static final Instant NOW = Instant.now();
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void createSql()
+	{
+		final String sql = MainDataRecordUpsert.createSql(2);
+
+		assertThat(sql)
+				.startsWith("INSERT INTO MD_Cockpit (")
+				.contains("ON CONFLICT (DateGeneral, M_Product_ID, AttributesKey, COALESCE(PP_Plant_ID, 0)) DO UPDATE SET ")
+				.contains("QtyReserved_Sale = COALESCE(MD_Cockpit.QtyReserved_Sale, 0) + EXCLUDED.QtyReserved_Sale")
+				.endsWith(" RETURNING MD_Cockpit_ID");
+		assertThat(sql.split("nextval\\(", -1)).hasSize(3);
+		assertThat(sql.chars().filter(c -> c == '?').count()).isEqualTo(2 * 17);
+	}
+
+	@Test
+	public void createSqlParams()
+	{
+		final MainDataRecordIdentifier identifier = MainDataRecordIdentifier.builder()
+				.date(NOW)
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(30))
+				.build();
+		final UpdateMainDataRequest request = UpdateMainDataRequest.builder()
+				.identifier(identifier)
+				.countedQty(new BigDecimal("10.000"))
+				.onHandQtyChange(new BigDecimal("2.50"))
+				.directMovementQty(new BigDecimal("1"))
+				.reservedPurchaseQty(new BigDecimal("4.0"))
+				.reservedSalesQty(new BigDecimal("3.00"))
+				.build();
+
+		final List<Object> sqlParams = MainDataRecordUpsert.createSqlParams(ImmutableList.of(request), 1, 2, 100);
+
+		assertThat(sqlParams).hasSize(17);
+		assertThat(sqlParams.subList(0, 8)).containsExactly(
+				1, 2, 100, 100,
+				30,
+				identifier.getProductDescriptor().getStorageAttributesKey().getAsString(),
+				TimeUtil.asTimestamp(NOW),
+				null);
+
+		// the qtys are normalized like the ones that were saved via PO, see MainDataRequestHandler.updateDataRecordWithRequestQtys()
+		assertThat(sqlParams.subList(8, 17)).containsExactly(
+				new BigDecimal("1"), // QtyMaterialentnahme
+				new BigDecimal("10"), // QtyOnHandCount
+				BigDecimal.ZERO, // PMM_QtyPromised_OnDate
+				new BigDecimal("2.5"), // QtyStockChange
+				new BigDecimal("4"), // QtyReserved_Purchase
+				new BigDecimal("3"), // QtyReserved_Sale
+				BigDecimal.ZERO, // QtyRequiredForProduction
+				new BigDecimal("11.5"), // QtyOnHandEstimate
+				new BigDecimal("12.5")); // QtyAvailableToPromiseEstimate
+	}
+}
@@ -0,0 +1,180 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.ICacheResetListener;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.material.cockpit.model.I_MD_Cockpit;
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Runs the actual {@code INSERT .. ON CONFLICT} statement, which the in-memory database of the other tests does not support.
+ */
+@Disabled("requires database connection")
+public class MainDataRecordUpsert_DBTest
+{
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	private final List<CacheInvalidateMultiRequest> cacheInvalidateRequests = new CopyOnWriteArrayList<>();
+	private final ICacheResetListener cacheResetListener = multiRequest -> {
+		cacheInvalidateRequests.add(multiRequest);
+		return 0;
+	};
+
+	private MainDataRecordIdentifier identifier;
+
+	@BeforeAll
+	public static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath()
+					+ File.separator + ".." + File.separator + ".."
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		final I_M_Product product = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_Product.class)
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_M_Product.COLUMNNAME_M_Product_ID)
+				.create()
+				.first(I_M_Product.class);
+
+		// a random day far in the future, so we don't collide with existing records
+		final Instant date = LocalDate.of(2200, 1, 1)
+				.plusDays(ThreadLocalRandom.current().nextInt(100_000))
+				.atStartOfDay(ZoneId.systemDefault())
+				.toInstant();
+
+		identifier = MainDataRecordIdentifier.builder()
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(product.getM_Product_ID()))
+				.date(date)
+				.build();
+
+		CacheMgt.get().addCacheResetListener(I_MD_Cockpit.Table_Name, cacheResetListener);
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		CacheMgt.get().removeCacheResetListener(I_MD_Cockpit.Table_Name, cacheResetListener);
+	}
+
+	private UpdateMainDataRequest newRequest(final String countedQty, final String reservedSalesQty)
+	{
+		return UpdateMainDataRequest.builder()
+				.identifier(identifier)
+				.countedQty(new BigDecimal(countedQty))
+				.reservedSalesQty(new BigDecimal(reservedSalesQty))
+				.build();
+	}
+
+	private I_MD_Cockpit retrieveRecord()
+	{
+		return identifier.createQueryBuilder().create().firstOnly(I_MD_Cockpit.class);
+	}
+
+	@Test
+	public void insertThenUpdate()
+	{
+		MainDataRecordUpsert.execute(ImmutableList.of(newRequest("10.00", "3")), ITrx.TRXNAME_None);
+		MainDataRecordUpsert.execute(ImmutableList.of(newRequest("5", "1.50")), ITrx.TRXNAME_None);
+
+		final I_MD_Cockpit record = retrieveRecord();
+		assertThat(record.getQtyOnHandCount()).isEqualByComparingTo("15");
+		assertThat(record.getQtyReserved_Sale()).isEqualByComparingTo("4.5");
+		assertThat(record.getQtyOnHandEstimate()).isEqualByComparingTo("15");
+		assertThat(record.getQtyAvailableToPromiseEstimate()).isEqualByComparingTo("10.5");
+	}
+
+	@Test
+	public void cacheIsInvalidatedAfterCommit()
+	{
+		trxManager.runInNewTrx(localTrxName -> {
+			MainDataRecordUpsert.execute(ImmutableList.of(newRequest("10", "0")), localTrxName);
+			assertThat(cacheInvalidateRequests).isEmpty();
+		});
+
+		final int cockpitRecordId = retrieveRecord().getMD_Cockpit_ID();
+		assertThat(cacheInvalidateRequests)
+				.containsExactly(CacheInvalidateMultiRequest.rootRecord(I_MD_Cockpit.Table_Name, cockpitRecordId));
+	}
+
+	@Test
+	public void cacheIsNotInvalidatedOnRollback()
+	{
+		try
+		{
+			trxManager.runInNewTrx(localTrxName -> {
+				MainDataRecordUpsert.execute(ImmutableList.of(newRequest("10", "0")), localTrxName);
+				throw new RuntimeException("rollback");
+			});
+		}
+		catch (final RuntimeException e)
+		{
+			assertThat(e).hasMessageContaining("rollback");
+		}
+
+		assertThat(retrieveRecord()).isNull();
+		assertThat(cacheInvalidateRequests).isEmpty();
+	}
+}
@@ -4,6 +4,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.isNew;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 
 import org.adempiere.test.AdempiereTestHelper;
@@ -63,4 +64,30 @@ public class MainDataRequestHandlerTest
 		assertThat(isNew(result2)).isFalse();
 		assertThat(result2.getMD_Cockpit_ID()).isEqualTo(result.getMD_Cockpit_ID());
 	}
+
+	@Test
+	public void updateMainDataRequest_add()
+	{
+		final MainDataRecordIdentifier identifier = MainDataRecordIdentifier.builder()
+				.date(NOW)
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(30)).build();
+
+		final UpdateMainDataRequest request1 = UpdateMainDataRequest.builder()
+				.identifier(identifier)
+				.countedQty(new BigDecimal("10"))
+				.reservedSalesQty(new BigDecimal("3"))
+				.build();
+		final UpdateMainDataRequest request2 = UpdateMainDataRequest.builder()
+				.identifier(identifier)
+				.reservedSalesQty(new BigDecimal("2"))
+				.offeredQty(new BigDecimal("5"))
+				.build();
+
+		final UpdateMainDataRequest result = request1.add(request2);
+		assertThat(result.getIdentifier()).isEqualTo(identifier);
+		assertThat(result.getCountedQty()).isEqualByComparingTo("10");
+		assertThat(result.getReservedSalesQty()).isEqualByComparingTo("5");
+		assertThat(result.getOfferedQty()).isEqualByComparingTo("5");
+		assertThat(result.getOnHandQtyChange()).isEqualByComparingTo("0");
+	}
 }
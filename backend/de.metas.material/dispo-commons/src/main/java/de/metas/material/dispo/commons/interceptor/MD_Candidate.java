@@ -0,0 +1,78 @@
+package de.metas.material.dispo.commons.interceptor;
+
+import java.util.Set;
+
+import org.adempiere.ad.modelvalidator.annotations.Init;
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.adempiere.ad.modelvalidator.annotations.ModelChange;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.ModelValidator;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CacheMgt;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseProjection;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+@Interceptor(I_MD_Candidate.class)
+@Component
+public class MD_Candidate
+{
+	@Init
+	public void setupCaching()
+	{
+		// the ATP is also retrieved on nodes where the stock candidates are not changed
+		CacheMgt.get().enableRemoteCacheInvalidationForTableName(AvailableToPromiseProjection.INVALIDATION_TABLE_NAME);
+	}
+
+	/**
+	 * Stock candidates are what the ATP is computed from, so the in-memory ATP of their products needs to be invalidated.
+	 */
+	@ModelChange(timings = { ModelValidator.TYPE_AFTER_NEW, ModelValidator.TYPE_AFTER_CHANGE, ModelValidator.TYPE_AFTER_DELETE })
+	public void invalidateAvailableToPromiseProjection(final I_MD_Candidate candidateRecord)
+	{
+		final I_MD_Candidate oldCandidateRecord = InterfaceWrapperHelper.createOld(candidateRecord, I_MD_Candidate.class);
+
+		final ImmutableSet.Builder<Integer> productIds = ImmutableSet.builder();
+		if (isStockCandidate(candidateRecord))
+		{
+			productIds.add(candidateRecord.getM_Product_ID());
+		}
+		if (isStockCandidate(oldCandidateRecord))
+		{
+			productIds.add(oldCandidateRecord.getM_Product_ID());
+		}
+
+		final Set<Integer> productIdsToInvalidate = productIds.build();
+		AvailableToPromiseProjection.invalidateProductsAfterCommit(productIdsToInvalidate);
+	}
+
+	private static boolean isStockCandidate(final I_MD_Candidate candidateRecord)
+	{
+		return X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK.equals(candidateRecord.getMD_Candidate_Type())
+				&& candidateRecord.getM_Product_ID() > 0;
+	}
+}
@@ -11,13 +11,18 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Objects;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.ICompositeQueryUpdater;
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.ad.dao.impl.ModelColumnNameValue;
 import org.adempiere.warehouse.WarehouseId;
+import org.compiere.model.IQuery;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Service;
 
@@ -34,6 +39,7 @@ import de.metas.material.dispo.commons.candidate.businesscase.DemandDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.DistributionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.ProductionDetail;
 import de.metas.material.dispo.commons.candidate.businesscase.PurchaseDetail;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseProjection;
 import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
 import de.metas.material.dispo.commons.repository.repohelpers.PurchaseDetailRepoHelper;
 import de.metas.material.dispo.commons.repository.repohelpers.RepositoryCommons;
@@ -119,6 +125,64 @@ public class CandidateRepositoryWriteService
 		return addOrUpdate(query, candidate, false);
 	}
 
+	/**
+	 * Adds the given {@code delta} to the quantity of all candidates that match the given {@code query}, using set-based SQL updates instead of loading and saving each candidate.
+	 * Also sets the given {@code groupId} (if any) and updates the candidates' status, like {@link #updateCandidateById(Candidate)} would.
+	 *
+	 * @return the number of updated candidates
+	 */
+	public int addToQtyAndSetGroupId(
+			@NonNull final CandidatesQuery query,
+			@NonNull final BigDecimal delta,
+			@Nullable final MaterialDispoGroupId groupId)
+	{
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+		final ICompositeQueryUpdater<I_MD_Candidate> updater = queryBL.createCompositeQueryUpdater(I_MD_Candidate.class)
+				.addAddValueToColumn(I_MD_Candidate.COLUMNNAME_Qty, delta);
+		if (groupId != null)
+		{
+			updater.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_GroupId, groupId.toInt());
+		}
+
+		final IQuery<I_MD_Candidate> candidatesQuery = RepositoryCommons
+				.mkQueryBuilder(query)
+				.create();
+
+		// the direct updates bypass the MD_Candidate model interceptor, so we need to invalidate the in-memory ATP ourselves
+		final List<Integer> productIds = candidatesQuery.listDistinct(I_MD_Candidate.COLUMNNAME_M_Product_ID, Integer.class);
+
+		final int updatedCount = candidatesQuery.updateDirectly(updater);
+		if (updatedCount <= 0)
+		{
+			return updatedCount;
+		}
+		AvailableToPromiseProjection.invalidateProductsAfterCommit(productIds);
+
+		// the status depends on the (now changed) Qty; see updateCandidateRecordFromCandidate
+		final ModelColumnNameValue<I_MD_Candidate> qtyColumn = ModelColumnNameValue.forColumnName(I_MD_Candidate.COLUMNNAME_Qty);
+		RepositoryCommons
+				.mkQueryBuilder(query)
+				.addCompareFilter(I_MD_Candidate.COLUMNNAME_QtyFulfilled, Operator.GREATER_OR_EQUAL, qtyColumn)
+				.addNotEqualsFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status, X_MD_Candidate.MD_CANDIDATE_STATUS_Processed)
+				.create()
+				.updateDirectly()
+				.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status, X_MD_Candidate.MD_CANDIDATE_STATUS_Processed)
+				.execute();
+		RepositoryCommons
+				.mkQueryBuilder(query)
+				.addCompareFilter(I_MD_Candidate.COLUMNNAME_QtyFulfilled, Operator.LESS, qtyColumn)
+				.addNotEqualsFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status, X_MD_Candidate.MD_CANDIDATE_STATUS_Planned)
+				.create()
+				.updateDirectly()
+				.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status, X_MD_Candidate.MD_CANDIDATE_STATUS_Planned)
+				.execute();
+
+		Loggables.addLog("addToQtyAndSetGroupId - added delta={} and set groupId={} to {} candidates; query={}", delta, groupId, updatedCount, query);
+
+		return updatedCount;
+	}
+
 	@Value
 	@Builder
 	public static class SaveResult
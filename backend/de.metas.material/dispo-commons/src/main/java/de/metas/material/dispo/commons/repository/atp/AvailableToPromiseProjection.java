@@ -0,0 +1,418 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.adempiere.warehouse.WarehouseId;
+import org.compiere.Adempiere;
+import org.compiere.util.TimeUtil;
+import org.compiere.util.Util.ArrayKey;
+import org.slf4j.Logger;
+
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CCache;
+import de.metas.cache.CacheInterface;
+import de.metas.cache.CacheLabel;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import de.metas.material.commons.attributes.AttributesKeyPattern;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.util.Services;
+import de.metas.util.time.SystemTime;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory projection of the stock candidates (i.e. {@link I_MD_Candidate}s with type {@code STOCK}) which {@link AvailableToPromiseRepository} uses to answer its queries.
+ * <p>
+ * For each product it holds the records which {@code de_metas_material.retrieve_atp_at_date} returned when the product was loaded, plus all stock candidates with a later {@code DateProjected}.
+ * With those, the ATP can be computed for every date from the loading time on. Queries for earlier dates can't be answered and need to go to the DB.
+ * <p>
+ * When a stock candidate is changed, the projection of its product is discarded after the transaction was committed, both locally and on the other nodes (see {@link #invalidateProductsAfterCommit(Collection)}).
+ * Until then, queries for that product which run in the changing transaction also need to go to the DB, because only there the uncommitted changes are visible.
+ * <p>
+ * The number of records held in memory is limited by {@value #SYSCONFIG_MaxRecords}; the projections of the least recently used products are evicted first.
+ */
+public final class AvailableToPromiseProjection implements CacheInterface
+{
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseProjection.class);
+
+	public static final String SYSCONFIG_Enabled = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseProjection.Enabled";
+
+	public static final String SYSCONFIG_MaxRecords = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseProjection.MaxRecords";
+	private static final int DEFAULT_MaxRecords = 500_000;
+
+	/** The projections are invalidated via {@link CacheMgt}, using this (virtual) table name and the product ID as record ID. */
+	public static final String INVALIDATION_TABLE_NAME = I_MD_Candidate_ATP_QueryResult.Table_Name;
+
+	private static final String TRX_PROPERTY_ChangedProductIds = AvailableToPromiseProjection.class.getName() + ".ChangedProductIds";
+
+	private final long cacheId = CCache.nextCacheId();
+	/** created lazily, because the sysconfig can't be read when this instance is created by spring */
+	private final Supplier<Cache<Integer, ProductProjection>> productProjectionsSupplier = Suppliers.memoize(AvailableToPromiseProjection::createProductProjectionsCache);
+
+	private final Object invalidationLock = new Object();
+	/** Incremented on each invalidation; guarded by {@link #invalidationLock}. */
+	private long invalidationSeqNo = 0;
+
+	public AvailableToPromiseProjection()
+	{
+		CacheMgt.get().register(this);
+	}
+
+	private static Cache<Integer, ProductProjection> createProductProjectionsCache()
+	{
+		final int maxRecords = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxRecords, DEFAULT_MaxRecords);
+		return CacheBuilder.newBuilder()
+				.maximumWeight(maxRecords)
+				.weigher((final Integer productId, final ProductProjection productProjection) -> productProjection.getWeight())
+				.recordStats()
+				.build();
+	}
+
+	public boolean isEnabled()
+	{
+		// in unit tests, the I_MD_Candidate_ATP_QueryResult records are usually hand-crafted, so there the projection needs to be enabled explicitly
+		final boolean defaultValue = !Adempiere.isUnitTestMode();
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, defaultValue);
+	}
+
+	/**
+	 * @return the records which the DB would return for the given {@code multiQuery}, or {@code null} if the query can't be answered from memory and needs to go to the DB.
+	 */
+	@Nullable
+	public ImmutableSet<AddToResultGroupRequest> retrieveRecordsOrNull(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final Set<Integer> productIdsChangedInTrx = getProductIdsChangedInCurrentTrx();
+
+		final LinkedHashSet<AddToResultGroupRequest> result = new LinkedHashSet<>(); // the DB queries are combined with "union distinct"
+		for (final AvailableToPromiseQuery query : multiQuery.getQueries())
+		{
+			if (query == null)
+			{
+				continue;
+			}
+
+			final Instant date = query.getDate().toInstant();
+			for (final int productId : query.getProductIds())
+			{
+				if (productIdsChangedInTrx.contains(productId))
+				{
+					logger.debug("ProductId={} was changed in the current trx; the ATP needs to be retrieved from DB", productId);
+					return null;
+				}
+
+				final ProductProjection productProjection = getOrLoad(productId);
+				if (date.isBefore(productProjection.getLoadedAt()))
+				{
+					logger.debug("The date={} is before the projection of productId={} was loaded; the ATP needs to be retrieved from DB", date, productId);
+					return null;
+				}
+
+				productProjection.streamLatestRecords(query).forEach(result::add);
+			}
+		}
+		return ImmutableSet.copyOf(result);
+	}
+
+	private ProductProjection getOrLoad(final int productId)
+	{
+		final Cache<Integer, ProductProjection> productProjections = productProjectionsSupplier.get();
+		final ProductProjection existingProjection = productProjections.getIfPresent(productId);
+		if (existingProjection != null)
+		{
+			return existingProjection;
+		}
+
+		final long invalidationSeqNoBeforeLoad;
+		synchronized (invalidationLock)
+		{
+			invalidationSeqNoBeforeLoad = invalidationSeqNo;
+		}
+
+		final ProductProjection loadedProjection = ProductProjection.load(productId);
+
+		synchronized (invalidationLock)
+		{
+			// if something was invalidated while we were loading, then what we loaded might already be outdated, so we don't keep it
+			if (invalidationSeqNoBeforeLoad == invalidationSeqNo)
+			{
+				productProjections.put(productId, loadedProjection);
+			}
+		}
+		return loadedProjection;
+	}
+
+	private static Set<Integer> getProductIdsChangedInCurrentTrx()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (!trxManager.isActive(trx))
+		{
+			return ImmutableSet.of();
+		}
+
+		final Set<Integer> productIds = trx.getProperty(TRX_PROPERTY_ChangedProductIds);
+		return productIds != null ? productIds : ImmutableSet.of();
+	}
+
+	/**
+	 * Invalidates the projections of the given products, in this JVM and in all others, as soon as the current transaction is committed.
+	 * Until then, ATP queries for those products which run in the current transaction are answered by the DB.
+	 */
+	public static void invalidateProductsAfterCommit(@NonNull final Collection<Integer> productIds)
+	{
+		if (productIds.isEmpty())
+		{
+			return;
+		}
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (!trxManager.isActive(trx))
+		{
+			CacheMgt.get().reset(createCacheInvalidateRequest(productIds));
+			return;
+		}
+
+		final Set<Integer> productIdsChangedInTrx = trx.getPropertyAndProcessAfterCommit(
+				TRX_PROPERTY_ChangedProductIds,
+				ConcurrentHashMap::newKeySet,
+				changedProductIds -> {
+					trx.setProperty(TRX_PROPERTY_ChangedProductIds, null); // changes after this commit shall be collected anew
+					CacheMgt.get().reset(createCacheInvalidateRequest(changedProductIds));
+				});
+		productIdsChangedInTrx.addAll(productIds);
+	}
+
+	private static CacheInvalidateMultiRequest createCacheInvalidateRequest(@NonNull final Collection<Integer> productIds)
+	{
+		return CacheInvalidateMultiRequest.of(productIds.stream()
+				.map(productId -> CacheInvalidateRequest.rootRecord(INVALIDATION_TABLE_NAME, productId))
+				.collect(ImmutableSet.toImmutableSet()));
+	}
+
+	@Override
+	public long getCacheId()
+	{
+		return cacheId;
+	}
+
+	@Override
+	public Set<CacheLabel> getLabels()
+	{
+		return ImmutableSet.of(CacheLabel.ofTableName(INVALIDATION_TABLE_NAME));
+	}
+
+	@Override
+	public long resetForRecordId(@NonNull final TableRecordReference recordRef)
+	{
+		synchronized (invalidationLock)
+		{
+			invalidationSeqNo++;
+			return productProjectionsSupplier.get().asMap().remove(recordRef.getRecord_ID()) != null ? 1 : 0;
+		}
+	}
+
+	@Override
+	public long reset()
+	{
+		synchronized (invalidationLock)
+		{
+			invalidationSeqNo++;
+			final Cache<Integer, ProductProjection> productProjections = productProjectionsSupplier.get();
+			final long size = productProjections.size();
+			productProjections.invalidateAll();
+			return size;
+		}
+	}
+
+	@Override
+	public long size()
+	{
+		return productProjectionsSupplier.get().size();
+	}
+
+	public CacheStats stats()
+	{
+		return productProjectionsSupplier.get().stats();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "AvailableToPromiseProjection[id=" + cacheId + ", size=" + size() + ", stats=" + stats() + "]";
+	}
+
+	@Value
+	private static class ProductProjection
+	{
+		private static ProductProjection load(final int productId)
+		{
+			final ZonedDateTime loadedAt = SystemTime.asZonedDateTime();
+			final ImmutableList.Builder<AddToResultGroupRequest> records = ImmutableList.builder();
+
+			// the latest stock records up to now, just like the DB function returns them
+			final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+					.productId(productId)
+					.date(loadedAt)
+					.bpartner(BPartnerClassifier.any())
+					.build();
+			AvailableToPromiseSqlHelper.createDBQueryForStockQuery(query)
+					.list()
+					.stream()
+					.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
+					.forEach(records::add);
+
+			// all stock records after now, so we can tell which one is the latest at any later date
+			Services.get(IQueryBL.class)
+					.createQueryBuilder(I_MD_Candidate.class)
+					.addOnlyActiveRecordsFilter()
+					.addEqualsFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_Type, X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK)
+					.addEqualsFilter(I_MD_Candidate.COLUMNNAME_M_Product_ID, productId)
+					.addCompareFilter(I_MD_Candidate.COLUMNNAME_DateProjected, Operator.GREATER, TimeUtil.asTimestamp(loadedAt))
+					.create()
+					.stream(I_MD_Candidate.class)
+					.map(ProductProjection::createAddToResultGroupRequest)
+					.forEach(records::add);
+
+			return new ProductProjection(loadedAt.toInstant(), records.build());
+		}
+
+		private static AddToResultGroupRequest createAddToResultGroupRequest(@NonNull final I_MD_Candidate stockRecord)
+		{
+			final BPartnerId customerId = BPartnerId.ofRepoIdOrNull(stockRecord.getC_BPartner_Customer_ID());
+
+			return AddToResultGroupRequest.builder()
+					.productId(stockRecord.getM_Product_ID())
+					.bpartner(BPartnerClassifier.specificOrAny(customerId))
+					.warehouseId(WarehouseId.ofRepoId(stockRecord.getM_Warehouse_ID()))
+					.storageAttributesKey(AttributesKey.ofString(stockRecord.getStorageAttributesKey()))
+					.qty(stockRecord.getQty())
+					.date(TimeUtil.asInstant(stockRecord.getDateProjected()))
+					.seqNo(stockRecord.getSeqNo())
+					.build();
+		}
+
+		private static final Comparator<AddToResultGroupRequest> DATE_AND_SEQNO_COMPARATOR = Comparator
+				.comparing(AddToResultGroupRequest::getDate)
+				.thenComparingInt(AddToResultGroupRequest::getSeqNo);
+
+		Instant loadedAt;
+		ImmutableList<AddToResultGroupRequest> records;
+
+		public int getWeight()
+		{
+			return Math.max(records.size(), 1);
+		}
+
+		/**
+		 * @return for each warehouse, customer and storage attributes key the record with the latest date and seqNo, up to the given query's date; like {@code de_metas_material.retrieve_atp_at_date}.
+		 */
+		public Stream<AddToResultGroupRequest> streamLatestRecords(@NonNull final AvailableToPromiseQuery query)
+		{
+			final Instant date = query.getDate().toInstant();
+
+			final Map<ArrayKey, AddToResultGroupRequest> latestRecordsByKey = new HashMap<>();
+			for (final AddToResultGroupRequest record : records)
+			{
+				if (record.getDate().isAfter(date) || !isMatching(query, record))
+				{
+					continue;
+				}
+
+				latestRecordsByKey.merge(
+						ArrayKey.of(record.getWarehouseId(), record.getBpartner(), record.getStorageAttributesKey()),
+						record,
+						(record1, record2) -> DATE_AND_SEQNO_COMPARATOR.compare(record1, record2) >= 0 ? record1 : record2);
+			}
+			return latestRecordsByKey.values().stream();
+		}
+
+		/**
+		 * Applies the same filters as {@link AvailableToPromiseSqlHelper}, apart from the product and date.
+		 */
+		private static boolean isMatching(@NonNull final AvailableToPromiseQuery query, @NonNull final AddToResultGroupRequest record)
+		{
+			final Set<WarehouseId> warehouseIds = query.getWarehouseIds();
+			if (!warehouseIds.isEmpty() && !warehouseIds.contains(record.getWarehouseId()))
+			{
+				return false;
+			}
+
+			// records without customer have BPartnerClassifier "any"
+			final BPartnerClassifier bpartner = query.getBpartner();
+			if (bpartner.isNone() && !record.getBpartner().isAny())
+			{
+				return false;
+			}
+			if (bpartner.isSpecificBPartner()
+					&& !record.getBpartner().isAny()
+					&& !bpartner.getBpartnerId().equals(record.getBpartner().getBpartnerId()))
+			{
+				return false;
+			}
+
+			final ImmutableList<AttributesKeyPattern> storageAttributesKeyPatterns = query.getStorageAttributesKeyPatterns();
+			if (storageAttributesKeyPatterns.isEmpty()
+					|| storageAttributesKeyPatterns.contains(AttributesKeyPattern.ALL)
+					|| storageAttributesKeyPatterns.contains(AttributesKeyPattern.OTHER))
+			{
+				return true;
+			}
+			return storageAttributesKeyPatterns.stream().anyMatch(pattern -> pattern.matches(record.getStorageAttributesKey()));
+		}
+	}
+}
@@ -1,10 +1,9 @@
 package de.metas.material.dispo.commons.repository.atp;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
 
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.warehouse.WarehouseId;
@@ -53,6 +52,8 @@ public class AvailableToPromiseRepository
 {
 	private static final String SYSCONFIG_ATP_ATTRIBUTES_KEYS = "de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.AttributesKeys";
 
+	private final AvailableToPromiseProjection projection = new AvailableToPromiseProjection();
+
 	@NonNull
 	public BigDecimal retrieveAvailableStockQtySum(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -75,45 +76,56 @@ public class AvailableToPromiseRepository
 				? AvailableToPromiseResultBuilder.createEmptyWithPredefinedBuckets(multiQuery)
 				: AvailableToPromiseResultBuilder.createEmpty();
 
-		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
-		if (dbQuery == null)
+		final ImmutableList<AddToResultGroupRequest> requests = retrieveAddToResultGroupRequests(multiQuery);
+		for (final AddToResultGroupRequest request : requests)
 		{
-			return result.build();
+			if (addToPredefinedBuckets)
+			{
+				result.addQtyToAllMatchingGroups(request);
+			}
+			else
+			{
+				result.addToNewGroupIfFeasible(request);
+			}
 		}
 
-		final Function<I_MD_Candidate_ATP_QueryResult, Boolean> compareByWhetherRecordHasBPartnerId = record -> record.getC_BPartner_Customer_ID() > 0;
+		return result.build();
+	}
 
-		final List<I_MD_Candidate_ATP_QueryResult> atpRecords = dbQuery.list()
+	/**
+	 * @return the ATP records for the given {@code multiQuery}, from the {@link AvailableToPromiseProjection} if possible, from the DB otherwise.
+	 *         Records with dedicated bPartnerId come first, then the latest date and the biggest seqNo.
+	 */
+	private ImmutableList<AddToResultGroupRequest> retrieveAddToResultGroupRequests(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final Collection<AddToResultGroupRequest> recordsFromProjection = projection.isEnabled() ? projection.retrieveRecordsOrNull(multiQuery) : null;
+		final Collection<AddToResultGroupRequest> records = recordsFromProjection != null ? recordsFromProjection : retrieveRecordsFromDB(multiQuery);
+
+		return records
 				.stream()
 				// records with dedicated bPartnerId first
 				// latest date first
 				// biggest seqNo first
 				.sorted(Comparator
-						.comparing(compareByWhetherRecordHasBPartnerId)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getDateProjected)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getSeqNo) // if dateProjected is equal, then SeqNo makes the difference
+						.comparing((AddToResultGroupRequest request) -> request.getBpartner().isSpecificBPartner())
+						.thenComparing(AddToResultGroupRequest::getDate)
+						.thenComparing(AddToResultGroupRequest::getSeqNo) // if dateProjected is equal, then SeqNo makes the difference
 						.reversed())
 				.collect(ImmutableList.toImmutableList());
+	}
 
-		// note: this is a dedicated step in order to ease debugging (i.e. have a chance to take a look at the atpRecords)
-		final ImmutableList<AddToResultGroupRequest> requests = atpRecords
-				.stream()
-				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
-				.collect(ImmutableList.toImmutableList());
-
-		for (final AddToResultGroupRequest request : requests)
+	private ImmutableList<AddToResultGroupRequest> retrieveRecordsFromDB(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
+		if (dbQuery == null)
 		{
-			if (addToPredefinedBuckets)
-			{
-				result.addQtyToAllMatchingGroups(request);
-			}
-			else
-			{
-				result.addToNewGroupIfFeasible(request);
-			}
+			return ImmutableList.of();
 		}
 
-		return result.build();
+		return dbQuery.list()
+				.stream()
+				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
+				.collect(ImmutableList.toImmutableList());
 	}
 
 	public AvailableToPromiseResult retrieveAvailableStock(@NonNull AvailableToPromiseQuery query)
@@ -24,6 +24,7 @@ import java.util.List;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.util.TimeUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -40,6 +41,7 @@ import de.metas.material.dispo.commons.candidate.businesscase.DistributionDetail
 import de.metas.material.dispo.commons.candidate.businesscase.Flag;
 import de.metas.material.dispo.commons.candidate.businesscase.ProductionDetail;
 import de.metas.material.dispo.commons.repository.query.CandidatesQuery;
+import de.metas.material.dispo.commons.repository.query.MaterialDescriptorQuery;
 import de.metas.material.dispo.model.I_MD_Candidate;
 import de.metas.material.dispo.model.I_MD_Candidate_Demand_Detail;
 import de.metas.material.dispo.model.I_MD_Candidate_Dist_Detail;
@@ -48,6 +50,7 @@ import de.metas.material.dispo.model.I_MD_Candidate_Transaction_Detail;
 import de.metas.material.dispo.model.X_MD_Candidate;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.material.event.commons.MaterialDescriptor;
+import de.metas.material.event.pporder.MaterialDispoGroupId;
 import de.metas.organization.ClientAndOrgId;
 import de.metas.product.ResourceId;
 import de.metas.util.Services;
@@ -427,4 +430,47 @@ public class CandidateRepositoryWriteServiceTests
 		assertThat(transactionDetailRecord.getMovementQty()).isEqualByComparingTo("1");
 		assertThat(transactionDetailRecord.getM_Transaction_ID()).isEqualTo(33);
 	}
+
+	@Test
+	public void addToQtyAndSetGroupId()
+	{
+		final I_MD_Candidate stockRecord1 = createStockRecord(PRODUCT_ID, "5");
+		final I_MD_Candidate stockRecord2 = createStockRecord(PRODUCT_ID, "-3");
+		final I_MD_Candidate otherProductStockRecord = createStockRecord(PRODUCT_ID + 1, "5");
+
+		final CandidatesQuery query = CandidatesQuery.builder()
+				.type(CandidateType.STOCK)
+				.materialDescriptorQuery(MaterialDescriptorQuery.builder().productId(PRODUCT_ID).build())
+				.build();
+
+		final int updatedCount = candidateRepositoryWriteService.addToQtyAndSetGroupId(query, new BigDecimal("4"), MaterialDispoGroupId.ofInt(77));
+		assertThat(updatedCount).isEqualTo(2);
+
+		final I_MD_Candidate stockRecord1Reloaded = load(stockRecord1.getMD_Candidate_ID(), I_MD_Candidate.class);
+		assertThat(stockRecord1Reloaded.getQty()).isEqualByComparingTo("9");
+		assertThat(stockRecord1Reloaded.getMD_Candidate_GroupId()).isEqualTo(77);
+		assertThat(stockRecord1Reloaded.getMD_Candidate_Status()).isEqualTo(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+
+		final I_MD_Candidate stockRecord2Reloaded = load(stockRecord2.getMD_Candidate_ID(), I_MD_Candidate.class);
+		assertThat(stockRecord2Reloaded.getQty()).isEqualByComparingTo("1");
+		assertThat(stockRecord2Reloaded.getMD_Candidate_GroupId()).isEqualTo(77);
+		assertThat(stockRecord2Reloaded.getMD_Candidate_Status()).isEqualTo(X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+
+		final I_MD_Candidate otherProductStockRecordReloaded = load(otherProductStockRecord.getMD_Candidate_ID(), I_MD_Candidate.class);
+		assertThat(otherProductStockRecordReloaded.getQty()).isEqualByComparingTo("5");
+		assertThat(otherProductStockRecordReloaded.getMD_Candidate_GroupId()).isEqualTo(0);
+	}
+
+	private I_MD_Candidate createStockRecord(final int productId, final String qty)
+	{
+		final I_MD_Candidate record = newInstance(I_MD_Candidate.class);
+		record.setMD_Candidate_Type(X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK);
+		record.setM_Product_ID(productId);
+		record.setQty(new BigDecimal(qty));
+		record.setQtyFulfilled(ZERO);
+		record.setMD_Candidate_Status(new BigDecimal(qty).signum() <= 0 ? X_MD_Candidate.MD_CANDIDATE_STATUS_Processed : X_MD_Candidate.MD_CANDIDATE_STATUS_Planned);
+		record.setDateProjected(TimeUtil.asTimestamp(NOW));
+		save(record);
+		return record;
+	}
 }
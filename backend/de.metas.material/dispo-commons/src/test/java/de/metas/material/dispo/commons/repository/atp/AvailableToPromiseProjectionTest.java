@@ -0,0 +1,149 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import static de.metas.material.event.EventTestHelper.PRODUCT_ID;
+import static de.metas.material.event.EventTestHelper.WAREHOUSE_ID;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.material.commons.attributes.AttributesKeyPatterns;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import de.metas.util.time.SystemTime;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@ExtendWith(AdempiereTestWatcher.class)
+public class AvailableToPromiseProjectionTest
+{
+	private static final AttributesKey STORAGE_ATTRIBUTES_KEY = AttributesKey.ofAttributeValueIds(1, 2);
+
+	private AvailableToPromiseRepository availableToPromiseRepository;
+	private Instant now;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		Services.get(ISysConfigBL.class).setValue(AvailableToPromiseProjection.SYSCONFIG_Enabled, true, ClientId.SYSTEM, OrgId.ANY);
+
+		availableToPromiseRepository = new AvailableToPromiseRepository();
+		now = SystemTime.asInstant();
+	}
+
+	/**
+	 * In unit test mode, the DB query only returns the hand-crafted {@link I_MD_Candidate_ATP_QueryResult}s,
+	 * so a qty that comes from a later stock candidate shows that the ATP was computed from memory.
+	 */
+	@Test
+	public void retrieveAvailableStock_from_projection()
+	{
+		createATPRecord(now.minus(10, ChronoUnit.MINUTES), "10", 1);
+		createStockCandidate(now.plus(10, ChronoUnit.MINUTES), "15", 2);
+
+		assertThat(retrieveQtySum(now.plus(5, ChronoUnit.MINUTES))).isEqualByComparingTo("10");
+		assertThat(retrieveQtySum(now.plus(15, ChronoUnit.MINUTES))).isEqualByComparingTo("15");
+	}
+
+	@Test
+	public void retrieveAvailableStock_before_projection_was_loaded()
+	{
+		createATPRecord(now.minus(10, ChronoUnit.MINUTES), "10", 1);
+		createStockCandidate(now.plus(10, ChronoUnit.MINUTES), "15", 2);
+		retrieveQtySum(now.plus(15, ChronoUnit.MINUTES)); // load the projection
+
+		// goes to the DB, where the stock candidate is not visible
+		assertThat(retrieveQtySum(now.minus(5, ChronoUnit.MINUTES))).isEqualByComparingTo("10");
+	}
+
+	@Test
+	public void retrieveAvailableStock_after_invalidation()
+	{
+		createATPRecord(now.minus(10, ChronoUnit.MINUTES), "10", 1);
+		createStockCandidate(now.plus(10, ChronoUnit.MINUTES), "15", 2);
+		assertThat(retrieveQtySum(now.plus(15, ChronoUnit.MINUTES))).isEqualByComparingTo("15");
+
+		createStockCandidate(now.plus(12, ChronoUnit.MINUTES), "20", 3);
+		assertThat(retrieveQtySum(now.plus(15, ChronoUnit.MINUTES))).as("not yet invalidated").isEqualByComparingTo("15");
+
+		AvailableToPromiseProjection.invalidateProductsAfterCommit(ImmutableSet.of(PRODUCT_ID)); // there is no trx, so it's invalidated right away
+		assertThat(retrieveQtySum(now.plus(15, ChronoUnit.MINUTES))).isEqualByComparingTo("20");
+	}
+
+	private BigDecimal retrieveQtySum(final Instant date)
+	{
+		final AvailableToPromiseQuery query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.warehouseId(WAREHOUSE_ID)
+				.storageAttributesKeyPattern(AttributesKeyPatterns.ofAttributeKey(STORAGE_ATTRIBUTES_KEY))
+				.date(date.atZone(ZoneId.systemDefault()))
+				.build();
+		return availableToPromiseRepository.retrieveAvailableStockQtySum(query);
+	}
+
+	private void createATPRecord(final Instant dateProjected, final String qty, final int seqNo)
+	{
+		final I_MD_Candidate_ATP_QueryResult viewRecord = newInstance(I_MD_Candidate_ATP_QueryResult.class);
+		viewRecord.setM_Product_ID(PRODUCT_ID);
+		viewRecord.setM_Warehouse_ID(WAREHOUSE_ID.getRepoId());
+		viewRecord.setDateProjected(TimeUtil.asTimestamp(dateProjected));
+		viewRecord.setStorageAttributesKey(STORAGE_ATTRIBUTES_KEY.getAsString());
+		viewRecord.setQty(new BigDecimal(qty));
+		viewRecord.setSeqNo(seqNo);
+		save(viewRecord);
+	}
+
+	private void createStockCandidate(final Instant dateProjected, final String qty, final int seqNo)
+	{
+		final I_MD_Candidate candidateRecord = newInstance(I_MD_Candidate.class);
+		candidateRecord.setMD_Candidate_Type(X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK);
+		candidateRecord.setM_Product_ID(PRODUCT_ID);
+		candidateRecord.setM_Warehouse_ID(WAREHOUSE_ID.getRepoId());
+		candidateRecord.setDateProjected(TimeUtil.asTimestamp(dateProjected));
+		candidateRecord.setStorageAttributesKey(STORAGE_ATTRIBUTES_KEY.getAsString());
+		candidateRecord.setQty(new BigDecimal(qty));
+		candidateRecord.setSeqNo(seqNo);
+		candidateRecord.setIsActive(true);
+		save(candidateRecord);
+	}
+}
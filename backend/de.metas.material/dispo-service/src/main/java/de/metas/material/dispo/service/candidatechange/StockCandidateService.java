@@ -5,7 +5,6 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.List;
 
 import org.compiere.util.TimeUtil;
 import org.springframework.context.annotation.Profile;
@@ -164,7 +163,9 @@ public class StockCandidateService
 
 	/**
 	 * Selects all stock candidates which have the same product and locator but a later timestamp than the one from the given {@code materialDescriptor}.
-	 * Iterate them and add the given {@code delta} to their quantity.
+	 * Adds the given {@code delta} to their quantity.
+	 * <p>
+	 * The candidates are updated with set-based SQL updates (one for the range and one for the records after the range), so the time needed does not depend on the number of later stock candidates.
 	 * <p>
 	 *
 	 * @param materialDescriptor the product to match against
@@ -197,15 +198,9 @@ public class StockCandidateService
 			deltaAfterRangeEnd = null;
 		}
 
-		final List<Candidate> candidatesToUpdateWithinRange = candidateRepositoryRetrieval.retrieveOrderedByDateAndSeqNo(query);
-		for (final Candidate candidate : candidatesToUpdateWithinRange)
-		{
-			final BigDecimal newQty = candidate.getQuantity().add(deltaUntilRangeEnd);
+		final MaterialDispoGroupId groupId = stockWithDelta.getCandidate().getGroupId();
 
-			candidateRepositoryWriteService.updateCandidateById(candidate
-					.withQuantity(newQty)
-					.withGroupId(stockWithDelta.getCandidate().getGroupId()));
-		}
+		candidateRepositoryWriteService.addToQtyAndSetGroupId(query, deltaUntilRangeEnd, groupId);
 		if (deltaAfterRangeEnd == null || deltaAfterRangeEnd.signum() == 0)
 		{
 			return; // we are done
@@ -217,15 +212,7 @@ public class StockCandidateService
 				.timeRangeEnd(null)
 				.build();
 		final CandidatesQuery queryAfterRange = query.withMaterialDescriptorQuery(materialDescriptToQueryAfterRange);
-		final List<Candidate> candidatesToUpdateAfterRange = candidateRepositoryRetrieval.retrieveOrderedByDateAndSeqNo(queryAfterRange);
-		for (final Candidate candidate : candidatesToUpdateAfterRange)
-		{
-			final BigDecimal newQty = candidate.getQuantity().add(deltaAfterRangeEnd);
-
-			candidateRepositoryWriteService.updateCandidateById(candidate
-					.withQuantity(newQty)
-					.withGroupId(stockWithDelta.getCandidate().getGroupId()));
-		}
+		candidateRepositoryWriteService.addToQtyAndSetGroupId(queryAfterRange, deltaAfterRangeEnd, groupId);
 	}
 
 	private CandidatesQuery createStockQueryUntilDate(
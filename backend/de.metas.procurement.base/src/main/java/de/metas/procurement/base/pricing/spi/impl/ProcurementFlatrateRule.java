@@ -13,6 +13,7 @@ import de.metas.procurement.base.IPMMPricingAware;
 import de.metas.procurement.base.IPMMPricingBL;
 import de.metas.procurement.base.order.impl.PMMPricingAware_C_OrderLine;
 import de.metas.util.Services;
+import lombok.Value;
 
 /*
  * #%L
@@ -41,7 +42,19 @@ public class ProcurementFlatrateRule implements IPricingRule
 
 	private final transient Logger logger = LogManager.getLogger(getClass());
 
-	private ThreadLocal<PMMPricingAware_C_OrderLine> pricingAwareFromApplies = new ThreadLocal<>();
+	/**
+	 * The pricing aware which was computed by {@link #applies(IPricingContext, IPricingResult)}, together with the context it was computed for.
+	 * This rule instance is shared by all contexts of a {@link de.metas.pricing.service.IPricingBL#calculatePrices(java.util.List)} batch,
+	 * so {@link #calculate(IPricingContext, IPricingResult)} makes sure it's not picking the pricing aware of another context.
+	 */
+	private final ThreadLocal<PricingAwareAndContext> pricingAwareFromApplies = new ThreadLocal<>();
+
+	@Value
+	private static class PricingAwareAndContext
+	{
+		IPricingContext pricingCtx;
+		PMMPricingAware_C_OrderLine pricingAware;
+	}
 
 	/**
 	 * Returns {@code true} if the referenced oblect of the given {@code pricingCtx} is a purchase order line whose {@link PMMPricingAware_C_OrderLine} has a flatrate term.
@@ -91,7 +104,11 @@ public class ProcurementFlatrateRule implements IPricingRule
 		final boolean appliesResult = Services.get(IPMMPricingBL.class).updatePriceFromContract(pricingAware);
 		if (appliesResult)
 		{
-			pricingAwareFromApplies.set(pricingAware);
+			pricingAwareFromApplies.set(new PricingAwareAndContext(pricingCtx, pricingAware));
+		}
+		else
+		{
+			pricingAwareFromApplies.remove();
 		}
 		return appliesResult;
 	}
@@ -99,11 +116,13 @@ public class ProcurementFlatrateRule implements IPricingRule
 	@Override
 	public void calculate(final IPricingContext pricingCtx, final IPricingResult result)
 	{
+		final PricingAwareAndContext fromApplies = pricingAwareFromApplies.get();
+		pricingAwareFromApplies.remove(); // remove it now to avoid stale references.
+
 		final PMMPricingAware_C_OrderLine pricingAware;
-		if (pricingAwareFromApplies.get() != null)
+		if (fromApplies != null && fromApplies.getPricingCtx() == pricingCtx)
 		{
-			pricingAware = pricingAwareFromApplies.get();
-			pricingAwareFromApplies.set(null); // set it to null now to avoid stale references.
+			pricingAware = fromApplies.getPricingAware();
 		}
 		else
 		{
@@ -2,30 +2,54 @@ package de.metas.ordercandidate.api;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.model.I_AD_Note;
 import org.compiere.util.ArrayKeyBuilder;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ListMultimap;
 
 import ch.qos.logback.classic.Level;
+import de.metas.i18n.AdMessageId;
+import de.metas.i18n.AdMessageKey;
+import de.metas.i18n.IADMessageDAO;
 import de.metas.impex.InputDataSourceId;
 import de.metas.impex.api.IInputDataSourceDAO;
 import de.metas.logging.LogManager;
 import de.metas.ordercandidate.OrderCandidate_Constants;
 import de.metas.ordercandidate.api.OLCandAggregationColumn.Granularity;
+import de.metas.ordercandidate.model.I_C_OLCand;
 import de.metas.ordercandidate.spi.IOLCandGroupingProvider;
 import de.metas.ordercandidate.spi.IOLCandListener;
 import de.metas.user.UserId;
@@ -65,8 +89,13 @@ import lombok.NonNull;
 public class OLCandsProcessorExecutor
 {
 	private static final Logger logger = LogManager.getLogger(OLCandsProcessorExecutor.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 	private final ILoggable loggable;
 
+	@VisibleForTesting
+	static final String SYSCONFIG_ParallelWorkers = "de.metas.ordercandidate.api.OLCandsProcessorExecutor.ParallelWorkers";
+	private static final int DEFAULT_ParallelWorkers = 1;
+
 	private final IOLCandListener olCandListeners;
 	private final IOLCandGroupingProvider groupingValuesProviders;
 
@@ -78,13 +107,18 @@ public class OLCandsProcessorExecutor
 	private final LocalDate defaultDateDoc = SystemTime.asLocalDate();
 
 	private final OLCandSource candidatesSource;
+	private final OrderCreator orderCreator;
 
+	/**
+	 * @param orderCreator only to be set by tests; by default, the orders are created by {@link OLCandOrderFactory}
+	 */
 	@Builder
 	private OLCandsProcessorExecutor(
 			@NonNull final OLCandProcessorDescriptor processorDescriptor,
 			@NonNull final IOLCandListener olCandListeners,
 			@NonNull final IOLCandGroupingProvider groupingValuesProviders,
-			@NonNull final OLCandSource candidatesSource)
+			@NonNull final OLCandSource candidatesSource,
+			@Nullable final OrderCreator orderCreator)
 	{
 		this.orderDefaults = processorDescriptor.getDefaults();
 		this.olCandListeners = olCandListeners;
@@ -99,6 +133,7 @@ public class OLCandsProcessorExecutor
 		this.processorDataDestinationId = inputDataSourceDAO.retrieveInputDataSourceIdByInternalName(OrderCandidate_Constants.DATA_DESTINATION_INTERNAL_NAME);
 
 		this.candidatesSource = candidatesSource;
+		this.orderCreator = orderCreator != null ? orderCreator : this::createOrderUsingFactory;
 	}
 
 	public void process()
@@ -116,6 +151,27 @@ public class OLCandsProcessorExecutor
 				.collect(ImmutableList.toImmutableList());
 		loggable.addLog("Processing {} order line candidates", candidates.size());
 
+		final List<OrderGroup> orderGroups = createOrderGroups(candidates);
+
+		final int workers = getParallelWorkers();
+		if (workers > 1 && orderGroups.size() > 1)
+		{
+			createOrdersInParallel(orderGroups, workers);
+		}
+		else
+		{
+			orderGroups.forEach(orderGroup -> createOrder(orderGroup, loggable));
+		}
+	}
+
+	/**
+	 * Splits the given candidates into the groups which end up in the same order, and within each group into the candidates which end up in the same order line.
+	 * <p>
+	 * The candidates are expected to be ordered by {@link OLCandAggregation#getOrderingComparator()}.
+	 */
+	@VisibleForTesting
+	List<OrderGroup> createOrderGroups(@NonNull final List<OLCand> candidates)
+	{
 		//
 		// Compute a grouping key for each candidate and group them according to their key
 		final Map<Integer, ArrayKey> toProcess = new HashMap<>();
@@ -135,10 +191,11 @@ public class OLCandsProcessorExecutor
 			grouping.put(groupingKey, candidate);
 		}
 
-		// 'processedIds' contains the candidates that have already been processed
+		// 'processedIds' contains the candidates that have already been assigned to an order
 		final Set<Integer> processedIds = new HashSet<>();
 
-		OLCandOrderFactory currentOrder = null;
+		final List<OrderGroup> orderGroups = new ArrayList<>();
+		OrderGroup currentOrderGroup = null;
 
 		// This variable is used to decide if the current candidate differs from the previous one in a way that requires a new order.
 		OLCand previousCandidate = null;
@@ -152,39 +209,203 @@ public class OLCandsProcessorExecutor
 			}
 
 			// Each group shall go to a separate order line
-			if (currentOrder != null)
+			if (currentOrderGroup != null)
 			{
-				currentOrder.closeCurrentOrderLine();
+				currentOrderGroup.closeCurrentLine();
 			}
 
 			// get the group of the current unprocessed candidate
 			final ArrayKey groupingKey = toProcess.get(olCandId);
 			for (final OLCand candOfGroup : grouping.get(groupingKey))
 			{
-				if (currentOrder != null && isOrderSplit(candOfGroup, previousCandidate))
+				if (currentOrderGroup == null || isOrderSplit(candOfGroup, previousCandidate))
 				{
-					currentOrder.completeOrDelete();
-					currentOrder = null;
-				}
-				if (currentOrder == null)
-				{
-					currentOrder = newOrderFactory();
+					currentOrderGroup = new OrderGroup();
+					orderGroups.add(currentOrderGroup);
 				}
 
-				currentOrder.addOLCand(candOfGroup);
+				currentOrderGroup.add(candOfGroup);
 
 				Check.assume(processedIds.add(candOfGroup.getId()), candOfGroup + " of grouping " + grouping + " is not processed twice");
 				previousCandidate = candOfGroup;
 			}
 		}
 
-		if (currentOrder != null)
+		Check.assume(processedIds.size() == candidates.size(), "All candidates have been processed");
+		return orderGroups;
+	}
+
+	/**
+	 * Creates the orders of the given groups on a pool of {@code workers} threads. Each order is created in its own transaction.
+	 * <p>
+	 * NOTE: the document numbers are assigned in the order in which the orders are created, so they are not necessarily in the order of the candidates;
+	 * however, the lines of one order are always created one after the other.
+	 * <p>
+	 * Each order is created with its own copy of our context, so the workers don't interfere with each other (or with us) when changing it.
+	 */
+	private void createOrdersInParallel(
+			@NonNull final List<OrderGroup> orderGroups,
+			final int workers)
+	{
+		final Properties ctx = Env.getCtx();
+		final ILoggable workersLoggable = new SynchronizedLoggable(loggable);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				workers,
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(OLCandsProcessorExecutor.class.getSimpleName())
+						.setDaemon(true)
+						.build());
+		try
 		{
-			currentOrder.completeOrDelete();
-			currentOrder = null;
+			final List<Future<?>> futures = new ArrayList<>(orderGroups.size());
+			for (final OrderGroup orderGroup : orderGroups)
+			{
+				futures.add(executor.submit(() -> {
+					try (final IAutoCloseable ctxCloseable = Env.switchContext(Env.copyCtx(ctx));
+							final IAutoCloseable loggableCloseable = Loggables.temporarySetLoggable(workersLoggable))
+					{
+						createOrder(orderGroup, workersLoggable);
+					}
+				}));
+			}
+
+			waitForAll(futures);
+		}
+		finally
+		{
+			executor.shutdownNow();
 		}
+	}
 
-		Check.assume(processedIds.size() == candidates.size(), "All candidates have been processed");
+	private static void waitForAll(@NonNull final List<Future<?>> futures)
+	{
+		for (final Future<?> future : futures)
+		{
+			try
+			{
+				future.get();
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+			catch (final ExecutionException ex)
+			{
+				// createOrder() is not supposed to throw, so this is really unexpected
+				throw AdempiereException.wrapIfNeeded(ex.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Creates and completes the order of the given group in the thread-inherited transaction.
+	 * If there is no such transaction, a new one is created. Otherwise a savepoint is used, so a failing group does not roll back the other groups.
+	 * <p>
+	 * Errors don't stop the processing of the other groups. The candidates of a failed group are flagged as erroneous, see {@link #markAsError(OrderGroup, Exception)}.
+	 */
+	private void createOrder(
+			@NonNull final OrderGroup orderGroup,
+			@NonNull final ILoggable loggable)
+	{
+		try
+		{
+			trxManager.runInThreadInheritedTrx(() -> {
+				orderGroup.streamCandidates()
+						.map(OLCand::unbox)
+						.forEach(InterfaceWrapperHelper::setThreadInheritedTrxName);
+
+				orderCreator.createOrder(orderGroup, loggable);
+			});
+		}
+		catch (final Exception ex)
+		{
+			final String olCandIds = orderGroup.getOLCandIdsAsString();
+			loggable.addLog("Failed creating the order for C_OLCand_IDs={}: {}", olCandIds, ex.getLocalizedMessage());
+			logger.warn("Failed creating the order for C_OLCand_IDs={}", olCandIds, ex);
+
+			markAsError(orderGroup, ex);
+		}
+	}
+
+	private void createOrderUsingFactory(
+			@NonNull final OrderGroup orderGroup,
+			@NonNull final ILoggable loggable)
+	{
+		final OLCandOrderFactory orderFactory = newOrderFactory(loggable);
+		for (final List<OLCand> line : orderGroup.getLines())
+		{
+			// Each line group shall go to a separate order line
+			orderFactory.closeCurrentOrderLine();
+			line.forEach(orderFactory::addOLCand);
+		}
+		orderFactory.completeOrDelete();
+	}
+
+	/**
+	 * Flags the candidates of a group whose order could not be created and notifies the user in charge, like {@link OLCandOrderFactory} does when a single candidate fails.
+	 * <p>
+	 * This is done in a new transaction, because the order's transaction (or savepoint) was rolled back.
+	 * Erroneous candidates are not processed again until the error is resolved.
+	 */
+	private void markAsError(
+			@NonNull final OrderGroup orderGroup,
+			@NonNull final Exception ex)
+	{
+		final String errorMsg = AdempiereException.extractMessage(ex);
+		try
+		{
+			trxManager.runInNewTrx(() -> {
+				final I_AD_Note note = InterfaceWrapperHelper.newInstance(I_AD_Note.class);
+				note.setAD_Message_ID(Services.get(IADMessageDAO.class)
+						.retrieveIdByValue(AdMessageKey.of(IOLCandBL.MSG_OL_CAND_PROCESSOR_PROCESSING_ERROR_0P))
+						.map(AdMessageId::getRepoId)
+						.orElse(0));
+				note.setAD_User_ID(userInChargeId.getRepoId());
+				note.setReference(errorMsg);
+				note.setTextMsg("C_OLCand_IDs: " + orderGroup.getOLCandIdsAsString());
+				InterfaceWrapperHelper.save(note);
+
+				final List<I_C_OLCand> olCandRecords = Services.get(IQueryBL.class)
+						.createQueryBuilder(I_C_OLCand.class)
+						.addInArrayFilter(I_C_OLCand.COLUMNNAME_C_OLCand_ID, orderGroup.getOLCandIds())
+						.create()
+						.list();
+				for (final I_C_OLCand olCandRecord : olCandRecords)
+				{
+					olCandRecord.setIsError(true);
+					olCandRecord.setErrorMsg(errorMsg);
+					olCandRecord.setAD_Note_ID(note.getAD_Note_ID());
+					InterfaceWrapperHelper.save(olCandRecord);
+				}
+			});
+		}
+		catch (final Exception markAsErrorEx)
+		{
+			logger.warn("Failed flagging C_OLCand_IDs={} as erroneous", orderGroup.getOLCandIdsAsString(), markAsErrorEx);
+		}
+	}
+
+	/**
+	 * @return how many threads shall be used to create the orders; 1 if they shall not be created in parallel
+	 */
+	private int getParallelWorkers()
+	{
+		final int workers = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_ParallelWorkers, DEFAULT_ParallelWorkers);
+		if (workers <= 1)
+		{
+			return 1;
+		}
+
+		// each worker is managing its own transactions, so we can't run in parallel if the orders shall be created in our caller's transaction
+		if (!trxManager.isNull(trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone)))
+		{
+			logger.debug("Not creating the orders in parallel because we are running in a transaction");
+			return 1;
+		}
+
+		return workers;
 	}
 
 	private OLCand prepareOLCandBeforeProcessing(final OLCand candidate)
@@ -197,7 +418,7 @@ public class OLCandsProcessorExecutor
 		return candidate;
 	}
 
-	private OLCandOrderFactory newOrderFactory()
+	private OLCandOrderFactory newOrderFactory(@NonNull final ILoggable loggable)
 	{
 		return OLCandOrderFactory.builder()
 				.orderDefaults(orderDefaults)
@@ -342,4 +563,90 @@ public class OLCandsProcessorExecutor
 
 		return true;
 	}
+
+	/**
+	 * Creates and completes the order of one {@link OrderGroup}, within the transaction that was set up for it.
+	 */
+	@FunctionalInterface
+	@VisibleForTesting
+	interface OrderCreator
+	{
+		void createOrder(OrderGroup orderGroup, ILoggable loggable);
+	}
+
+	/**
+	 * The candidates of one order, grouped by the order line they end up in.
+	 */
+	@VisibleForTesting
+	static final class OrderGroup
+	{
+		private final List<List<OLCand>> lines = new ArrayList<>();
+		private List<OLCand> currentLine = null;
+
+		public void add(@NonNull final OLCand candidate)
+		{
+			if (currentLine == null)
+			{
+				currentLine = new ArrayList<>();
+				lines.add(currentLine);
+			}
+			currentLine.add(candidate);
+		}
+
+		public void closeCurrentLine()
+		{
+			currentLine = null;
+		}
+
+		public List<List<OLCand>> getLines()
+		{
+			return lines;
+		}
+
+		public Stream<OLCand> streamCandidates()
+		{
+			return lines.stream().flatMap(List::stream);
+		}
+
+		public List<Integer> getOLCandIds()
+		{
+			return streamCandidates()
+					.map(OLCand::getId)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		public String getOLCandIdsAsString()
+		{
+			return getOLCandIds()
+					.stream()
+					.map(String::valueOf)
+					.collect(Collectors.joining(", "));
+		}
+	}
+
+	/**
+	 * Allows the worker threads to log to our (not necessarily thread-safe) loggable.
+	 */
+	private static final class SynchronizedLoggable implements ILoggable
+	{
+		private final ILoggable delegate;
+
+		private SynchronizedLoggable(@NonNull final ILoggable delegate)
+		{
+			this.delegate = delegate;
+		}
+
+		@Override
+		public synchronized ILoggable addLog(final String msg, final Object... msgParameters)
+		{
+			delegate.addLog(msg, msgParameters);
+			return this;
+		}
+
+		@Override
+		public synchronized void flush()
+		{
+			delegate.flush();
+		}
+	}
 }
@@ -0,0 +1,216 @@
+package de.metas.ordercandidate.api;
+
+import static org.adempiere.model.InterfaceWrapperHelper.load;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_AD_Note;
+import org.compiere.model.I_C_UOM;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.impex.model.I_AD_InputDataSource;
+import de.metas.ordercandidate.OrderCandidate_Constants;
+import de.metas.ordercandidate.api.OLCandsProcessorExecutor.OrderCreator;
+import de.metas.ordercandidate.api.OLCandsProcessorExecutor.OrderGroup;
+import de.metas.ordercandidate.model.I_C_OLCand;
+import de.metas.organization.OrgId;
+import de.metas.user.UserId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.salescandidate.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class OLCandsProcessorExecutorTest
+{
+	private static final String CTX_KEY_OrderGroup = "#OLCandsProcessorExecutorTest_OrderGroup";
+
+	private I_AD_InputDataSource dataDestination;
+	private I_C_UOM uom;
+	private OLCandAggregation aggregation;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		dataDestination = newInstance(I_AD_InputDataSource.class);
+		dataDestination.setInternalName(OrderCandidate_Constants.DATA_DESTINATION_INTERNAL_NAME);
+		dataDestination.setIsActive(true);
+		saveRecord(dataDestination);
+
+		uom = newInstance(I_C_UOM.class);
+		saveRecord(uom);
+
+		// different bill partners go to different orders; the order lines are grouped by pricing system and product (see newExecutor())
+		aggregation = OLCandAggregation.of(ImmutableList.of(
+				OLCandAggregationColumn.builder()
+						.columnName(I_C_OLCand.COLUMNNAME_Bill_BPartner_ID)
+						.adColumnId(1)
+						.splitOrderDiscriminator(true)
+						.build(),
+				OLCandAggregationColumn.builder()
+						.columnName(I_C_OLCand.COLUMNNAME_M_PricingSystem_ID)
+						.adColumnId(2)
+						.groupByColumn(true)
+						.build()));
+	}
+
+	private OLCand createOLCand(final int bpartnerRepoId, final int productRepoId)
+	{
+		final I_C_OLCand record = newInstance(I_C_OLCand.class);
+		record.setAD_DataDestination_ID(dataDestination.getAD_InputDataSource_ID());
+		record.setC_BPartner_ID(bpartnerRepoId);
+		record.setC_BPartner_Location_ID(bpartnerRepoId * 10);
+		record.setM_Product_ID(productRepoId);
+		record.setC_UOM_ID(uom.getC_UOM_ID());
+		record.setQtyEntered(BigDecimal.ONE);
+		saveRecord(record);
+
+		return new OLCandFactory().toOLCand(record);
+	}
+
+	private OLCandsProcessorExecutor newExecutor(
+			final List<OLCand> candidates,
+			final OrderCreator orderCreator)
+	{
+		final OLCandProcessorDescriptor processorDescriptor = OLCandProcessorDescriptor.builder()
+				.id(1)
+				.defaults(OLCandOrderDefaults.builder().build())
+				.aggregationInfo(aggregation)
+				.userInChangeId(UserId.ofRepoId(1234))
+				.build();
+
+		return OLCandsProcessorExecutor.builder()
+				.processorDescriptor(processorDescriptor)
+				.olCandListeners((olCand, orderLine) -> {})
+				.groupingValuesProviders(olCand -> ImmutableList.of(olCand.unbox().getM_Product_ID()))
+				.candidatesSource(candidates::stream)
+				.orderCreator(orderCreator)
+				.build();
+	}
+
+	private static List<List<Integer>> toOLCandIds(final OrderGroup orderGroup)
+	{
+		return orderGroup.getLines()
+				.stream()
+				.map(line -> line.stream().map(OLCand::getId).collect(ImmutableList.toImmutableList()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	public void createOrderGroups()
+	{
+		final OLCand olCand1 = createOLCand(1, 100);
+		final OLCand olCand2 = createOLCand(1, 200);
+		final OLCand olCand3 = createOLCand(1, 100);
+		final OLCand olCand4 = createOLCand(2, 100);
+		final List<OLCand> candidates = ImmutableList.of(olCand1, olCand2, olCand3, olCand4);
+
+		final List<OrderGroup> orderGroups = newExecutor(candidates, (orderGroup, loggable) -> {}).createOrderGroups(candidates);
+
+		assertThat(orderGroups).hasSize(2);
+		assertThat(toOLCandIds(orderGroups.get(0))).containsExactly(
+				ImmutableList.of(olCand1.getId(), olCand3.getId()),
+				ImmutableList.of(olCand2.getId()));
+		assertThat(toOLCandIds(orderGroups.get(1))).containsExactly(
+				ImmutableList.of(olCand4.getId()));
+	}
+
+	@Test
+	public void process_failingOrderGroupDoesNotStopTheOthers()
+	{
+		final OLCand olCand1 = createOLCand(1, 100);
+		final OLCand olCand2 = createOLCand(2, 100);
+		final OLCand olCand3 = createOLCand(3, 100);
+
+		final List<List<Integer>> createdOrders = new CopyOnWriteArrayList<>();
+		newExecutor(ImmutableList.of(olCand1, olCand2, olCand3), (orderGroup, loggable) -> {
+			if (orderGroup.getOLCandIds().contains(olCand2.getId()))
+			{
+				throw new RuntimeException("failing on purpose");
+			}
+			createdOrders.add(orderGroup.getOLCandIds());
+		}).process();
+
+		assertThat(createdOrders).containsExactly(
+				ImmutableList.of(olCand1.getId()),
+				ImmutableList.of(olCand3.getId()));
+
+		final I_C_OLCand failedRecord = load(olCand2.getId(), I_C_OLCand.class);
+		assertThat(failedRecord.isError()).isTrue();
+		assertThat(failedRecord.getErrorMsg()).contains("failing on purpose");
+		assertThat(failedRecord.getAD_Note_ID()).isGreaterThan(0);
+
+		final I_AD_Note note = load(failedRecord.getAD_Note_ID(), I_AD_Note.class);
+		assertThat(note.getAD_User_ID()).isEqualTo(1234);
+		assertThat(note.getTextMsg()).contains(String.valueOf(olCand2.getId()));
+
+		assertThat(load(olCand1.getId(), I_C_OLCand.class).isError()).isFalse();
+		assertThat(load(olCand3.getId(), I_C_OLCand.class).isError()).isFalse();
+	}
+
+	@Test
+	public void process_inParallel()
+	{
+		Services.get(ISysConfigBL.class).setValue(OLCandsProcessorExecutor.SYSCONFIG_ParallelWorkers, 3, ClientId.SYSTEM, OrgId.ANY);
+
+		final List<OLCand> candidates = ImmutableList.of(
+				createOLCand(1, 100),
+				createOLCand(1, 200),
+				createOLCand(2, 100),
+				createOLCand(3, 100),
+				createOLCand(4, 100));
+
+		final Map<List<Integer>, String> orderGroup2threadName = new ConcurrentHashMap<>();
+		final List<String> previousCtxValues = new CopyOnWriteArrayList<>();
+		newExecutor(candidates, (orderGroup, loggable) -> {
+			// each worker has its own context, so this shall neither affect the other workers nor us
+			previousCtxValues.add(Env.getContext(Env.getCtx(), CTX_KEY_OrderGroup));
+			Env.setContext(Env.getCtx(), CTX_KEY_OrderGroup, orderGroup.getOLCandIdsAsString());
+
+			orderGroup2threadName.put(orderGroup.getOLCandIds(), Thread.currentThread().getName());
+		}).process();
+
+		assertThat(orderGroup2threadName).containsOnlyKeys(
+				ImmutableList.of(candidates.get(0).getId(), candidates.get(1).getId()),
+				ImmutableList.of(candidates.get(2).getId()),
+				ImmutableList.of(candidates.get(3).getId()),
+				ImmutableList.of(candidates.get(4).getId()));
+		assertThat(orderGroup2threadName.values()).allMatch(threadName -> threadName.startsWith(OLCandsProcessorExecutor.class.getSimpleName()));
+		assertThat(previousCtxValues).hasSize(4).allMatch(String::isEmpty);
+		assertThat(Env.getContext(Env.getCtx(), CTX_KEY_OrderGroup)).isEmpty();
+	}
+}
@@ -24,10 +24,13 @@ package de.metas.inoutcandidate.api;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.compiere.model.I_M_InOutLine;
 
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.inout.InOutLineId;
 import de.metas.inout.model.I_M_InOut;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
@@ -103,6 +106,13 @@ public interface IShipmentScheduleAllocDAO extends ISingletonService
 	 */
 	BigDecimal retrieveQtyDelivered(I_M_ShipmentSchedule shipmentSchedule);
 
+	/**
+	 * Same as {@link #retrieveQtyDelivered(I_M_ShipmentSchedule)}, but for many shipment schedules at once.
+	 *
+	 * @return the delivered quantity of each given shipment schedule; zero if nothing was delivered
+	 */
+	ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyDeliveredByShipmentScheduleId(Set<ShipmentScheduleId> shipmentScheduleIds);
+
 	/**
 	 * Updates {@link I_M_ShipmentSchedule_QtyPicked#COLUMN_Processed} according to the given {@code inOut}.
 	 */
@@ -113,4 +123,11 @@ public interface IShipmentScheduleAllocDAO extends ISingletonService
 	 */
 	BigDecimal retrieveQtyPickedAndUnconfirmed(I_M_ShipmentSchedule shipmentSchedule);
 
+	/**
+	 * Same as {@link #retrieveQtyPickedAndUnconfirmed(I_M_ShipmentSchedule)}, but for many shipment schedules at once.
+	 *
+	 * @return the picked and unconfirmed quantity of each given shipment schedule; zero if there is none
+	 */
+	ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyPickedAndUnconfirmedByShipmentScheduleId(Set<ShipmentScheduleId> shipmentScheduleIds);
+
 }
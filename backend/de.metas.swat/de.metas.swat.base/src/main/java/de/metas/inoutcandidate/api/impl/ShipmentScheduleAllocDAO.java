@@ -26,8 +26,12 @@ import static java.math.BigDecimal.ZERO;
  */
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import org.adempiere.ad.dao.ICompositeQueryFilter;
 import org.adempiere.ad.dao.ICompositeQueryUpdater;
@@ -39,9 +43,15 @@ import org.compiere.model.IQuery.Aggregate;
 import org.compiere.model.I_M_InOutLine;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
 import de.metas.inout.InOutLineId;
 import de.metas.inout.model.I_M_InOut;
 import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule_QtyPicked;
 import de.metas.logging.LogManager;
@@ -53,6 +63,9 @@ public class ShipmentScheduleAllocDAO implements IShipmentScheduleAllocDAO
 
 	private static final Logger logger = LogManager.getLogger(ShipmentScheduleAllocDAO.class);
 
+	/** Max. number of IDs per {@code IN (...)} filter when retrieving data for many shipment schedules at once */
+	private static final int IN_ARRAY_FILTER_MAX_SIZE = 1000;
+
 	/**
 	 * Creates a filter which keeps {@link I_M_ShipmentSchedule_QtyPicked} all records (active or not),
 	 * for given shipment schedule, which are <b>not</b> referenced by a shipment line.
@@ -181,6 +194,96 @@ public class ShipmentScheduleAllocDAO implements IShipmentScheduleAllocDAO
 		return coalesce(qty, ZERO);
 	}
 
+	@Override
+	public ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyDeliveredByShipmentScheduleId(@NonNull final Set<ShipmentScheduleId> shipmentScheduleIds)
+	{
+		final List<I_M_ShipmentSchedule_QtyPicked> qtyPickedRecords = retrieveActiveQtyPickedRecords(shipmentScheduleIds);
+
+		// like in retrieveQtyDelivered(I_M_ShipmentSchedule), each inout line is counted once per shipment schedule
+		final Map<ShipmentScheduleId, Set<InOutLineId>> inoutLineIdsByShipmentScheduleId = new HashMap<>();
+		for (final I_M_ShipmentSchedule_QtyPicked qtyPickedRecord : qtyPickedRecords)
+		{
+			final InOutLineId inoutLineId = InOutLineId.ofRepoIdOrNull(qtyPickedRecord.getM_InOutLine_ID());
+			if (inoutLineId == null)
+			{
+				continue;
+			}
+
+			inoutLineIdsByShipmentScheduleId
+					.computeIfAbsent(ShipmentScheduleId.ofRepoId(qtyPickedRecord.getM_ShipmentSchedule_ID()), k -> new HashSet<>())
+					.add(inoutLineId);
+		}
+
+		final ImmutableSet<InOutLineId> allInOutLineIds = inoutLineIdsByShipmentScheduleId.values()
+				.stream()
+				.flatMap(Set::stream)
+				.collect(ImmutableSet.toImmutableSet());
+		final Map<InOutLineId, BigDecimal> movementQtysByInOutLineId = new HashMap<>();
+		for (final List<InOutLineId> inoutLineIdsChunk : Iterables.partition(allInOutLineIds, IN_ARRAY_FILTER_MAX_SIZE))
+		{
+			Services.get(IQueryBL.class)
+					.createQueryBuilder(I_M_InOutLine.class)
+					.addInArrayFilter(I_M_InOutLine.COLUMNNAME_M_InOutLine_ID, inoutLineIdsChunk)
+					.addOnlyActiveRecordsFilter()
+					.addEqualsFilter(I_M_InOutLine.COLUMNNAME_Processed, true)
+					.create()
+					.list(I_M_InOutLine.class)
+					.forEach(inoutLine -> movementQtysByInOutLineId.put(InOutLineId.ofRepoId(inoutLine.getM_InOutLine_ID()), inoutLine.getMovementQty()));
+		}
+
+		final ImmutableMap.Builder<ShipmentScheduleId, BigDecimal> result = ImmutableMap.builder();
+		for (final ShipmentScheduleId shipmentScheduleId : shipmentScheduleIds)
+		{
+			BigDecimal qtyDelivered = ZERO;
+			for (final InOutLineId inoutLineId : inoutLineIdsByShipmentScheduleId.getOrDefault(shipmentScheduleId, ImmutableSet.of()))
+			{
+				qtyDelivered = qtyDelivered.add(movementQtysByInOutLineId.getOrDefault(inoutLineId, ZERO));
+			}
+			result.put(shipmentScheduleId, qtyDelivered);
+		}
+		return result.build();
+	}
+
+	@Override
+	public ImmutableMap<ShipmentScheduleId, BigDecimal> retrieveQtyPickedAndUnconfirmedByShipmentScheduleId(@NonNull final Set<ShipmentScheduleId> shipmentScheduleIds)
+	{
+		final Map<ShipmentScheduleId, BigDecimal> qtysByShipmentScheduleId = new HashMap<>();
+		for (final I_M_ShipmentSchedule_QtyPicked qtyPickedRecord : retrieveActiveQtyPickedRecords(shipmentScheduleIds))
+		{
+			if (qtyPickedRecord.isProcessed())
+			{
+				continue;
+			}
+
+			qtysByShipmentScheduleId.merge(
+					ShipmentScheduleId.ofRepoId(qtyPickedRecord.getM_ShipmentSchedule_ID()),
+					coalesce(qtyPickedRecord.getQtyPicked(), ZERO),
+					BigDecimal::add);
+		}
+
+		final ImmutableMap.Builder<ShipmentScheduleId, BigDecimal> result = ImmutableMap.builder();
+		for (final ShipmentScheduleId shipmentScheduleId : shipmentScheduleIds)
+		{
+			result.put(shipmentScheduleId, qtysByShipmentScheduleId.getOrDefault(shipmentScheduleId, ZERO));
+		}
+		return result.build();
+	}
+
+	private List<I_M_ShipmentSchedule_QtyPicked> retrieveActiveQtyPickedRecords(@NonNull final Set<ShipmentScheduleId> shipmentScheduleIds)
+	{
+		final ImmutableList.Builder<I_M_ShipmentSchedule_QtyPicked> result = ImmutableList.builder();
+		for (final List<ShipmentScheduleId> shipmentScheduleIdsChunk : Iterables.partition(shipmentScheduleIds, IN_ARRAY_FILTER_MAX_SIZE))
+		{
+			result.addAll(Services.get(IQueryBL.class)
+					.createQueryBuilder(I_M_ShipmentSchedule_QtyPicked.class)
+					.addOnlyActiveRecordsFilter()
+					.addInArrayFilter(I_M_ShipmentSchedule_QtyPicked.COLUMN_M_ShipmentSchedule_ID, shipmentScheduleIdsChunk)
+					.create()
+					.list(I_M_ShipmentSchedule_QtyPicked.class));
+		}
+		return result.build();
+	}
+
 	@Override
 	public BigDecimal retrieveQtyPickedAndUnconfirmed(@NonNull final I_M_ShipmentSchedule shipmentSchedule)
 	{
@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.inoutcandidate.api.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import de.metas.bpartner.BPartnerId;
+import de.metas.bpartner.service.IBPartnerBL;
+import de.metas.inoutcandidate.api.IShipmentScheduleAllocBL;
+import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
+import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.lang.SOTrx;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data which {@link ShipmentScheduleUpdater} needs for each shipment schedule and which was bulk-loaded for all shipment schedules of one update run.
+ * <p>
+ * The quantities are not changed while the shipment schedules are updated, so they are loaded once and used for both the first and the second run.
+ * If a shipment schedule was not prefetched, the data is retrieved just like before.
+ */
+final class ShipmentScheduleUpdatePrefetchedData
+{
+	public static ShipmentScheduleUpdatePrefetchedData prefetch(@NonNull final Collection<OlAndSched> olsAndScheds)
+	{
+		final ImmutableSet<ShipmentScheduleId> shipmentScheduleIds = olsAndScheds.stream()
+				.map(OlAndSched::getShipmentScheduleId)
+				.collect(ImmutableSet.toImmutableSet());
+		if (shipmentScheduleIds.isEmpty())
+		{
+			return onDemand();
+		}
+
+		final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO = Services.get(IShipmentScheduleAllocDAO.class);
+		return new ShipmentScheduleUpdatePrefetchedData(
+				shipmentScheduleAllocDAO.retrieveQtyDeliveredByShipmentScheduleId(shipmentScheduleIds),
+				shipmentScheduleAllocDAO.retrieveQtyPickedAndUnconfirmedByShipmentScheduleId(shipmentScheduleIds),
+				true/* memoizeAllowConsolidateShipment */);
+	}
+
+	/**
+	 * @return instance which retrieves everything when asked, i.e. which behaves like the updater did without prefetching
+	 */
+	public static ShipmentScheduleUpdatePrefetchedData onDemand()
+	{
+		return new ShipmentScheduleUpdatePrefetchedData(ImmutableMap.of(), ImmutableMap.of(), false);
+	}
+
+	private final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO = Services.get(IShipmentScheduleAllocDAO.class);
+	private final IShipmentScheduleAllocBL shipmentScheduleAllocBL = Services.get(IShipmentScheduleAllocBL.class);
+
+	private final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysDelivered;
+	private final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysPickedAndUnconfirmed;
+
+	private final boolean memoizeAllowConsolidateShipment;
+	private final Map<BPartnerId, Boolean> allowConsolidateShipmentByBPartnerId = new HashMap<>();
+
+	private ShipmentScheduleUpdatePrefetchedData(
+			@NonNull final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysDelivered,
+			@NonNull final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysPickedAndUnconfirmed,
+			final boolean memoizeAllowConsolidateShipment)
+	{
+		this.qtysDelivered = qtysDelivered;
+		this.qtysPickedAndUnconfirmed = qtysPickedAndUnconfirmed;
+		this.memoizeAllowConsolidateShipment = memoizeAllowConsolidateShipment;
+	}
+
+	/**
+	 * @see IShipmentScheduleAllocDAO#retrieveQtyDelivered(I_M_ShipmentSchedule)
+	 */
+	public BigDecimal getQtyDelivered(@NonNull final I_M_ShipmentSchedule sched)
+	{
+		final BigDecimal qtyDelivered = qtysDelivered.get(ShipmentScheduleId.ofRepoId(sched.getM_ShipmentSchedule_ID()));
+		return qtyDelivered != null
+				? qtyDelivered
+				: shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+	}
+
+	/**
+	 * @return the picked and unconfirmed quantity, in the product's stocking UOM
+	 * @see IShipmentScheduleAllocBL#retrieveQtyPickedAndUnconfirmed(I_M_ShipmentSchedule)
+	 */
+	public BigDecimal getQtyPickedAndUnconfirmed(@NonNull final I_M_ShipmentSchedule sched)
+	{
+		final BigDecimal qtyPickedAndUnconfirmed = qtysPickedAndUnconfirmed.get(ShipmentScheduleId.ofRepoId(sched.getM_ShipmentSchedule_ID()));
+		return qtyPickedAndUnconfirmed != null
+				? qtyPickedAndUnconfirmed
+				: shipmentScheduleAllocBL.retrieveQtyPickedAndUnconfirmed(sched).toBigDecimal();
+	}
+
+	public boolean isAllowConsolidateShipment(@NonNull final BPartnerId bpartnerId)
+	{
+		if (!memoizeAllowConsolidateShipment)
+		{
+			return retrieveAllowConsolidateShipment(bpartnerId);
+		}
+		return allowConsolidateShipmentByBPartnerId.computeIfAbsent(bpartnerId, ShipmentScheduleUpdatePrefetchedData::retrieveAllowConsolidateShipment);
+	}
+
+	private static boolean retrieveAllowConsolidateShipment(@NonNull final BPartnerId bpartnerId)
+	{
+		// NOTE: we cannot declare de service on top because BPartnerBL is a spring bean which will fail in JUnit tests.
+		final IBPartnerBL bpartnerBL = Services.get(IBPartnerBL.class);
+
+		return bpartnerBL.isAllowConsolidateInOutEffective(bpartnerId, SOTrx.SALES);
+	}
+
+	public int size()
+	{
+		return qtysDelivered.size();
+	}
+}
@@ -44,6 +44,7 @@ import org.adempiere.inout.util.ShipmentScheduleQtyOnHandStorage;
 import org.adempiere.inout.util.ShipmentScheduleQtyOnHandStorageFactory;
 import org.adempiere.inout.util.ShipmentSchedulesDuringUpdate;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ImmutablePair;
 import org.adempiere.warehouse.LocatorId;
@@ -63,11 +64,8 @@ import com.google.common.collect.ImmutableSet;
 import ch.qos.logback.classic.Level;
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.BPartnerLocationId;
-import de.metas.bpartner.service.IBPartnerBL;
 import de.metas.bpartner_product.IBPartnerProductDAO;
 import de.metas.inoutcandidate.api.IShipmentConstraintsBL;
-import de.metas.inoutcandidate.api.IShipmentScheduleAllocBL;
-import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
 import de.metas.inoutcandidate.api.IShipmentScheduleBL;
 import de.metas.inoutcandidate.api.IShipmentScheduleEffectiveBL;
 import de.metas.inoutcandidate.api.IShipmentScheduleHandlerBL;
@@ -96,7 +94,6 @@ import de.metas.organization.OrgId;
 import de.metas.process.PInstanceId;
 import de.metas.product.IProductBL;
 import de.metas.product.ProductId;
-import de.metas.quantity.Quantity;
 import de.metas.tourplanning.api.IDeliveryDayBL;
 import de.metas.tourplanning.api.IShipmentScheduleDeliveryDayBL;
 import de.metas.tourplanning.model.TourId;
@@ -128,14 +125,18 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 	private static final String DYNATTR_ProcessedByBackgroundProcess = IShipmentScheduleUpdater.class.getName() + "#ProcessedByBackgroundProcess";
 
 	private static final Logger logger = LogManager.getLogger(ShipmentScheduleUpdater.class);
+
+	/**
+	 * If true (default), the delivered and picked quantities of all shipment schedules of one update run are loaded at once, instead of one by one for each run.
+	 */
+	private static final String SYSCONFIG_BulkLoad = "de.metas.inoutcandidate.api.impl.ShipmentScheduleUpdater.BulkLoad";
+
 	private final IShipmentScheduleHandlerBL shipmentScheduleHandlerBL = Services.get(IShipmentScheduleHandlerBL.class);
 	private final IShipmentScheduleInvalidateRepository invalidSchedulesRepo = Services.get(IShipmentScheduleInvalidateRepository.class);
 	private final IShipmentSchedulePA shipmentSchedulePA = Services.get(IShipmentSchedulePA.class);
 	private final IShipmentScheduleBL shipmentScheduleBL = Services.get(IShipmentScheduleBL.class);
 	private final IShipmentScheduleDeliveryDayBL shipmentScheduleDeliveryDayBL = Services.get(IShipmentScheduleDeliveryDayBL.class);
 	private final IShipmentScheduleEffectiveBL shipmentScheduleEffectiveBL = Services.get(IShipmentScheduleEffectiveBL.class);
-	private final IShipmentScheduleAllocBL shipmentScheduleAllocBL = Services.get(IShipmentScheduleAllocBL.class);
-	private final IShipmentScheduleAllocDAO shipmentScheduleAllocDAO = Services.get(IShipmentScheduleAllocDAO.class);
 	private final IShipmentConstraintsBL shipmentConstraintsBL = Services.get(IShipmentConstraintsBL.class);
 	private final ShipmentScheduleQtyOnHandStorageFactory shipmentScheduleQtyOnHandStorageFactory;
 	private final ShipmentScheduleReferencedLineFactory shipmentScheduleReferencedLineFactory;
@@ -166,14 +167,6 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		this.pickingBOMService = pickingBOMService;
 	}
 
-	private boolean isAllowConsolidateShipment(@NonNull final BPartnerId bpartnerId)
-	{
-		// NOTE: we cannot declare de service on top because BPartnerBL is a spring bean which will fail in JUnit tests.
-		final IBPartnerBL bpartnerBL = Services.get(IBPartnerBL.class);
-
-		return bpartnerBL.isAllowConsolidateInOutEffective(bpartnerId, SOTrx.SALES);
-	}
-
 	@Override
 	public void registerCandidateProcessor(final IShipmentSchedulesAfterFirstPassUpdater processor)
 	{
@@ -288,7 +281,9 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			}
 		}
 
-		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(ctx, olsAndScheds);
+		final ShipmentScheduleUpdatePrefetchedData prefetchedData = prefetchData(olsAndScheds);
+
+		final ShipmentSchedulesDuringUpdate firstRun = generate_FirstRun(ctx, olsAndScheds, prefetchedData);
 		firstRun.updateCompleteStatusAndSetQtyToZeroWhereNeeded();
 
 		applyCandidateProcessors(ctx, firstRun);
@@ -311,7 +306,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 
 		// make the second run
-		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(ctx, olsAndScheds, firstRun);
+		final IShipmentSchedulesDuringUpdate secondRun = generate_SecondRun(ctx, olsAndScheds, firstRun, prefetchedData);
 
 		// finally update the shipment schedule entries
 		for (final OlAndSched olAndSched : olsAndScheds)
@@ -319,7 +314,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			final I_M_ShipmentSchedule sched = olAndSched.getSched();
 			final BPartnerId bpartnerId = shipmentScheduleEffectiveBL.getBPartnerId(sched); // task 08756: we don't really care for the ol's partner, but for the partner who will actually receive the shipment.
 
-			sched.setAllowConsolidateInOut(isAllowConsolidateShipment(bpartnerId));
+			sched.setAllowConsolidateInOut(prefetchedData.isAllowConsolidateShipment(bpartnerId));
 
 			updatePreparationAndDeliveryDate(sched);
 
@@ -330,7 +325,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 			// task 09358: ol.qtyReserved should be as correct as QtyOrdered and QtyDelivered, but in some cases isn't. this here is a workaround to the problem
 			// task 09869: don't rely on ol anyways
-			final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+			final BigDecimal qtyDelivered = prefetchedData.getQtyDelivered(sched);
 			sched.setQtyDelivered(qtyDelivered);
 			sched.setQtyReserved(BigDecimal.ZERO.max(olAndSched.getQtyOrdered().subtract(sched.getQtyDelivered())));
 
@@ -422,32 +417,56 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 	}
 
+	private static ShipmentScheduleUpdatePrefetchedData prefetchData(@NonNull final List<OlAndSched> olsAndScheds)
+	{
+		final boolean bulkLoad = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_BulkLoad, true);
+		if (!bulkLoad)
+		{
+			return ShipmentScheduleUpdatePrefetchedData.onDemand();
+		}
+
+		final ShipmentScheduleUpdatePrefetchedData prefetchedData = ShipmentScheduleUpdatePrefetchedData.prefetch(olsAndScheds);
+		logger.debug("Prefetched data for {} shipment schedules", prefetchedData.size());
+		return prefetchedData;
+	}
+
+	@VisibleForTesting
 	ShipmentSchedulesDuringUpdate generate_FirstRun(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines)
+	{
+		return generate_FirstRun(ctx, lines, ShipmentScheduleUpdatePrefetchedData.onDemand());
+	}
+
+	ShipmentSchedulesDuringUpdate generate_FirstRun(
+			@NonNull final Properties ctx,
+			@NonNull final List<OlAndSched> lines,
+			@NonNull final ShipmentScheduleUpdatePrefetchedData prefetchedData)
 	{
 		try (final MDCCloseable mdcClosable = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(1))
 		{
 			final ShipmentSchedulesDuringUpdate firstRun = new ShipmentSchedulesDuringUpdate();
-			return generate(ctx, lines, firstRun);
+			return generate(ctx, lines, firstRun, prefetchedData);
 		}
 	}
 
 	ShipmentSchedulesDuringUpdate generate_SecondRun(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate firstRun)
+			@NonNull final ShipmentSchedulesDuringUpdate firstRun,
+			@NonNull final ShipmentScheduleUpdatePrefetchedData prefetchedData)
 	{
 		try (final MDCCloseable mdcClosable = ShipmentSchedulesMDC.putShipmentScheduleUpdateRunNo(2))
 		{
-			return generate(ctx, lines, firstRun);
+			return generate(ctx, lines, firstRun, prefetchedData);
 		}
 	}
 
 	private ShipmentSchedulesDuringUpdate generate(
 			@NonNull final Properties ctx,
 			@NonNull final List<OlAndSched> lines,
-			@NonNull final ShipmentSchedulesDuringUpdate candidates)
+			@NonNull final ShipmentSchedulesDuringUpdate candidates,
+			@NonNull final ShipmentScheduleUpdatePrefetchedData prefetchedData)
 	{
 		//
 		// Load QtyOnHand in scope for our lines
@@ -481,7 +500,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				}
 				else
 				{
-					final BigDecimal qtyDelivered = shipmentScheduleAllocDAO.retrieveQtyDelivered(sched);
+					final BigDecimal qtyDelivered = prefetchedData.getQtyDelivered(sched);
 					qtyRequired = olAndSched.getQtyOrdered().subtract(qtyDelivered);
 					logger.debug("QtyOrdered={}; QtyDelivered={}; => qtyRequired={}", olAndSched.getQtyOrdered(), qtyDelivered, qtyRequired);
 				}
@@ -493,9 +512,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 				final BigDecimal qtyPickedOrOnDraftShipment;
 				{
 					// task 08123: we also take those numbers into account that are *not* on an M_InOutLine yet, but are nonetheless picked
-					final Quantity qtyPickedAndUnconfirmed = shipmentScheduleAllocBL.retrieveQtyPickedAndUnconfirmed(sched);
-					logger.debug("QtyPickedAndUnconfirmed={}", qtyPickedAndUnconfirmed);
-					qtyPickedOrOnDraftShipment = qtyPickedAndUnconfirmed.toBigDecimal();
+					qtyPickedOrOnDraftShipment = prefetchedData.getQtyPickedAndUnconfirmed(sched);
+					logger.debug("QtyPickedAndUnconfirmed={}", qtyPickedOrOnDraftShipment);
 
 					// Update shipment schedule's fields
 					sched.setQtyPickList(qtyPickedOrOnDraftShipment);
@@ -517,7 +535,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 							ShipmentScheduleAvailableStock.of(),
 							true/* force */,
 							CompleteStatus.OK,
-							candidates);
+							candidates,
+							prefetchedData);
 					continue;
 				}
 				else
@@ -543,7 +562,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 								storages,
 								true, // force
 								completeStatus,
-								candidates);
+								candidates,
+								prefetchedData);
 					}
 					//
 					// Delivery rule: Complete Order/Line or Availability or Manual
@@ -567,7 +587,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 									storages,
 									false, // force
 									completeStatus,
-									candidates);
+									candidates,
+									prefetchedData);
 						}
 						else
 						{
@@ -613,7 +634,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			@NonNull final ShipmentScheduleAvailableStock storages,
 			final boolean force,
 			@NonNull final CompleteStatus completeStatus,
-			@NonNull final ShipmentSchedulesDuringUpdate candidates)
+			@NonNull final ShipmentSchedulesDuringUpdate candidates,
+			@NonNull final ShipmentScheduleUpdatePrefetchedData prefetchedData)
 	{
 		if (candidates.hasDeliveryLineCandidateFor(olAndSched.getShipmentScheduleId()))
 		{
@@ -621,7 +643,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			return;
 		}
 
-		final DeliveryGroupCandidate groupCandidate = getOrCreateGroupCandidateForShipmentSchedule(olAndSched.getSched(), candidates);
+		final DeliveryGroupCandidate groupCandidate = getOrCreateGroupCandidateForShipmentSchedule(olAndSched.getSched(), candidates, prefetchedData);
 
 		if (storages.isEmpty())
 		{
@@ -713,7 +735,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 	private DeliveryGroupCandidate getOrCreateGroupCandidateForShipmentSchedule(
 			@NonNull final I_M_ShipmentSchedule sched,
-			final IShipmentSchedulesDuringUpdate candidates)
+			final IShipmentSchedulesDuringUpdate candidates,
+			@NonNull final ShipmentScheduleUpdatePrefetchedData prefetchedData)
 	{
 		final BPartnerId bpartnerId = shipmentScheduleEffectiveBL.getBPartnerId(sched);
 
@@ -723,7 +746,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		DeliveryGroupCandidate candidate = null;
 
 		final WarehouseId warehouseId = shipmentScheduleEffectiveBL.getWarehouseId(sched);
-		if (isAllowConsolidateShipment(bpartnerId))
+		if (prefetchedData.isAllowConsolidateShipment(bpartnerId))
 		{
 			// see if there is an existing shipment for this location and shipper
 			candidate = candidates.getGroupForShipper(scheduleSourceDoc.getShipperId(), warehouseId, bpartnerAddress);
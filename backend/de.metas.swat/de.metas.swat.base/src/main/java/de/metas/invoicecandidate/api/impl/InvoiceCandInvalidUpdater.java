@@ -23,7 +23,14 @@
 package de.metas.invoicecandidate.api.impl;
 
 import ch.qos.logback.classic.Level;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
 import de.metas.inout.IInOutDAO;
+import de.metas.invoicecandidate.InvoiceCandidateId;
 import de.metas.invoicecandidate.api.IInvoiceCandBL;
 import de.metas.invoicecandidate.api.IInvoiceCandDAO;
 import de.metas.invoicecandidate.api.IInvoiceCandInvalidUpdater;
@@ -40,11 +47,14 @@ import de.metas.lock.api.ILock;
 import de.metas.logging.LogManager;
 import de.metas.logging.TableRecordMDC;
 import de.metas.util.Check;
+import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
+import de.metas.util.collections.IteratorUtils;
 import lombok.NonNull;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.ad.trx.processor.api.FailTrxItemExceptionHandler;
 import org.adempiere.ad.trx.processor.api.ITrxItemExecutorBuilder.OnItemErrorPolicy;
 import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutorService;
@@ -52,18 +62,31 @@ import org.adempiere.ad.trx.processor.spi.TrxItemChunkProcessorAdapter;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IContextAware;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.SpringContextHolder;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.math.BigDecimal.ONE;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
@@ -84,6 +107,13 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	private static final String SYSCONFIG_ItemsPerBatch = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ItemsPerBatch";
 	private static final int DEFAULT_ItemsPerBatch = 100;
 
+	private static final String SYSCONFIG_PrefetchEnabled = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.PrefetchEnabled";
+	private static final boolean DEFAULT_PrefetchEnabled = true;
+	private static final int MAX_PrefetchBlockSize = 500;
+
+	private static final String SYSCONFIG_ParallelWorkers = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ParallelWorkers";
+	private static final int DEFAULT_ParallelWorkers = 1;
+
 	//
 	// Parameters
 	private Properties _ctx;
@@ -162,93 +192,313 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 		//
 		// Update invoice candidates in chunks
+		final int workers = processInBatches ? getParallelWorkers() : 1;
 		final ICUpdateResult result = new ICUpdateResult();
+		final long startNanos = System.nanoTime();
 		try (final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
 		{
-			trxItemProcessorExecutorService.<I_C_Invoice_Candidate, ICUpdateResult> createExecutor()
-					.setContext(getCtx(), getTrxName()) // if called from process or wp-processor then getTrxName() is null because *we* want to manage the trx => commit after each chunk
-					.setItemsPerBatch(itemsPerBatch)
+			if (workers > 1)
+			{
+				updateInParallel(candidatesToUpdate, itemsPerBatch, workers, result);
+			}
+			else
+			{
+				updateInChunks(getCtx(), candidatesToUpdate, itemsPerBatch, result);
+			}
+		}
+		finally
+		{
+			IteratorUtils.closeQuietly(candidatesToUpdate);
+			InvoiceCandInvalidUpdaterStatistics.instance.recordRun(result.getCountOk(), result.getCountErrors(), System.nanoTime() - startNanos, workers);
+		}
 
-					// Don't use trx savepoints because they are expensive and we are not going to rollback anyways (OnItemErrorPolicy.ContinueChunkAndCommit)
-					// Note that if our trx is null, then this doesn't matter anyways.
-					.setUseTrxSavepoints(false)
+		//
+		// Log the result
+		Loggables.addLog("Update invalid result: {}", result.getSummary());
+	}
 
-					.setExceptionHandler(new ICTrxItemExceptionHandler(result))
+	/**
+	 * Splits the invoice candidates to update in partitions (see {@link #extractPartitionKey(I_C_Invoice_Candidate)}) and updates them on multiple threads.
+	 * <p>
+	 * The invoice candidates are fetched in blocks of <code>itemsPerBatch * workers</code> and the next block is started only after the current one was completely updated,
+	 * so the invoice candidates of one partition are never updated concurrently.
+	 */
+	private void updateInParallel(
+			@NonNull final Iterator<I_C_Invoice_Candidate> candidatesToUpdate,
+			final int itemsPerBatch,
+			final int workers,
+			@NonNull final ICUpdateResult result)
+	{
+		final Properties ctx = getCtx();
+		final ILoggable loggable = new SynchronizedLoggable(Loggables.get());
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				workers,
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(InvoiceCandInvalidUpdater.class.getSimpleName())
+						.setDaemon(true)
+						.build());
+		try
+		{
+			final Iterator<List<I_C_Invoice_Candidate>> blocks = Iterators.partition(candidatesToUpdate, itemsPerBatch * workers);
+			while (blocks.hasNext())
+			{
+				final List<Future<?>> futures = new ArrayList<>();
+				for (final List<I_C_Invoice_Candidate> workerCandidates : splitByPartitionKey(blocks.next(), workers))
+				{
+					// NOTE: each worker gets its own copy of the context, because the Properties are changed while updating (e.g. by Env.setContext)
+					final Properties workerCtx = Env.copyCtx(ctx);
+					futures.add(executor.submit(() -> {
+						try (final IAutoCloseable ctxCloseable = Env.switchContext(workerCtx);
+								final IAutoCloseable loggableCloseable = Loggables.temporarySetLoggable(loggable);
+								final IAutoCloseable updateInProgressCloseable = invoiceCandBL.setUpdateProcessInProgress())
+						{
+							final List<I_C_Invoice_Candidate> workerCandidatesInCtx = reloadInCurrentContext(workerCandidates);
+							updateInChunks(workerCtx, workerCandidatesInCtx.iterator(), itemsPerBatch, result);
+						}
+					}));
+				}
 
-					// issue #302: ICTrxItemExceptionHandler will deal with problems, so we just continue if they happen.
-					.setOnItemErrorPolicy(OnItemErrorPolicy.ContinueChunkAndCommit)
+				waitForAll(futures);
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
 
-					.setProcessor(new TrxItemChunkProcessorAdapter<I_C_Invoice_Candidate, ICUpdateResult>()
-					{
-						/** the invoice candidates which were updated in current batch/chunk */
-						final List<Integer> chunkInvoiceCandidateIds = new ArrayList<>();
+	/**
+	 * Loads the given invoice candidates again, using the current context.
+	 * Needed because the invoice candidates were loaded with the caller's context, which shall not be used (and changed) by the worker threads.
+	 *
+	 * @return the invoice candidates in the same order; the ones which were deleted in meantime are skipped
+	 */
+	private List<I_C_Invoice_Candidate> reloadInCurrentContext(@NonNull final List<I_C_Invoice_Candidate> invoiceCandidates)
+	{
+		final ImmutableList<InvoiceCandidateId> invoiceCandidateIds = invoiceCandidates.stream()
+				.map(ic -> InvoiceCandidateId.ofRepoId(ic.getC_Invoice_Candidate_ID()))
+				.collect(ImmutableList.toImmutableList());
+		final Map<InvoiceCandidateId, I_C_Invoice_Candidate> reloadedById = Maps.uniqueIndex(
+				invoiceCandDAO.getByIds(invoiceCandidateIds),
+				ic -> InvoiceCandidateId.ofRepoId(ic.getC_Invoice_Candidate_ID()));
+
+		final List<I_C_Invoice_Candidate> result = new ArrayList<>(invoiceCandidateIds.size());
+		for (final InvoiceCandidateId invoiceCandidateId : invoiceCandidateIds)
+		{
+			final I_C_Invoice_Candidate reloaded = reloadedById.get(invoiceCandidateId);
+			if (reloaded != null)
+			{
+				result.add(reloaded);
+			}
+		}
+		return result;
+	}
+
+	@VisibleForTesting
+	static List<List<I_C_Invoice_Candidate>> splitByPartitionKey(
+			@NonNull final List<I_C_Invoice_Candidate> invoiceCandidates,
+			final int workers)
+	{
+		final ImmutableListMultimap<TableRecordReference, I_C_Invoice_Candidate> invoiceCandidatesByPartitionKey = Multimaps.index(invoiceCandidates, InvoiceCandInvalidUpdater::extractPartitionKey);
+
+		// assign each partition to the worker which has the least invoice candidates so far
+		final List<List<I_C_Invoice_Candidate>> result = new ArrayList<>(workers);
+		for (int i = 0; i < workers; i++)
+		{
+			result.add(new ArrayList<>());
+		}
+		for (final Collection<I_C_Invoice_Candidate> partition : invoiceCandidatesByPartitionKey.asMap().values())
+		{
+			result.stream()
+					.min(Comparator.comparingInt(List::size))
+					.get()
+					.addAll(partition);
+		}
+
+		result.removeIf(List::isEmpty);
+		return result;
+	}
+
+	/**
+	 * @return the bill partner. Invoice candidates with the same key are always updated on the same thread, one after the other.
+	 *         <p>
+	 *         Note that it has to be the bill partner (and not e.g. the order), because the {@link de.metas.invoicecandidate.model.I_C_Invoice_Candidate_HeaderAggregation} records are
+	 *         looked up and created per bill partner, without any unique index. So if the candidates of the same bill partner were updated concurrently, we could end up with duplicate header aggregation keys.
+	 *         The candidates of one order share its bill partner anyways.
+	 */
+	@VisibleForTesting
+	static TableRecordReference extractPartitionKey(@NonNull final I_C_Invoice_Candidate ic)
+	{
+		if (ic.getBill_BPartner_ID() > 0)
+		{
+			return TableRecordReference.of(I_C_BPartner.Table_Name, ic.getBill_BPartner_ID());
+		}
+		else
+		{
+			return TableRecordReference.of(I_C_Invoice_Candidate.Table_Name, ic.getC_Invoice_Candidate_ID());
+		}
+	}
+
+	private static void waitForAll(@NonNull final List<Future<?>> futures)
+	{
+		AdempiereException error = null;
+		for (final Future<?> future : futures)
+		{
+			try
+			{
+				future.get();
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+			catch (final ExecutionException ex)
+			{
+				// wait for the other workers too, before propagating the error
+				if (error == null)
+				{
+					error = AdempiereException.wrapIfNeeded(ex.getCause());
+				}
+				else
+				{
+					error.addSuppressed(ex.getCause());
+				}
+			}
+		}
+
+		if (error != null)
+		{
+			throw error;
+		}
+	}
+
+	private void updateInChunks(
+			@NonNull final Properties ctx,
+			@NonNull final Iterator<I_C_Invoice_Candidate> candidatesToUpdate,
+			final int itemsPerBatch,
+			@NonNull final ICUpdateResult result)
+	{
+		//
+		// Prefetch the records which are needed to update the invoice candidates, one block after the other.
+		// The prefetch block size matches the chunk size (unless we are processing all in one chunk), so the prefetched records are as fresh as possible.
+		final AtomicReference<InvoiceCandUpdatePrefetchedData> prefetchedDataRef = new AtomicReference<>(InvoiceCandUpdatePrefetchedData.empty());
+		final Iterator<I_C_Invoice_Candidate> candidatesToProcess;
+		if (isPrefetchEnabled())
+		{
+			final int prefetchBlockSize = Math.min(itemsPerBatch, MAX_PrefetchBlockSize);
+			candidatesToProcess = Iterators.concat(Iterators.transform(
+					Iterators.partition(candidatesToUpdate, prefetchBlockSize),
+					block -> {
+						prefetchedDataRef.set(prefetch(block));
+						return block.iterator();
+					}));
+		}
+		else
+		{
+			candidatesToProcess = candidatesToUpdate;
+		}
+
+		trxItemProcessorExecutorService.<I_C_Invoice_Candidate, ICUpdateResult> createExecutor()
+				.setContext(ctx, getTrxName()) // if called from process or wp-processor then getTrxName() is null because *we* want to manage the trx => commit after each chunk
+				.setItemsPerBatch(itemsPerBatch)
+
+				// Don't use trx savepoints because they are expensive and we are not going to rollback anyways (OnItemErrorPolicy.ContinueChunkAndCommit)
+				// Note that if our trx is null, then this doesn't matter anyways.
+				.setUseTrxSavepoints(false)
+
+				.setExceptionHandler(new ICTrxItemExceptionHandler(result))
+
+				// issue #302: ICTrxItemExceptionHandler will deal with problems, so we just continue if they happen.
+				.setOnItemErrorPolicy(OnItemErrorPolicy.ContinueChunkAndCommit)
+
+				.setProcessor(new TrxItemChunkProcessorAdapter<I_C_Invoice_Candidate, ICUpdateResult>()
+				{
+					/** the invoice candidates which were updated in current batch/chunk */
+					final List<Integer> chunkInvoiceCandidateIds = new ArrayList<>();
 
-						@Override
-						public void process(final I_C_Invoice_Candidate icRecord)
+					@Override
+					public void process(final I_C_Invoice_Candidate icRecord)
+					{
+						try (final MDCCloseable icMDC = TableRecordMDC.putTableRecordReference(icRecord))
 						{
-							try (final MDCCloseable icMDC = TableRecordMDC.putTableRecordReference(icRecord))
+							chunkInvoiceCandidateIds.add(icRecord.getC_Invoice_Candidate_ID());
+
+							updateInvalid(icRecord, prefetchedDataRef.get());
+							if (!icRecord.isError())
 							{
-								chunkInvoiceCandidateIds.add(icRecord.getC_Invoice_Candidate_ID());
-
-								updateInvalid(icRecord);
-								if (!icRecord.isError())
-								{
-									logger.debug("Updated invoice canddiate");
-									result.addInvoiceCandidate(icRecord);
-								}
-								else
-								{
-									Loggables.withLogger(logger, Level.DEBUG)
-											.addLog("Error updating invoice candidate; ic.errorMessage={}; icRecord={}", icRecord.getErrorMsg(), icRecord);
-									result.incrementErrorsCount();
-								}
+								logger.debug("Updated invoice canddiate");
+								result.addInvoiceCandidate(icRecord);
+							}
+							else
+							{
+								Loggables.withLogger(logger, Level.DEBUG)
+										.addLog("Error updating invoice candidate; ic.errorMessage={}; icRecord={}", icRecord.getErrorMsg(), icRecord);
+								result.incrementErrorsCount();
 							}
 						}
+					}
 
-						@Override
-						public ICUpdateResult getResult()
-						{
-							return result;
-						}
+					@Override
+					public ICUpdateResult getResult()
+					{
+						return result;
+					}
+
+					/**
+					 * Always return <code>true</code> and let the caller decide when to close the chunk (based on ItemsPerBatch setting).
+					 * We do this because in fact, each IC is independent from each other.
+					 * On the other hand, we don't want the overhead of dealing with each IC independently (trx-commit etc).
+					 */
+					@Override
+					public boolean isSameChunk(final I_C_Invoice_Candidate item)
+					{
+						return true;
+					}
 
-						/**
-						 * Always return <code>true</code> and let the caller decide when to close the chunk (based on ItemsPerBatch setting).
-						 * We do this because in fact, each IC is independent from each other.
-						 * On the other hand, we don't want the overhead of dealing with each IC independently (trx-commit etc).
-						 */
-						@Override
-						public boolean isSameChunk(final I_C_Invoice_Candidate item)
-						{
-							return true;
-						}
+					@Override
+					public void newChunk(final I_C_Invoice_Candidate item)
+					{
+						chunkInvoiceCandidateIds.clear(); // better safe than sorry
+					}
 
-						@Override
-						public void newChunk(final I_C_Invoice_Candidate item)
-						{
-							chunkInvoiceCandidateIds.clear(); // better safe than sorry
-						}
+					/** Delete the items which we just updated from <code>C_Invoice_Candidate_Recompute</code>. */
+					@Override
+					public void completeChunk()
+					{
+						icTagger.deleteTaggedAndInvalidateCache(chunkInvoiceCandidateIds);
+						chunkInvoiceCandidateIds.clear();
+					}
+				})
+				//
+				.process(candidatesToProcess);
+	}
 
-						/** Delete the items which we just updated from <code>C_Invoice_Candidate_Recompute</code>. */
-						@Override
-						public void completeChunk()
-						{
-							icTagger.deleteTaggedAndInvalidateCache(chunkInvoiceCandidateIds);
-							chunkInvoiceCandidateIds.clear();
-						}
-					})
-					//
-					.process(candidatesToUpdate);
+	private InvoiceCandUpdatePrefetchedData prefetch(@NonNull final List<I_C_Invoice_Candidate> invoiceCandidates)
+	{
+		try
+		{
+			final InvoiceCandUpdatePrefetchedData prefetchedData = InvoiceCandUpdatePrefetchedData.prefetch(invoiceCandidates);
+			InvoiceCandInvalidUpdaterStatistics.instance.recordPrefetched(prefetchedData.size());
+			return prefetchedData;
+		}
+		catch (final Exception ex)
+		{
+			// the prefetch is just an optimization; the records will be loaded one by one
+			logger.warn("Failed prefetching the data of {} invoice candidates. Continue without.", invoiceCandidates.size(), ex);
+			return InvoiceCandUpdatePrefetchedData.empty();
 		}
-
-		//
-		// Log the result
-		Loggables.addLog("Update invalid result: {}", result.getSummary());
 	}
 
-	private void updateInvalid(@NonNull final I_C_Invoice_Candidate icRecord)
+	private void updateInvalid(
+			@NonNull final I_C_Invoice_Candidate icRecord,
+			@NonNull final InvoiceCandUpdatePrefetchedData prefetchedData)
 	{
 		final Properties ctx = InterfaceWrapperHelper.getCtx(icRecord);
 
+		// avoid loading the order line (and order) again and again for each IC
+		prefetchedData.setOrderLineIfPrefetched(icRecord);
+
 		// reset scheduler result
 		icRecord.setSchedulerResult(null);
 		invoiceCandBL.resetError(icRecord);
@@ -276,7 +526,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		// Note: the code originally related to task 06502 has partially been moved to de.metas.invoicecandidate.modelvalidator.M_InoutLine
 		// we'll need those icIols to be up to date to date in order to have QtyWithIssues (updateQtyWithIssues() et al. further down),
 		// and we need them (depending on which handler) for setDeliveredData()
-		populateC_InvoiceCandidate_InOutLine(icRecord, icRecord.getC_OrderLine());
+		populateC_InvoiceCandidate_InOutLine(icRecord, icRecord.getC_OrderLine(), prefetchedData);
 
 		// Update 'QtyToInvoice_OverrideFulfilled'
 		// If is turns out that the fulfillment is now sufficient,
@@ -349,7 +599,8 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	 */
 	private void populateC_InvoiceCandidate_InOutLine(
 			@NonNull final I_C_Invoice_Candidate ic,
-			@Nullable final org.compiere.model.I_C_OrderLine orderLine)
+			@Nullable final org.compiere.model.I_C_OrderLine orderLine,
+			@NonNull final InvoiceCandUpdatePrefetchedData prefetchedData)
 	{
 		if (orderLine == null)
 		{
@@ -358,11 +609,15 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 
 		final IContextAware context = InterfaceWrapperHelper.getContextAware(ic);
 
-		final List<I_M_InOutLine> inoutLines = inOutDAO.retrieveLinesForOrderLine(orderLine, I_M_InOutLine.class);
+		final List<I_M_InOutLine> inoutLines = prefetchedData.getInOutLines(orderLine, ic)
+				.orElseGet(() -> inOutDAO.retrieveLinesForOrderLine(orderLine, I_M_InOutLine.class));
+		final boolean iciolsPrefetched = prefetchedData.isPrefetched(ic);
 		for (final I_M_InOutLine inOutLine : inoutLines)
 		{
 			// create a new PO or update the unique existing one
-			I_C_InvoiceCandidate_InOutLine iciol = invoiceCandDAO.retrieveInvoiceCandidateInOutLine(ic, inOutLine);
+			I_C_InvoiceCandidate_InOutLine iciol = iciolsPrefetched
+					? prefetchedData.getICIOLOrNull(ic, inOutLine)
+					: invoiceCandDAO.retrieveInvoiceCandidateInOutLine(ic, inOutLine);
 			if (iciol == null)
 			{
 				iciol = newInstance(I_C_InvoiceCandidate_InOutLine.class, context);
@@ -479,6 +734,34 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 		return sysConfigBL.getIntValue(SYSCONFIG_ItemsPerBatch, DEFAULT_ItemsPerBatch);
 	}
 
+	private boolean isPrefetchEnabled()
+	{
+		return sysConfigBL.getBooleanValue(SYSCONFIG_PrefetchEnabled, DEFAULT_PrefetchEnabled);
+	}
+
+	/**
+	 * @return how many threads shall be used to update the invoice candidates; 1 if they shall not be updated in parallel
+	 */
+	private int getParallelWorkers()
+	{
+		final int workers = sysConfigBL.getIntValue(SYSCONFIG_ParallelWorkers, DEFAULT_ParallelWorkers);
+		if (workers <= 1)
+		{
+			return 1;
+		}
+
+		// each worker is managing its own transactions, so we can't run in parallel if we were asked to use a given transaction
+		final boolean runningInTrx = !trxManager.isNull(_trxName)
+				|| !trxManager.isNull(trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone));
+		if (runningInTrx)
+		{
+			logger.debug("Not updating in parallel because we are running in a transaction");
+			return 1;
+		}
+
+		return workers;
+	}
+
 	/**
 	 * IC update result.
 	 *
@@ -486,17 +769,27 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 	 */
 	private static final class ICUpdateResult
 	{
-		private int countOk = 0;
-		private int countErrors = 0;
+		private final AtomicInteger countOk = new AtomicInteger();
+		private final AtomicInteger countErrors = new AtomicInteger();
 
 		public void addInvoiceCandidate(final I_C_Invoice_Candidate ic)
 		{
-			countOk++;
+			countOk.incrementAndGet();
 		}
 
 		public void incrementErrorsCount()
 		{
-			countErrors++;
+			countErrors.incrementAndGet();
+		}
+
+		public int getCountOk()
+		{
+			return countOk.get();
+		}
+
+		public int getCountErrors()
+		{
+			return countErrors.get();
 		}
 
 		@Override
@@ -543,4 +836,30 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 			invoiceCandDAO.save(ic);
 		}
 	}
+
+	/**
+	 * Makes the caller's loggable usable by multiple workers, because the loggables are not necessarily thread-safe.
+	 */
+	private static final class SynchronizedLoggable implements ILoggable
+	{
+		private final ILoggable delegate;
+
+		private SynchronizedLoggable(@NonNull final ILoggable delegate)
+		{
+			this.delegate = delegate;
+		}
+
+		@Override
+		public synchronized ILoggable addLog(final String msg, final Object... msgParameters)
+		{
+			delegate.addLog(msg, msgParameters);
+			return this;
+		}
+
+		@Override
+		public synchronized void flush()
+		{
+			delegate.flush();
+		}
+	}
 }
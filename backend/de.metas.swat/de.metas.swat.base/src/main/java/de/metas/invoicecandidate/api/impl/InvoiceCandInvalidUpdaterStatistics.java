@@ -0,0 +1,128 @@
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.invoicecandidate.api.impl;
+
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput statistics of {@link InvoiceCandInvalidUpdater}, aggregated over all the updater runs of this JVM.
+ * They are exposed via {@link JMXInvoiceCandInvalidUpdaterMBean}.
+ */
+final class InvoiceCandInvalidUpdaterStatistics
+{
+	public static final InvoiceCandInvalidUpdaterStatistics instance = new InvoiceCandInvalidUpdaterStatistics();
+
+	private final AtomicLong countRuns = new AtomicLong();
+	private final AtomicLong countUpdated = new AtomicLong();
+	private final AtomicLong countErrors = new AtomicLong();
+	private final AtomicLong countPrefetched = new AtomicLong();
+	private final AtomicLong durationNanos = new AtomicLong();
+
+	private volatile long lastRunCount = 0;
+	private volatile long lastRunDurationNanos = 0;
+	private volatile int lastRunWorkers = 0;
+
+	private InvoiceCandInvalidUpdaterStatistics()
+	{
+		JMXRegistry.get().registerJMX(new JMXInvoiceCandInvalidUpdater(this), OnJMXAlreadyExistsPolicy.Replace);
+	}
+
+	public void recordRun(final int countUpdated, final int countErrors, final long durationNanos, final int workers)
+	{
+		this.countRuns.incrementAndGet();
+		this.countUpdated.addAndGet(countUpdated);
+		this.countErrors.addAndGet(countErrors);
+		this.durationNanos.addAndGet(durationNanos);
+
+		this.lastRunCount = countUpdated + countErrors;
+		this.lastRunDurationNanos = durationNanos;
+		this.lastRunWorkers = workers;
+	}
+
+	public void recordPrefetched(final int countPrefetched)
+	{
+		this.countPrefetched.addAndGet(countPrefetched);
+	}
+
+	public long getCountRuns()
+	{
+		return countRuns.get();
+	}
+
+	public long getCountUpdated()
+	{
+		return countUpdated.get();
+	}
+
+	public long getCountErrors()
+	{
+		return countErrors.get();
+	}
+
+	public long getCountPrefetched()
+	{
+		return countPrefetched.get();
+	}
+
+	public long getDurationMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(durationNanos.get());
+	}
+
+	public double getInvoiceCandidatesPerSecond()
+	{
+		return computeRatePerSecond(countUpdated.get() + countErrors.get(), durationNanos.get());
+	}
+
+	public double getLastRunInvoiceCandidatesPerSecond()
+	{
+		return computeRatePerSecond(lastRunCount, lastRunDurationNanos);
+	}
+
+	public int getLastRunWorkers()
+	{
+		return lastRunWorkers;
+	}
+
+	private static double computeRatePerSecond(final long count, final long durationNanos)
+	{
+		return durationNanos > 0 ? count * 1_000_000_000.0 / durationNanos : 0;
+	}
+
+	public void reset()
+	{
+		countRuns.set(0);
+		countUpdated.set(0);
+		countErrors.set(0);
+		countPrefetched.set(0);
+		durationNanos.set(0);
+
+		lastRunCount = 0;
+		lastRunDurationNanos = 0;
+		lastRunWorkers = 0;
+	}
+}
@@ -0,0 +1,247 @@
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.invoicecandidate.api.impl;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Maps;
+import de.metas.inout.InOutLineId;
+import de.metas.invoicecandidate.InvoiceCandidateId;
+import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_M_InOutLine;
+import de.metas.order.OrderId;
+import de.metas.order.OrderLineId;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_C_Order;
+import org.compiere.model.I_C_OrderLine;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Records which were bulk-loaded for a block of invoice candidates, in order to avoid loading them one by one while the candidates are updated.
+ * <p>
+ * The order lines (with their orders) cover the ordered, delivered, bpartner, price and tax data of order line based candidates.
+ * <p>
+ * NOTE: the records are handed out in the trx of the invoice candidate which is currently updated, so the given instances shall be used only for that candidate.
+ */
+final class InvoiceCandUpdatePrefetchedData
+{
+	public static InvoiceCandUpdatePrefetchedData prefetch(@NonNull final Collection<I_C_Invoice_Candidate> invoiceCandidates)
+	{
+		final ImmutableSet<InvoiceCandidateId> invoiceCandidateIds = invoiceCandidates.stream()
+				.map(ic -> InvoiceCandidateId.ofRepoIdOrNull(ic.getC_Invoice_Candidate_ID()))
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		final ImmutableSet<OrderLineId> orderLineIds = invoiceCandidates.stream()
+				.map(ic -> OrderLineId.ofRepoIdOrNull(ic.getC_OrderLine_ID()))
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+
+		final ImmutableMap<OrderLineId, I_C_OrderLine> orderLinesById = retrieveOrderLines(orderLineIds);
+
+		return new InvoiceCandUpdatePrefetchedData(
+				invoiceCandidateIds,
+				orderLinesById,
+				retrieveOrders(orderLinesById.values()),
+				retrieveInOutLinesByOrderLineId(orderLinesById.keySet()),
+				retrieveICIOLs(invoiceCandidateIds));
+	}
+
+	public static InvoiceCandUpdatePrefetchedData empty()
+	{
+		return new InvoiceCandUpdatePrefetchedData(ImmutableSet.of(), ImmutableMap.of(), ImmutableMap.of(), ImmutableListMultimap.of(), ImmutableTable.of());
+	}
+
+	private final ImmutableSet<InvoiceCandidateId> invoiceCandidateIds;
+	private final ImmutableMap<OrderLineId, I_C_OrderLine> orderLinesById;
+	private final ImmutableMap<OrderId, I_C_Order> ordersById;
+	private final ImmutableListMultimap<OrderLineId, I_M_InOutLine> inoutLinesByOrderLineId;
+	private final ImmutableTable<InvoiceCandidateId, InOutLineId, I_C_InvoiceCandidate_InOutLine> iciols;
+
+	private InvoiceCandUpdatePrefetchedData(
+			@NonNull final ImmutableSet<InvoiceCandidateId> invoiceCandidateIds,
+			@NonNull final ImmutableMap<OrderLineId, I_C_OrderLine> orderLinesById,
+			@NonNull final ImmutableMap<OrderId, I_C_Order> ordersById,
+			@NonNull final ImmutableListMultimap<OrderLineId, I_M_InOutLine> inoutLinesByOrderLineId,
+			@NonNull final ImmutableTable<InvoiceCandidateId, InOutLineId, I_C_InvoiceCandidate_InOutLine> iciols)
+	{
+		this.invoiceCandidateIds = invoiceCandidateIds;
+		this.orderLinesById = orderLinesById;
+		this.ordersById = ordersById;
+		this.inoutLinesByOrderLineId = inoutLinesByOrderLineId;
+		this.iciols = iciols;
+	}
+
+	private static ImmutableMap<OrderLineId, I_C_OrderLine> retrieveOrderLines(final ImmutableSet<OrderLineId> orderLineIds)
+	{
+		if (orderLineIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		return Maps.uniqueIndex(
+				InterfaceWrapperHelper.loadByRepoIdAwares(orderLineIds, I_C_OrderLine.class),
+				orderLine -> OrderLineId.ofRepoId(orderLine.getC_OrderLine_ID()));
+	}
+
+	private static ImmutableMap<OrderId, I_C_Order> retrieveOrders(final Collection<I_C_OrderLine> orderLines)
+	{
+		final ImmutableSet<OrderId> orderIds = orderLines.stream()
+				.map(orderLine -> OrderId.ofRepoIdOrNull(orderLine.getC_Order_ID()))
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		if (orderIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		return Maps.uniqueIndex(
+				InterfaceWrapperHelper.loadByRepoIdAwares(orderIds, I_C_Order.class),
+				order -> OrderId.ofRepoId(order.getC_Order_ID()));
+	}
+
+	private static ImmutableListMultimap<OrderLineId, I_M_InOutLine> retrieveInOutLinesByOrderLineId(final ImmutableSet<OrderLineId> orderLineIds)
+	{
+		if (orderLineIds.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		// same filters and ordering as IInOutDAO.retrieveLinesForOrderLine
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_InOutLine.class)
+				.addInArrayFilter(I_M_InOutLine.COLUMNNAME_C_OrderLine_ID, orderLineIds)
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_M_InOutLine.COLUMNNAME_M_InOutLine_ID)
+				.create()
+				.stream(I_M_InOutLine.class)
+				.collect(ImmutableListMultimap.toImmutableListMultimap(
+						inoutLine -> OrderLineId.ofRepoId(inoutLine.getC_OrderLine_ID()),
+						inoutLine -> inoutLine));
+	}
+
+	private static ImmutableTable<InvoiceCandidateId, InOutLineId, I_C_InvoiceCandidate_InOutLine> retrieveICIOLs(final ImmutableSet<InvoiceCandidateId> invoiceCandidateIds)
+	{
+		if (invoiceCandidateIds.isEmpty())
+		{
+			return ImmutableTable.of();
+		}
+
+		// there is a unique index on C_Invoice_Candidate_ID and M_InOutLine_ID for the active records, see IInvoiceCandDAO.retrieveInvoiceCandidateInOutLine
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_InvoiceCandidate_InOutLine.class)
+				.addInArrayFilter(I_C_InvoiceCandidate_InOutLine.COLUMNNAME_C_Invoice_Candidate_ID, invoiceCandidateIds)
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.stream(I_C_InvoiceCandidate_InOutLine.class)
+				.filter(iciol -> iciol.getM_InOutLine_ID() > 0)
+				.collect(ImmutableTable.toImmutableTable(
+						iciol -> InvoiceCandidateId.ofRepoId(iciol.getC_Invoice_Candidate_ID()),
+						iciol -> InOutLineId.ofRepoId(iciol.getM_InOutLine_ID()),
+						iciol -> iciol));
+	}
+
+	public boolean isPrefetched(@NonNull final I_C_Invoice_Candidate ic)
+	{
+		final InvoiceCandidateId invoiceCandidateId = InvoiceCandidateId.ofRepoIdOrNull(ic.getC_Invoice_Candidate_ID());
+		return invoiceCandidateId != null && invoiceCandidateIds.contains(invoiceCandidateId);
+	}
+
+	/**
+	 * Sets the prefetched order line (and order) to given invoice candidate, so the handlers won't load it again.
+	 */
+	public void setOrderLineIfPrefetched(@NonNull final I_C_Invoice_Candidate ic)
+	{
+		final OrderLineId orderLineId = OrderLineId.ofRepoIdOrNull(ic.getC_OrderLine_ID());
+		final I_C_OrderLine orderLine = orderLineId != null ? orderLinesById.get(orderLineId) : null;
+		if (orderLine == null)
+		{
+			return;
+		}
+
+		// NOTE: the model references are valid only if they are in the same trx as the referencing model
+		final String trxName = InterfaceWrapperHelper.getTrxName(ic);
+		InterfaceWrapperHelper.setTrxName(orderLine, trxName);
+
+		final OrderId orderId = OrderId.ofRepoIdOrNull(orderLine.getC_Order_ID());
+		final I_C_Order order = orderId != null ? ordersById.get(orderId) : null;
+		if (order != null)
+		{
+			InterfaceWrapperHelper.setTrxName(order, trxName);
+			orderLine.setC_Order(order);
+		}
+
+		ic.setC_OrderLine(orderLine);
+	}
+
+	/**
+	 * @return the prefetched inout lines of given order line or empty if the order line was not prefetched
+	 */
+	public Optional<List<I_M_InOutLine>> getInOutLines(@NonNull final I_C_OrderLine orderLine, @NonNull final I_C_Invoice_Candidate ic)
+	{
+		final OrderLineId orderLineId = OrderLineId.ofRepoIdOrNull(orderLine.getC_OrderLine_ID());
+		if (orderLineId == null || !orderLinesById.containsKey(orderLineId))
+		{
+			return Optional.empty();
+		}
+
+		final String trxName = InterfaceWrapperHelper.getTrxName(ic);
+		final List<I_M_InOutLine> inoutLines = inoutLinesByOrderLineId.get(orderLineId);
+		inoutLines.forEach(inoutLine -> InterfaceWrapperHelper.setTrxName(inoutLine, trxName));
+		return Optional.of(inoutLines);
+	}
+
+	/**
+	 * Call this method only if {@link #isPrefetched(I_C_Invoice_Candidate)}.
+	 *
+	 * @return existing association or null
+	 */
+	@Nullable
+	public I_C_InvoiceCandidate_InOutLine getICIOLOrNull(@NonNull final I_C_Invoice_Candidate ic, @NonNull final I_M_InOutLine inoutLine)
+	{
+		final InvoiceCandidateId invoiceCandidateId = InvoiceCandidateId.ofRepoId(ic.getC_Invoice_Candidate_ID());
+		final InOutLineId inoutLineId = InOutLineId.ofRepoId(inoutLine.getM_InOutLine_ID());
+
+		final I_C_InvoiceCandidate_InOutLine iciol = iciols.get(invoiceCandidateId, inoutLineId);
+		if (iciol != null)
+		{
+			InterfaceWrapperHelper.setTrxName(iciol, InterfaceWrapperHelper.getTrxName(ic));
+		}
+		return iciol;
+	}
+
+	public int size()
+	{
+		return invoiceCandidateIds.size();
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.invoicecandidate.api.impl;
+
+import lombok.NonNull;
+import org.adempiere.util.jmx.IJMXNameAware;
+
+/**
+ * JMX bean for {@link InvoiceCandInvalidUpdaterStatistics} (implementation)
+ */
+class JMXInvoiceCandInvalidUpdater implements JMXInvoiceCandInvalidUpdaterMBean, IJMXNameAware
+{
+	private final InvoiceCandInvalidUpdaterStatistics statistics;
+
+	JMXInvoiceCandInvalidUpdater(@NonNull final InvoiceCandInvalidUpdaterStatistics statistics)
+	{
+		this.statistics = statistics;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return "de.metas.invoicecandidate:type=InvoiceCandInvalidUpdater";
+	}
+
+	@Override
+	public long getCountRuns()
+	{
+		return statistics.getCountRuns();
+	}
+
+	@Override
+	public long getCountUpdated()
+	{
+		return statistics.getCountUpdated();
+	}
+
+	@Override
+	public long getCountErrors()
+	{
+		return statistics.getCountErrors();
+	}
+
+	@Override
+	public long getCountPrefetched()
+	{
+		return statistics.getCountPrefetched();
+	}
+
+	@Override
+	public long getDurationMillis()
+	{
+		return statistics.getDurationMillis();
+	}
+
+	@Override
+	public double getInvoiceCandidatesPerSecond()
+	{
+		return statistics.getInvoiceCandidatesPerSecond();
+	}
+
+	@Override
+	public double getLastRunInvoiceCandidatesPerSecond()
+	{
+		return statistics.getLastRunInvoiceCandidatesPerSecond();
+	}
+
+	@Override
+	public int getLastRunWorkers()
+	{
+		return statistics.getLastRunWorkers();
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		statistics.reset();
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.invoicecandidate.api.impl;
+
+public interface JMXInvoiceCandInvalidUpdaterMBean
+{
+	long getCountRuns();
+
+	/** @return how many invoice candidates were updated without errors */
+	long getCountUpdated();
+
+	long getCountErrors();
+
+	/** @return how many invoice candidates were updated with bulk-loaded order lines, inout lines and invoice candidate-inout line associations */
+	long getCountPrefetched();
+
+	long getDurationMillis();
+
+	/** @return overall throughput, including the invoice candidates which were updated with errors */
+	double getInvoiceCandidatesPerSecond();
+
+	double getLastRunInvoiceCandidatesPerSecond();
+
+	/** @return how many worker threads were used in the last run; 1 means that it was not run in parallel */
+	int getLastRunWorkers();
+
+	void resetStatistics();
+}
@@ -22,6 +22,7 @@ import org.slf4j.MDC.MDCCloseable;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 
@@ -54,6 +55,8 @@ public class ShipmentScheduleQtyOnHandStorage
 	private final IPPOrderBL ppOrdersBL = Services.get(IPPOrderBL.class);
 
 	private final ImmutableList<ShipmentScheduleAvailableStockDetail> stockDetails;
+	/** same instances as {@link #stockDetails}, indexed by product; the order is preserved within each product */
+	private final ImmutableListMultimap<ProductId, ShipmentScheduleAvailableStockDetail> stockDetailsByProductId;
 	private final Map<ArrayKey, StockDataQuery> cachedMaterialQueries = new HashMap<>();
 	private final Map<PPOrderId, Optional<QtyCalculationsBOM>> cachedPickingBOMs = new HashMap<>();
 
@@ -62,12 +65,21 @@ public class ShipmentScheduleQtyOnHandStorage
 			@NonNull final StockRepository stockRepository)
 	{
 		this.stockDetails = toStockDetails(shipmentSchedules, stockRepository);
+		this.stockDetailsByProductId = indexByProductId(stockDetails);
 	}
 
 	@VisibleForTesting
 	ShipmentScheduleQtyOnHandStorage(@NonNull final List<ShipmentScheduleAvailableStockDetail> stockDetails)
 	{
 		this.stockDetails = ImmutableList.copyOf(stockDetails);
+		this.stockDetailsByProductId = indexByProductId(this.stockDetails);
+	}
+
+	private static ImmutableListMultimap<ProductId, ShipmentScheduleAvailableStockDetail> indexByProductId(final ImmutableList<ShipmentScheduleAvailableStockDetail> stockDetails)
+	{
+		return stockDetails
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(ShipmentScheduleAvailableStockDetail::getProductId, stockDetail -> stockDetail));
 	}
 
 	private final ImmutableList<ShipmentScheduleAvailableStockDetail> toStockDetails(
@@ -283,7 +295,8 @@ public class ShipmentScheduleQtyOnHandStorage
 
 	private ImmutableList<ShipmentScheduleAvailableStockDetail> getStockDetailsMatching(@NonNull final StockDataQuery query)
 	{
-		return stockDetails
+		// only the stock details of the query's product can match, so there is no need to scan all of them for each shipment schedule
+		return stockDetailsByProductId.get(query.getProductId())
 				.stream()
 				.filter(stockDetail -> matching(query, stockDetail))
 				.collect(ImmutableList.toImmutableList());
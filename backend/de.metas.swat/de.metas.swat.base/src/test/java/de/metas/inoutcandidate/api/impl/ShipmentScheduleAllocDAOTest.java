@@ -2,12 +2,19 @@ package de.metas.inoutcandidate.api.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
+
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_M_InOutLine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.inoutcandidate.api.IShipmentScheduleAllocDAO;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule_QtyPicked;
 import de.metas.util.Services;
@@ -61,6 +68,47 @@ public class ShipmentScheduleAllocDAOTest
 				.containsExactly(qp2, qp4);
 	}
 
+	/**
+	 * Makes sure that the bulk retrieval methods are returning the same quantities as the per-shipment-schedule ones.
+	 */
+	@Test
+	public void test_retrieveQtysByShipmentScheduleId()
+	{
+		final I_M_InOutLine processedInOutLine = createInOutLine("10", true);
+		final I_M_InOutLine draftInOutLine = createInOutLine("20", false);
+
+		final I_M_ShipmentSchedule ss1 = createShipmentSchedule();
+		createShipmentScheduleQtyPickedRecord(ss1, processedInOutLine.getM_InOutLine_ID(), "3", true);
+		createShipmentScheduleQtyPickedRecord(ss1, processedInOutLine.getM_InOutLine_ID(), "7", true); // same inout line => counted once
+		createShipmentScheduleQtyPickedRecord(ss1, draftInOutLine.getM_InOutLine_ID(), "5", false);
+		createShipmentScheduleQtyPickedRecord(ss1, 0, "2", false);
+
+		final I_M_ShipmentSchedule ss2 = createShipmentSchedule();
+		createShipmentScheduleQtyPickedRecord(ss2, processedInOutLine.getM_InOutLine_ID(), "4", true);
+
+		final I_M_ShipmentSchedule ss3 = createShipmentSchedule(); // nothing picked, nothing delivered
+
+		final ImmutableSet<ShipmentScheduleId> shipmentScheduleIds = ImmutableSet.of(
+				ShipmentScheduleId.ofRepoId(ss1.getM_ShipmentSchedule_ID()),
+				ShipmentScheduleId.ofRepoId(ss2.getM_ShipmentSchedule_ID()),
+				ShipmentScheduleId.ofRepoId(ss3.getM_ShipmentSchedule_ID()));
+		final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysDelivered = dao.retrieveQtyDeliveredByShipmentScheduleId(shipmentScheduleIds);
+		final ImmutableMap<ShipmentScheduleId, BigDecimal> qtysPickedAndUnconfirmed = dao.retrieveQtyPickedAndUnconfirmedByShipmentScheduleId(shipmentScheduleIds);
+
+		assertThat(qtysDelivered).containsOnlyKeys(shipmentScheduleIds);
+		assertThat(qtysPickedAndUnconfirmed).containsOnlyKeys(shipmentScheduleIds);
+		for (final I_M_ShipmentSchedule ss : new I_M_ShipmentSchedule[] { ss1, ss2, ss3 })
+		{
+			final ShipmentScheduleId shipmentScheduleId = ShipmentScheduleId.ofRepoId(ss.getM_ShipmentSchedule_ID());
+			assertThat(qtysDelivered.get(shipmentScheduleId)).isEqualByComparingTo(dao.retrieveQtyDelivered(ss));
+			assertThat(qtysPickedAndUnconfirmed.get(shipmentScheduleId)).isEqualByComparingTo(dao.retrieveQtyPickedAndUnconfirmed(ss));
+		}
+
+		assertThat(qtysDelivered.get(ShipmentScheduleId.ofRepoId(ss1.getM_ShipmentSchedule_ID()))).isEqualByComparingTo("10");
+		assertThat(qtysPickedAndUnconfirmed.get(ShipmentScheduleId.ofRepoId(ss1.getM_ShipmentSchedule_ID()))).isEqualByComparingTo("7");
+		assertThat(qtysDelivered.get(ShipmentScheduleId.ofRepoId(ss3.getM_ShipmentSchedule_ID()))).isZero();
+	}
+
 	private final I_M_ShipmentSchedule createShipmentSchedule()
 	{
 		final I_M_ShipmentSchedule sched = InterfaceWrapperHelper.newInstance(I_M_ShipmentSchedule.class);
@@ -76,4 +124,28 @@ public class ShipmentScheduleAllocDAOTest
 		InterfaceWrapperHelper.saveRecord(record);
 		return record;
 	}
+
+	private final I_M_ShipmentSchedule_QtyPicked createShipmentScheduleQtyPickedRecord(
+			final I_M_ShipmentSchedule ss,
+			final int inoutLineId,
+			final String qtyPicked,
+			final boolean processed)
+	{
+		final I_M_ShipmentSchedule_QtyPicked record = InterfaceWrapperHelper.newInstance(I_M_ShipmentSchedule_QtyPicked.class);
+		record.setM_ShipmentSchedule_ID(ss.getM_ShipmentSchedule_ID());
+		record.setM_InOutLine_ID(inoutLineId);
+		record.setQtyPicked(new BigDecimal(qtyPicked));
+		record.setProcessed(processed);
+		InterfaceWrapperHelper.saveRecord(record);
+		return record;
+	}
+
+	private final I_M_InOutLine createInOutLine(final String movementQty, final boolean processed)
+	{
+		final I_M_InOutLine inoutLine = InterfaceWrapperHelper.newInstance(I_M_InOutLine.class);
+		inoutLine.setMovementQty(new BigDecimal(movementQty));
+		inoutLine.setProcessed(processed);
+		InterfaceWrapperHelper.saveRecord(inoutLine);
+		return inoutLine;
+	}
 }
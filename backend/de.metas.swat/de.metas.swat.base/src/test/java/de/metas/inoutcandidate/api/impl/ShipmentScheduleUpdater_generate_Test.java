@@ -1,10 +1,14 @@
 package de.metas.inoutcandidate.api.impl;
 
 import static java.math.BigDecimal.TEN;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.adempiere.inout.util.DeliveryLineCandidate;
 import org.adempiere.inout.util.IShipmentSchedulesDuringUpdate.CompleteStatus;
@@ -12,6 +16,7 @@ import org.adempiere.inout.util.ShipmentSchedulesDuringUpdate;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
 import org.assertj.core.api.AbstractBigDecimalAssert;
+import org.compiere.model.I_M_InOutLine;
 import org.compiere.model.X_M_Product;
 import org.compiere.util.Env;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +31,7 @@ import com.google.common.collect.ImmutableList;
 import de.metas.bpartner.service.IBPartnerBL;
 import de.metas.bpartner.service.impl.BPartnerBL;
 import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
 import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.OrderLineSpec;
 import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.OrderSpec;
 import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.PickFromOrderBOMLineSpec;
@@ -36,6 +42,8 @@ import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.StockSpec;
 import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.TestSetupSpec;
 import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.TestSetupSpecHelper;
 import de.metas.inoutcandidate.api.impl.shipmentschedule_test_specs.UomSpec;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule_QtyPicked;
 import de.metas.order.DeliveryRule;
 import de.metas.user.UserRepository;
 import de.metas.util.Services;
@@ -395,4 +403,102 @@ public class ShipmentScheduleUpdater_generate_Test
 		}
 
 	}
+
+	/**
+	 * Verifies that the bulk-loaded delivered and picked quantities lead to the same result as retrieving them for each shipment schedule.
+	 */
+	@Nested
+	public class prefetchedData
+	{
+		private ImmutableList<OlAndSched> setup()
+		{
+			final TestSetupSpec spec = TestSetupSpec.builder()
+					.uom(UomSpec.builder().name("stockUom").build())
+					.product(ProductSpec.builder().value("prod1").uomValue("stockUom").stocked(true).build())
+					.stock(StockSpec.builder().product("prod1").qtyStock(new BigDecimal("100")).build())
+					.order(OrderSpec.builder().value("order1").build())
+					.orderLine(OrderLineSpec.builder().value("ol1").product("prod1").order("order1").qtyOrdered(new BigDecimal("10")).build())
+					.orderLine(OrderLineSpec.builder().value("ol2").product("prod1").order("order1").qtyOrdered(new BigDecimal("11")).build())
+					.orderLine(OrderLineSpec.builder().value("ol3").product("prod1").order("order1").qtyOrdered(new BigDecimal("12")).build())
+					.shipmentSchedule(ShipmentScheduleSpec.builder().product("prod1").order("order1").orderLine("ol1").qtyOrdered(new BigDecimal("10"))
+							.deliveryRule(DeliveryRule.AVAILABILITY).build())
+					.shipmentSchedule(ShipmentScheduleSpec.builder().product("prod1").order("order1").orderLine("ol2").qtyOrdered(new BigDecimal("11"))
+							.deliveryRule(DeliveryRule.AVAILABILITY).build())
+					.shipmentSchedule(ShipmentScheduleSpec.builder().product("prod1").order("order1").orderLine("ol3").qtyOrdered(new BigDecimal("12"))
+							.deliveryRule(DeliveryRule.AVAILABILITY).build())
+					.build();
+			return TestSetupSpecHelper.setup(spec);
+		}
+
+		private void createQtyPicked(final OlAndSched olAndSched, final String qtyPicked, final boolean processed, final I_M_InOutLine inoutLine)
+		{
+			final I_M_ShipmentSchedule_QtyPicked qtyPickedRecord = newInstance(I_M_ShipmentSchedule_QtyPicked.class);
+			qtyPickedRecord.setM_ShipmentSchedule_ID(olAndSched.getShipmentScheduleId().getRepoId());
+			qtyPickedRecord.setQtyPicked(new BigDecimal(qtyPicked));
+			qtyPickedRecord.setProcessed(processed);
+			if (inoutLine != null)
+			{
+				qtyPickedRecord.setM_InOutLine_ID(inoutLine.getM_InOutLine_ID());
+			}
+			saveRecord(qtyPickedRecord);
+		}
+
+		private I_M_InOutLine createShippedInOutLine(final String movementQty)
+		{
+			final I_M_InOutLine inoutLine = newInstance(I_M_InOutLine.class);
+			inoutLine.setMovementQty(new BigDecimal(movementQty));
+			inoutLine.setProcessed(true);
+			saveRecord(inoutLine);
+			return inoutLine;
+		}
+
+		private Map<ShipmentScheduleId, BigDecimal> qtysToDeliver(final ShipmentSchedulesDuringUpdate result)
+		{
+			return result.getAllLines()
+					.stream()
+					.collect(Collectors.toMap(DeliveryLineCandidate::getShipmentScheduleId, DeliveryLineCandidate::getQtyToDeliver));
+		}
+
+		private List<BigDecimal> qtysPickList(final List<OlAndSched> olAndScheds)
+		{
+			return olAndScheds.stream()
+					.map(OlAndSched::getSched)
+					.map(I_M_ShipmentSchedule::getQtyPickList)
+					.collect(Collectors.toList());
+		}
+
+		@Test
+		public void sameResultAsRetrievingForEachShipmentSchedule()
+		{
+			final ImmutableList<OlAndSched> olAndScheds = setup();
+			final OlAndSched olAndSched1 = olAndScheds.get(0);
+			final OlAndSched olAndSched2 = olAndScheds.get(1);
+			final OlAndSched olAndSched3 = olAndScheds.get(2);
+
+			// olAndSched1: 4 delivered (on two pick records of the same shipment line) + 2 picked but not yet shipped
+			final I_M_InOutLine inoutLine = createShippedInOutLine("4");
+			createQtyPicked(olAndSched1, "1", true, inoutLine);
+			createQtyPicked(olAndSched1, "3", true, inoutLine);
+			createQtyPicked(olAndSched1, "2", false, null);
+			// olAndSched2: 3 + 3 picked but not yet shipped
+			createQtyPicked(olAndSched2, "3", false, null);
+			createQtyPicked(olAndSched2, "3", false, null);
+			// olAndSched3: nothing delivered or picked
+
+			final ShipmentSchedulesDuringUpdate resultOnDemand = shipmentScheduleUpdater.generate_FirstRun(Env.getCtx(), olAndScheds, ShipmentScheduleUpdatePrefetchedData.onDemand());
+			final List<BigDecimal> qtysPickListOnDemand = qtysPickList(olAndScheds);
+
+			final ShipmentSchedulesDuringUpdate resultPrefetched = shipmentScheduleUpdater.generate_FirstRun(Env.getCtx(), olAndScheds, ShipmentScheduleUpdatePrefetchedData.prefetch(olAndScheds));
+			final List<BigDecimal> qtysPickListPrefetched = qtysPickList(olAndScheds);
+
+			assertThat(qtysToDeliver(resultPrefetched)).isEqualTo(qtysToDeliver(resultOnDemand));
+			assertThat(qtysPickListPrefetched).isEqualTo(qtysPickListOnDemand);
+
+			// make sure that the quantities were really taken into account
+			assertThat(qtysToDeliver(resultPrefetched).get(olAndSched1.getShipmentScheduleId())).isEqualByComparingTo("4"); // 10 - 4 - 2
+			assertThat(qtysToDeliver(resultPrefetched).get(olAndSched2.getShipmentScheduleId())).isEqualByComparingTo("5"); // 11 - 6
+			assertThat(qtysToDeliver(resultPrefetched).get(olAndSched3.getShipmentScheduleId())).isEqualByComparingTo("12");
+			assertThat(qtysPickListPrefetched).usingElementComparator(BigDecimal::compareTo).containsExactly(new BigDecimal("2"), new BigDecimal("6"), BigDecimal.ZERO);
+		}
+	}
 }
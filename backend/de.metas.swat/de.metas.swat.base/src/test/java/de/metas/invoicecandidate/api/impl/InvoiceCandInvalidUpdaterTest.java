@@ -0,0 +1,101 @@
+package de.metas.invoicecandidate.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InvoiceCandInvalidUpdaterTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static I_C_Invoice_Candidate invoiceCandidate(final int billBPartnerId, final int orderId)
+	{
+		final I_C_Invoice_Candidate ic = newInstance(I_C_Invoice_Candidate.class);
+		ic.setBill_BPartner_ID(billBPartnerId);
+		ic.setC_Order_ID(orderId);
+		saveRecord(ic);
+		return ic;
+	}
+
+	private static List<Integer> billBPartnerIds(final List<I_C_Invoice_Candidate> ics)
+	{
+		return ics.stream().map(I_C_Invoice_Candidate::getBill_BPartner_ID).distinct().collect(Collectors.toList());
+	}
+
+	@Test
+	public void splitByPartitionKey_sameBillBPartnerOnSameWorker()
+	{
+		final I_C_Invoice_Candidate ic1 = invoiceCandidate(1, 10);
+		final I_C_Invoice_Candidate ic2 = invoiceCandidate(2, 20);
+		final I_C_Invoice_Candidate ic3 = invoiceCandidate(1, 11); // same bill partner as ic1, but another order
+		final I_C_Invoice_Candidate ic4 = invoiceCandidate(3, 30);
+		final I_C_Invoice_Candidate ic5 = invoiceCandidate(1, 0); // same bill partner as ic1, but no order
+
+		final List<List<I_C_Invoice_Candidate>> workersCandidates = InvoiceCandInvalidUpdater.splitByPartitionKey(ImmutableList.of(ic1, ic2, ic3, ic4, ic5), 2);
+
+		assertThat(workersCandidates).hasSize(2);
+		assertThat(workersCandidates.stream().flatMap(List::stream)).containsExactlyInAnyOrder(ic1, ic2, ic3, ic4, ic5);
+
+		// each bill partner is updated by exactly one worker, in the original order
+		assertThat(workersCandidates.stream().flatMap(ics -> billBPartnerIds(ics).stream())).doesNotHaveDuplicates();
+		final List<I_C_Invoice_Candidate> worker1Candidates = workersCandidates.stream().filter(ics -> ics.contains(ic1)).findFirst().get();
+		assertThat(worker1Candidates.stream().filter(ic -> ic.getBill_BPartner_ID() == 1)).containsExactly(ic1, ic3, ic5);
+	}
+
+	@Test
+	public void splitByPartitionKey_moreWorkersThanPartitions()
+	{
+		final I_C_Invoice_Candidate ic1 = invoiceCandidate(1, 10);
+		final I_C_Invoice_Candidate ic2 = invoiceCandidate(1, 11);
+
+		final List<List<I_C_Invoice_Candidate>> workersCandidates = InvoiceCandInvalidUpdater.splitByPartitionKey(ImmutableList.of(ic1, ic2), 4);
+
+		assertThat(workersCandidates).containsExactly(ImmutableList.of(ic1, ic2));
+	}
+
+	@Test
+	public void extractPartitionKey_noBillBPartner()
+	{
+		final I_C_Invoice_Candidate ic1 = invoiceCandidate(0, 10);
+		final I_C_Invoice_Candidate ic2 = invoiceCandidate(0, 10);
+
+		assertThat(InvoiceCandInvalidUpdater.extractPartitionKey(ic1)).isNotEqualTo(InvoiceCandInvalidUpdater.extractPartitionKey(ic2));
+	}
+}
@@ -0,0 +1,140 @@
+package de.metas.invoicecandidate.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import de.metas.invoicecandidate.api.IInvoiceCandBL;
+import de.metas.invoicecandidate.api.IInvoiceCandDAO;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.organization.OrgId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Database coupled test which makes sure that updating the invalid invoice candidates on multiple workers gives the same result as updating them on one thread.
+ */
+@Disabled("requires database connection")
+public class InvoiceCandInvalidUpdater_Parallel_DBTest
+{
+	private static final String SYSCONFIG_ParallelWorkers = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ParallelWorkers";
+	private static final String SYSCONFIG_ItemsPerBatch = "de.metas.invoicecandidate.api.impl.InvoiceCandInvalidUpdater.ItemsPerBatch";
+
+	private static final String SQL_CountDuplicateHeaderAggregationKeys = "SELECT count(1) FROM ("
+			+ " SELECT HeaderAggregationKey FROM C_Invoice_Candidate_HeaderAggregation"
+			+ " GROUP BY HeaderAggregationKey HAVING count(1) > 1"
+			+ ") t";
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	@BeforeAll
+	public static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath()
+					+ File.separator + ".." + File.separator + ".."
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@AfterEach
+	public void resetSysConfigs()
+	{
+		sysConfigBL.setValue(SYSCONFIG_ParallelWorkers, 1, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(SYSCONFIG_ItemsPerBatch, 100, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	@Test
+	public void parallelUpdate_sameResultAsSerialUpdate()
+	{
+		final List<I_C_Invoice_Candidate> ics = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_Invoice_Candidate.class, Env.getCtx(), ITrx.TRXNAME_None)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_Invoice_Candidate.COLUMNNAME_Processed, false)
+				.orderBy(I_C_Invoice_Candidate.COLUMNNAME_Bill_BPartner_ID)
+				.create()
+				.setLimit(1000)
+				.list();
+		Assumptions.assumeTrue(ics.size() > 10, "there are enough not processed invoice candidates");
+
+		final int countDuplicateHeaderAggregationKeysBefore = DB.getSQLValueEx(ITrx.TRXNAME_None, SQL_CountDuplicateHeaderAggregationKeys);
+
+		// parallel first, so that the header aggregation keys are created by the parallel workers
+		final Map<Integer, String> parallelResult = updateInvalid(ics, 4);
+		assertThat(DB.getSQLValueEx(ITrx.TRXNAME_None, SQL_CountDuplicateHeaderAggregationKeys)).isEqualTo(countDuplicateHeaderAggregationKeysBefore);
+
+		final Map<Integer, String> serialResult = updateInvalid(ics, 1);
+
+		assertThat(parallelResult).isEqualTo(serialResult);
+	}
+
+	private Map<Integer, String> updateInvalid(final List<I_C_Invoice_Candidate> ics, final int workers)
+	{
+		sysConfigBL.setValue(SYSCONFIG_ParallelWorkers, workers, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(SYSCONFIG_ItemsPerBatch, 10, ClientId.SYSTEM, OrgId.ANY);
+
+		Services.get(IInvoiceCandDAO.class).invalidateCands(ics);
+		Services.get(IInvoiceCandBL.class).updateInvalid()
+				.setContext(Env.getCtx(), ITrx.TRXNAME_None)
+				.setTaggedWithAnyTag()
+				.update();
+
+		ics.forEach(InterfaceWrapperHelper::refresh);
+		return ics.stream().collect(Collectors.toMap(I_C_Invoice_Candidate::getC_Invoice_Candidate_ID, InvoiceCandInvalidUpdater_Parallel_DBTest::toResultString));
+	}
+
+	private static String toResultString(final I_C_Invoice_Candidate ic)
+	{
+		return "QtyToInvoice=" + ic.getQtyToInvoice()
+				+ ", PriceActual=" + ic.getPriceActual()
+				+ ", NetAmtToInvoice=" + ic.getNetAmtToInvoice()
+				+ ", HeaderAggregationKey=" + ic.getHeaderAggregationKey()
+				+ ", C_Invoice_Candidate_HeaderAggregation_Effective_ID=" + ic.getC_Invoice_Candidate_HeaderAggregation_Effective_ID();
+	}
+}
@@ -0,0 +1,124 @@
+package de.metas.invoicecandidate.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_Order;
+import org.compiere.model.I_C_OrderLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_M_InOutLine;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InvoiceCandUpdatePrefetchedDataTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void prefetch()
+	{
+		final I_C_Order order = newInstance(I_C_Order.class);
+		order.setBill_BPartner_ID(10);
+		saveRecord(order);
+
+		final I_C_OrderLine orderLine = newInstance(I_C_OrderLine.class);
+		orderLine.setC_Order_ID(order.getC_Order_ID());
+		saveRecord(orderLine);
+
+		final I_M_InOutLine inoutLine1 = createInOutLine(orderLine);
+		final I_M_InOutLine inoutLine2 = createInOutLine(orderLine);
+		createInOutLine(newInstance(I_C_OrderLine.class)); // another order line's inout line
+
+		final I_C_Invoice_Candidate ic = newInstance(I_C_Invoice_Candidate.class);
+		ic.setC_OrderLine_ID(orderLine.getC_OrderLine_ID());
+		saveRecord(ic);
+
+		final I_C_InvoiceCandidate_InOutLine iciol1 = newInstance(I_C_InvoiceCandidate_InOutLine.class);
+		iciol1.setC_Invoice_Candidate_ID(ic.getC_Invoice_Candidate_ID());
+		iciol1.setM_InOutLine_ID(inoutLine1.getM_InOutLine_ID());
+		saveRecord(iciol1);
+
+		final I_C_Invoice_Candidate icWithoutOrderLine = newInstance(I_C_Invoice_Candidate.class);
+		saveRecord(icWithoutOrderLine);
+
+		final InvoiceCandUpdatePrefetchedData prefetchedData = InvoiceCandUpdatePrefetchedData.prefetch(ImmutableList.of(ic, icWithoutOrderLine));
+		assertThat(prefetchedData.size()).isEqualTo(2);
+		assertThat(prefetchedData.isPrefetched(ic)).isTrue();
+
+		prefetchedData.setOrderLineIfPrefetched(ic);
+		assertThat(ic.getC_OrderLine().getC_OrderLine_ID()).isEqualTo(orderLine.getC_OrderLine_ID());
+		assertThat(ic.getC_OrderLine().getC_Order().getBill_BPartner_ID()).isEqualTo(10);
+
+		final Optional<List<I_M_InOutLine>> inoutLines = prefetchedData.getInOutLines(orderLine, ic);
+		assertThat(inoutLines).isPresent();
+		assertThat(inoutLines.get())
+				.extracting(I_M_InOutLine::getM_InOutLine_ID)
+				.containsExactly(inoutLine1.getM_InOutLine_ID(), inoutLine2.getM_InOutLine_ID());
+
+		assertThat(prefetchedData.getICIOLOrNull(ic, inoutLine1).getC_InvoiceCandidate_InOutLine_ID()).isEqualTo(iciol1.getC_InvoiceCandidate_InOutLine_ID());
+		assertThat(prefetchedData.getICIOLOrNull(ic, inoutLine2)).isNull();
+	}
+
+	@Test
+	public void empty()
+	{
+		final I_C_OrderLine orderLine = newInstance(I_C_OrderLine.class);
+		saveRecord(orderLine);
+
+		final I_C_Invoice_Candidate ic = newInstance(I_C_Invoice_Candidate.class);
+		ic.setC_OrderLine_ID(orderLine.getC_OrderLine_ID());
+		saveRecord(ic);
+
+		final InvoiceCandUpdatePrefetchedData prefetchedData = InvoiceCandUpdatePrefetchedData.empty();
+		assertThat(prefetchedData.isPrefetched(ic)).isFalse();
+		assertThat(prefetchedData.getInOutLines(orderLine, ic)).isEmpty();
+	}
+
+	private static I_M_InOutLine createInOutLine(final I_C_OrderLine orderLine)
+	{
+		if (orderLine.getC_OrderLine_ID() <= 0)
+		{
+			saveRecord(orderLine);
+		}
+
+		final I_M_InOutLine inoutLine = newInstance(I_M_InOutLine.class);
+		inoutLine.setC_OrderLine_ID(orderLine.getC_OrderLine_ID());
+		saveRecord(inoutLine);
+		return inoutLine;
+	}
+}
@@ -289,6 +289,14 @@ public class DebugRestController
 		sqlViewFactory.setDefaultProfileId(WindowId.fromJson(windowIdStr), ViewProfileId.fromJson(profileIdStr));
 	}
 
+	@GetMapping("/documents/cacheStats")
+	public Map<String, Object> getDocumentsCacheStats()
+	{
+		userSession.assertLoggedIn();
+
+		return documentCollection.getCacheStats();
+	}
+
 	@RequestMapping(value = "/lookups/cacheStats", method = RequestMethod.GET)
 	public List<String> getLookupCacheStats()
 	{
@@ -551,6 +559,14 @@ public class DebugRestController
 		return websocketSender.getLoggedEvents(destinationFilter);
 	}
 
+	@GetMapping("websocketEvents/stats")
+	public Map<String, Long> getWebsocketEventsStats()
+	{
+		userSession.assertLoggedIn();
+
+		return websocketSender.getEventsStats();
+	}
+
 	@PostMapping("/view/{viewId}/deleteRows")
 	public String viewDeleteRowIds(
 			@PathVariable("viewId") final String viewIdStr,
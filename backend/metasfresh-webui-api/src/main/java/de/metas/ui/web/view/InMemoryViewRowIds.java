@@ -0,0 +1,218 @@
+package de.metas.ui.web.view;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Immutable ordered list of single integer row IDs, which is kept in memory instead of <code>T_WEBUI_ViewSelection</code>.
+ *
+ * @see InMemoryViewRowIdsOrderedSelectionFactory
+ */
+final class InMemoryViewRowIds
+{
+	public static InMemoryViewRowIds ofArray(@NonNull final int[] rowIds)
+	{
+		return rowIds.length > 0 ? new InMemoryViewRowIds(rowIds) : EMPTY;
+	}
+
+	public static final InMemoryViewRowIds EMPTY = new InMemoryViewRowIds(new int[0]);
+
+	private final int[] rowIds;
+	/** Sorted copy of {@link #rowIds}, for fast lookups; built on demand */
+	private final Supplier<RowIdsIndex> indexSupplier = Suppliers.memoize(this::createIndex);
+
+	private InMemoryViewRowIds(@NonNull final int[] rowIds)
+	{
+		this.rowIds = rowIds;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "InMemoryViewRowIds[size=" + rowIds.length + "]";
+	}
+
+	public int size()
+	{
+		return rowIds.length;
+	}
+
+	public boolean isEmpty()
+	{
+		return rowIds.length == 0;
+	}
+
+	/**
+	 * @return the row IDs array; IMPORTANT: don't change it
+	 */
+	int[] toArray()
+	{
+		return rowIds;
+	}
+
+	public List<Integer> toList()
+	{
+		final ImmutableList.Builder<Integer> list = ImmutableList.builder();
+		for (final int rowId : rowIds)
+		{
+			list.add(rowId);
+		}
+		return list.build();
+	}
+
+	/**
+	 * @return the row IDs of given page; if the page is outside of this list, an empty array will be returned
+	 */
+	public int[] getPage(final int firstRowZeroBased, final int pageLength)
+	{
+		final int from = Math.max(firstRowZeroBased, 0);
+		final int to = (int)Math.min((long)from + pageLength, rowIds.length);
+		return from < to ? Arrays.copyOfRange(rowIds, from, to) : new int[0];
+	}
+
+	public boolean contains(final int rowId)
+	{
+		return getIndex().getPosition(rowId) >= 0;
+	}
+
+	public boolean containsAny(@NonNull final Set<Integer> rowIdsToCheck)
+	{
+		if (rowIdsToCheck.isEmpty())
+		{
+			return false;
+		}
+
+		final RowIdsIndex index = getIndex();
+		return rowIdsToCheck.stream().anyMatch(rowId -> index.getPosition(rowId) >= 0);
+	}
+
+	/**
+	 * @return those of given row IDs which are part of this list, in the order of this list
+	 */
+	public List<Integer> retainContained(@NonNull final Set<Integer> rowIdsToRetain)
+	{
+		if (rowIdsToRetain.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final RowIdsIndex index = getIndex();
+		return rowIdsToRetain.stream()
+				.mapToInt(rowId -> index.getPosition(rowId))
+				.filter(position -> position >= 0)
+				.sorted()
+				.mapToObj(position -> rowIds[position])
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @return a new instance with given row IDs appended at the end, if they are not already contained
+	 */
+	public InMemoryViewRowIds addingIfAbsent(@NonNull final Collection<Integer> rowIdsToAdd)
+	{
+		final LinkedHashSet<Integer> newRowIds = new LinkedHashSet<>(rowIdsToAdd);
+		newRowIds.removeIf(this::contains);
+		if (newRowIds.isEmpty())
+		{
+			return this;
+		}
+
+		final int[] result = Arrays.copyOf(rowIds, rowIds.length + newRowIds.size());
+		int idx = rowIds.length;
+		for (final int rowId : newRowIds)
+		{
+			result[idx] = rowId;
+			idx++;
+		}
+		return new InMemoryViewRowIds(result);
+	}
+
+	/**
+	 * @return a new instance without given row IDs
+	 */
+	public InMemoryViewRowIds removing(@NonNull final Set<Integer> rowIdsToRemove)
+	{
+		if (!containsAny(rowIdsToRemove))
+		{
+			return this;
+		}
+
+		final int[] result = Arrays.stream(rowIds)
+				.filter(id -> !rowIdsToRemove.contains(id))
+				.toArray();
+		return ofArray(result);
+	}
+
+	private RowIdsIndex getIndex()
+	{
+		return indexSupplier.get();
+	}
+
+	private RowIdsIndex createIndex()
+	{
+		final int[] positions = IntStream.range(0, rowIds.length)
+				.boxed()
+				.sorted(Comparator.comparingInt(position -> rowIds[position]))
+				.mapToInt(Integer::intValue)
+				.toArray();
+		final int[] sortedRowIds = Arrays.stream(positions)
+				.map(position -> rowIds[position])
+				.toArray();
+		return new RowIdsIndex(sortedRowIds, positions);
+	}
+
+	private static final class RowIdsIndex
+	{
+		private final int[] sortedRowIds;
+		/** position in the original list of each element of {@link #sortedRowIds} */
+		private final int[] positions;
+
+		private RowIdsIndex(final int[] sortedRowIds, final int[] positions)
+		{
+			this.sortedRowIds = sortedRowIds;
+			this.positions = positions;
+		}
+
+		/**
+		 * @return position of given row ID in the original list or <code>-1</code> if not contained
+		 */
+		public int getPosition(final int rowId)
+		{
+			final int idx = Arrays.binarySearch(sortedRowIds, rowId);
+			return idx >= 0 ? positions[idx] : -1;
+		}
+	}
+}
@@ -0,0 +1,587 @@
+package de.metas.ui.web.view;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.view.descriptor.SqlViewBinding;
+import de.metas.ui.web.view.descriptor.SqlViewRowIdsConverters;
+import de.metas.ui.web.view.descriptor.SqlViewSelectionQueryBuilder;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Keeps the ordered row IDs of small selections in memory (see {@link InMemoryViewRowIds}) instead of inserting them into <code>T_WEBUI_ViewSelection</code>.
+ * Selections with more rows than configured by {@link #SYSCONFIG_MaxRowsPerSelection}, or which would exceed the total number of in-memory row IDs configured by {@link #SYSCONFIG_MaxRowsTotal},
+ * are stored in database, see {@link SqlViewRowIdsOrderedSelectionFactory}.
+ * <p>
+ * Selections which are created from another selection (e.g. when the user changes the ordering) are retrieved ordered from the source selection and kept in memory too,
+ * if the source selection does not have more rows than configured by {@link #SYSCONFIG_MaxRowsPerSortedSelection}. This way, a re-sort does not need to insert the whole selection again.
+ * Such a selection is stored in database only when somebody needs a SQL where clause for more rows than configured by {@link #SYSCONFIG_MaxRowsPerSelection} (e.g. a process which runs on all rows).
+ * <p>
+ * Only views with a single integer key column and without grouping are supported. For all other views, everything is delegated.
+ * <p>
+ * Cluster: the in-memory row IDs are held by the JVM which created the view. That's fine because the views themselves are held in memory by that JVM (see {@link ViewsRepository}),
+ * and the SQL where clauses which are handed out to other components (see {@link #getSqlWhereClause(ViewId, DocumentIdsSelection)}) are self-contained.
+ */
+public class InMemoryViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSelectionFactory
+{
+	public static InMemoryViewRowIdsOrderedSelectionFactory of(@NonNull final SqlViewBinding viewBinding)
+	{
+		return new InMemoryViewRowIdsOrderedSelectionFactory(viewBinding);
+	}
+
+	private static final Logger logger = LogManager.getLogger(InMemoryViewRowIdsOrderedSelectionFactory.class);
+
+	@VisibleForTesting
+	static final String SYSCONFIG_MaxRowsPerSelection = "de.metas.ui.web.view.InMemoryViewRowIdsOrderedSelectionFactory.MaxRowsPerSelection";
+	private static final int DEFAULT_MaxRowsPerSelection = 5000;
+
+	@VisibleForTesting
+	static final String SYSCONFIG_MaxRowsPerSortedSelection = "de.metas.ui.web.view.InMemoryViewRowIdsOrderedSelectionFactory.MaxRowsPerSortedSelection";
+	private static final int DEFAULT_MaxRowsPerSortedSelection = 100_000;
+
+	@VisibleForTesting
+	static final String SYSCONFIG_MaxRowsTotal = "de.metas.ui.web.view.InMemoryViewRowIdsOrderedSelectionFactory.MaxRowsTotal";
+	private static final int DEFAULT_MaxRowsTotal = 5_000_000; // ~20MB
+
+	private final InMemoryViewRowIdsRegistry registry = InMemoryViewRowIdsRegistry.instance;
+
+	/** makes sure a selection is moved to database by only one thread at a time, see {@link #materializeSelection(ViewId)} */
+	private static final Striped<Lock> materializeLocks = Striped.lazyWeakLock(64);
+
+	private final SqlViewBinding viewBinding;
+	private final SqlViewRowIdsOrderedSelectionFactory delegate;
+	private final RowIdsDAO rowIdsDAO;
+	private final boolean inMemorySupported;
+
+	private InMemoryViewRowIdsOrderedSelectionFactory(@NonNull final SqlViewBinding viewBinding)
+	{
+		this(viewBinding, SqlViewRowIdsOrderedSelectionFactory.of(viewBinding), new SqlRowIdsDAO(viewBinding));
+	}
+
+	@VisibleForTesting
+	InMemoryViewRowIdsOrderedSelectionFactory(
+			@NonNull final SqlViewBinding viewBinding,
+			@NonNull final SqlViewRowIdsOrderedSelectionFactory delegate,
+			@NonNull final RowIdsDAO rowIdsDAO)
+	{
+		this.viewBinding = viewBinding;
+		this.delegate = delegate;
+		this.rowIdsDAO = rowIdsDAO;
+		this.inMemorySupported = !viewBinding.hasGroupingFields()
+				&& viewBinding.getSqlViewKeyColumnNamesMap().isSingleIntKey()
+				&& viewBinding.getRowIdsConverter() == SqlViewRowIdsConverters.TO_INT_STRICT
+				&& viewBinding.getSqlViewSelect().isSelectFromRowIdsSupported();
+	}
+
+	private static int getMaxRowsPerSelection()
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxRowsPerSelection, DEFAULT_MaxRowsPerSelection);
+	}
+
+	private static int getMaxRowsPerSortedSelection()
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxRowsPerSortedSelection, DEFAULT_MaxRowsPerSortedSelection);
+	}
+
+	private static int getMaxRowsTotal()
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxRowsTotal, DEFAULT_MaxRowsTotal);
+	}
+
+	/**
+	 * @return the in-memory row IDs of given selection or <code>null</code> if the selection is stored in <code>T_WEBUI_ViewSelection</code>
+	 */
+	@Nullable
+	InMemoryViewRowIds getInMemoryRowIdsOrNull(@NonNull final String selectionId)
+	{
+		return inMemorySupported ? registry.getOrNull(selectionId) : null;
+	}
+
+	@Override
+	public String getSqlWhereClause(final ViewId viewId, final DocumentIdsSelection rowIds)
+	{
+		final InMemoryViewRowIds selectionRowIds = getInMemoryRowIdsOrNull(viewId.getViewId());
+		if (selectionRowIds == null)
+		{
+			return delegate.getSqlWhereClause(viewId, rowIds);
+		}
+
+		if (rowIds.isEmpty())
+		{
+			new AdempiereException("got empty rowIds")
+					.throwIfDeveloperModeOrLogWarningElse(logger);
+			return "1=0";
+		}
+
+		final List<Integer> rowIdsEffective = rowIds.isAll()
+				? selectionRowIds.toList()
+				: selectionRowIds.retainContained(rowIds.toIntSet());
+		if (rowIdsEffective.isEmpty())
+		{
+			return "1=0";
+		}
+		else if (rowIdsEffective.size() > getMaxRowsPerSelection())
+		{
+			// too many rows for an IN list => store the selection in database and use it from there
+			materializeSelection(viewId);
+			return delegate.getSqlWhereClause(viewId, rowIds);
+		}
+
+		final String keyColumnName = viewBinding.getTableName() + "." + viewBinding.getSqlViewKeyColumnNamesMap().getSingleKeyColumnName();
+		return DB.buildSqlList(keyColumnName, rowIdsEffective, null);
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection createOrderedSelection(
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewId viewId,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final boolean applySecurityRestrictions,
+			final SqlDocumentFilterConverterContext context)
+	{
+		final int maxRowsPerSelection = getMaxRowsPerSelection();
+		if (!inMemorySupported || maxRowsPerSelection <= 0)
+		{
+			return delegate.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+		}
+
+		final int queryLimit = delegate.extractQueryLimit(viewEvalCtx);
+		final boolean queryLimitFitsInMemory = queryLimit > 0 && queryLimit <= maxRowsPerSelection;
+
+		//
+		// Find out if the selection is too big, by counting at most one more row than we accept to keep in memory.
+		// The count is cheap, compared to running the sorted query twice (once here and once in database).
+		if (!queryLimitFitsInMemory)
+		{
+			final int rowsCount = rowIdsDAO.countRowIds(viewEvalCtx, filters, maxRowsPerSelection + 1, applySecurityRestrictions, context);
+			if (rowsCount > maxRowsPerSelection)
+			{
+				logger.trace("Selection {} has more than {} rows. Creating it in database", viewId, maxRowsPerSelection);
+				return delegate.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+			}
+		}
+
+		final int limit = queryLimitFitsInMemory ? queryLimit : maxRowsPerSelection + 1;
+		final int[] rowIds = rowIdsDAO.retrieveRowIdsOrdered(viewEvalCtx, filters, orderBys, limit, applySecurityRestrictions, context);
+		if (rowIds.length > maxRowsPerSelection)
+		{
+			// rows were added since we counted them (rare)
+			logger.trace("Selection {} has more than {} rows. Creating it in database", viewId, maxRowsPerSelection);
+			return delegate.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+		}
+
+		return createOrderedSelectionFromRowIds(viewId, rowIds, orderBys, queryLimit);
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewRowIdsOrderedSelection fromSelection,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final InMemoryViewRowIds fromRowIds = getInMemoryRowIdsOrNull(fromSelection.getSelectionId());
+		final int[] rowIds;
+		if (fromRowIds != null)
+		{
+			if (fromRowIds.isEmpty())
+			{
+				rowIds = new int[0];
+			}
+			else
+			{
+				rowIds = rowIdsDAO.retrieveRowIdsOrderedFromRowIds(viewEvalCtx, fromRowIds.toArray(), filters, orderBys, filterConverterCtx);
+			}
+		}
+		else if (isInMemorySortSupported(fromSelection))
+		{
+			// the source selection is in database, but small enough to keep the sorted selection in memory
+			rowIds = rowIdsDAO.retrieveRowIdsOrderedFromSelection(viewEvalCtx, fromSelection.getSelectionId(), filters, orderBys, filterConverterCtx);
+		}
+		else
+		{
+			return delegate.createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, filters, orderBys, filterConverterCtx);
+		}
+
+		final ViewId newViewId = ViewId.random(fromSelection.getWindowId());
+
+		return createOrderedSelectionFromRowIds(newViewId, rowIds, orderBys, fromSelection.getQueryLimit());
+	}
+
+	private boolean isInMemorySortSupported(@NonNull final ViewRowIdsOrderedSelection fromSelection)
+	{
+		if (!inMemorySupported)
+		{
+			return false;
+		}
+
+		final int maxRowsPerSortedSelection = getMaxRowsPerSortedSelection();
+		return maxRowsPerSortedSelection > 0 && fromSelection.getSize() <= maxRowsPerSortedSelection;
+	}
+
+	/**
+	 * Stores the in-memory row IDs of given selection into <code>T_WEBUI_ViewSelection</code>, using the same selectionId, and removes them from memory.
+	 * From now on, the selection is handled by {@link SqlViewRowIdsOrderedSelectionFactory}.
+	 * <p>
+	 * The in-memory row IDs are removed only after they were stored, so concurrent readers (e.g. getPage or {@link #getSqlWhereClause(ViewId, DocumentIdsSelection)})
+	 * are using them until then, and never see a selection which is not yet (completely) in database.
+	 */
+	private void materializeSelection(@NonNull final ViewId viewId)
+	{
+		final String selectionId = viewId.getViewId();
+		final Lock lock = materializeLocks.get(selectionId);
+		lock.lock();
+		try
+		{
+			while (true)
+			{
+				final InMemoryViewRowIds rowIds = registry.getOrNull(selectionId);
+				if (rowIds == null)
+				{
+					// already moved to database or deleted
+					return;
+				}
+
+				final Stopwatch stopwatch = Stopwatch.createStarted();
+
+				// NOTE: out of transaction because after this, the selection is no longer in memory, no matter if the current transaction is committed or not
+				final int rowsCount = rowIdsDAO.insertSelection(viewId, rowIds.toArray(), ITrx.TRXNAME_None);
+				if (registry.remove(selectionId, rowIds))
+				{
+					logger.trace("Moved in-memory selection {} to database, rowsCount={}, duration={}", viewId, rowsCount, stopwatch);
+					return;
+				}
+
+				// the in-memory row IDs were changed or deleted while we were storing them => drop what we stored and try again
+				rowIdsDAO.deleteSelection(viewId, ITrx.TRXNAME_None);
+				logger.trace("In-memory selection {} was changed while moving it to database. Retrying", viewId);
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private ViewRowIdsOrderedSelection createOrderedSelectionFromRowIds(
+			@NonNull final ViewId viewId,
+			@NonNull final int[] rowIds,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			final int queryLimit)
+	{
+		final boolean inMemory = registry.putIfFits(viewId.getViewId(), InMemoryViewRowIds.ofArray(rowIds), getMaxRowsTotal());
+		if (inMemory)
+		{
+			logger.trace("Created in-memory selection {}, rowsCount={} ({})", viewId, rowIds.length, registry);
+		}
+		else
+		{
+			// we already have the row IDs, so we just need to store them
+			final int rowsCount = rowIdsDAO.insertSelection(viewId, rowIds, ITrx.TRXNAME_ThreadInherited);
+			logger.trace("Created selection {} in database because there are too many in-memory row IDs ({}), rowsCount={}", viewId, registry, rowsCount);
+		}
+
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(viewId)
+				.size(rowIds.length)
+				.orderBys(orderBys)
+				.queryLimit(queryLimit)
+				.build();
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection addRowIdsToSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			// nothing changed
+			return selection;
+		}
+		else if (rowIds.isAll())
+		{
+			throw new IllegalArgumentException("Cannot add ALL to selection");
+		}
+
+		final String selectionId = selection.getSelectionId();
+		if (getInMemoryRowIdsOrNull(selectionId) == null)
+		{
+			return delegate.addRowIdsToSelection(selection, rowIds);
+		}
+
+		final Set<Integer> rowIdsToAdd = rowIds.toIntSet();
+		final InMemoryViewRowIds newRowIds = registry.computeIfPresent(selectionId, selectionRowIds -> selectionRowIds.addingIfAbsent(rowIdsToAdd));
+		if (newRowIds == null)
+		{
+			// selection was moved to database in meantime
+			return delegate.addRowIdsToSelection(selection, rowIds);
+		}
+
+		return selection.withSize(newRowIds.size());
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection removeRowIdsFromSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			// nothing changed
+			return selection;
+		}
+
+		final String selectionId = selection.getSelectionId();
+		if (getInMemoryRowIdsOrNull(selectionId) == null)
+		{
+			return delegate.removeRowIdsFromSelection(selection, rowIds);
+		}
+
+		final InMemoryViewRowIds newRowIds;
+		if (rowIds.isAll())
+		{
+			newRowIds = registry.computeIfPresent(selectionId, selectionRowIds -> InMemoryViewRowIds.EMPTY);
+		}
+		else
+		{
+			final Set<Integer> rowIdsToRemove = rowIds.toIntSet();
+			newRowIds = registry.computeIfPresent(selectionId, selectionRowIds -> selectionRowIds.removing(rowIdsToRemove));
+		}
+		if (newRowIds == null)
+		{
+			// selection was moved to database in meantime
+			return delegate.removeRowIdsFromSelection(selection, rowIds);
+		}
+
+		return selection.withSize(newRowIds.size());
+	}
+
+	@Override
+	public boolean containsAnyOfRowIds(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return false;
+		}
+
+		final InMemoryViewRowIds selectionRowIds = getInMemoryRowIdsOrNull(selection.getSelectionId());
+		if (selectionRowIds == null)
+		{
+			return delegate.containsAnyOfRowIds(selection, rowIds);
+		}
+
+		return rowIds.isAll()
+				? !selectionRowIds.isEmpty()
+				: selectionRowIds.containsAny(rowIds.toIntSet());
+	}
+
+	@Override
+	public void deleteSelections(@NonNull final Set<String> selectionIds)
+	{
+		final Set<String> selectionIdsToDeleteFromDatabase = ImmutableSet.copyOf(Sets.difference(selectionIds, registry.removeAll(selectionIds)));
+		if (!selectionIdsToDeleteFromDatabase.isEmpty())
+		{
+			delegate.deleteSelections(selectionIdsToDeleteFromDatabase);
+		}
+	}
+
+	@Override
+	public void scheduleDeleteSelections(@NonNull final Set<String> selectionIds)
+	{
+		final Set<String> selectionIdsToDeleteFromDatabase = ImmutableSet.copyOf(Sets.difference(selectionIds, registry.removeAll(selectionIds)));
+		if (!selectionIdsToDeleteFromDatabase.isEmpty())
+		{
+			delegate.scheduleDeleteSelections(selectionIdsToDeleteFromDatabase);
+		}
+	}
+
+	/**
+	 * Runs the SQLs needed to create the in-memory selections and to move them to database.
+	 */
+	@VisibleForTesting
+	interface RowIdsDAO
+	{
+		/** @return how many rows a new selection would have, but not more than <code>limit</code> */
+		int countRowIds(ViewEvaluationCtx viewEvalCtx, DocumentFilterList filters, int limit, boolean applySecurityRestrictions, SqlDocumentFilterConverterContext context);
+
+		int[] retrieveRowIdsOrdered(ViewEvaluationCtx viewEvalCtx, DocumentFilterList filters, DocumentQueryOrderByList orderBys, int limit, boolean applySecurityRestrictions, SqlDocumentFilterConverterContext context);
+
+		int[] retrieveRowIdsOrderedFromRowIds(ViewEvaluationCtx viewEvalCtx, int[] fromRowIds, DocumentFilterList filters, DocumentQueryOrderByList orderBys, SqlDocumentFilterConverterContext context);
+
+		int[] retrieveRowIdsOrderedFromSelection(ViewEvaluationCtx viewEvalCtx, String fromSelectionId, DocumentFilterList filters, DocumentQueryOrderByList orderBys, SqlDocumentFilterConverterContext context);
+
+		/** @return how many rows were inserted into <code>T_WEBUI_ViewSelection</code> */
+		int insertSelection(ViewId viewId, int[] rowIds, String trxName);
+
+		void deleteSelection(ViewId viewId, String trxName);
+	}
+
+	private static final class SqlRowIdsDAO implements RowIdsDAO
+	{
+		private final SqlViewBinding viewBinding;
+
+		private SqlRowIdsDAO(@NonNull final SqlViewBinding viewBinding)
+		{
+			this.viewBinding = viewBinding;
+		}
+
+		private SqlViewSelectionQueryBuilder newSqlViewSelectionQueryBuilder()
+		{
+			return SqlViewSelectionQueryBuilder.newInstance(viewBinding);
+		}
+
+		@Override
+		public int countRowIds(
+				final ViewEvaluationCtx viewEvalCtx,
+				final DocumentFilterList filters,
+				final int limit,
+				final boolean applySecurityRestrictions,
+				final SqlDocumentFilterConverterContext context)
+		{
+			final SqlAndParams sqlCountRowIds = newSqlViewSelectionQueryBuilder()
+					.applySecurityRestrictions(applySecurityRestrictions)
+					.buildSqlCountRowIds(viewEvalCtx, filters, limit, context);
+			return DB.getSQLValueEx(ITrx.TRXNAME_ThreadInherited, sqlCountRowIds.getSql(), sqlCountRowIds.getSqlParams());
+		}
+
+		@Override
+		public int[] retrieveRowIdsOrdered(
+				final ViewEvaluationCtx viewEvalCtx,
+				final DocumentFilterList filters,
+				final DocumentQueryOrderByList orderBys,
+				final int limit,
+				final boolean applySecurityRestrictions,
+				final SqlDocumentFilterConverterContext context)
+		{
+			final SqlAndParams sqlSelectRowIds = newSqlViewSelectionQueryBuilder()
+					.applySecurityRestrictions(applySecurityRestrictions)
+					.buildSqlSelectRowIdsOrdered(viewEvalCtx, filters, orderBys, limit, context);
+			return retrieveRowIds(sqlSelectRowIds);
+		}
+
+		@Override
+		public int[] retrieveRowIdsOrderedFromRowIds(
+				final ViewEvaluationCtx viewEvalCtx,
+				final int[] fromRowIds,
+				final DocumentFilterList filters,
+				final DocumentQueryOrderByList orderBys,
+				final SqlDocumentFilterConverterContext context)
+		{
+			final SqlAndParams sqlSelectRowIds = newSqlViewSelectionQueryBuilder()
+					.buildSqlSelectRowIdsOrderedFromRowIds(viewEvalCtx, fromRowIds, filters, orderBys, context);
+			return retrieveRowIds(sqlSelectRowIds);
+		}
+
+		@Override
+		public int[] retrieveRowIdsOrderedFromSelection(
+				final ViewEvaluationCtx viewEvalCtx,
+				final String fromSelectionId,
+				final DocumentFilterList filters,
+				final DocumentQueryOrderByList orderBys,
+				final SqlDocumentFilterConverterContext context)
+		{
+			final SqlAndParams sqlSelectRowIds = newSqlViewSelectionQueryBuilder()
+					.buildSqlSelectRowIdsOrderedFromSelection(viewEvalCtx, fromSelectionId, filters, orderBys, context);
+			return retrieveRowIds(sqlSelectRowIds);
+		}
+
+		@Override
+		public int insertSelection(final ViewId viewId, final int[] rowIds, final String trxName)
+		{
+			final SqlAndParams sqlCreateSelection = newSqlViewSelectionQueryBuilder().buildSqlCreateSelectionFromRowIds(viewId, rowIds);
+			return DB.executeUpdateEx(sqlCreateSelection.getSql(), sqlCreateSelection.getSqlParamsArray(), trxName);
+		}
+
+		@Override
+		public void deleteSelection(final ViewId viewId, final String trxName)
+		{
+			final SqlAndParams sqlDeleteSelection = newSqlViewSelectionQueryBuilder().buildSqlDeleteSelection(ImmutableSet.of(viewId.getViewId()));
+			DB.executeUpdateEx(sqlDeleteSelection.getSql(), sqlDeleteSelection.getSqlParamsArray(), trxName);
+		}
+
+		private static int[] retrieveRowIds(@NonNull final SqlAndParams sqlAndParams)
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sqlAndParams.getSql(), ITrx.TRXNAME_ThreadInherited);
+				DB.setParameters(pstmt, sqlAndParams.getSqlParams());
+				rs = pstmt.executeQuery();
+
+				int[] rowIds = new int[64];
+				int count = 0;
+				while (rs.next())
+				{
+					if (count >= rowIds.length)
+					{
+						rowIds = Arrays.copyOf(rowIds, rowIds.length * 2);
+					}
+					rowIds[count] = rs.getInt(1);
+					count++;
+				}
+
+				logger.trace("Retrieved {} row IDs in {}", count, stopwatch);
+				return Arrays.copyOf(rowIds, count);
+			}
+			catch (final SQLException ex)
+			{
+				throw new DBException(ex, sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+			}
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package de.metas.ui.web.view;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * JVM wide registry of {@link InMemoryViewRowIds} by selectionId.
+ * <p>
+ * Keeps track of the total number of row IDs held in memory, so the in-memory selections can be bounded.
+ */
+final class InMemoryViewRowIdsRegistry
+{
+	public static final InMemoryViewRowIdsRegistry instance = new InMemoryViewRowIdsRegistry();
+
+	private final ConcurrentHashMap<String, InMemoryViewRowIds> rowIdsBySelectionId = new ConcurrentHashMap<>();
+	private final AtomicLong totalRowIdsCount = new AtomicLong(0);
+
+	private InMemoryViewRowIdsRegistry()
+	{
+	}
+
+	@Override
+	public String toString()
+	{
+		return "InMemoryViewRowIdsRegistry[selections=" + rowIdsBySelectionId.size() + ", rowIds=" + totalRowIdsCount.get() + "]";
+	}
+
+	public long getTotalRowIdsCount()
+	{
+		return totalRowIdsCount.get();
+	}
+
+	public int getSelectionsCount()
+	{
+		return rowIdsBySelectionId.size();
+	}
+
+	@Nullable
+	public InMemoryViewRowIds getOrNull(@NonNull final String selectionId)
+	{
+		return rowIdsBySelectionId.get(selectionId);
+	}
+
+	/**
+	 * @param maxTotalRowIdsCount max row IDs which shall be held in memory by all selections, or <code>0</code> for unlimited
+	 * @return false if adding the given rowIds would exceed <code>maxTotalRowIdsCount</code>; in that case nothing is registered
+	 */
+	public boolean putIfFits(
+			@NonNull final String selectionId,
+			@NonNull final InMemoryViewRowIds rowIds,
+			final long maxTotalRowIdsCount)
+	{
+		final long totalRowIdsCountNew = totalRowIdsCount.addAndGet(rowIds.size());
+		if (maxTotalRowIdsCount > 0 && totalRowIdsCountNew > maxTotalRowIdsCount)
+		{
+			totalRowIdsCount.addAndGet(-rowIds.size());
+			return false;
+		}
+
+		final InMemoryViewRowIds previousRowIds = rowIdsBySelectionId.put(selectionId, rowIds);
+		if (previousRowIds != null)
+		{
+			totalRowIdsCount.addAndGet(-previousRowIds.size());
+		}
+		return true;
+	}
+
+	/**
+	 * @return the new rowIds or <code>null</code> if the selection is not held in memory
+	 */
+	@Nullable
+	public InMemoryViewRowIds computeIfPresent(
+			@NonNull final String selectionId,
+			@NonNull final UnaryOperator<InMemoryViewRowIds> remappingFunction)
+	{
+		return rowIdsBySelectionId.computeIfPresent(selectionId, (k, previousRowIds) -> {
+			final InMemoryViewRowIds newRowIds = remappingFunction.apply(previousRowIds);
+			totalRowIdsCount.addAndGet(newRowIds.size() - previousRowIds.size());
+			return newRowIds;
+		});
+	}
+
+	/**
+	 * Removes the selection from memory, but only if its row IDs are still the given ones (i.e. they were not changed or removed in meantime).
+	 *
+	 * @return true if the selection was removed
+	 */
+	public boolean remove(@NonNull final String selectionId, @NonNull final InMemoryViewRowIds expectedRowIds)
+	{
+		final boolean removed = rowIdsBySelectionId.remove(selectionId, expectedRowIds);
+		if (removed)
+		{
+			totalRowIdsCount.addAndGet(-expectedRowIds.size());
+		}
+		return removed;
+	}
+
+	/**
+	 * @return the selectionIds which were held in memory and were removed
+	 */
+	public Set<String> removeAll(@NonNull final Set<String> selectionIds)
+	{
+		final ImmutableSet.Builder<String> removedSelectionIds = ImmutableSet.builder();
+		for (final String selectionId : selectionIds)
+		{
+			final InMemoryViewRowIds removedRowIds = rowIdsBySelectionId.remove(selectionId);
+			if (removedRowIds != null)
+			{
+				totalRowIdsCount.addAndGet(-removedRowIds.size());
+				removedSelectionIds.add(selectionId);
+			}
+		}
+		return removedSelectionIds.build();
+	}
+}
@@ -10,6 +10,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
 import org.adempiere.ad.trx.api.ITrx;
@@ -85,7 +87,7 @@ class SqlViewDataRepository implements IViewDataRepository
 	private final SqlViewKeyColumnNamesMap keyColumnNamesMap;
 	private final Map<String, DocumentFieldWidgetType> widgetTypesByFieldName;
 	private final SqlViewSelectData sqlViewSelect;
-	private final ViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
+	private final InMemoryViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
 	private final DocumentFilterDescriptorsProvider viewFilterDescriptors;
 	private final DocumentQueryOrderByList defaultOrderBys;
 
@@ -103,7 +105,7 @@ class SqlViewDataRepository implements IViewDataRepository
 		widgetTypesByFieldName = sqlBindings.getWidgetTypesByFieldName();
 		sqlViewSelect = sqlBindings.getSqlViewSelect();
 		viewFilterDescriptors = sqlBindings.getViewFilterDescriptors();
-		viewRowIdsOrderedSelectionFactory = SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings);
+		viewRowIdsOrderedSelectionFactory = InMemoryViewRowIdsOrderedSelectionFactory.of(sqlBindings);
 		defaultOrderBys = sqlBindings.getDefaultOrderBys();
 
 		this.hasIncludedRows = sqlBindings.hasGroupingFields();
@@ -222,10 +224,17 @@ class SqlViewDataRepository implements IViewDataRepository
 	@Override
 	public IViewRow retrieveById(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentId rowId)
 	{
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(viewId.getViewId());
+		if (inMemoryRowIds != null && !(rowId.isInt() && inMemoryRowIds.contains(rowId.toInt())))
+		{
+			throw new EntityNotFoundException("No document found for rowId=" + rowId + " in viewId=" + viewId);
+		}
+
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectById()
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
 				.rowId(rowId)
+				.inMemorySelection(inMemoryRowIds != null)
 				.build();
 
 		PreparedStatement pstmt = null;
@@ -494,11 +503,18 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
+		final int[] pageRowIds = getInMemoryPageRowIdsOrNull(viewId, firstRow, pageLength);
+		if (pageRowIds != null && pageRowIds.length == 0)
+		{
+			return ImmutableList.of();
+		}
+
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
 				.firstRowZeroBased(firstRow)
 				.pageLength(pageLength)
+				.pageRowIds(pageRowIds)
 				.build();
 
 		PreparedStatement pstmt = null;
@@ -534,11 +550,18 @@ class SqlViewDataRepository implements IViewDataRepository
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
+		final int[] pageRowIds = getInMemoryPageRowIdsOrNull(viewId, firstRow, pageLength);
+		if (pageRowIds != null && pageRowIds.length == 0)
+		{
+			return ImmutableList.of();
+		}
+
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectRowIdsByPage()
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
 				.firstRowZeroBased(firstRow)
 				.pageLength(pageLength)
+				.pageRowIds(pageRowIds)
 				.build();
 
 		PreparedStatement pstmt = null;
@@ -576,6 +599,16 @@ class SqlViewDataRepository implements IViewDataRepository
 		}
 	}
 
+	/**
+	 * @return the row IDs of given page if the selection is held in memory, <code>null</code> otherwise
+	 */
+	@Nullable
+	private int[] getInMemoryPageRowIdsOrNull(final ViewId viewId, final int firstRow, final int pageLength)
+	{
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(viewId.getViewId());
+		return inMemoryRowIds != null ? inMemoryRowIds.getPage(firstRow, pageLength) : null;
+	}
+
 	private List<IViewRow> retrieveRowLines(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentIdsSelection rowIds)
 	{
 		logger.debug("Getting row lines: rowId={} - {}", rowIds, this);
@@ -710,7 +743,9 @@ class SqlViewDataRepository implements IViewDataRepository
 			final int limit)
 	{
 		final SqlViewRowFieldLoader fieldLoader = rowFieldLoaders.get(fieldName);
-		final SqlAndParams sql = sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, fieldName, limit);
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(selectionId);
+		final int[] selectionRowIds = inMemoryRowIds != null ? inMemoryRowIds.toArray() : null;
+		final SqlAndParams sql = sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, selectionRowIds, fieldName, limit);
 
 		final String adLanguage = viewEvalCtx.getAdLanguage();
 		return DB.retrieveRows(
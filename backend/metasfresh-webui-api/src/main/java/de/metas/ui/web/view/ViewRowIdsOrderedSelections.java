@@ -128,6 +128,7 @@ final class ViewRowIdsOrderedSelections
 	public ImmutableSet<String> getSelectionIds()
 	{
 		final ImmutableSet.Builder<String> selectionIds = ImmutableSet.builder();
+		selectionIds.add(defaultSelectionBeforeFacetsFiltering.getSelectionId());
 		selectionIds.add(defaultSelection.getSelectionId());
 		for (final ViewRowIdsOrderedSelection selection : selectionsByOrderBys.values())
 		{
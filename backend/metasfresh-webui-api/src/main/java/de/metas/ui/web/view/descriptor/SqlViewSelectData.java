@@ -80,6 +80,11 @@ public class SqlViewSelectData
 	private final IStringExpression sqlSelectById;
 	private final IStringExpression sqlSelectLines;
 
+	/** Same as {@link #sqlSelectByPage}, {@link #sqlSelectRowIdsByPage} and {@link #sqlSelectById}, but the selection is provided as an array of row IDs instead of {@link I_T_WEBUI_ViewSelection} */
+	private final IStringExpression sqlSelectByPageFromRowIds;
+	private final IStringExpression sqlSelectRowIdsByPageFromRowIds;
+	private final IStringExpression sqlSelectByIdFromRowIds;
+
 	@Builder
 	private SqlViewSelectData(
 			@NonNull final String sqlTableName,
@@ -94,31 +99,47 @@ public class SqlViewSelectData
 		this.displayFieldNames = ImmutableSet.copyOf(displayFieldNames);
 		this.fieldsByFieldName = Maps.uniqueIndex(allFields, SqlViewRowFieldBinding::getFieldName);
 
-		final IStringExpression sqlSelect = buildSqlSelect(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, groupingBinding);
+		final String sqlSelectionTable = I_T_WEBUI_ViewSelection.Table_Name;
+		final IStringExpression sqlSelect = buildSqlSelect(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, groupingBinding, sqlSelectionTable);
+		final IStringExpression sqlSelectKeys = buildSqlSelect(sqlTableName, sqlTableAlias, keyColumnNamesMap, ImmutableList.of(), extractKeyFields(allFields, keyColumnNamesMap), groupingBinding, sqlSelectionTable);
+		sqlSelectByPage = buildSqlSelectByPage(sqlSelect);
+		sqlSelectRowIdsByPage = buildSqlSelectByPage(sqlSelectKeys);
+		sqlSelectById = buildSqlSelectById(sqlSelect, keyColumnNamesMap);
+
+		if (groupingBinding == null && keyColumnNamesMap.isSingleIntKey())
+		{
+			final String sqlSelectionTableFromRowIds = buildSqlSelectionTableFromRowIds(keyColumnNamesMap);
+			final IStringExpression sqlSelectFromRowIds = buildSqlSelect(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, groupingBinding, sqlSelectionTableFromRowIds);
+			final IStringExpression sqlSelectKeysFromRowIds = buildSqlSelect(sqlTableName, sqlTableAlias, keyColumnNamesMap, ImmutableList.of(), extractKeyFields(allFields, keyColumnNamesMap), groupingBinding, sqlSelectionTableFromRowIds);
+			sqlSelectByPageFromRowIds = buildSqlSelectByPage(sqlSelectFromRowIds);
+			sqlSelectRowIdsByPageFromRowIds = buildSqlSelectByPage(sqlSelectKeysFromRowIds);
+			sqlSelectByIdFromRowIds = buildSqlSelectById(sqlSelectFromRowIds, keyColumnNamesMap);
+		}
+		else
+		{
+			sqlSelectByPageFromRowIds = null;
+			sqlSelectRowIdsByPageFromRowIds = null;
+			sqlSelectByIdFromRowIds = null;
+		}
+
+		this.sqlSelectLines = groupingBinding != null
+				? buildSqlSelectLines(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields)
+				: null;
+	}
 
-		sqlSelectByPage = sqlSelect.toComposer()
+	private static IStringExpression buildSqlSelectByPage(final IStringExpression sqlSelect)
+	{
+		return sqlSelect.toComposer()
 				.append("\n WHERE ")
 				// NOTE: already filtered by UUID
 				.append("\n " + COLUMNNAME_Paging_SeqNo_OneBased + " BETWEEN ? AND ?")
 				.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
 				.build();
+	}
 
-		sqlSelectRowIdsByPage = buildSqlSelect(
-				sqlTableName,
-				sqlTableAlias,
-				keyColumnNamesMap,
-				ImmutableList.of(), // displayFieldNames
-				extractKeyFields(allFields, keyColumnNamesMap), // allFields
-				groupingBinding)
-						//
-						.toComposer()
-						.append("\n WHERE ")
-						// NOTE: already filtered by UUID
-						.append("\n " + COLUMNNAME_Paging_SeqNo_OneBased + " BETWEEN ? AND ?")
-						.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
-						.build();
-
-		sqlSelectById = sqlSelect.toComposer()
+	private static IStringExpression buildSqlSelectById(final IStringExpression sqlSelect, final SqlViewKeyColumnNamesMap keyColumnNamesMap)
+	{
+		return sqlSelect.toComposer()
 				.append("\n WHERE ")
 				// NOTE: already filtered by UUID
 				.append("\n")
@@ -127,10 +148,34 @@ public class SqlViewSelectData
 						.map(keyColumnName -> COLUMNNAME_Paging_Prefix + keyColumnName + "=?")
 						.collect(Collectors.joining("\nAND ")))
 				.build();
+	}
 
-		this.sqlSelectLines = groupingBinding != null
-				? buildSqlSelectLines(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields)
-				: null;
+	/**
+	 * Builds a table which looks like {@link I_T_WEBUI_ViewSelection} but is made of an array of single integer row IDs.
+	 * <p>
+	 * SQL Parameters required: 1=UUID, 2=Line offset, 3=row IDs array (see {@link SqlViewSelectionQueryBuilder#toSqlArrayString(int[])})
+	 */
+	private static String buildSqlSelectionTableFromRowIds(final SqlViewKeyColumnNamesMap keyColumnNamesMap)
+	{
+		final String keyColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+		return "(SELECT "
+				+ "?::varchar AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+				+ ", r." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " + ? AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+				+ ", r." + keyColumnName
+				+ " FROM unnest(?::numeric[]) WITH ORDINALITY AS r(" + keyColumnName + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")"
+				+ ")";
+	}
+
+	private static List<Object> buildSqlSelectionTableFromRowIdsParams(
+			final String viewSelectionId,
+			final int firstRowZeroBased,
+			final int[] rowIds)
+	{
+		final ArrayList<Object> sqlParams = new ArrayList<>();
+		sqlParams.add(viewSelectionId);
+		sqlParams.add(firstRowZeroBased);
+		sqlParams.add(SqlViewSelectionQueryBuilder.toSqlArrayString(rowIds));
+		return sqlParams;
 	}
 
 	private IStringExpression getSqlSelectLines()
@@ -148,7 +193,7 @@ public class SqlViewSelectData
 	}
 
 	/**
-	 * SQL Parameters required: 1=UUID
+	 * SQL Parameters required: the ones required by <code>sqlSelectionTable</code> (if any), UUID
 	 */
 	private static IStringExpression buildSqlSelect(
 			final String sqlTableName,
@@ -156,11 +201,12 @@ public class SqlViewSelectData
 			final SqlViewKeyColumnNamesMap keyColumnNamesMap,
 			final Collection<String> displayFieldNames,
 			final Collection<SqlViewRowFieldBinding> allFields,
-			final SqlViewGroupingBinding groupingBinding)
+			final SqlViewGroupingBinding groupingBinding,
+			final String sqlSelectionTable)
 	{
 		if (groupingBinding == null)
 		{
-			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields);
+			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, sqlSelectionTable);
 		}
 		else
 		{
@@ -173,7 +219,8 @@ public class SqlViewSelectData
 			@NonNull final String sqlTableAlias,
 			@NonNull final SqlViewKeyColumnNamesMap keyColumnNamesMap,
 			@NonNull final Collection<String> displayFieldNames,
-			@NonNull final Collection<SqlViewRowFieldBinding> allFields)
+			@NonNull final Collection<SqlViewRowFieldBinding> allFields,
+			@NonNull final String sqlSelectionTable)
 	{
 		final List<String> sqlSelectValuesList = new ArrayList<>();
 		final List<IStringExpression> sqlSelectDisplayNamesList = new ArrayList<>();
@@ -212,7 +259,7 @@ public class SqlViewSelectData
 				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + " AS " + COLUMNNAME_Paging_UUID)
 				.append("\n , ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated(columnName -> "sel." + columnName + " AS " + COLUMNNAME_Paging_Prefix + columnName))
 				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing)
-				.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+				.append("\n   FROM " + sqlSelectionTable + " sel")
 				.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
 				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
 				.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
@@ -376,12 +423,27 @@ public class SqlViewSelectData
 		return sql.build().caching();
 	}
 
+	public boolean isSelectFromRowIdsSupported()
+	{
+		return sqlSelectByPageFromRowIds != null;
+	}
+
+	private IStringExpression getSqlSelectFromRowIds(final IStringExpression sqlSelect)
+	{
+		Check.assumeNotNull(sqlSelect, "sqlSelect is not null (selecting from row IDs not supported)");
+		return sqlSelect;
+	}
+
+	/**
+	 * @param pageRowIds if not null, the row IDs of the page, which will be used instead of {@link I_T_WEBUI_ViewSelection}
+	 */
 	@Builder(builderMethodName = "selectByPage", builderClassName = "SelectByPageBuilder")
 	private SqlAndParams selectByIdPageBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final ViewId viewId,
 			final int firstRowZeroBased,
-			final int pageLength)
+			final int pageLength,
+			@Nullable final int[] pageRowIds)
 	{
 		Check.assume(firstRowZeroBased >= 0, "firstRow >= 0 but it was {}", firstRowZeroBased);
 		Check.assume(pageLength > 0, "pageLength > 0 but it was {}", pageLength);
@@ -390,17 +452,29 @@ public class SqlViewSelectData
 		final int firstSeqNo = firstRowZeroBased + 1; // NOTE: firstRow is 0-based while SeqNo are 1-based
 		final int lastSeqNo = firstRowZeroBased + pageLength;
 
+		if (pageRowIds != null)
+		{
+			final String sql = getSqlSelectFromRowIds(sqlSelectByPageFromRowIds).evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+			final List<Object> sqlParams = buildSqlSelectionTableFromRowIdsParams(viewSelectionId, firstRowZeroBased, pageRowIds);
+			sqlParams.addAll(ImmutableList.of(viewSelectionId, firstSeqNo, lastSeqNo));
+			return SqlAndParams.of(sql, sqlParams);
+		}
+
 		final IStringExpression sqlSelectByPage = getSqlSelectByPage();
 		final String sql = sqlSelectByPage.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
 		return SqlAndParams.of(sql, viewSelectionId, firstSeqNo, lastSeqNo);
 	}
 
+	/**
+	 * @param pageRowIds if not null, the row IDs of the page, which will be used instead of {@link I_T_WEBUI_ViewSelection}
+	 */
 	@Builder(builderMethodName = "selectRowIdsByPage", builderClassName = "SelectRowIdsByPageBuilder")
 	private SqlAndParams selectRowIdsByIdPageBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final ViewId viewId,
 			final int firstRowZeroBased,
-			final int pageLength)
+			final int pageLength,
+			@Nullable final int[] pageRowIds)
 	{
 		Check.assume(firstRowZeroBased >= 0, "firstRow >= 0 but it was {}", firstRowZeroBased);
 		Check.assume(pageLength > 0, "pageLength > 0 but it was {}", pageLength);
@@ -409,20 +483,41 @@ public class SqlViewSelectData
 		final int firstSeqNo = firstRowZeroBased + 1; // NOTE: firstRow is 0-based while SeqNo are 1-based
 		final int lastSeqNo = firstRowZeroBased + pageLength;
 
+		if (pageRowIds != null)
+		{
+			final String sql = getSqlSelectFromRowIds(sqlSelectRowIdsByPageFromRowIds).evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+			final List<Object> sqlParams = buildSqlSelectionTableFromRowIdsParams(viewSelectionId, firstRowZeroBased, pageRowIds);
+			sqlParams.addAll(ImmutableList.of(viewSelectionId, firstSeqNo, lastSeqNo));
+			return SqlAndParams.of(sql, sqlParams);
+		}
+
 		final IStringExpression sqlSelectRowIdsByPage = getSqlSelectRowIdsByPage();
 		final String sql = sqlSelectRowIdsByPage.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
 		return SqlAndParams.of(sql, viewSelectionId, firstSeqNo, lastSeqNo);
 	}
 
+	/**
+	 * @param inMemorySelection if true, the selection is not stored in {@link I_T_WEBUI_ViewSelection} and the caller already checked that the given row is part of it
+	 */
 	@Builder(builderMethodName = "selectById", builderClassName = "SelectByIdBuilder")
 	private SqlAndParams selectByIdBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final ViewId viewId,
-			@NonNull final DocumentId rowId)
+			@NonNull final DocumentId rowId,
+			final boolean inMemorySelection)
 	{
-		final String sql = getSqlSelectById().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
-
 		final ArrayList<Object> sqlParams = new ArrayList<>();
+		final String sql;
+		if (inMemorySelection)
+		{
+			sql = getSqlSelectFromRowIds(sqlSelectByIdFromRowIds).evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+			sqlParams.addAll(buildSqlSelectionTableFromRowIdsParams(viewId.getViewId(), 0, new int[] { rowId.toInt() }));
+		}
+		else
+		{
+			sql = getSqlSelectById().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		}
+
 		sqlParams.add(viewId.getViewId());
 		sqlParams.addAll(keyColumnNamesMap.getSqlValuesList(rowId));
 		return SqlAndParams.of(sql, sqlParams);
@@ -453,9 +548,13 @@ public class SqlViewSelectData
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
+	/**
+	 * @param selectionRowIds if not null, all row IDs of the selection, which will be used instead of {@link I_T_WEBUI_ViewSelection}
+	 */
 	public SqlAndParams selectFieldValues(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final String selectionId,
+			@Nullable final int[] selectionRowIds,
 			@NonNull final String fieldName,
 			final int limit)
 	{
@@ -496,7 +595,10 @@ public class SqlViewSelectData
 			sqlExpression
 					.append("\n, ").append(sqlDisplayValue.withJoinOnTableNameOrAlias(sqlTableName).toStringExpressionWithColumnNameAlias());
 		}
-		sqlExpression.append("\n FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+		final String sqlSelectionTable = selectionRowIds != null
+				? buildSqlSelectionTableFromRowIds(keyColumnNamesMap)
+				: I_T_WEBUI_ViewSelection.Table_Name;
+		sqlExpression.append("\n FROM " + sqlSelectionTable + " sel")
 				.append("\n INNER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
 				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
 				.append("\n WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
@@ -507,6 +609,14 @@ public class SqlViewSelectData
 		final String sql = sqlExpression.build()
 				.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
 
-		return SqlAndParams.of(sql, selectionId, limit);
+		final List<Object> sqlParams = new ArrayList<>();
+		if (selectionRowIds != null)
+		{
+			sqlParams.addAll(buildSqlSelectionTableFromRowIdsParams(selectionId, 0, selectionRowIds));
+		}
+		sqlParams.add(selectionId);
+		sqlParams.add(limit);
+
+		return SqlAndParams.of(sql, sqlParams);
 	}
 }
@@ -256,11 +256,7 @@ public final class SqlViewSelectionQueryBuilder
 		// SELECT ... FROM ... WHERE 1=1
 		final ArrayList<Object> sqlParams = new ArrayList<>();
 		{
-			final IStringExpression sqlOrderBy = SqlDocumentOrderByBuilder.newInstance(this::getFieldOrderBy)
-					.joinOnTableNameOrAlias(sqlTableAlias)
-					.useColumnNameAlias(false)
-					.buildSqlOrderBy(orderBys)
-					.orElseGet(() -> ConstantStringExpression.of(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)));
+			final IStringExpression sqlOrderBy = buildSqlOrderByOrKeyColumns(orderBys);
 
 			final IStringExpression sqlSeqNo = IStringExpression.composer()
 					.append("row_number() OVER (ORDER BY ").append(sqlOrderBy).append(")")
@@ -310,6 +306,112 @@ public final class SqlViewSelectionQueryBuilder
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
+	/**
+	 * @return <code>SELECT keys FROM ourTable WHERE ... ORDER BY ... LIMIT ?</code>, i.e. the ordered row IDs of a new selection, without inserting them into {@link I_T_WEBUI_ViewSelection}
+	 */
+	public SqlAndParams buildSqlSelectRowIdsOrdered(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final int limit,
+			final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final ArrayList<Object> sqlParams = new ArrayList<>();
+		final CompositeStringExpression.Builder sqlBuilder = buildSqlSelectRowIds(filters, filterConverterCtx, sqlParams);
+
+		//
+		// ORDER BY
+		sqlBuilder.append("\n ORDER BY ").append(buildSqlOrderByOrKeyColumns(orderBys));
+
+		//
+		// LIMIT
+		if (limit > 0)
+		{
+			sqlBuilder.append("\n LIMIT ?");
+			sqlParams.add(limit);
+		}
+
+		final String sql = sqlBuilder.build().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, sqlParams);
+	}
+
+	/**
+	 * @return <code>SELECT COUNT(1) FROM (SELECT keys FROM ourTable WHERE ... LIMIT ?)</code>, i.e. how many rows a new selection would have, but not more than <code>limit</code>.
+	 *         It's cheap, because the rows are neither sorted nor scanned beyond the limit.
+	 */
+	public SqlAndParams buildSqlCountRowIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			final DocumentFilterList filters,
+			final int limit,
+			final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		Check.assumeGreaterThanZero(limit, "limit");
+
+		final ArrayList<Object> sqlParams = new ArrayList<>();
+		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer()
+				.append("SELECT COUNT(1) FROM (\n")
+				.append(buildSqlSelectRowIds(filters, filterConverterCtx, sqlParams).build())
+				.append("\n LIMIT ?")
+				.append("\n) t");
+		sqlParams.add(limit);
+
+		final String sql = sqlBuilder.build().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, sqlParams);
+	}
+
+	/**
+	 * @return <code>SELECT keys FROM ourTable WHERE ...</code>; the SQL parameters are added to given <code>sqlParams</code>
+	 */
+	private CompositeStringExpression.Builder buildSqlSelectRowIds(
+			final DocumentFilterList filters,
+			final SqlDocumentFilterConverterContext filterConverterCtx,
+			final List<Object> sqlParams)
+	{
+		Check.assume(!hasGroupingFields(), "grouping fields are not supported");
+
+		final String sqlTableName = getTableName();
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		//
+		// SELECT ... FROM ... WHERE 1=1
+		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer();
+		sqlBuilder.append(
+				IStringExpression.composer()
+						.append("SELECT ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)) // keys
+						.append("\n FROM ").append(sqlTableName).append(" ").append(sqlTableAlias)
+						.append("\n WHERE 1=1 ")
+						.wrap(securityRestrictionsWrapper(sqlTableAlias)) // security
+		);
+
+		//
+		// WHERE clause (from query)
+		{
+			final SqlParamsCollector sqlWhereClauseParams = SqlParamsCollector.newInstance();
+			final IStringExpression sqlWhereClause = buildSqlWhereClause(sqlWhereClauseParams, filters, SqlOptions.usingTableAlias(sqlTableAlias), filterConverterCtx);
+
+			if (sqlWhereClause != null && !sqlWhereClause.isNullExpression())
+			{
+				sqlBuilder.append("\n AND (\n").append(sqlWhereClause).append("\n)");
+				sqlParams.addAll(sqlWhereClauseParams.toList());
+			}
+		}
+
+		return sqlBuilder;
+	}
+
+	private IStringExpression buildSqlOrderByOrKeyColumns(final DocumentQueryOrderByList orderBys)
+	{
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		return SqlDocumentOrderByBuilder.newInstance(this::getFieldOrderBy)
+				.joinOnTableNameOrAlias(sqlTableAlias)
+				.useColumnNameAlias(false)
+				.buildSqlOrderBy(orderBys)
+				.orElseGet(() -> ConstantStringExpression.of(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)));
+	}
+
 	private SqlAndParams buildSqlCreateSelectionLines_WithGrouping(
 			final ViewEvaluationCtx viewEvalCtx,
 			final ViewId newViewId,
@@ -519,101 +621,240 @@ public final class SqlViewSelectionQueryBuilder
 		final String sqlTableAlias = getTableAlias();
 		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
 
-		final DocumentQueryOrderByList orderBysEffective = orderBys.stream()
-				.flatMap(this::flatMapEffectiveFieldNames)
-				.collect(DocumentQueryOrderByList.toDocumentQueryOrderByList());
+		final DocumentQueryOrderByList orderBysEffective = toEffectiveOrderBys(orderBys);
+		final SqlAndParams sqlSourceTable = buildSqlSourceTable(viewEvalCtx, filters, orderBysEffective, filterConverterCtx);
+		final String sqlOrderBys = buildSqlOrderBysUsingColumnNameAliases(viewEvalCtx, orderBysEffective);
 
 		//
-		// Build the table we will join.
-		final SqlAndParams sqlSourceTable;
-		{
-			final Set<String> addedFieldNames = new HashSet<>();
+		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
+
+		//
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
+						+ ")")
+				.append("\n SELECT ")
+				.append("\n  ?", newViewId.getViewId()) // newUUID
+				.append("\n, ").append("row_number() OVER (").append(sqlOrderBys != null ? "ORDER BY " + sqlOrderBys : "").append(")") // Line
+				.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated()) // keys
+				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
+				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
+				.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
+				.build();
+	}
 
-			final StringBuilder sqlKeyColumnNames;
+	/**
+	 * Same as {@link #buildSqlCreateSelectionFromSelection(ViewEvaluationCtx, ViewId, String, DocumentFilterList, DocumentQueryOrderByList, SqlDocumentFilterConverterContext)},
+	 * but the result is not inserted into {@link I_T_WEBUI_ViewSelection}. Supported only for single integer keys.
+	 *
+	 * @return
+	 *
+	 *         <pre>
+	 * SELECT keys FROM T_WEBUI_ViewSelection sel INNER JOIN ourTable WHERE sel.UUID=[fromUUID] ORDER BY ...
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlSelectRowIdsOrderedFromSelection(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final String fromSelectionId,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		final DocumentQueryOrderByList orderBysEffective = toEffectiveOrderBys(orderBys);
+		final SqlAndParams sqlSourceTable = buildSqlSourceTable(viewEvalCtx, filters, orderBysEffective, filterConverterCtx);
+		final String sqlOrderBys = buildSqlOrderBysUsingColumnNameAliases(viewEvalCtx, orderBysEffective);
+
+		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
+
+		// NOTE: we also order by the position in the source selection, to preserve it for rows with equal sort keys
+		return SqlAndParams.builder()
+				.append("SELECT ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)) // keys
+				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
+				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
+				.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
+				.append("\n ORDER BY ").append(sqlOrderBys != null ? sqlOrderBys + ", " : "").append("sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.build();
+	}
+
+	/**
+	 * Same as {@link #buildSqlCreateSelectionFromSelection(ViewEvaluationCtx, ViewId, String, DocumentFilterList, DocumentQueryOrderByList, SqlDocumentFilterConverterContext)},
+	 * but the source selection is given as an ordered array of single integer row IDs and the result is not inserted into {@link I_T_WEBUI_ViewSelection}.
+	 *
+	 * @param fromRowIds ordered row IDs of the source selection
+	 * @return
+	 *
+	 *         <pre>
+	 * SELECT keys FROM unnest([fromRowIds]) sel INNER JOIN ourTable ORDER BY ...
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlSelectRowIdsOrderedFromRowIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final int[] fromRowIds,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		final String selectionKeyColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+
+		final DocumentQueryOrderByList orderBysEffective = toEffectiveOrderBys(orderBys);
+		final SqlAndParams sqlSourceTable = buildSqlSourceTable(viewEvalCtx, filters, orderBysEffective, filterConverterCtx);
+		final String sqlOrderBys = buildSqlOrderBysUsingColumnNameAliases(viewEvalCtx, orderBysEffective);
+
+		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
+
+		// NOTE: we also order by the position in the source selection, to preserve it for rows with equal sort keys
+		return SqlAndParams.builder()
+				.append("SELECT ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)) // keys
+				.append("\n FROM unnest(?::numeric[]) WITH ORDINALITY AS sel(" + selectionKeyColumnName + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")", toSqlArrayString(fromRowIds))
+				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
+				.append("\n ORDER BY ").append(sqlOrderBys != null ? sqlOrderBys + ", " : "").append("sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.build();
+	}
+
+	/**
+	 * @return
+	 *
+	 *         <pre>
+	 * INSERT INTO T_WEBUI_ViewSelection (UUID, Line, key)
+	 * SELECT [newUUID], ... FROM unnest([rowIds])
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlCreateSelectionFromRowIds(
+			@NonNull final ViewId newViewId,
+			@NonNull final int[] rowIds)
+	{
+		final String selectionKeyColumnName = getSqlViewKeyColumnNamesMap().getSingleWebuiSelectionColumnName();
+
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+						+ ", " + selectionKeyColumnName
+						+ ")")
+				.append("\n SELECT ")
+				.append("\n  ?", newViewId.getViewId()) // newUUID
+				.append("\n, r." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.append("\n, r." + selectionKeyColumnName)
+				.append("\n FROM unnest(?::numeric[]) WITH ORDINALITY AS r(" + selectionKeyColumnName + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")", toSqlArrayString(rowIds))
+				.build();
+	}
+
+	/**
+	 * @return given row IDs as SQL array string (e.g. <code>{1,2,3}</code>), to be used as parameter for <code>?::numeric[]</code>
+	 */
+	public static String toSqlArrayString(@NonNull final int[] rowIds)
+	{
+		final StringBuilder sql = new StringBuilder(rowIds.length * 8 + 2);
+		sql.append("{");
+		for (int i = 0; i < rowIds.length; i++)
+		{
+			if (i > 0)
 			{
-				sqlKeyColumnNames = new StringBuilder();
-				for (final String keyColumnName : keyColumnNamesMap.getKeyColumnNames())
-				{
-					if (!addedFieldNames.add(keyColumnName))
-					{
-						continue;
-					}
-
-					if (sqlKeyColumnNames.length() > 0)
-					{
-						sqlKeyColumnNames.append("\n, ");
-					}
-					sqlKeyColumnNames.append(getSqlSelectValue(keyColumnName)
-							.withColumnNameAlias(keyColumnName)
-							.toSqlStringWithColumnNameAlias());
-				}
+				sql.append(",");
 			}
+			sql.append(rowIds[i]);
+		}
+		sql.append("}");
+		return sql.toString();
+	}
 
-			final SqlAndParams.Builder sqlSourceTableBuilder = SqlAndParams.builder();
-			sqlSourceTableBuilder.append("(SELECT ").append(sqlKeyColumnNames);
+	private DocumentQueryOrderByList toEffectiveOrderBys(final DocumentQueryOrderByList orderBys)
+	{
+		return orderBys.stream()
+				.flatMap(this::flatMapEffectiveFieldNames)
+				.collect(DocumentQueryOrderByList.toDocumentQueryOrderByList());
+	}
 
-			for (final DocumentQueryOrderBy orderBy : orderBysEffective.toList())
-			{
-				final String fieldName = orderBy.getFieldName();
+	/**
+	 * Build the table we will join.
+	 */
+	private SqlAndParams buildSqlSourceTable(
+			final ViewEvaluationCtx viewEvalCtx,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBysEffective,
+			final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
 
-				final SqlSelectDisplayValue sqlSelectDisplayValue = getSqlSelectDisplayValue(fieldName);
-				if (sqlSelectDisplayValue != null && addedFieldNames.add(sqlSelectDisplayValue.getColumnNameAlias()))
+		final Set<String> addedFieldNames = new HashSet<>();
+
+		final StringBuilder sqlKeyColumnNames;
+		{
+			sqlKeyColumnNames = new StringBuilder();
+			for (final String keyColumnName : keyColumnNamesMap.getKeyColumnNames())
+			{
+				if (!addedFieldNames.add(keyColumnName))
 				{
-					sqlSourceTableBuilder.append("\n, ").append(sqlSelectDisplayValue
-							.withJoinOnTableNameOrAlias(getTableName())
-							.toSqlStringWithColumnNameAlias(viewEvalCtx.toEvaluatee()));
+					continue;
 				}
 
-				final SqlSelectValue sqlSelectValue = getSqlSelectValue(fieldName);
-				if (sqlSelectValue != null && addedFieldNames.add(sqlSelectValue.getColumnNameAlias()))
+				if (sqlKeyColumnNames.length() > 0)
 				{
-					sqlSourceTableBuilder.append("\n, ").append(sqlSelectValue
-							.withJoinOnTableNameOrAlias(getTableName())
-							.toSqlStringWithColumnNameAlias());
+					sqlKeyColumnNames.append("\n, ");
 				}
+				sqlKeyColumnNames.append(getSqlSelectValue(keyColumnName)
+						.withColumnNameAlias(keyColumnName)
+						.toSqlStringWithColumnNameAlias());
 			}
+		}
 
-			sqlSourceTableBuilder.append("\n FROM ").append(getTableName());
+		final SqlAndParams.Builder sqlSourceTableBuilder = SqlAndParams.builder();
+		sqlSourceTableBuilder.append("(SELECT ").append(sqlKeyColumnNames);
 
-			final SqlAndParams sqlFilters = buildSqlFiltersOrNull(filters, filterConverterCtx, SqlOptions.usingTableName(getTableName()));
-			if (sqlFilters != null)
+		for (final DocumentQueryOrderBy orderBy : orderBysEffective.toList())
+		{
+			final String fieldName = orderBy.getFieldName();
+
+			final SqlSelectDisplayValue sqlSelectDisplayValue = getSqlSelectDisplayValue(fieldName);
+			if (sqlSelectDisplayValue != null && addedFieldNames.add(sqlSelectDisplayValue.getColumnNameAlias()))
+			{
+				sqlSourceTableBuilder.append("\n, ").append(sqlSelectDisplayValue
+						.withJoinOnTableNameOrAlias(getTableName())
+						.toSqlStringWithColumnNameAlias(viewEvalCtx.toEvaluatee()));
+			}
+
+			final SqlSelectValue sqlSelectValue = getSqlSelectValue(fieldName);
+			if (sqlSelectValue != null && addedFieldNames.add(sqlSelectValue.getColumnNameAlias()))
 			{
-				sqlSourceTableBuilder.append("\n WHERE ").append(sqlFilters);
+				sqlSourceTableBuilder.append("\n, ").append(sqlSelectValue
+						.withJoinOnTableNameOrAlias(getTableName())
+						.toSqlStringWithColumnNameAlias());
 			}
+		}
 
-			sqlSourceTableBuilder.append(")");
+		sqlSourceTableBuilder.append("\n FROM ").append(getTableName());
 
-			sqlSourceTable = sqlSourceTableBuilder.build();
+		final SqlAndParams sqlFilters = buildSqlFiltersOrNull(filters, filterConverterCtx, SqlOptions.usingTableName(getTableName()));
+		if (sqlFilters != null)
+		{
+			sqlSourceTableBuilder.append("\n WHERE ").append(sqlFilters);
 		}
 
-		//
-		// Order BY
-		final String sqlOrderBys = SqlDocumentOrderByBuilder.newInstance(this::getFieldOrderBy)
+		sqlSourceTableBuilder.append(")");
+
+		return sqlSourceTableBuilder.build();
+	}
+
+	@Nullable
+	private String buildSqlOrderBysUsingColumnNameAliases(
+			final ViewEvaluationCtx viewEvalCtx,
+			final DocumentQueryOrderByList orderBysEffective)
+	{
+		final String sqlTableAlias = getTableAlias();
+		return SqlDocumentOrderByBuilder.newInstance(this::getFieldOrderBy)
 				.joinOnTableNameOrAlias(sqlTableAlias)
 				.useColumnNameAlias(true)
 				.buildSqlOrderBy(orderBysEffective)
 				.map(sqlOrderBysExpr -> sqlOrderBysExpr.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail))
 				.map(sql -> _viewBinding.replaceTableNameWithTableAlias(sql, sqlTableAlias))
 				.orElse(null);
-
-		//
-		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
-
-		//
-		return SqlAndParams.builder()
-				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
-						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
-						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
-						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
-						+ ")")
-				.append("\n SELECT ")
-				.append("\n  ?", newViewId.getViewId()) // newUUID
-				.append("\n, ").append("row_number() OVER (").append(sqlOrderBys != null ? "ORDER BY " + sqlOrderBys : "").append(")") // Line
-				.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated()) // keys
-				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
-				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
-				.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
-				.build();
 	}
 
 	/**
@@ -1,16 +1,24 @@
 package de.metas.ui.web.view.event;
 
 import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Objects;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
 
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.websocket.WebsocketCoalescableEvent;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -36,13 +44,16 @@ import de.metas.ui.web.window.datatypes.WindowId;
 
 @SuppressWarnings("serial")
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
-public final class JSONViewChanges implements Serializable
+public final class JSONViewChanges implements Serializable, WebsocketCoalescableEvent
 {
 	public static JSONViewChanges of(final ViewChanges changes)
 	{
 		return new JSONViewChanges(changes);
 	}
 
+	/** When merging events, if there are more changed rows than this, the whole view is considered changed */
+	private static final int MAX_CHANGED_IDS_WHEN_MERGING = 500;
+
 	@JsonProperty("viewId")
 	private final String viewId;
 	@JsonProperty("windowId")
@@ -82,6 +93,18 @@ public final class JSONViewChanges implements Serializable
 		}
 	}
 
+	private JSONViewChanges(
+			@NonNull final String viewId,
+			@NonNull final WindowId windowId,
+			@Nullable final Boolean fullyChanged,
+			@Nullable final Set<String> changedIds)
+	{
+		this.viewId = viewId;
+		this.windowId = windowId;
+		this.fullyChanged = fullyChanged;
+		this.changedIds = changedIds;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -108,4 +131,56 @@ public final class JSONViewChanges implements Serializable
 	{
 		return fullyChanged;
 	}
+
+	public Set<String> getChangedIds()
+	{
+		return changedIds != null ? changedIds : ImmutableSet.of();
+	}
+
+	private boolean isFullyChanged()
+	{
+		return fullyChanged != null && fullyChanged;
+	}
+
+	private boolean hasChanges()
+	{
+		return isFullyChanged() || (changedIds != null && !changedIds.isEmpty());
+	}
+
+	@Nullable
+	@Override
+	public JSONViewChanges mergeWithNext(@NonNull final Object nextEvent)
+	{
+		if (!(nextEvent instanceof JSONViewChanges))
+		{
+			return null;
+		}
+
+		final JSONViewChanges next = (JSONViewChanges)nextEvent;
+		if (!Objects.equals(viewId, next.viewId)
+				|| !Objects.equals(windowId, next.windowId))
+		{
+			return null;
+		}
+
+		if (!next.hasChanges() || isFullyChanged())
+		{
+			return this;
+		}
+		else if (!hasChanges() || next.isFullyChanged())
+		{
+			return next;
+		}
+
+		final LinkedHashSet<String> changedIdsMerged = new LinkedHashSet<>(changedIds);
+		changedIdsMerged.addAll(next.changedIds);
+		if (changedIdsMerged.size() > MAX_CHANGED_IDS_WHEN_MERGING)
+		{
+			return new JSONViewChanges(viewId, windowId, Boolean.TRUE, null);
+		}
+		else
+		{
+			return new JSONViewChanges(viewId, windowId, Boolean.FALSE, ImmutableSet.copyOf(changedIdsMerged));
+		}
+	}
 }
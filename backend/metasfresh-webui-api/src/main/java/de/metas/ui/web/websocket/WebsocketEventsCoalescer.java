@@ -0,0 +1,263 @@
+package de.metas.ui.web.websocket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Holds back {@link WebsocketCoalescableEvent}s for a given time window, per destination, and merges the ones which are sent to the same destination in that window.
+ * <p>
+ * The window starts when the first event for a destination is held back, so a continuous stream of events is still sent once per window.
+ * Events which are not coalescable are sent right away, but after the pending events of the same destination, to preserve the order.
+ */
+final class WebsocketEventsCoalescer
+{
+	private static final Logger logger = LogManager.getLogger(WebsocketEventsCoalescer.class);
+
+	private final long windowMillis;
+	private final BiConsumer<String, Object> sender;
+	private final WebsocketEventsLog eventsLog;
+	private final FlushScheduler scheduler;
+
+	private final ConcurrentHashMap<String, PendingEvents> pendingEventsByDestination = new ConcurrentHashMap<>();
+	private volatile boolean shutdown = false;
+
+	/**
+	 * @param windowMillis how long to hold back coalescable events; if not positive, all events are sent right away
+	 * @param sender actually sends the event (destination, payload)
+	 */
+	public WebsocketEventsCoalescer(
+			final long windowMillis,
+			@NonNull final BiConsumer<String, Object> sender,
+			@NonNull final WebsocketEventsLog eventsLog)
+	{
+		this(windowMillis, sender, eventsLog, windowMillis > 0 ? new ExecutorFlushScheduler() : null);
+	}
+
+	@VisibleForTesting
+	WebsocketEventsCoalescer(
+			final long windowMillis,
+			@NonNull final BiConsumer<String, Object> sender,
+			@NonNull final WebsocketEventsLog eventsLog,
+			@Nullable final FlushScheduler scheduler)
+	{
+		this.windowMillis = windowMillis;
+		this.sender = sender;
+		this.eventsLog = eventsLog;
+		this.scheduler = windowMillis > 0 ? scheduler : null;
+	}
+
+	public void send(@NonNull final String destination, @NonNull final Object payload)
+	{
+		if (scheduler == null || shutdown)
+		{
+			sender.accept(destination, payload);
+			return;
+		}
+
+		final boolean coalescable = payload instanceof WebsocketCoalescableEvent;
+		while (true)
+		{
+			final PendingEvents pendingEvents = coalescable
+					? pendingEventsByDestination.computeIfAbsent(destination, PendingEvents::new)
+					: pendingEventsByDestination.get(destination);
+
+			if (pendingEvents == null)
+			{
+				sender.accept(destination, payload);
+				return;
+			}
+
+			synchronized (pendingEvents)
+			{
+				// flushed and removed meanwhile => try again with the current pending events of this destination, if any
+				if (pendingEvents.removed)
+				{
+					continue;
+				}
+
+				if (!coalescable)
+				{
+					pendingEvents.sendAllAndClear();
+					sender.accept(destination, payload);
+				}
+				else
+				{
+					pendingEvents.add(payload);
+					if (!pendingEvents.flushScheduled)
+					{
+						pendingEvents.flushScheduled = true;
+						scheduleFlush(pendingEvents);
+					}
+				}
+				return;
+			}
+		}
+	}
+
+	private void scheduleFlush(@NonNull final PendingEvents pendingEvents)
+	{
+		try
+		{
+			scheduler.schedule(() -> flush(pendingEvents), windowMillis);
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			// we are shutting down => don't hold back the events
+			flush(pendingEvents);
+		}
+	}
+
+	private void flush(@NonNull final PendingEvents pendingEvents)
+	{
+		synchronized (pendingEvents)
+		{
+			try
+			{
+				pendingEvents.flushScheduled = false;
+				pendingEvents.sendAllAndClear();
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed sending pending events for {}. Ignored.", pendingEvents.destination, ex);
+			}
+			finally
+			{
+				// NOTE: remove it only after sending, so the events which are sent meanwhile to the same destination are waiting for us
+				pendingEvents.removed = true;
+				pendingEventsByDestination.remove(pendingEvents.destination, pendingEvents);
+			}
+		}
+	}
+
+	/**
+	 * Sends all pending events and stops holding back events. The events which are sent after this are sent right away.
+	 */
+	public void shutdown()
+	{
+		shutdown = true;
+		if (scheduler == null)
+		{
+			return;
+		}
+
+		scheduler.shutdown();
+		pendingEventsByDestination.values().forEach(this::flush);
+	}
+
+	@VisibleForTesting
+	interface FlushScheduler
+	{
+		/**
+		 * @throws RejectedExecutionException if the scheduler was shut down
+		 */
+		void schedule(@NonNull Runnable flush, long delayMillis);
+
+		/** Cancels the scheduled flushes. */
+		void shutdown();
+	}
+
+	private static final class ExecutorFlushScheduler implements FlushScheduler
+	{
+		private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+				.setDaemon(true)
+				.setThreadNamePrefix(WebsocketEventsCoalescer.class.getSimpleName())
+				.build());
+
+		@Override
+		public void schedule(@NonNull final Runnable flush, final long delayMillis)
+		{
+			executor.schedule(flush, delayMillis, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void shutdown()
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private final class PendingEvents
+	{
+		private final String destination;
+		private final List<Object> events = new ArrayList<>();
+		private boolean flushScheduled = false;
+		/** flushed and removed from {@link #pendingEventsByDestination}, so it shall not be used anymore */
+		private boolean removed = false;
+
+		private PendingEvents(@NonNull final String destination)
+		{
+			this.destination = destination;
+		}
+
+		private void add(@NonNull final Object event)
+		{
+			if (!events.isEmpty())
+			{
+				final int lastIndex = events.size() - 1;
+				final Object lastEvent = events.get(lastIndex);
+				if (lastEvent instanceof WebsocketCoalescableEvent)
+				{
+					final Object mergedEvent = ((WebsocketCoalescableEvent)lastEvent).mergeWithNext(event);
+					if (mergedEvent != null)
+					{
+						events.set(lastIndex, mergedEvent);
+						eventsLog.countCoalescedEvent();
+						return;
+					}
+				}
+			}
+
+			events.add(event);
+		}
+
+		private void sendAllAndClear()
+		{
+			if (events.isEmpty())
+			{
+				return;
+			}
+
+			final List<Object> eventsToSend = new ArrayList<>(events);
+			events.clear();
+			eventsToSend.forEach(event -> sender.accept(destination, event));
+		}
+	}
+}
@@ -3,13 +3,16 @@ package de.metas.ui.web.websocket;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.logging.LogManager;
 
@@ -42,6 +45,9 @@ public final class WebsocketEventsLog
 	private final AtomicInteger logEventsMaxSize = new AtomicInteger(500);
 	private final List<WebsocketEventLogRecord> loggedEvents = new LinkedList<>();
 
+	private final AtomicLong sentEventsCount = new AtomicLong(0);
+	private final AtomicLong coalescedEventsCount = new AtomicLong(0);
+
 	public void logEvent(final String destination, final Object event)
 	{
 		if (!logEventsEnabled.get())
@@ -62,6 +68,26 @@ public final class WebsocketEventsLog
 		}
 	}
 
+	public void countSentEvent()
+	{
+		sentEventsCount.incrementAndGet();
+	}
+
+	/**
+	 * Counts an event which was merged into a pending event, so it was not sent on its own.
+	 */
+	public void countCoalescedEvent()
+	{
+		coalescedEventsCount.incrementAndGet();
+	}
+
+	public Map<String, Long> getStats()
+	{
+		return ImmutableMap.of(
+				"sentEventsCount", sentEventsCount.get(),
+				"coalescedEventsCount", coalescedEventsCount.get());
+	}
+
 	public void setLogEventsEnabled(final boolean enabled)
 	{
 		final boolean enabledOld = logEventsEnabled.getAndSet(enabled);
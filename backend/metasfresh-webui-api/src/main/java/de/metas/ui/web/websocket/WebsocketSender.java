@@ -3,12 +3,14 @@ package de.metas.ui.web.websocket;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.Message;
@@ -47,25 +49,34 @@ import lombok.NonNull;
  * NOTE: by default, all methods will send the events after the current DB transaction is committed.
  * If there is no current transaction, the events will be sent right away.
  *
+ * {@link WebsocketCoalescableEvent}s are held back for a short time window and merged with subsequent events for the same destination (see {@link WebsocketEventsCoalescer}).
+ *
  * @author metas-dev <dev@metasfresh.com>
  *
  */
 @Component
-public class WebsocketSender implements InitializingBean
+public class WebsocketSender implements InitializingBean, DisposableBean
 {
 	private static final transient Logger logger = LogManager.getLogger(WebsocketSender.class);
 
 	private final SimpMessagingTemplate websocketMessagingTemplate;
 	private final WebsocketEventsLog eventsLog = new WebsocketEventsLog();
+	private final WebsocketEventsCoalescer coalescer;
 	private final WebsocketEventsQueue autoflushQueue;
 
 	@Value("${metasfresh.webui.websocket.logEventsEnabled:false}")
 	private boolean logEventsEnabledDefault;
 
-	public WebsocketSender(final SimpMessagingTemplate websocketMessagingTemplate)
+	/**
+	 * @param coalesceWindowMillis for how long {@link WebsocketCoalescableEvent}s are held back, to merge them with subsequent events for the same destination; if not positive, events are not coalesced
+	 */
+	public WebsocketSender(
+			final SimpMessagingTemplate websocketMessagingTemplate,
+			@Value("${metasfresh.webui.websocket.coalesceWindowMillis:100}") final long coalesceWindowMillis)
 	{
 		this.websocketMessagingTemplate = websocketMessagingTemplate;
-		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", websocketMessagingTemplate, eventsLog, /* autoflush */true);
+		coalescer = new WebsocketEventsCoalescer(coalesceWindowMillis, this::sendNow, eventsLog);
+		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", coalescer, /* autoflush */true);
 	}
 
 	@Override
@@ -74,6 +85,13 @@ public class WebsocketSender implements InitializingBean
 		eventsLog.setLogEventsEnabled(logEventsEnabledDefault);
 	}
 
+	@Override
+	public void destroy()
+	{
+		// send the events which are still held back and stop the coalescer's thread
+		coalescer.shutdown();
+	}
+
 	public void convertAndSend(final Collection<? extends WebsocketEndpointAware> events)
 	{
 		events.forEach(this::convertAndSend);
@@ -116,7 +134,7 @@ public class WebsocketSender implements InitializingBean
 	{
 		final String name = trx.getTrxName();
 		final boolean autoflush = false;
-		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, websocketMessagingTemplate, eventsLog, autoflush);
+		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, coalescer, autoflush);
 
 		// Bind
 		trx.getTrxListenerManager()
@@ -141,66 +159,81 @@ public class WebsocketSender implements InitializingBean
 		return eventsLog.getLoggedEvents(destinationFilter);
 	}
 
+	public Map<String, Long> getEventsStats()
+	{
+		return eventsLog.getStats();
+	}
+
+	private void sendNow(final String destination, final Object payload)
+	{
+		logger.debug("Sending to destination={}: payload={}", destination, payload);
+
+		if (payload instanceof Message)
+		{
+			final Message<?> message = (Message<?>)payload;
+			websocketMessagingTemplate.send(destination, message);
+		}
+		else
+		{
+			websocketMessagingTemplate.convertAndSend(destination, payload);
+			eventsLog.logEvent(destination, payload);
+		}
+
+		eventsLog.countSentEvent();
+	}
+
 	@lombok.Value
 	@lombok.Builder
 	private static final class WebsocketEvent
 	{
 		private final String destination;
 		private final Object payload;
-		private final boolean converted;
 	}
 
 	private static class WebsocketEventsQueue
 	{
 		/** internal name, used for logging */
 		private final String name;
-		private final SimpMessagingTemplate websocketMessagingTemplate;
-		private final WebsocketEventsLog eventsLog;
+		private final WebsocketEventsCoalescer coalescer;
 		private final boolean autoflush;
 		private final List<WebsocketEvent> events = new ArrayList<>();
 
 		public WebsocketEventsQueue(
 				@NonNull final String name,
-				@NonNull final SimpMessagingTemplate websocketMessagingTemplate,
-				@NonNull final WebsocketEventsLog eventsLog,
+				@NonNull final WebsocketEventsCoalescer coalescer,
 				final boolean autoflush)
 		{
 			this.name = name;
-			this.websocketMessagingTemplate = websocketMessagingTemplate;
-			this.eventsLog = eventsLog;
+			this.coalescer = coalescer;
 			this.autoflush = autoflush;
 		}
 
 		public void enqueueObject(final String destination, final Object payload)
 		{
-			final boolean converted = false;
 			if (autoflush)
 			{
-				sendEvent(destination, payload, converted);
+				sendEvent(destination, payload);
 			}
 			else
 			{
 				enqueue(WebsocketEvent.builder()
 						.destination(destination)
 						.payload(payload)
-						.converted(converted)
 						.build());
 			}
 		}
 
 		public void enqueueMessage(final String destination, final Message<?> message)
 		{
-			final boolean converted = true;
 			if (autoflush)
 			{
-				sendEvent(destination, message, converted);
+				sendEvent(destination, message);
 			}
 			else
 			{
 				enqueue(WebsocketEvent.builder()
 						.destination(destination)
 						.payload(message)
-						.converted(converted)
 						.build());
 			}
 		}
@@ -223,26 +256,13 @@ public class WebsocketSender implements InitializingBean
 
 		private void sendEvent(final WebsocketEvent event)
 		{
-			final String destination = event.getDestination();
-			final Object payload = event.getPayload();
-			final boolean converted = event.isConverted();
-			sendEvent(destination, payload, converted);
+			sendEvent(event.getDestination(), event.getPayload());
 		}
 
-		private void sendEvent(final String destination, final Object payload, final boolean converted)
+		private void sendEvent(final String destination, final Object payload)
 		{
 			logger.debug("[name={}] Sending to destination={}: payload={}", name, destination, payload);
-
-			if (converted)
-			{
-				final Message<?> message = (Message<?>)payload;
-				websocketMessagingTemplate.send(destination, message);
-			}
-			else
-			{
-				websocketMessagingTemplate.convertAndSend(destination, payload);
-				eventsLog.logEvent(destination, payload);
-			}
+			coalescer.send(destination, payload);
 		}
 	}
 }
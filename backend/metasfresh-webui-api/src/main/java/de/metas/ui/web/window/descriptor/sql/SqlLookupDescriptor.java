@@ -569,11 +569,14 @@ public final class SqlLookupDescriptor implements ISqlLookupDescriptor
 			}
 
 			// Filter's WHERE
+			// NOTE: if there is no filter, we don't want the (possibly expensive) display column to be evaluated for each row
 			sqlWhereFinal.appendIfNotEmpty("\n AND ");
 			sqlWhereFinal.append(" /* filter */ ")
-					.append(DBConstants.FUNCNAME_unaccent_string).append("(").append(displayColumnSql).append(", 1)")
+					.append("(").append(LookupDataSourceContext.PARAM_FilterSql).append("='%'")
+					.append(" OR ").append(DBConstants.FUNCNAME_unaccent_string).append("(").append(displayColumnSql).append(", 1)")
 					.append(" ILIKE ")
-					.append(DBConstants.FUNCNAME_unaccent_string).append("(").append(LookupDataSourceContext.PARAM_FilterSql).append(", 1)");
+					.append(DBConstants.FUNCNAME_unaccent_string).append("(").append(LookupDataSourceContext.PARAM_FilterSql).append(", 1)")
+					.append(")");
 
 			// IsActive WHERE
 			if (!lookupInfo.isShowInactiveValues())
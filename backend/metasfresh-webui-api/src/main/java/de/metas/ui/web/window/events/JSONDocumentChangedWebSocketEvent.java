@@ -5,6 +5,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.exceptions.AdempiereException;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -14,6 +16,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import de.metas.ui.web.websocket.WebSocketConfig;
+import de.metas.ui.web.websocket.WebsocketCoalescableEvent;
 import de.metas.ui.web.websocket.WebsocketEndpointAware;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
@@ -59,7 +62,7 @@ import lombok.ToString;
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
 @EqualsAndHashCode
 @ToString
-final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
+final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware, WebsocketCoalescableEvent
 {
 	public static JSONDocumentChangedWebSocketEvent rootDocument(final WindowId windowId, final DocumentId documentId)
 	{
@@ -185,4 +188,25 @@ final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
 
 		from.getIncludedTabsInfo().values().forEach(this::addIncludedTabInfo);
 	}
+
+	@Nullable
+	@Override
+	public JSONDocumentChangedWebSocketEvent mergeWithNext(@NonNull final Object nextEvent)
+	{
+		if (!(nextEvent instanceof JSONDocumentChangedWebSocketEvent))
+		{
+			return null;
+		}
+
+		final JSONDocumentChangedWebSocketEvent next = (JSONDocumentChangedWebSocketEvent)nextEvent;
+		if (!Objects.equals(windowId, next.windowId)
+				|| !Objects.equals(id, next.id))
+		{
+			return null;
+		}
+
+		final JSONDocumentChangedWebSocketEvent merged = copy();
+		merged.mergeFrom(next);
+		return merged;
+	}
 }
@@ -159,6 +159,8 @@ public final class Document
 	//
 	// Misc
 	private Map<String, Object> _dynAttributes = null; // lazy
+	/** weight with which this document was weighed by the {@link DocumentCollection}'s cache; not copied */
+	private volatile int cacheWeight = 0;
 
 	public interface DocumentValuesSupplier
 	{
@@ -1778,6 +1780,40 @@ public final class Document
 		return changes;
 	}
 
+	/**
+	 * Estimates the footprint of this document, i.e. the number of fields of this document plus, for each included tab, its fields &times; its rows.
+	 * The rows of an included tab are counted when they were loaded the last time.
+	 * <p>
+	 * NOTE: this method is not loading any included documents.
+	 */
+	/* package */ int estimateWeight()
+	{
+		int weight = fieldsByName.size();
+		for (final IIncludedDocumentsCollection includedDocumentsPerDetailId : includedDocuments.values())
+		{
+			weight += includedDocumentsPerDetailId.estimateWeight();
+		}
+		return Math.max(weight, 1);
+	}
+
+	/**
+	 * Same as {@link #estimateWeight()}, but also remembers the weight, see {@link #isCacheWeightOutdated()}.
+	 */
+	/* package */ int estimateCacheWeight()
+	{
+		final int weight = estimateWeight();
+		cacheWeight = weight;
+		return weight;
+	}
+
+	/**
+	 * @return true if the weight changed since {@link #estimateCacheWeight()} was called, e.g. because the rows of an included tab were loaded meanwhile
+	 */
+	/* package */ boolean isCacheWeightOutdated()
+	{
+		return estimateWeight() != cacheWeight;
+	}
+
 	/**
 	 * Checks if this document or any of it's included documents has changes.
 	 *
@@ -22,11 +22,14 @@
 
 package de.metas.ui.web.window.model;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import de.metas.i18n.AdMessageKey;
 import de.metas.letters.model.MADBoilerPlate;
@@ -98,6 +101,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 @Component
 public class DocumentCollection
@@ -105,6 +109,12 @@ public class DocumentCollection
 	private static final String SYSCONFIG_CACHE_SIZE = "de.metas.ui.web.window.model.DocumentCollection.CacheSize";
 	private static final int DEFAULT_CACHE_SIZE = 800;
 
+	/**
+	 * Max weight of all cached root documents, see {@link Document#estimateWeight()}. If not positive (default), the cache is bounded by {@link #SYSCONFIG_CACHE_SIZE}.
+	 */
+	private static final String SYSCONFIG_CACHE_MAX_WEIGHT = "de.metas.ui.web.window.model.DocumentCollection.CacheMaxWeight";
+	private static final int DEFAULT_CACHE_MAX_WEIGHT = -1;
+
 	private static final Logger logger = LogManager.getLogger(DocumentCollection.class);
 	public static final AdMessageKey MSG_CLONING_NOT_ALLOWED_FOR_CURRENT_WINDOW = AdMessageKey.of("de.metas.ui.web.window.model.DocumentCollection.CloningNotAllowedForCurrentWindow");
 
@@ -118,20 +128,43 @@ public class DocumentCollection
 	private DocumentWebsocketPublisher websocketPublisher;
 
 	private final Cache<DocumentKey, Document> rootDocuments;
+	private final long rootDocumentsMaxWeight;
 
 	private final ConcurrentHashMap<String, Set<WindowId>> tableName2windowIds = new ConcurrentHashMap<>();
 
 	/* package */ DocumentCollection()
 	{
 		// setup the cache
-		final int cacheSize = Services
-				.get(ISysConfigBL.class)
-				.getIntValue(SYSCONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int cacheMaxWeight = sysConfigBL.getIntValue(SYSCONFIG_CACHE_MAX_WEIGHT, DEFAULT_CACHE_MAX_WEIGHT);
+		final int cacheSize = sysConfigBL.getIntValue(SYSCONFIG_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+		rootDocumentsMaxWeight = cacheMaxWeight > 0 ? cacheMaxWeight : -1;
+		rootDocuments = buildRootDocumentsCache(cacheMaxWeight, cacheSize, Document::estimateCacheWeight);
+	}
 
-		rootDocuments = CacheBuilder
-				.newBuilder()
-				.maximumSize(cacheSize)
-				.build();
+	/**
+	 * @param cacheMaxWeight if positive, the cache is bounded by the total weight of its documents, else it's bounded by {@code cacheSize}
+	 */
+	@VisibleForTesting
+	static <K, V> Cache<K, V> buildRootDocumentsCache(final int cacheMaxWeight, final int cacheSize, @NonNull final ToIntFunction<V> weigher)
+	{
+		if (cacheMaxWeight > 0)
+		{
+			return CacheBuilder
+					.newBuilder()
+					.maximumWeight(cacheMaxWeight)
+					.weigher((K key, V value) -> weigher.applyAsInt(value))
+					.recordStats()
+					.build();
+		}
+		else
+		{
+			return CacheBuilder
+					.newBuilder()
+					.maximumSize(cacheSize)
+					.recordStats()
+					.build();
+		}
 	}
 
 	public DocumentDescriptorFactory getDocumentDescriptorFactory()
@@ -230,10 +263,27 @@ public class DocumentCollection
 
 		try (@SuppressWarnings("unused") final IAutoCloseable readLock = getOrLoadDocument(rootDocumentKey).lockForReading())
 		{
-			final Document rootDocument = getOrLoadDocument(rootDocumentKey).copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
+			final Document cachedRootDocument = getOrLoadDocument(rootDocumentKey);
+			final Document rootDocument = cachedRootDocument.copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
 			DocumentPermissionsHelper.assertCanView(rootDocument, UserSession.getCurrentPermissions());
 
-			return rootDocumentProcessor.apply(rootDocument);
+			final R result = rootDocumentProcessor.apply(rootDocument);
+
+			reweighIfNeeded(rootDocumentKey, cachedRootDocument);
+
+			return result;
+		}
+	}
+
+	/**
+	 * Makes the cache weigh the given root document again if it became heavier or lighter, e.g. because the rows of an included tab were loaded by the processor.
+	 * The guava cache weighs an entry only when it's put.
+	 */
+	private void reweighIfNeeded(@NonNull final DocumentKey rootDocumentKey, @NonNull final Document cachedRootDocument)
+	{
+		if (rootDocumentsMaxWeight > 0 && cachedRootDocument.isCacheWeightOutdated())
+		{
+			rootDocuments.asMap().replace(rootDocumentKey, cachedRootDocument, cachedRootDocument);
 		}
 	}
 
@@ -426,6 +476,34 @@ public class DocumentCollection
 		return result;
 	}
 
+	/**
+	 * @return statistics of the root documents cache
+	 */
+	public Map<String, Object> getCacheStats()
+	{
+		final CacheStats stats = rootDocuments.stats();
+		final long weight = rootDocuments.asMap()
+				.values()
+				.stream()
+				.mapToLong(Document::estimateWeight)
+				.sum();
+
+		final ImmutableMap.Builder<String, Object> result = ImmutableMap.<String, Object> builder()
+				.put("size", rootDocuments.size())
+				.put("weight", weight);
+		if (rootDocumentsMaxWeight > 0)
+		{
+			result.put("maxWeight", rootDocumentsMaxWeight);
+		}
+
+		return result
+				.put("hitCount", stats.hitCount())
+				.put("missCount", stats.missCount())
+				.put("hitRate", stats.hitRate())
+				.put("evictionCount", stats.evictionCount())
+				.build();
+	}
+
 	private void commitRootDocument(@NonNull final Document rootDocument)
 	{
 		Preconditions.checkState(rootDocument.isRootDocument(), "{} is not a root document", rootDocument);
@@ -68,6 +68,8 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 	private final DetailId detailId;
 	private final DocumentPath parentDocumentPath;
 	private final LinkedHashMap<DocumentId, Document> _documentsWithChanges;
+	/** shared with all copies of this collection */
+	private final IncludedRowsWeigher rowsWeigher;
 
 	private final IncludedDocumentsCollectionActions actions;
 	private final ActionsContext actionsContext = new ActionsContext();
@@ -82,6 +84,7 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 		this.entityDescriptor = entityDescriptor;
 
 		_documentsWithChanges = new LinkedHashMap<>();
+		rowsWeigher = new IncludedRowsWeigher(entityDescriptor.getFields().size());
 
 		actions = IncludedDocumentsCollectionActions.builder()
 				.parentDocumentPath(parentDocumentPath)
@@ -105,6 +108,7 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 		entityDescriptor = from.entityDescriptor;
 
 		_documentsWithChanges = new LinkedHashMap<>(Maps.transformValues(from._documentsWithChanges, includedDocumentOrig -> includedDocumentOrig.copy(parentDocumentCopy, copyMode)));
+		rowsWeigher = from.rowsWeigher;
 
 		actions = from.actions.copy();
 		parentReadonly = from.parentReadonly;
@@ -182,6 +186,7 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 			documents.addDocuments(documentsWithChanges.values());
 		}
 
+		rowsWeigher.setLoadedRowsCount(documents.size());
 		staled = false;
 
 		return documents;
@@ -394,6 +399,18 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 				.anyMatch(document -> document.hasChangesRecursivelly());
 	}
 
+	@Override
+	public int estimateWeight()
+	{
+		final Collection<Document> changedDocuments = getChangedDocuments();
+		final int changedDocumentsWeight = changedDocuments
+				.stream()
+				.mapToInt(Document::estimateWeight)
+				.sum();
+
+		return changedDocumentsWeight + rowsWeigher.estimateWeight(changedDocuments.size());
+	}
+
 	@Override
 	public void saveIfHasChanges()
 	{
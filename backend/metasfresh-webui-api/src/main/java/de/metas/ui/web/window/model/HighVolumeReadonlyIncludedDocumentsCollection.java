@@ -42,6 +42,7 @@ public final class HighVolumeReadonlyIncludedDocumentsCollection implements IInc
 {
 	private final Document parentDocument;
 	private final DocumentEntityDescriptor entityDescriptor;
+	private final IncludedRowsWeigher rowsWeigher;
 
 	private static final LogicExpressionResult RESULT_TabReadOnly = LogicExpressionResult.namedConstant("Tab is readonly", false);
 
@@ -49,6 +50,7 @@ public final class HighVolumeReadonlyIncludedDocumentsCollection implements IInc
 	{
 		this.parentDocument = parentDocument;
 		this.entityDescriptor = entityDescriptor;
+		this.rowsWeigher = new IncludedRowsWeigher(entityDescriptor.getFields().size());
 	}
 
 	@Override
@@ -74,11 +76,14 @@ public final class HighVolumeReadonlyIncludedDocumentsCollection implements IInc
 	@Override
 	public OrderedDocumentsList getDocuments(final DocumentQueryOrderByList orderBys)
 	{
-		return DocumentQuery.builder(entityDescriptor)
+		final OrderedDocumentsList documents = DocumentQuery.builder(entityDescriptor)
 				.setParentDocument(parentDocument)
 				.setChangesCollector(NullDocumentChangesCollector.instance)
 				.setOrderBys(orderBys)
 				.retriveDocuments();
+
+		rowsWeigher.setLoadedRowsCount(documents.size());
+		return documents;
 	}
 
 	@Override
@@ -186,6 +191,12 @@ public final class HighVolumeReadonlyIncludedDocumentsCollection implements IInc
 		return false;
 	}
 
+	@Override
+	public int estimateWeight()
+	{
+		return rowsWeigher.estimateWeight(0);
+	}
+
 	@Override
 	public void saveIfHasChanges()
 	{
@@ -74,6 +74,14 @@ public interface IIncludedDocumentsCollection
 
 	int getNextLineNo();
 
+	/**
+	 * @return estimated memory footprint of the included documents which are held by this collection (see {@link Document#estimateWeight()})
+	 */
+	default int estimateWeight()
+	{
+		return 0;
+	}
+
 	default void onChildSaved(final Document document)
 	{
 		// nothing
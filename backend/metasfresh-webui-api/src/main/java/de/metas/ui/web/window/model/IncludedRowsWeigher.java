@@ -0,0 +1,68 @@
+package de.metas.ui.web.window.model;
+
+import com.google.common.base.MoreObjects;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Remembers how many rows were loaded the last time all rows of an included tab were loaded, and weighs them as {@code rows x fields per row}.
+ * <p>
+ * High volume included documents collections are not keeping their unchanged rows in memory, but they are loaded again on each access.
+ * So the weight of a root document would otherwise not reflect how "heavy" a document with many lines is.
+ * <p>
+ * The same instance is shared by an included documents collection and all its copies (e.g. the read-only copies which are handed out to the users),
+ * so the cached root document learns about the rows which were loaded in any of its copies.
+ */
+/* package */final class IncludedRowsWeigher
+{
+	private final int fieldsPerRow;
+	private volatile int loadedRowsCount = 0;
+
+	/* package */ IncludedRowsWeigher(final int fieldsPerRow)
+	{
+		this.fieldsPerRow = Math.max(fieldsPerRow, 1);
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("fieldsPerRow", fieldsPerRow)
+				.add("loadedRowsCount", loadedRowsCount)
+				.toString();
+	}
+
+	public void setLoadedRowsCount(final int loadedRowsCount)
+	{
+		this.loadedRowsCount = Math.max(loadedRowsCount, 0);
+	}
+
+	/**
+	 * @param rowsInMemoryCount how many of the loaded rows are held in memory and therefore already weighed by the caller (e.g. rows with changes)
+	 * @return weight of the loaded rows which are not held in memory
+	 */
+	public int estimateWeight(final int rowsInMemoryCount)
+	{
+		return Math.max(loadedRowsCount - rowsInMemoryCount, 0) * fieldsPerRow;
+	}
+}
@@ -2,7 +2,6 @@ package de.metas.ui.web.window.model.lookup;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Predicate;
 
 import org.compiere.model.I_AD_SysConfig;
 import org.compiere.util.Evaluatee;
@@ -53,7 +52,7 @@ class FullyCachedLookupDataSource implements LookupDataSource
 
 	private final LookupDataSourceFetcher fetcher;
 
-	private final transient CCache<LookupDataSourceContext, LookupValuesList> cacheByPartition;
+	private final transient CCache<LookupDataSourceContext, LookupValuesSearchIndex> cacheByPartition;
 
 	private FullyCachedLookupDataSource(@NonNull final LookupDataSourceFetcher fetcher)
 	{
@@ -63,7 +62,7 @@ class FullyCachedLookupDataSource implements LookupDataSource
 		Check.assumeNotEmpty(cachePrefix, "cachePrefix is not empty");
 		final int maxSize = 100;
 		final int expireAfterMinutes = 60 * 2;
-		cacheByPartition = CCache.<LookupDataSourceContext, LookupValuesList> builder()
+		cacheByPartition = CCache.<LookupDataSourceContext, LookupValuesSearchIndex> builder()
 				.cacheName(cachePrefix + "#" + NAME + "#LookupByPartition")
 				.cacheMapType(CacheMapType.LRU)
 				.initialCapacity(maxSize)
@@ -80,32 +79,36 @@ class FullyCachedLookupDataSource implements LookupDataSource
 				.toString();
 	}
 
-	private LookupValuesList getLookupValuesList(final Evaluatee parentEvaluatee)
+	private LookupValuesSearchIndex getPartition(final Evaluatee parentEvaluatee)
 	{
 		final LookupDataSourceContext evalCtx = fetcher.newContextForFetchingList()
 				.setParentEvaluatee(parentEvaluatee)
 				.putFilter(LookupDataSourceContext.FILTER_Any, FIRST_ROW, Integer.MAX_VALUE)
 				.build();
 
-		return cacheByPartition.getOrLoad(evalCtx, fetcher::retrieveEntities);
+		return cacheByPartition.getOrLoad(evalCtx, this::retrievePartition);
+	}
+
+	private LookupValuesSearchIndex retrievePartition(final LookupDataSourceContext evalCtx)
+	{
+		return LookupValuesSearchIndex.of(fetcher.retrieveEntities(evalCtx));
+	}
+
+	private LookupValuesList getLookupValuesList(final Evaluatee parentEvaluatee)
+	{
+		return getPartition(parentEvaluatee).getLookupValues();
 	}
 
 	@Override
 	public LookupValuesList findEntities(final Evaluatee ctx, final String filter, final int firstRow, final int pageLength)
 	{
-		final LookupValuesList partition = getLookupValuesList(ctx);
-		if (partition.isEmpty())
-		{
-			return partition;
-		}
-
-		final Predicate<LookupValue> filterPredicate = LookupValueFilterPredicates.of(filter);
-		if (filterPredicate == LookupValueFilterPredicates.MATCH_ALL)
+		final LookupValuesSearchIndex partition = getPartition(ctx);
+		if (partition.getLookupValues().isEmpty())
 		{
-			return partition.offsetAndLimit(firstRow, pageLength);
+			return partition.getLookupValues();
 		}
 
-		return partition.filter(filterPredicate, firstRow, pageLength);
+		return partition.search(filter, firstRow, pageLength);
 	}
 
 	@Override
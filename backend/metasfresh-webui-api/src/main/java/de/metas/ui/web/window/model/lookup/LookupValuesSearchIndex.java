@@ -0,0 +1,298 @@
+package de.metas.ui.web.window.model.lookup;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+import lombok.Getter;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Trigram index over the display names of a {@link LookupValuesList}, used for typeahead searches.
+ * <p>
+ * Display names and filters are lower cased and accent folded (e.g. "Müller" is found by "muller").
+ * A value matches if its normalized display name contains the normalized filter.
+ * Matches are ranked: exact match, then prefix match, then word prefix match, then any other match.
+ * Within the same rank, the order of the underlying list is preserved.
+ * <p>
+ * The trigram index is built lazily, on first search with a filter of at least {@value #TRIGRAM_LENGTH} characters,
+ * and only if the list has at least {@value #MIN_SIZE_TO_BUILD_TRIGRAMS} values. For shorter filters or smaller lists, all values are scanned.
+ */
+final class LookupValuesSearchIndex
+{
+	public static LookupValuesSearchIndex of(@NonNull final LookupValuesList lookupValues)
+	{
+		return new LookupValuesSearchIndex(lookupValues);
+	}
+
+	private static final int TRIGRAM_LENGTH = 3;
+	private static final int MIN_SIZE_TO_BUILD_TRIGRAMS = 500;
+
+	private static final int RANK_Exact = 0;
+	private static final int RANK_Prefix = 1;
+	private static final int RANK_WordPrefix = 2;
+	private static final int RANK_Contains = 3;
+	private static final int RANK_NoMatch = -1;
+
+	@Getter
+	private final LookupValuesList lookupValues;
+	private final ImmutableList<LookupValue> values;
+	private final Supplier<String[]> normalizedDisplayNamesSupplier;
+	private final Supplier<ImmutableMap<String, int[]>> positionsByTrigramSupplier;
+
+	private LookupValuesSearchIndex(@NonNull final LookupValuesList lookupValues)
+	{
+		this.lookupValues = lookupValues;
+		this.values = ImmutableList.copyOf(lookupValues.getValues());
+		this.normalizedDisplayNamesSupplier = Suppliers.memoize(this::buildNormalizedDisplayNames);
+		this.positionsByTrigramSupplier = Suppliers.memoize(this::buildPositionsByTrigram);
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("size", values.size())
+				.toString();
+	}
+
+	private String[] buildNormalizedDisplayNames()
+	{
+		final String[] normalizedDisplayNames = new String[values.size()];
+		for (int i = 0; i < normalizedDisplayNames.length; i++)
+		{
+			normalizedDisplayNames[i] = normalizeString(values.get(i).getDisplayName());
+		}
+		return normalizedDisplayNames;
+	}
+
+	private ImmutableMap<String, int[]> buildPositionsByTrigram()
+	{
+		final String[] normalizedDisplayNames = normalizedDisplayNamesSupplier.get();
+
+		final HashMap<String, IntArrayBuilder> positionsByTrigram = new HashMap<>();
+		for (int position = 0; position < normalizedDisplayNames.length; position++)
+		{
+			final String displayName = normalizedDisplayNames[position];
+			for (int i = 0; i + TRIGRAM_LENGTH <= displayName.length(); i++)
+			{
+				final String trigram = displayName.substring(i, i + TRIGRAM_LENGTH);
+
+				// NOTE: positions are added in ascending order, so checking the last one is enough to avoid duplicates
+				positionsByTrigram.computeIfAbsent(trigram, k -> new IntArrayBuilder()).addIfNotLast(position);
+			}
+		}
+
+		final ImmutableMap.Builder<String, int[]> result = ImmutableMap.builder();
+		positionsByTrigram.forEach((trigram, positions) -> result.put(trigram, positions.build()));
+		return result.build();
+	}
+
+	static String normalizeString(@Nullable final String str)
+	{
+		if (str == null)
+		{
+			return "";
+		}
+
+		final String strNorm = Normalizer.normalize(str.toLowerCase(), Normalizer.Form.NFD);
+		return strNorm.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
+	}
+
+	/**
+	 * @return ranked matching values, skipping the first <code>firstRow</code> ones and returning at most <code>pageLength</code> values
+	 */
+	public LookupValuesList search(@Nullable final String filter, final int firstRow, final int pageLength)
+	{
+		final String filterNorm = filter != null ? normalizeString(filter.trim()) : "";
+		if (filterNorm.isEmpty())
+		{
+			return lookupValues.offsetAndLimit(firstRow, pageLength);
+		}
+
+		final String[] normalizedDisplayNames = normalizedDisplayNamesSupplier.get();
+		final int[] candidatePositions = getCandidatePositions(filterNorm);
+
+		final List<List<LookupValue>> matchesByRank = ImmutableList.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+		if (candidatePositions == null)
+		{
+			for (int position = 0; position < normalizedDisplayNames.length; position++)
+			{
+				addIfMatches(matchesByRank, position, normalizedDisplayNames[position], filterNorm);
+			}
+		}
+		else
+		{
+			for (final int position : candidatePositions)
+			{
+				addIfMatches(matchesByRank, position, normalizedDisplayNames[position], filterNorm);
+			}
+		}
+
+		final long offsetEffective = firstRow <= 0 ? 0 : firstRow;
+		final long maxSizeEffective = pageLength <= 0 ? Long.MAX_VALUE : pageLength;
+		return matchesByRank.stream()
+				.flatMap(List::stream)
+				.skip(offsetEffective)
+				.limit(maxSizeEffective)
+				.collect(LookupValuesList.collect(lookupValues.getDebugProperties()));
+	}
+
+	private void addIfMatches(
+			final List<List<LookupValue>> matchesByRank,
+			final int position,
+			final String displayNameNorm,
+			final String filterNorm)
+	{
+		final int rank = computeRank(displayNameNorm, filterNorm);
+		if (rank != RANK_NoMatch)
+		{
+			matchesByRank.get(rank).add(values.get(position));
+		}
+	}
+
+	private static int computeRank(final String displayNameNorm, final String filterNorm)
+	{
+		int idx = displayNameNorm.indexOf(filterNorm);
+		if (idx < 0)
+		{
+			return RANK_NoMatch;
+		}
+		else if (idx == 0)
+		{
+			return displayNameNorm.length() == filterNorm.length() ? RANK_Exact : RANK_Prefix;
+		}
+
+		while (idx > 0)
+		{
+			if (!Character.isLetterOrDigit(displayNameNorm.charAt(idx - 1)))
+			{
+				return RANK_WordPrefix;
+			}
+			idx = displayNameNorm.indexOf(filterNorm, idx + 1);
+		}
+
+		return RANK_Contains;
+	}
+
+	/**
+	 * @return ascending positions of the values which might match given filter or <code>null</code> if all values have to be checked
+	 */
+	@Nullable
+	private int[] getCandidatePositions(final String filterNorm)
+	{
+		if (filterNorm.length() < TRIGRAM_LENGTH || values.size() < MIN_SIZE_TO_BUILD_TRIGRAMS)
+		{
+			return null;
+		}
+
+		final ImmutableMap<String, int[]> positionsByTrigram = positionsByTrigramSupplier.get();
+
+		final List<int[]> positionsList = new ArrayList<>();
+		for (int i = 0; i + TRIGRAM_LENGTH <= filterNorm.length(); i++)
+		{
+			final int[] positions = positionsByTrigram.get(filterNorm.substring(i, i + TRIGRAM_LENGTH));
+			if (positions == null)
+			{
+				return new int[0];
+			}
+			positionsList.add(positions);
+		}
+
+		// intersect, starting with the smallest
+		positionsList.sort((positions1, positions2) -> Integer.compare(positions1.length, positions2.length));
+		int[] result = positionsList.get(0);
+		for (int i = 1; i < positionsList.size() && result.length > 0; i++)
+		{
+			result = intersect(result, positionsList.get(i));
+		}
+		return result;
+	}
+
+	private static int[] intersect(final int[] sorted1, final int[] sorted2)
+	{
+		final int[] result = new int[Math.min(sorted1.length, sorted2.length)];
+		int count = 0;
+		int i1 = 0;
+		int i2 = 0;
+		while (i1 < sorted1.length && i2 < sorted2.length)
+		{
+			if (sorted1[i1] < sorted2[i2])
+			{
+				i1++;
+			}
+			else if (sorted1[i1] > sorted2[i2])
+			{
+				i2++;
+			}
+			else
+			{
+				result[count] = sorted1[i1];
+				count++;
+				i1++;
+				i2++;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private static final class IntArrayBuilder
+	{
+		private int[] values = new int[4];
+		private int size = 0;
+
+		public void addIfNotLast(final int value)
+		{
+			if (size > 0 && values[size - 1] == value)
+			{
+				return;
+			}
+
+			if (size >= values.length)
+			{
+				values = Arrays.copyOf(values, values.length * 2);
+			}
+			values[size] = value;
+			size++;
+		}
+
+		public int[] build()
+		{
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.organization.OrgId;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.descriptor.SqlViewBinding;
+import de.metas.ui.web.view.descriptor.SqlViewKeyColumnNamesMap;
+import de.metas.ui.web.view.descriptor.SqlViewRowIdsConverters;
+import de.metas.ui.web.view.descriptor.SqlViewSelectData;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryViewRowIdsOrderedSelectionFactoryTest
+{
+	private final InMemoryViewRowIdsRegistry registry = InMemoryViewRowIdsRegistry.instance;
+
+	private SqlViewRowIdsOrderedSelectionFactory delegate;
+	private InMemoryViewRowIdsOrderedSelectionFactory.RowIdsDAO rowIdsDAO;
+	private InMemoryViewRowIdsOrderedSelectionFactory factory;
+
+	private ViewId viewId;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final SqlViewBinding viewBinding = Mockito.mock(SqlViewBinding.class);
+		Mockito.when(viewBinding.getTableName()).thenReturn("C_Order");
+		Mockito.when(viewBinding.hasGroupingFields()).thenReturn(false);
+		Mockito.when(viewBinding.getSqlViewKeyColumnNamesMap()).thenReturn(SqlViewKeyColumnNamesMap.ofIntKeyField("C_Order_ID"));
+		Mockito.when(viewBinding.getRowIdsConverter()).thenReturn(SqlViewRowIdsConverters.TO_INT_STRICT);
+		final SqlViewSelectData sqlViewSelect = Mockito.mock(SqlViewSelectData.class);
+		Mockito.when(sqlViewSelect.isSelectFromRowIdsSupported()).thenReturn(true);
+		Mockito.when(viewBinding.getSqlViewSelect()).thenReturn(sqlViewSelect);
+
+		delegate = Mockito.mock(SqlViewRowIdsOrderedSelectionFactory.class);
+		rowIdsDAO = Mockito.mock(InMemoryViewRowIdsOrderedSelectionFactory.RowIdsDAO.class);
+		factory = new InMemoryViewRowIdsOrderedSelectionFactory(viewBinding, delegate, rowIdsDAO);
+
+		viewId = ViewId.random(WindowId.of(143));
+
+		setMaxRowsPerSelection(3);
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		registry.removeAll(ImmutableSet.of(viewId.getViewId()));
+	}
+
+	private void setMaxRowsPerSelection(final int maxRowsPerSelection)
+	{
+		Services.get(ISysConfigBL.class).setValue(InMemoryViewRowIdsOrderedSelectionFactory.SYSCONFIG_MaxRowsPerSelection, maxRowsPerSelection, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	private void setMaxRowsTotal(final long maxRowsTotal)
+	{
+		Services.get(ISysConfigBL.class).setValue(InMemoryViewRowIdsOrderedSelectionFactory.SYSCONFIG_MaxRowsTotal, (int)maxRowsTotal, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	private ViewRowIdsOrderedSelection createOrderedSelection()
+	{
+		return factory.createOrderedSelection(
+				null, // viewEvalCtx
+				viewId,
+				DocumentFilterList.EMPTY,
+				DocumentQueryOrderByList.EMPTY,
+				false, // applySecurityRestrictions
+				SqlDocumentFilterConverterContext.EMPTY);
+	}
+
+	private void givenRowIds(final int... rowIds)
+	{
+		Mockito.when(rowIdsDAO.countRowIds(any(), any(), anyInt(), anyBoolean(), any())).thenReturn(rowIds.length);
+		Mockito.when(rowIdsDAO.retrieveRowIdsOrdered(any(), any(), any(), anyInt(), anyBoolean(), any())).thenReturn(rowIds);
+	}
+
+	@Test
+	public void createOrderedSelection_tooManyRows_counted_and_createdInDatabase()
+	{
+		givenRowIds(1, 2, 3, 4);
+
+		createOrderedSelection();
+
+		// count at most one more row than the max rows per selection
+		Mockito.verify(rowIdsDAO).countRowIds(any(), any(), eq(4), anyBoolean(), any());
+		Mockito.verify(rowIdsDAO, Mockito.never()).retrieveRowIdsOrdered(any(), any(), any(), anyInt(), anyBoolean(), any());
+		Mockito.verify(delegate).createOrderedSelection(any(), eq(viewId), any(), any(), anyBoolean(), any());
+		assertThat(factory.getInMemoryRowIdsOrNull(viewId.getViewId())).isNull();
+	}
+
+	@Test
+	public void createOrderedSelection_keptInMemory()
+	{
+		givenRowIds(3, 1, 2);
+
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection();
+
+		assertThat(selection.getSize()).isEqualTo(3);
+		assertThat(factory.getInMemoryRowIdsOrNull(viewId.getViewId()).toList()).containsExactly(3, 1, 2);
+		Mockito.verify(rowIdsDAO, Mockito.never()).insertSelection(any(), any(), any());
+		Mockito.verify(delegate, Mockito.never()).createOrderedSelection(any(), any(), any(), any(), anyBoolean(), any());
+	}
+
+	@Test
+	public void createOrderedSelection_exceedingMaxRowsTotal_insertedInDatabase()
+	{
+		setMaxRowsTotal(registry.getTotalRowIdsCount() + 2);
+		givenRowIds(3, 1, 2);
+
+		final ViewRowIdsOrderedSelection selection = createOrderedSelection();
+
+		assertThat(selection.getSize()).isEqualTo(3);
+		assertThat(factory.getInMemoryRowIdsOrNull(viewId.getViewId())).isNull();
+		Mockito.verify(rowIdsDAO).insertSelection(viewId, new int[] { 3, 1, 2 }, ITrx.TRXNAME_ThreadInherited);
+	}
+
+	@Test
+	public void getSqlWhereClause_tooManyRows_selectionMaterializedBeforeRemovedFromMemory()
+	{
+		givenRowIds(3, 1, 2);
+		createOrderedSelection();
+
+		Mockito.when(rowIdsDAO.insertSelection(any(), any(), any())).thenAnswer(invocation -> {
+			// concurrent readers shall still see the in-memory rows while they are stored
+			assertThat(factory.getInMemoryRowIdsOrNull(viewId.getViewId())).isNotNull();
+			return 3;
+		});
+		Mockito.when(delegate.getSqlWhereClause(viewId, DocumentIdsSelection.ALL)).thenReturn("fromDatabase");
+
+		setMaxRowsPerSelection(2);
+		final String sqlWhereClause = factory.getSqlWhereClause(viewId, DocumentIdsSelection.ALL);
+
+		assertThat(sqlWhereClause).isEqualTo("fromDatabase");
+		assertThat(factory.getInMemoryRowIdsOrNull(viewId.getViewId())).isNull();
+		Mockito.verify(rowIdsDAO).insertSelection(viewId, new int[] { 3, 1, 2 }, ITrx.TRXNAME_None);
+		Mockito.verify(rowIdsDAO, Mockito.never()).deleteSelection(any(), any());
+	}
+
+	@Test
+	public void getSqlWhereClause_selectionChangedWhileMaterializing_retried()
+	{
+		givenRowIds(3, 1, 2);
+		createOrderedSelection();
+
+		Mockito.when(rowIdsDAO.insertSelection(any(), any(), any()))
+				.thenAnswer(invocation -> {
+					// another thread adds a row while we are storing the selection
+					registry.computeIfPresent(viewId.getViewId(), rowIds -> rowIds.addingIfAbsent(ImmutableList.of(4)));
+					return 3;
+				})
+				.thenReturn(4);
+
+		setMaxRowsPerSelection(2);
+		factory.getSqlWhereClause(viewId, DocumentIdsSelection.ALL);
+
+		assertThat(factory.getInMemoryRowIdsOrNull(viewId.getViewId())).isNull();
+		Mockito.verify(rowIdsDAO).deleteSelection(viewId, ITrx.TRXNAME_None);
+		Mockito.verify(rowIdsDAO).insertSelection(viewId, new int[] { 3, 1, 2, 4 }, ITrx.TRXNAME_None);
+	}
+}
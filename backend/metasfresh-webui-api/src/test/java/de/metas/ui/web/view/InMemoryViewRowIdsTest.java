@@ -0,0 +1,128 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryViewRowIdsTest
+{
+	private final InMemoryViewRowIdsRegistry registry = InMemoryViewRowIdsRegistry.instance;
+
+	@AfterEach
+	public void afterEach()
+	{
+		registry.removeAll(ImmutableSet.of("sel1", "sel2"));
+	}
+
+	@Test
+	public void getPage()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofArray(new int[] { 5, 4, 3, 2, 1 });
+
+		assertThat(rowIds.getPage(0, 2)).containsExactly(5, 4);
+		assertThat(rowIds.getPage(4, 2)).containsExactly(1);
+		assertThat(rowIds.getPage(5, 2)).isEmpty();
+		assertThat(rowIds.getPage(1, Integer.MAX_VALUE)).containsExactly(4, 3, 2, 1);
+	}
+
+	@Test
+	public void addingIfAbsent_and_removing()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofArray(new int[] { 3, 1 });
+
+		final InMemoryViewRowIds rowIdsAdded = rowIds.addingIfAbsent(ImmutableList.of(1, 7, 2));
+		assertThat(rowIdsAdded.toList()).containsExactly(3, 1, 7, 2);
+		assertThat(rowIds.addingIfAbsent(ImmutableList.of(1, 3))).isSameAs(rowIds);
+
+		assertThat(rowIdsAdded.removing(ImmutableSet.of(1, 2)).toList()).containsExactly(3, 7);
+		assertThat(rowIdsAdded.removing(ImmutableSet.of(100))).isSameAs(rowIdsAdded);
+
+		assertThat(rowIdsAdded.retainContained(ImmutableSet.of(2, 3, 100))).containsExactly(3, 2);
+		assertThat(rowIdsAdded.containsAny(ImmutableSet.of(100, 7))).isTrue();
+		assertThat(rowIdsAdded.containsAny(ImmutableSet.of(100))).isFalse();
+	}
+
+	@Test
+	public void registry_accounting()
+	{
+		final long initialCount = registry.getTotalRowIdsCount();
+
+		assertThat(registry.putIfFits("sel1", InMemoryViewRowIds.ofArray(new int[] { 1, 2, 3 }), 0)).isTrue();
+		assertThat(registry.getTotalRowIdsCount()).isEqualTo(initialCount + 3);
+
+		// does not fit
+		assertThat(registry.putIfFits("sel2", InMemoryViewRowIds.ofArray(new int[] { 1, 2 }), initialCount + 4)).isFalse();
+		assertThat(registry.getOrNull("sel2")).isNull();
+		assertThat(registry.getTotalRowIdsCount()).isEqualTo(initialCount + 3);
+
+		registry.computeIfPresent("sel1", rowIds -> rowIds.removing(ImmutableSet.of(1)));
+		assertThat(registry.getTotalRowIdsCount()).isEqualTo(initialCount + 2);
+
+		assertThat(registry.removeAll(ImmutableSet.of("sel1", "sel2"))).containsExactly("sel1");
+		assertThat(registry.getTotalRowIdsCount()).isEqualTo(initialCount);
+	}
+
+	@Test
+	public void contains_and_retainContained()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofArray(new int[] { 50, 10, 40, 20, 30 });
+
+		assertThat(rowIds.contains(40)).isTrue();
+		assertThat(rowIds.contains(50)).isTrue();
+		assertThat(rowIds.contains(35)).isFalse();
+		assertThat(rowIds.contains(60)).isFalse();
+
+		// order of this list, not of the given set
+		assertThat(rowIds.retainContained(ImmutableSet.of(10, 30, 35, 50))).containsExactly(50, 10, 30);
+		assertThat(rowIds.retainContained(ImmutableSet.of(35))).isEmpty();
+		assertThat(InMemoryViewRowIds.EMPTY.retainContained(ImmutableSet.of(10))).isEmpty();
+		assertThat(InMemoryViewRowIds.EMPTY.contains(10)).isFalse();
+	}
+
+	@Test
+	public void registry_remove_onlyIfUnchanged()
+	{
+		final long initialCount = registry.getTotalRowIdsCount();
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofArray(new int[] { 1, 2, 3 });
+		registry.putIfFits("sel1", rowIds, 0);
+
+		// changed in meantime
+		final InMemoryViewRowIds rowIdsChanged = registry.computeIfPresent("sel1", selectionRowIds -> selectionRowIds.addingIfAbsent(ImmutableList.of(4)));
+		assertThat(registry.remove("sel1", rowIds)).isFalse();
+		assertThat(registry.getOrNull("sel1")).isSameAs(rowIdsChanged);
+		assertThat(registry.getTotalRowIdsCount()).isEqualTo(initialCount + 4);
+
+		assertThat(registry.remove("sel1", rowIdsChanged)).isTrue();
+		assertThat(registry.getOrNull("sel1")).isNull();
+		assertThat(registry.getTotalRowIdsCount()).isEqualTo(initialCount);
+
+		assertThat(registry.remove("sel1", rowIdsChanged)).isFalse();
+		assertThat(registry.getTotalRowIdsCount()).isEqualTo(initialCount);
+	}
+}
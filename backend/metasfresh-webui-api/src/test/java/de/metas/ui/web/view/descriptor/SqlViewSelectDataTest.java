@@ -0,0 +1,210 @@
+package de.metas.ui.web.view.descriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
+import de.metas.ui.web.view.ViewEvaluationCtx;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.sql.SqlSelectValue;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlViewSelectDataTest
+{
+	private static final String SQL_FROM_ROW_IDS = "FROM unnest(?::numeric[]) WITH ORDINALITY AS r(";
+	private static final String SQL_FROM_SELECTION_TABLE = "FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel";
+
+	private SqlViewSelectData selectData;
+	private ViewEvaluationCtx viewEvalCtx;
+	private ViewId viewId;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = SqlViewKeyColumnNamesMap.ofIntKeyField("C_Order_ID");
+		selectData = SqlViewSelectData.builder()
+				.sqlTableName("C_Order")
+				.sqlTableAlias("master")
+				.keyColumnNamesMap(keyColumnNamesMap)
+				.displayFieldNames(ImmutableList.of("DocumentNo"))
+				.allFields(ImmutableList.of(
+						field("C_Order_ID", DocumentFieldWidgetType.Integer, true),
+						field("DocumentNo", DocumentFieldWidgetType.Text, false)))
+				.build();
+
+		viewEvalCtx = ViewEvaluationCtx._builder()
+				.loggedUserId(Optional.of(UserId.ofRepoId(100)))
+				.adLanguage("en_US")
+				.timeZone(ZoneId.of("UTC"))
+				.permissionsKey(UserRolePermissionsKey.of(RoleId.ofRepoId(1000000), UserId.ofRepoId(100), ClientId.ofRepoId(1000000), LocalDate.of(2020, 1, 1)))
+				.build();
+
+		viewId = ViewId.random(WindowId.of(143));
+	}
+
+	private static SqlViewRowFieldBinding field(final String columnName, final DocumentFieldWidgetType widgetType, final boolean keyColumn)
+	{
+		return SqlViewRowFieldBinding.builder()
+				.fieldName(columnName)
+				.widgetType(widgetType)
+				.keyColumn(keyColumn)
+				.fieldLoader((rs, adLanguage) -> null)
+				.sqlSelectValue(SqlSelectValue.builder()
+						.tableNameOrAlias("C_Order")
+						.columnName(columnName)
+						.columnNameAlias(columnName)
+						.build())
+				.build();
+	}
+
+	@Test
+	public void isSelectFromRowIdsSupported()
+	{
+		assertThat(selectData.isSelectFromRowIdsSupported()).isTrue();
+	}
+
+	@Test
+	public void selectByPage_fromRowIds()
+	{
+		final SqlAndParams sqlAndParams = selectData.selectByPage()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(20)
+				.pageLength(3)
+				.pageRowIds(new int[] { 30, 10, 20 })
+				.build();
+
+		assertThat(sqlAndParams.getSql())
+				.contains(SQL_FROM_ROW_IDS)
+				.doesNotContain(SQL_FROM_SELECTION_TABLE)
+				.contains(SqlViewSelectData.COLUMNNAME_Paging_SeqNo_OneBased + " BETWEEN ? AND ?");
+
+		// the unnested rows are numbered from 1, so they are shifted by the page's first row, to match the paging filter
+		assertThat(sqlAndParams.getSqlParams()).containsExactly(viewId.getViewId(), 20, "{30,10,20}", viewId.getViewId(), 21, 23);
+	}
+
+	@Test
+	public void selectByPage_fromSelectionTable()
+	{
+		final SqlAndParams sqlAndParams = selectData.selectByPage()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(20)
+				.pageLength(3)
+				.build();
+
+		assertThat(sqlAndParams.getSql())
+				.contains(SQL_FROM_SELECTION_TABLE)
+				.doesNotContain(SQL_FROM_ROW_IDS);
+		assertThat(sqlAndParams.getSqlParams()).containsExactly(viewId.getViewId(), 21, 23);
+	}
+
+	@Test
+	public void selectByPage_fromRowIds_sameColumnsAsFromSelectionTable()
+	{
+		final String sqlFromSelectionTable = selectData.selectByPage()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(0)
+				.pageLength(3)
+				.build()
+				.getSql();
+		final String sqlFromRowIds = selectData.selectByPage()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(0)
+				.pageLength(3)
+				.pageRowIds(new int[] { 1, 2, 3 })
+				.build()
+				.getSql();
+
+		final String sqlSelectionTableFromRowIds = sqlFromRowIds.substring(
+				sqlFromRowIds.indexOf("FROM (SELECT ?::varchar") + "FROM ".length(),
+				sqlFromRowIds.indexOf(") sel") + 1);
+		assertThat(sqlFromRowIds.replace(sqlSelectionTableFromRowIds, I_T_WEBUI_ViewSelection.Table_Name)).isEqualTo(sqlFromSelectionTable);
+	}
+
+	@Test
+	public void selectRowIdsByPage_fromRowIds()
+	{
+		final SqlAndParams sqlAndParams = selectData.selectRowIdsByPage()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(0)
+				.pageLength(2)
+				.pageRowIds(new int[] { 5, 7 })
+				.build();
+
+		assertThat(sqlAndParams.getSql())
+				.contains(SQL_FROM_ROW_IDS)
+				.doesNotContain(SQL_FROM_SELECTION_TABLE)
+				.doesNotContain("DocumentNo");
+		assertThat(sqlAndParams.getSqlParams()).containsExactly(viewId.getViewId(), 0, "{5,7}", viewId.getViewId(), 1, 2);
+	}
+
+	@Test
+	public void selectById_inMemorySelection()
+	{
+		final SqlAndParams sqlAndParams = selectData.selectById()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.rowId(DocumentId.of(5))
+				.inMemorySelection(true)
+				.build();
+
+		assertThat(sqlAndParams.getSql())
+				.contains(SQL_FROM_ROW_IDS)
+				.doesNotContain(SQL_FROM_SELECTION_TABLE);
+		assertThat(sqlAndParams.getSqlParams()).containsExactly(viewId.getViewId(), 0, "{5}", viewId.getViewId(), 5);
+	}
+
+	@Test
+	public void selectFieldValues_fromRowIds()
+	{
+		final SqlAndParams sqlAndParams = selectData.selectFieldValues(viewEvalCtx, viewId.getViewId(), new int[] { 3, 1 }, "DocumentNo", 10);
+
+		assertThat(sqlAndParams.getSql())
+				.contains(SQL_FROM_ROW_IDS)
+				.doesNotContain(SQL_FROM_SELECTION_TABLE);
+		assertThat(sqlAndParams.getSqlParams()).containsExactly(viewId.getViewId(), 0, "{3,1}", viewId.getViewId(), 10);
+	}
+}
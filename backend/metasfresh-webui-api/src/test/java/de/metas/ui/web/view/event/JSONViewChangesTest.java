@@ -0,0 +1,91 @@
+package de.metas.ui.web.view.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JSONViewChangesTest
+{
+	private final ViewId viewId = ViewId.random(WindowId.of(123));
+
+	private static JSONViewChanges rowsChanged(final ViewId viewId, final int... rowIds)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		IntStream.of(rowIds).mapToObj(DocumentId::of).forEach(changes::addChangedRowId);
+		return JSONViewChanges.of(changes);
+	}
+
+	private static JSONViewChanges fullyChanged(final ViewId viewId)
+	{
+		final ViewChanges changes = new ViewChanges(viewId);
+		changes.setFullyChanged();
+		return JSONViewChanges.of(changes);
+	}
+
+	@Test
+	public void mergeWithNext_rowsChanged()
+	{
+		final JSONViewChanges merged = rowsChanged(viewId, 1, 2).mergeWithNext(rowsChanged(viewId, 2, 3));
+
+		assertThat(merged.getFullyChanged()).isFalse();
+		assertThat(merged.getChangedIds()).containsExactlyInAnyOrder("1", "2", "3");
+	}
+
+	@Test
+	public void mergeWithNext_fullyChangedSupersedesRowsChanged()
+	{
+		final JSONViewChanges fullyChanged = fullyChanged(viewId);
+
+		assertThat(rowsChanged(viewId, 1).mergeWithNext(fullyChanged)).isSameAs(fullyChanged);
+		assertThat(fullyChanged.mergeWithNext(rowsChanged(viewId, 1))).isSameAs(fullyChanged);
+	}
+
+	@Test
+	public void mergeWithNext_tooManyRowsChanged()
+	{
+		final int[] rowIds1 = IntStream.rangeClosed(1, 300).toArray();
+		final int[] rowIds2 = IntStream.rangeClosed(301, 600).toArray();
+
+		final JSONViewChanges merged = rowsChanged(viewId, rowIds1).mergeWithNext(rowsChanged(viewId, rowIds2));
+
+		assertThat(merged.getFullyChanged()).isTrue();
+		assertThat(merged.getChangedIds()).isEmpty();
+	}
+
+	@Test
+	public void mergeWithNext_otherView()
+	{
+		final ViewId otherViewId = ViewId.random(WindowId.of(123));
+
+		assertThat(rowsChanged(viewId, 1).mergeWithNext(rowsChanged(otherViewId, 1))).isNull();
+		assertThat(rowsChanged(viewId, 1).mergeWithNext("some other event")).isNull();
+	}
+}
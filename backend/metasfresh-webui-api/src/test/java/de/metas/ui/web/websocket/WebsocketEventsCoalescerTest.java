@@ -0,0 +1,299 @@
+package de.metas.ui.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.websocket.WebsocketEventsCoalescer.FlushScheduler;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WebsocketEventsCoalescerTest
+{
+	private static final long WINDOW_MILLIS = 100;
+	private static final String DESTINATION = "/dest";
+
+	private final BlockingQueue<Object> sentEvents = new LinkedBlockingQueue<>();
+	private WebsocketEventsLog eventsLog;
+	private ManualFlushScheduler scheduler;
+	private WebsocketEventsCoalescer coalescer;
+
+	@BeforeEach
+	public void init()
+	{
+		eventsLog = new WebsocketEventsLog();
+		scheduler = new ManualFlushScheduler();
+		coalescer = new WebsocketEventsCoalescer(WINDOW_MILLIS, (destination, event) -> sentEvents.add(event), eventsLog, scheduler);
+	}
+
+	@Value
+	private static class MergeableEvent implements WebsocketCoalescableEvent
+	{
+		ImmutableList<String> names;
+
+		@Override
+		@Nullable
+		public Object mergeWithNext(@NonNull final Object nextEvent)
+		{
+			if (!(nextEvent instanceof MergeableEvent))
+			{
+				return null;
+			}
+			return new MergeableEvent(ImmutableList.<String> builder()
+					.addAll(names)
+					.addAll(((MergeableEvent)nextEvent).getNames())
+					.build());
+		}
+	}
+
+	private static MergeableEvent event(final String... names)
+	{
+		return new MergeableEvent(ImmutableList.copyOf(names));
+	}
+
+	private static class ManualFlushScheduler implements FlushScheduler
+	{
+		private final List<Runnable> scheduledFlushes = new ArrayList<>();
+		private final List<Long> delays = new ArrayList<>();
+		private boolean shutdown = false;
+
+		@Override
+		public synchronized void schedule(@NonNull final Runnable flush, final long delayMillis)
+		{
+			if (shutdown)
+			{
+				throw new RejectedExecutionException("shut down");
+			}
+			scheduledFlushes.add(flush);
+			delays.add(delayMillis);
+		}
+
+		@Override
+		public synchronized void shutdown()
+		{
+			shutdown = true;
+			scheduledFlushes.clear();
+		}
+
+		public synchronized int getScheduledCount()
+		{
+			return scheduledFlushes.size();
+		}
+
+		/** Simulates that the window is over */
+		public void runAll()
+		{
+			final List<Runnable> flushes;
+			synchronized (this)
+			{
+				flushes = new ArrayList<>(scheduledFlushes);
+				scheduledFlushes.clear();
+			}
+			flushes.forEach(Runnable::run);
+		}
+	}
+
+	@Test
+	public void coalescableEvents_mergedAndSentAfterWindow()
+	{
+		coalescer.send(DESTINATION, event("a"));
+		coalescer.send(DESTINATION, event("b"));
+		coalescer.send(DESTINATION, event("c"));
+
+		assertThat(sentEvents).isEmpty();
+		assertThat(scheduler.getScheduledCount()).isEqualTo(1);
+		assertThat(scheduler.delays).containsExactly(WINDOW_MILLIS);
+
+		scheduler.runAll();
+		assertThat(sentEvents).containsExactly(event("a", "b", "c"));
+		assertThat(eventsLog.getStats()).containsEntry("coalescedEventsCount", 2L);
+
+		// a new window is started for the next event
+		coalescer.send(DESTINATION, event("d"));
+		assertThat(scheduler.getScheduledCount()).isEqualTo(1);
+		scheduler.runAll();
+		assertThat(sentEvents).containsExactly(event("a", "b", "c"), event("d"));
+	}
+
+	@Test
+	public void coalescableEvents_notMergedAcrossDestinations()
+	{
+		coalescer.send("/dest1", event("a"));
+		coalescer.send("/dest2", event("b"));
+		assertThat(scheduler.getScheduledCount()).isEqualTo(2);
+
+		scheduler.runAll();
+		assertThat(sentEvents).containsExactly(event("a"), event("b"));
+	}
+
+	@Test
+	public void nonCoalescableEvent_sentRightAway_afterPendingEvents()
+	{
+		coalescer.send(DESTINATION, "x");
+		assertThat(sentEvents).containsExactly("x");
+		assertThat(scheduler.getScheduledCount()).isEqualTo(0);
+
+		coalescer.send(DESTINATION, event("a"));
+		coalescer.send(DESTINATION, event("b"));
+		coalescer.send(DESTINATION, "y");
+		assertThat(sentEvents).containsExactly("x", event("a", "b"), "y");
+
+		// the window is over, but there is nothing left to send
+		scheduler.runAll();
+		assertThat(sentEvents).containsExactly("x", event("a", "b"), "y");
+	}
+
+	@Test
+	public void notPositiveWindow_allEventsSentRightAway()
+	{
+		coalescer = new WebsocketEventsCoalescer(0, (destination, event) -> sentEvents.add(event), eventsLog, scheduler);
+
+		coalescer.send(DESTINATION, event("a"));
+		coalescer.send(DESTINATION, event("b"));
+
+		assertThat(sentEvents).containsExactly(event("a"), event("b"));
+		assertThat(scheduler.getScheduledCount()).isEqualTo(0);
+	}
+
+	/**
+	 * Makes sure an event which is sent while its destination is flushed is neither lost nor overtaken by a subsequent non-coalescable event.
+	 */
+	@Test
+	public void eventSentWhileFlushing_notOvertakenBySubsequentEvents() throws Exception
+	{
+		final CountDownLatch flushSending = new CountDownLatch(1);
+		final CountDownLatch releaseFlush = new CountDownLatch(1);
+		coalescer = new WebsocketEventsCoalescer(WINDOW_MILLIS, (destination, event) -> {
+			sentEvents.add(event);
+			if (event("a").equals(event))
+			{
+				flushSending.countDown();
+				await(releaseFlush);
+			}
+		}, eventsLog, scheduler);
+
+		coalescer.send(DESTINATION, event("a"));
+
+		final Thread flushThread = new Thread(scheduler::runAll);
+		flushThread.start();
+		assertThat(flushSending.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// gets the pending events which are currently flushed and waits for the flush to finish
+		final Thread sendThread = new Thread(() -> coalescer.send(DESTINATION, event("b")));
+		sendThread.start();
+		waitUntilBlocked(sendThread);
+
+		releaseFlush.countDown();
+		flushThread.join(5000);
+		sendThread.join(5000);
+
+		assertThat(sentEvents).containsExactly(event("a"));
+		assertThat(scheduler.getScheduledCount()).isEqualTo(1);
+
+		coalescer.send(DESTINATION, "x");
+		assertThat(sentEvents).containsExactly(event("a"), event("b"), "x");
+	}
+
+	private static void await(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void waitUntilBlocked(@NonNull final Thread thread) throws InterruptedException
+	{
+		final long timeoutNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != Thread.State.BLOCKED)
+		{
+			assertThat(System.nanoTime()).as("thread blocked").isLessThan(timeoutNanos);
+			Thread.sleep(5);
+		}
+	}
+
+	@Test
+	public void shutdown_sendsPendingEvents_andNextEventsRightAway()
+	{
+		coalescer.send("/dest1", event("a"));
+		coalescer.send("/dest1", event("b"));
+		coalescer.send("/dest2", event("c"));
+
+		coalescer.shutdown();
+		assertThat(scheduler.shutdown).isTrue();
+		assertThat(sentEvents).containsExactlyInAnyOrder(event("a", "b"), event("c"));
+
+		sentEvents.clear();
+		coalescer.send("/dest1", event("d"));
+		assertThat(sentEvents).containsExactly(event("d"));
+	}
+
+	@Test
+	public void shutdownDuringSend_eventsNotHeldBack()
+	{
+		scheduler.shutdown();
+
+		// the scheduler rejects the flush, e.g. because it was shut down just after the coalescer checked it
+		coalescer.send(DESTINATION, event("a"));
+		assertThat(sentEvents).containsExactly(event("a"));
+
+		coalescer.send(DESTINATION, event("b"));
+		assertThat(sentEvents).containsExactly(event("a"), event("b"));
+	}
+
+	@Test
+	public void defaultScheduler_sendsAfterWindow() throws Exception
+	{
+		coalescer = new WebsocketEventsCoalescer(10, (destination, event) -> sentEvents.add(event), eventsLog);
+		try
+		{
+			coalescer.send(DESTINATION, event("a"));
+			coalescer.send(DESTINATION, event("b"));
+
+			assertThat(sentEvents.poll(5, TimeUnit.SECONDS)).isEqualTo(event("a", "b"));
+		}
+		finally
+		{
+			coalescer.shutdown();
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package de.metas.ui.web.window.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.cache.Cache;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentCollectionTest
+{
+	@Test
+	public void rootDocumentsCache_boundedByWeight()
+	{
+		final Cache<String, String> cache = DocumentCollection.buildRootDocumentsCache(10, 100, String::length);
+
+		cache.put("light1", "aa");
+		cache.put("light2", "aa");
+		assertThat(cache.size()).isEqualTo(2);
+
+		// one heavy document pushes out the light ones, although there are far less than cacheSize documents
+		cache.put("heavy", "aaaaaaaa");
+		cache.cleanUp();
+		assertThat(cache.getIfPresent("heavy")).isNotNull();
+		assertThat(cache.size()).isLessThan(3);
+		assertThat(cache.stats().evictionCount()).isGreaterThan(0);
+	}
+
+	@Test
+	public void rootDocumentsCache_notPositiveMaxWeight_boundedByCacheSize()
+	{
+		final Cache<String, String> cache = DocumentCollection.buildRootDocumentsCache(-1, 2, String::length);
+
+		// weights are not relevant
+		cache.put("heavy1", "aaaaaaaaaaaaaaaaaaaa");
+		cache.put("heavy2", "aaaaaaaaaaaaaaaaaaaa");
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.put("light", "a");
+		cache.cleanUp();
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getIfPresent("light")).isNotNull();
+	}
+
+	@Test
+	public void rootDocumentsCache_zeroMaxWeight_boundedByCacheSize()
+	{
+		final Cache<String, String> cache = DocumentCollection.buildRootDocumentsCache(0, 3, String::length);
+
+		for (int i = 0; i < 10; i++)
+		{
+			cache.put("doc" + i, "aaaaaaaaaa");
+		}
+		cache.cleanUp();
+
+		assertThat(cache.size()).isEqualTo(3);
+	}
+}
@@ -0,0 +1,66 @@
+package de.metas.ui.web.window.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class IncludedRowsWeigherTest
+{
+	@Test
+	public void nothingLoaded()
+	{
+		final IncludedRowsWeigher weigher = new IncludedRowsWeigher(10);
+		assertThat(weigher.estimateWeight(0)).isEqualTo(0);
+	}
+
+	@Test
+	public void loadedRowsTimesFields()
+	{
+		final IncludedRowsWeigher weigher = new IncludedRowsWeigher(10);
+		weigher.setLoadedRowsCount(500);
+
+		assertThat(weigher.estimateWeight(0)).isEqualTo(5000);
+	}
+
+	@Test
+	public void rowsInMemoryAreNotWeighedTwice()
+	{
+		final IncludedRowsWeigher weigher = new IncludedRowsWeigher(10);
+		weigher.setLoadedRowsCount(5);
+
+		assertThat(weigher.estimateWeight(2)).isEqualTo(30);
+		assertThat(weigher.estimateWeight(7)).isEqualTo(0);
+	}
+
+	@Test
+	public void lastLoadCounts()
+	{
+		final IncludedRowsWeigher weigher = new IncludedRowsWeigher(2);
+		weigher.setLoadedRowsCount(100);
+		weigher.setLoadedRowsCount(3);
+
+		assertThat(weigher.estimateWeight(0)).isEqualTo(6);
+	}
+}
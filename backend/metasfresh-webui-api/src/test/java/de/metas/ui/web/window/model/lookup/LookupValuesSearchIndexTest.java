@@ -0,0 +1,99 @@
+package de.metas.ui.web.window.model.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class LookupValuesSearchIndexTest
+{
+	private static LookupValuesSearchIndex index(final String... displayNames)
+	{
+		return LookupValuesSearchIndex.of(IntStream.range(0, displayNames.length)
+				.mapToObj(i -> IntegerLookupValue.of(i + 1, displayNames[i]))
+				.collect(LookupValuesList.collect()));
+	}
+
+	private static List<String> displayNames(final LookupValuesList list)
+	{
+		return list.stream()
+				.map(LookupValue::getDisplayName)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void emptyFilter()
+	{
+		final LookupValuesSearchIndex index = index("a", "b", "c");
+
+		assertThat(displayNames(index.search(null, 0, 2))).containsExactly("a", "b");
+		assertThat(displayNames(index.search("  ", 1, 10))).containsExactly("b", "c");
+	}
+
+	@Test
+	public void rankedMatches()
+	{
+		final LookupValuesSearchIndex index = index("Blue Box", "box", "Boxer", "Toolbox", "Lunchbox small", "Crate");
+
+		assertThat(displayNames(index.search("box", 0, 100)))
+				.containsExactly("box", "Boxer", "Blue Box", "Toolbox", "Lunchbox small");
+		assertThat(displayNames(index.search("BOX", 1, 2)))
+				.containsExactly("Boxer", "Blue Box");
+	}
+
+	@Test
+	public void accentFolding()
+	{
+		final LookupValuesSearchIndex index = index("Müller GmbH", "Mueller AG", "Schäfer");
+
+		assertThat(displayNames(index.search("muller", 0, 100))).containsExactly("Müller GmbH");
+		assertThat(displayNames(index.search("Mül", 0, 100))).containsExactly("Müller GmbH");
+		assertThat(displayNames(index.search("schafer", 0, 100))).containsExactly("Schäfer");
+	}
+
+	@Test
+	public void bigListUsingTrigrams()
+	{
+		final String[] displayNames = Stream.concat(
+				IntStream.range(0, 1000).mapToObj(i -> "Product " + i),
+				Stream.of("Special Öl 5W30", "Oil 5W40"))
+				.toArray(String[]::new);
+		final LookupValuesSearchIndex index = index(displayNames);
+
+		assertThat(displayNames(index.search("duct 99", 0, 100)))
+				.containsExactly("Product 99", "Product 990", "Product 991", "Product 992", "Product 993", "Product 994", "Product 995", "Product 996", "Product 997", "Product 998", "Product 999");
+		assertThat(displayNames(index.search("ol 5w", 0, 100))).containsExactly("Special Öl 5W30");
+		assertThat(displayNames(index.search("5w4", 0, 100))).containsExactly("Oil 5W40");
+		assertThat(displayNames(index.search("xyz", 0, 100))).isEmpty();
+	}
+}